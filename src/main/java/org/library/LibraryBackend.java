@@ -0,0 +1,302 @@
+package org.library;
+
+import lombok.Getter;
+import org.library.admission.AdaptiveConcurrencyLimiter;
+import org.library.admission.AdmissionController;
+import org.library.admission.RateLimit;
+import org.library.archive.LoanArchiver;
+import org.library.cache.ActiveLoanIndex;
+import org.library.cache.CachingBookRepository;
+import org.library.cache.CachingLoanRepository;
+import org.library.cache.CachingUserRepository;
+import org.library.filter.KnownEmails;
+import org.library.journal.LoanJournal;
+import org.library.outbox.FileOutboxSink;
+import org.library.outbox.OutboxRelay;
+import org.library.recommend.CoBorrowIndex;
+import org.library.repository.*;
+import org.library.retry.RetryPolicy;
+import org.library.retry.RetryingTransactionRunner;
+import org.library.service.*;
+import org.library.snapshot.CatalogSnapshotLoader;
+import org.library.stats.CirculationStatistics;
+import org.library.trace.*;
+import org.library.util.Migrations;
+import org.library.util.TransactionRunner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.Period;
+
+// Repositories and services wired together for either the JDBC or the in-memory backend.
+// With a TraceRecorder the services are the tracing subclasses, so every call is captured.
+@Getter
+public class LibraryBackend {
+    private static final int OUTBOX_BATCH_SIZE = 500;
+    private static final int ARCHIVE_BATCH_SIZE = 5_000;
+    private static final long ARCHIVE_INTERVAL_MINUTES = 24 * 60;
+
+    private final boolean inMemory;
+    private final UserRepositoryInterface userRepository;
+    private final BookRepositoryInterface bookRepository;
+    private final LoanRepositoryInterface loanRepository;
+    // Null for the in-memory backend, which has no transaction to write outbox rows in.
+    private final OutboxRepositoryInterface outboxRepository;
+    // JDBC only: the repositories above are these caches over the database.
+    private final CachingBookRepository bookCache;
+    private final CachingUserRepository userCache;
+    private final CachingLoanRepository loanCache;
+    private final CatalogSnapshotLoader catalogLoader;
+    private final Sessions sessions = new Sessions();
+    private final ActiveLoanIndex activeLoanIndex = new ActiveLoanIndex();
+    // Null unless enabled, see buildKnownEmails().
+    private final KnownEmails knownEmails;
+    private final AdmissionController admissionController = buildAdmissionController();
+    private final LoanService loanService;
+    private final UserService userService;
+    private final BookService bookService;
+    private final LibraryService libraryService;
+    private final TransactionRunner transactionRunner;
+    private final CoBorrowIndex coBorrowIndex;
+    // Null for the in-memory backend, which has no statistics tables to restore from or flush to.
+    private final CirculationStatistics circulationStatistics;
+    private final LoanJournal loanJournal;
+    private final OutboxRelay outboxRelay;
+    private final LoanArchiver loanArchiver;
+
+    private LibraryBackend(boolean inMemory, TraceRecorder recorder) {
+        this.inMemory = inMemory;
+        if (inMemory) {
+            userRepository = new InMemoryUserRepository();
+            bookRepository = new InMemoryBookRepository();
+            loanRepository = new InMemoryLoanRepository();
+            outboxRepository = null;
+            bookCache = null;
+            userCache = null;
+            loanCache = null;
+            catalogLoader = null;
+            transactionRunner = TransactionRunner.NONE;
+        } else {
+            // One database for users and loans; see ShardRouter for why the sharded repositories are not used.
+            Migrations.migrate();
+            userCache = new CachingUserRepository(new UserRepository());
+            bookCache = new CachingBookRepository(new BookRepository());
+            loanCache = new CachingLoanRepository(new LoanRepository());
+            userRepository = userCache;
+            bookRepository = bookCache;
+            loanRepository = loanCache;
+            outboxRepository = new OutboxRepository();
+            catalogLoader = loadCatalog();
+            // -Dlibrary.db.serializable=true runs borrow/return as SERIALIZABLE; conflicts are retried.
+            TransactionRunner jdbc = Boolean.getBoolean("library.db.serializable")
+                    ? TransactionRunner.JDBC_SERIALIZABLE
+                    : TransactionRunner.JDBC;
+            transactionRunner = new RetryingTransactionRunner(jdbc, RetryPolicy.DEFAULT);
+        }
+        activeLoanIndex.rebuild(loanRepository);
+
+        loanService = recorder != null ? new TracingLoanService(recorder) : new LoanService();
+        loanService.setUserRepository(userRepository);
+        loanService.setBookRepository(bookRepository);
+        loanService.setLoanRepository(loanRepository);
+        loanService.setTransactionRunner(transactionRunner);
+        loanService.setOutboxRepository(outboxRepository);
+        // Serves reads; borrow checks inside a JDBC transaction still go to the loan table.
+        loanService.setActiveLoanIndex(activeLoanIndex);
+        loanService.setSessions(sessions);
+        loanService.setAdmissionController(admissionController);
+
+        userService = recorder != null
+                ? new TracingUserService(userRepository, loanService, recorder)
+                : new UserService(userRepository, loanService);
+        userService.setTransactionRunner(transactionRunner);
+        userService.setOutboxRepository(outboxRepository);
+        userService.setSessions(sessions);
+        userService.setAdmissionController(admissionController);
+        knownEmails = buildKnownEmails();
+        userService.setKnownEmails(knownEmails);
+
+        bookService = recorder != null
+                ? new TracingBookService(bookRepository, recorder)
+                : new BookService(bookRepository);
+        bookService.setReadYourWrites(loanService.getReadYourWrites());
+        bookService.setAdmissionController(admissionController);
+        libraryService = recorder != null
+                ? new TracingLibraryService(bookService, loanService, bookRepository, recorder)
+                : new LibraryService(bookService, loanService, bookRepository);
+
+        coBorrowIndex = loadRecommendations();
+        loanService.addListener(coBorrowIndex);
+        libraryService.setCoBorrowIndex(coBorrowIndex);
+
+        loanJournal = openLoanJournal();
+        if (loanJournal != null) {
+            loanService.addListener(loanJournal);
+        }
+
+        circulationStatistics = startCirculationStatistics();
+        if (circulationStatistics != null) {
+            loanService.addListener(circulationStatistics);
+        }
+
+        outboxRelay = startOutboxRelay();
+        loanArchiver = startLoanArchiver();
+    }
+
+    // -Dlibrary.outbox.file=<file> relays outbox rows into a JSON-lines file from this node. Without
+    // it the rows stay in the outbox table for an external relay to drain.
+    private OutboxRelay startOutboxRelay() {
+        String file = System.getProperty("library.outbox.file");
+        if (outboxRepository == null || file == null) {
+            return null;
+        }
+        OutboxRelay relay = new OutboxRelay(outboxRepository, OUTBOX_BATCH_SIZE);
+        try {
+            relay.addSink(new FileOutboxSink(Path.of(file)));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open outbox file " + file, e);
+        }
+        relay.start(Long.getLong("library.outbox.pollMillis", 500));
+        return relay;
+    }
+
+    // -Dlibrary.snapshot=<file> warm starts the caches from the snapshot written by the last close(),
+    // catching up on what changed since; without it they are filled from the database. Other nodes'
+    // writes are picked up every -Dlibrary.cache.catchUpMillis=5000.
+    private CatalogSnapshotLoader loadCatalog() {
+        CatalogSnapshotLoader loader = new CatalogSnapshotLoader(bookCache, userCache, loanCache);
+        String snapshot = System.getProperty("library.snapshot");
+        if (snapshot != null) {
+            loader.warmStart(Path.of(snapshot));
+        } else {
+            loader.coldStart();
+        }
+        loader.start(Long.getLong("library.cache.catchUpMillis", 5000));
+        return loader;
+    }
+
+    public void saveCatalog() {
+        String snapshot = System.getProperty("library.snapshot");
+        if (catalogLoader != null && snapshot != null) {
+            CatalogSnapshotLoader.dump(Path.of(snapshot), bookCache, userCache, loanCache);
+        }
+    }
+
+    // Nothing is limited unless configured. -Dlibrary.admission.perUser=login=1/5,borrow=2/10 and
+    // -Dlibrary.admission.global=search=500/1000 give permits per second / burst per operation;
+    // -Dlibrary.admission.concurrency=64/8/512 (initial/min/max) sheds load beyond an adaptive in-flight limit.
+    private static AdmissionController buildAdmissionController() {
+        String concurrency = System.getProperty("library.admission.concurrency");
+        AdmissionController controller = new AdmissionController(
+                concurrency == null ? null : AdaptiveConcurrencyLimiter.parse(concurrency));
+        RateLimit.parse(System.getProperty("library.admission.perUser")).forEach(controller::limitPerUser);
+        RateLimit.parse(System.getProperty("library.admission.global")).forEach(controller::limitGlobally);
+        return controller;
+    }
+
+    // Off unless -Dlibrary.emails.filter=true, and only for a single node: the filter learns about
+    // registrations made through this node's UserService, so another node's new users would look absent.
+    // Sized by -Dlibrary.emails.expectedUsers=1000000 and -Dlibrary.emails.falsePositiveRate=0.01. Past the
+    // expected count the filter still works, it just answers "might exist" more often.
+    private KnownEmails buildKnownEmails() {
+        if (!Boolean.getBoolean("library.emails.filter")) {
+            return null;
+        }
+        long expectedUsers = Long.getLong("library.emails.expectedUsers", 1_000_000);
+        double falsePositiveRate = Double.parseDouble(System.getProperty("library.emails.falsePositiveRate", "0.01"));
+        return KnownEmails.build(userRepository, expectedUsers, falsePositiveRate);
+    }
+
+    // -Dlibrary.journal.dir=<directory> appends every loan event to a local journal, see LoanJournalReplay.
+    private static LoanJournal openLoanJournal() {
+        String directory = System.getProperty("library.journal.dir");
+        return directory == null ? null : new LoanJournal(Path.of(directory));
+    }
+
+    // Restores -Dlibrary.stats.restoreMonths=12 of history and flushes new counts every
+    // -Dlibrary.stats.flushMillis=10000; counts not yet flushed are lost if the node dies.
+    private CirculationStatistics startCirculationStatistics() {
+        if (inMemory) {
+            return null;
+        }
+        CirculationStatistics statistics = new CirculationStatistics(new StatisticsRepository());
+        statistics.restore(LocalDate.now().minusMonths(Integer.getInteger("library.stats.restoreMonths", 12)));
+        statistics.startPersistence(Long.getLong("library.stats.flushMillis", 10_000));
+        return statistics;
+    }
+
+    // JDBC only, and it has to run: besides archiving, each daily run creates the monthly loan
+    // partitions ahead of time. -Dlibrary.loans.retentionMonths=24 is how long closed loans stay
+    // in the hot table before moving to loan_archive.
+    private LoanArchiver startLoanArchiver() {
+        if (inMemory) {
+            return null;
+        }
+        Period retention = Period.ofMonths(Integer.getInteger("library.loans.retentionMonths", 24));
+        LoanArchiver archiver = new LoanArchiver(new LoanArchiveRepository(), retention, ARCHIVE_BATCH_SIZE);
+        archiver.start(ARCHIVE_INTERVAL_MINUTES);
+        return archiver;
+    }
+
+    public void close() {
+        if (loanArchiver != null) {
+            loanArchiver.close();
+        }
+        if (outboxRelay != null) {
+            outboxRelay.close();
+        }
+        if (circulationStatistics != null) {
+            circulationStatistics.close();
+        }
+        if (loanJournal != null) {
+            loanJournal.close();
+        }
+        if (catalogLoader != null) {
+            catalogLoader.close();
+        }
+        saveCatalog();
+        saveRecommendations();
+    }
+
+    // -Dlibrary.recommendations=<file> starts from the snapshot instead of streaming the whole loan
+    // history; borrows made while this node was down are missing until the next rebuild.
+    private CoBorrowIndex loadRecommendations() {
+        String snapshot = System.getProperty("library.recommendations");
+        if (snapshot != null && Files.exists(Path.of(snapshot))) {
+            return CoBorrowIndex.load(Path.of(snapshot));
+        }
+        CoBorrowIndex index = new CoBorrowIndex();
+        index.rebuild(loanRepository);
+        return index;
+    }
+
+    public void saveRecommendations() {
+        String snapshot = System.getProperty("library.recommendations");
+        if (snapshot != null) {
+            coBorrowIndex.save(Path.of(snapshot));
+        }
+    }
+
+    public static LibraryBackend inMemory() {
+        return new LibraryBackend(true, null);
+    }
+
+    public static LibraryBackend jdbc() {
+        return new LibraryBackend(false, null);
+    }
+
+    // "memory" or "jdbc"
+    public static LibraryBackend of(String name) {
+        return of(name, null);
+    }
+
+    public static LibraryBackend of(String name, TraceRecorder recorder) {
+        return switch (name) {
+            case "memory" -> new LibraryBackend(true, recorder);
+            case "jdbc" -> new LibraryBackend(false, recorder);
+            default -> throw new IllegalArgumentException("Unknown backend: " + name);
+        };
+    }
+}
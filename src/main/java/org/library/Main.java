@@ -1,7 +1,79 @@
 package org.library;
 
+import org.library.http.LibraryHttpServer;
+import org.library.kiosk.KioskServer;
+import org.library.loadgen.LoadGenerator;
+import org.library.trace.TraceRecorder;
+import org.library.trace.TraceReplayer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+
+// Serves the HTTP API, or with "loadgen" / "replay" as first argument runs LoadGenerator / TraceReplayer.
+// -Dlibrary.http.port=8080 -Dlibrary.backend=jdbc|memory -Dlibrary.trace=<file to capture service calls into>
+// -Dlibrary.recommendations=<co-borrow snapshot, loaded at start and written at shutdown>
+// -Dlibrary.snapshot=<catalog cache snapshot, warm started from at start and written at shutdown (jdbc only)>
+// -Dlibrary.cache.catchUpMillis=5000 how often the catalog cache picks up writes made by other nodes
+// -Dlibrary.stats.restoreMonths=12 -Dlibrary.stats.flushMillis=10000 restore and persist circulation statistics
+// -Dlibrary.journal.dir=<directory the loan event journal is appended to>
+// -Dlibrary.outbox.file=<JSON-lines file the outbox relay delivers loan and user events to>
+// -Dlibrary.http.sessionIdleMinutes=30 -Dlibrary.http.maxSessions=100000 limit HTTP session tokens
+// -Dlibrary.kiosk.port=<port of the binary kiosk protocol, off unless set>
+// -Dlibrary.kiosk.sessionIdleMinutes=5 -Dlibrary.kiosk.maxSessions=100000 limit kiosk session tokens
+// -Dlibrary.admission.perUser=login=1/5 -Dlibrary.admission.global=search=500/1000 (permits per second / burst)
+// -Dlibrary.admission.concurrency=64/8/512 (initial/min/max in-flight requests)
+// -Dlibrary.emails.filter=true skips lookups of unregistered emails; single node only, other nodes' users look absent
+// -Dlibrary.emails.expectedUsers=1000000 -Dlibrary.emails.falsePositiveRate=0.01 size the registered-email filter
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 0 && args[0].equals("loadgen")) {
+            LoadGenerator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("replay")) {
+            TraceReplayer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        int port = Integer.getInteger("library.http.port", 8080);
+        String trace = System.getProperty("library.trace");
+        TraceRecorder recorder = trace != null ? new TraceRecorder(Path.of(trace)) : null;
+        LibraryBackend backend = LibraryBackend.of(System.getProperty("library.backend", "jdbc"), recorder);
+
+        Duration sessionIdleTimeout = Duration.ofMinutes(Long.getLong("library.http.sessionIdleMinutes",
+                LibraryHttpServer.DEFAULT_SESSION_IDLE_TIMEOUT.toMinutes()));
+        int maxSessions = Integer.getInteger("library.http.maxSessions", LibraryHttpServer.DEFAULT_MAX_SESSIONS);
+        LibraryHttpServer server = new LibraryHttpServer(new InetSocketAddress(port), backend.getUserService(),
+                backend.getBookService(), backend.getLoanService(), backend.getUserRepository(),
+                sessionIdleTimeout, maxSessions);
+        KioskServer kiosk = startKioskServer(backend);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            if (kiosk != null) {
+                kiosk.close();
+            }
+            backend.close();
+            if (recorder != null) {
+                recorder.close();
+            }
+        }));
+        server.start();
+    }
 
+    private static KioskServer startKioskServer(LibraryBackend backend) throws IOException {
+        Integer port = Integer.getInteger("library.kiosk.port");
+        if (port == null) {
+            return null;
+        }
+        Duration sessionIdleTimeout = Duration.ofMinutes(Long.getLong("library.kiosk.sessionIdleMinutes",
+                KioskServer.DEFAULT_SESSION_IDLE_TIMEOUT.toMinutes()));
+        int maxSessions = Integer.getInteger("library.kiosk.maxSessions", KioskServer.DEFAULT_MAX_SESSIONS);
+        KioskServer kiosk = new KioskServer(new InetSocketAddress(port), backend.getUserService(),
+                backend.getLoanService(), backend.getLibraryService(), sessionIdleTimeout, maxSessions);
+        kiosk.start();
+        return kiosk;
     }
-}
\ No newline at end of file
+}
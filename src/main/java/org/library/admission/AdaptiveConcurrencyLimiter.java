@@ -0,0 +1,91 @@
+package org.library.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+// AIMD limit on in-flight requests, driven by how far observed latency drifts from
+// the recent best. All state lives in atomics; nothing here blocks.
+public class AdaptiveConcurrencyLimiter {
+    private static final double LATENCY_TOLERANCE = 2.0;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final long BASELINE_WINDOW = 1_000;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    private final AtomicLong baselineNanos = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong lastDecreaseNanos = new AtomicLong(System.nanoTime());
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(initialLimit));
+    }
+
+    // "initial/min/max", e.g. "64/8/512".
+    public static AdaptiveConcurrencyLimiter parse(String spec) {
+        String[] limits = spec.split("/");
+        if (limits.length != 3) {
+            throw new IllegalArgumentException("Invalid concurrency limits: " + spec);
+        }
+        return new AdaptiveConcurrencyLimiter(Integer.parseInt(limits[0].trim()), Integer.parseInt(limits[1].trim()),
+                Integer.parseInt(limits[2].trim()));
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long latencyNanos) {
+        int current = inFlight.getAndDecrement();
+        long baseline = updateBaseline(latencyNanos);
+
+        if (latencyNanos > baseline * LATENCY_TOLERANCE) {
+            // Back off at most once per observed round trip, not once per slow response.
+            long now = System.nanoTime();
+            long last = lastDecreaseNanos.get();
+            if (now - last > latencyNanos && lastDecreaseNanos.compareAndSet(last, now)) {
+                updateLimit(limit -> Math.max(minLimit, limit * BACKOFF_RATIO));
+            }
+        } else if (current * 2 >= getLimit()) {
+            // Roughly +1 per limit's worth of healthy responses while the limit is actually in use.
+            updateLimit(limit -> Math.min(maxLimit, limit + 1.0 / limit));
+        }
+    }
+
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    // The baseline restarts every window so that it follows a database that got permanently slower.
+    private long updateBaseline(long latencyNanos) {
+        if (samples.incrementAndGet() % BASELINE_WINDOW == 0) {
+            baselineNanos.set(latencyNanos);
+            return latencyNanos;
+        }
+        return baselineNanos.accumulateAndGet(latencyNanos, Math::min);
+    }
+
+    private void updateLimit(DoubleUnaryOperator update) {
+        limitBits.getAndUpdate(bits -> Double.doubleToLongBits(update.applyAsDouble(Double.longBitsToDouble(bits))));
+    }
+}
@@ -0,0 +1,122 @@
+package org.library.admission;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.util.Result;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Slf4j
+public class AdmissionController {
+    private static final int IDLE_SWEEP_THRESHOLD = 50_000;
+    private static final long IDLE_SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final Map<Operation, RateLimit> perUserLimits = new ConcurrentHashMap<>();
+    private final Map<Operation, Map<Object, TokenBucket>> userBuckets = new ConcurrentHashMap<>();
+    private final Map<Operation, TokenBucket> globalBuckets = new ConcurrentHashMap<>();
+    private final Map<Operation, LongAdder> rejections = new EnumMap<>(Operation.class);
+    private final ReentrantLock sweepLock = new ReentrantLock();
+
+    private volatile long nextSweep = System.nanoTime();
+
+    public AdmissionController(AdaptiveConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+        for (Operation operation : Operation.values()) {
+            rejections.put(operation, new LongAdder());
+            userBuckets.put(operation, new ConcurrentHashMap<>());
+        }
+    }
+
+    public static AdmissionController unlimited() {
+        return new AdmissionController(null);
+    }
+
+    public AdmissionController limitPerUser(Operation operation, RateLimit limit) {
+        perUserLimits.put(operation, limit);
+        userBuckets.get(operation).clear();
+        return this;
+    }
+
+    public AdmissionController limitGlobally(Operation operation, RateLimit limit) {
+        globalBuckets.put(operation, new TokenBucket(limit));
+        return this;
+    }
+
+    public Result admit(Operation operation, Object user, Supplier<Result> work) {
+        return call(operation, user, work, Result::failure);
+    }
+
+    public <T> T call(Operation operation, Object user, Supplier<T> work, Function<String, T> rejected) {
+        if (!withinRate(operation, user)) {
+            return reject(operation, rejected, "Too many " + describe(operation) + " requests, please retry shortly");
+        }
+
+        if (concurrencyLimiter == null) {
+            return work.get();
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            return reject(operation, rejected, "Service is overloaded, please retry shortly");
+        }
+
+        long started = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            concurrencyLimiter.release(System.nanoTime() - started);
+        }
+    }
+
+    public long getRejections(Operation operation) {
+        return rejections.get(operation).sum();
+    }
+
+    private boolean withinRate(Operation operation, Object user) {
+        RateLimit perUser = perUserLimits.get(operation);
+        if (perUser != null && user != null) {
+            Map<Object, TokenBucket> buckets = userBuckets.get(operation);
+            if (buckets.size() > IDLE_SWEEP_THRESHOLD) {
+                sweepIdle();
+            }
+            if (!buckets.computeIfAbsent(user, key -> new TokenBucket(perUser)).tryAcquire()) {
+                return false;
+            }
+        }
+
+        TokenBucket global = globalBuckets.get(operation);
+        return global == null || global.tryAcquire();
+    }
+
+    // A full bucket belongs to a user who has been quiet long enough to be forgotten. One caller sweeps,
+    // at most once a second; everyone else goes on without waiting for it.
+    private void sweepIdle() {
+        long now = System.nanoTime();
+        if (now - nextSweep < 0 || !sweepLock.tryLock()) {
+            return;
+        }
+        try {
+            if (now - nextSweep >= 0) {
+                nextSweep = now + IDLE_SWEEP_INTERVAL_NANOS;
+                userBuckets.values().forEach(buckets -> buckets.values().removeIf(bucket -> bucket.isFull(now)));
+            }
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    private <T> T reject(Operation operation, Function<String, T> rejected, String reason) {
+        rejections.get(operation).increment();
+        log.debug("Rejected {} request: {}", operation, reason);
+        return rejected.apply(reason);
+    }
+
+    private static String describe(Operation operation) {
+        return operation.name().toLowerCase();
+    }
+}
@@ -0,0 +1,8 @@
+package org.library.admission;
+
+public enum Operation {
+    LOGIN,
+    BORROW,
+    RETURN,
+    SEARCH
+}
@@ -0,0 +1,34 @@
+package org.library.admission;
+
+import lombok.Value;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Value
+public class RateLimit {
+    double permitsPerSecond;
+    int burst;
+
+    public static RateLimit of(double permitsPerSecond, int burst) {
+        return new RateLimit(permitsPerSecond, burst);
+    }
+
+    // "login=1/5, search=200/400": permits per second and burst, per operation. Blank means none.
+    public static Map<Operation, RateLimit> parse(String spec) {
+        Map<Operation, RateLimit> limits = new EnumMap<>(Operation.class);
+        if (spec == null || spec.isBlank()) {
+            return limits;
+        }
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split("=");
+            String[] rate = pair.length == 2 ? pair[1].trim().split("/") : new String[0];
+            if (rate.length != 2) {
+                throw new IllegalArgumentException("Invalid rate limit entry: " + part);
+            }
+            limits.put(Operation.valueOf(pair[0].trim().toUpperCase()),
+                    of(Double.parseDouble(rate[0].trim()), Integer.parseInt(rate[1].trim())));
+        }
+        return limits;
+    }
+}
@@ -0,0 +1,11 @@
+package org.library.admission;
+
+// Thrown by calls that return data rather than a Result, so a rejection is not mistaken for an
+// empty answer. The message is the reason given to the client.
+public class RejectedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public RejectedException(String reason) {
+        super(reason);
+    }
+}
@@ -0,0 +1,39 @@
+package org.library.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket in its GCRA form: the whole state is one "theoretical arrival time",
+// so acquiring is a single CAS instead of a lock around tokens + refill timestamp.
+public class TokenBucket {
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    public TokenBucket(RateLimit limit) {
+        this.intervalNanos = (long) (1_000_000_000L / limit.getPermitsPerSecond());
+        this.toleranceNanos = intervalNanos * Math.max(0, limit.getBurst() - 1);
+    }
+
+    public boolean tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    boolean tryAcquire(long now) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long start = arrival == Long.MIN_VALUE || arrival - now < 0 ? now : arrival;
+            if (start - now > toleranceNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, start + intervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    // A bucket that has refilled completely carries no state worth keeping.
+    boolean isFull(long now) {
+        long arrival = theoreticalArrival.get();
+        return arrival == Long.MIN_VALUE || arrival - now <= 0;
+    }
+}
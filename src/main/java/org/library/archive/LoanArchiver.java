@@ -0,0 +1,83 @@
+package org.library.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.repository.LoanArchiveRepositoryInterface;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.YearMonth;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public class LoanArchiver implements AutoCloseable {
+    private static final int PARTITIONS_AHEAD = 3;
+
+    private final LoanArchiveRepositoryInterface archiveRepository;
+    private final Period retention;
+    private final int batchSize;
+    private final Clock clock;
+
+    private ScheduledExecutorService scheduler;
+
+    public LoanArchiver(LoanArchiveRepositoryInterface archiveRepository, Period retention, int batchSize) {
+        this(archiveRepository, retention, batchSize, Clock.systemDefaultZone());
+    }
+
+    public LoanArchiver(LoanArchiveRepositoryInterface archiveRepository, Period retention, int batchSize, Clock clock) {
+        this.archiveRepository = archiveRepository;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.clock = clock;
+    }
+
+    public synchronized void start(long intervalMinutes) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "loan-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runSafely, 0, intervalMinutes, TimeUnit.MINUTES);
+        log.info("Loan archiver started, retention {}, every {} min", retention, intervalMinutes);
+    }
+
+    public int run() {
+        LocalDate today = LocalDate.now(clock);
+        archiveRepository.ensurePartitions(YearMonth.from(today), PARTITIONS_AHEAD);
+
+        // Cut on a month boundary so whole partitions can empty out and be dropped.
+        LocalDate cutoff = YearMonth.from(today.minus(retention)).atDay(1);
+
+        int archived = 0;
+        int batch;
+        do {
+            batch = archiveRepository.archiveClosedBefore(cutoff, batchSize);
+            archived += batch;
+        } while (batch == batchSize);
+
+        int dropped = archiveRepository.dropEmptyPartitionsBefore(cutoff);
+        log.info("Archived {} closed loan(s) older than {}, dropped {} empty partition(s)", archived, cutoff, dropped);
+        return archived;
+    }
+
+    private void runSafely() {
+        try {
+            run();
+        } catch (RuntimeException e) {
+            log.error("Loan archiving failed", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package org.library.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.model.Loan;
+import org.library.repository.LoanRepositoryInterface;
+import org.library.util.LongIntHashMap;
+import org.library.util.LongLongHashMap;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+// Active loans keyed by primitive ids: book -> loan id, user -> a small array of book ids.
+// Lookups take a read lock and touch only primitive arrays, so they neither allocate nor query.
+@Slf4j
+public class ActiveLoanIndex {
+    private static final int INITIAL_BOOKS_PER_USER = 4;
+
+    private final StampedLock lock = new StampedLock();
+    private final LongLongHashMap loanByBook = new LongLongHashMap();
+    // Value is slot + 1 into booksBySlot/countBySlot; 0 means the user has never borrowed.
+    private final LongIntHashMap slotByUser = new LongIntHashMap();
+    private long[][] booksBySlot = new long[16][];
+    private int[] countBySlot = new int[16];
+    private int slots;
+
+    public void rebuild(LoanRepositoryInterface loans) {
+        long stamp = lock.writeLock();
+        try {
+            loanByBook.clear();
+            slotByUser.clear();
+            Arrays.fill(booksBySlot, 0, slots, null);
+            Arrays.fill(countBySlot, 0, slots, 0);
+            slots = 0;
+
+            loans.streamActive(loan -> insert(loan.getUserId(), loan.getBookId(), loan.getLoanId()));
+            log.info("Active loan index rebuilt with {} loan(s) for {} user(s)", loanByBook.size(), slots);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void add(Loan loan) {
+        add(loan.getUserId(), loan.getBookId(), loan.getLoanId());
+    }
+
+    public void add(long userId, long bookId, long loanId) {
+        long stamp = lock.writeLock();
+        try {
+            insert(userId, bookId, loanId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void remove(long userId, long bookId) {
+        long stamp = lock.writeLock();
+        try {
+            delete(userId, bookId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean isLent(long bookId) {
+        long stamp = lock.readLock();
+        try {
+            return loanByBook.containsKey(bookId);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // 0 when the book is not lent out.
+    public long activeLoanId(long bookId) {
+        long stamp = lock.readLock();
+        try {
+            return loanByBook.get(bookId);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int countActive(long userId) {
+        long stamp = lock.readLock();
+        try {
+            int slot = slotByUser.get(userId) - 1;
+            return slot < 0 ? 0 : countBySlot[slot];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Copies up to into.length book ids and returns the user's total, which may exceed what was copied.
+    public int borrowedBooks(long userId, long[] into) {
+        long stamp = lock.readLock();
+        try {
+            int slot = slotByUser.get(userId) - 1;
+            if (slot < 0) {
+                return 0;
+            }
+            int count = countBySlot[slot];
+            System.arraycopy(booksBySlot[slot], 0, into, 0, Math.min(count, into.length));
+            return count;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return loanByBook.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void insert(long userId, long bookId, long loanId) {
+        loanByBook.put(bookId, loanId);
+
+        int slot = slotByUser.get(userId) - 1;
+        if (slot < 0) {
+            slot = newSlot();
+            slotByUser.put(userId, slot + 1);
+        }
+
+        long[] books = booksBySlot[slot];
+        int count = countBySlot[slot];
+        for (int i = 0; i < count; i++) {
+            if (books[i] == bookId) {
+                return;
+            }
+        }
+        if (count == books.length) {
+            books = booksBySlot[slot] = Arrays.copyOf(books, count << 1);
+        }
+        books[count] = bookId;
+        countBySlot[slot] = count + 1;
+    }
+
+    private void delete(long userId, long bookId) {
+        loanByBook.remove(bookId);
+
+        int slot = slotByUser.get(userId) - 1;
+        if (slot < 0) {
+            return;
+        }
+        long[] books = booksBySlot[slot];
+        int count = countBySlot[slot];
+        for (int i = 0; i < count; i++) {
+            if (books[i] == bookId) {
+                books[i] = books[count - 1];
+                countBySlot[slot] = count - 1;
+                return;
+            }
+        }
+    }
+
+    private int newSlot() {
+        if (slots == booksBySlot.length) {
+            booksBySlot = Arrays.copyOf(booksBySlot, slots << 1);
+            countBySlot = Arrays.copyOf(countBySlot, slots << 1);
+        }
+        booksBySlot[slots] = new long[INITIAL_BOOKS_PER_USER];
+        return slots++;
+    }
+}
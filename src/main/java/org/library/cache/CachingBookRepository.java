@@ -0,0 +1,279 @@
+package org.library.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.model.Book;
+import org.library.model.BookStatus;
+import org.library.repository.BookRepositoryInterface;
+import org.library.util.Database;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// Holds committed rows only: writes reach the cache after their transaction commits, reads inside a
+// transaction go to the delegate, and callers always get copies they are free to modify.
+@Slf4j
+public class CachingBookRepository implements BookRepositoryInterface {
+    private final BookRepositoryInterface delegate;
+    private final Map<Long, Book> byId = new ConcurrentHashMap<>();
+    private final Map<String, Long> idByBarcode = new ConcurrentHashMap<>();
+
+    private volatile boolean complete;
+
+    public CachingBookRepository(BookRepositoryInterface delegate) {
+        this.delegate = delegate;
+    }
+
+    public void preload(Book book) {
+        put(copy(book));
+    }
+
+    // Drops a row deleted behind the cache's back, e.g. while the node was down.
+    public void forget(Long id) {
+        evict(id);
+    }
+
+    public void clear() {
+        byId.clear();
+        idByBarcode.clear();
+    }
+
+    public void markComplete() {
+        complete = true;
+        log.info("Book cache complete with {} book(s)", byId.size());
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    @Override
+    public Book save(Book book) {
+        Book saved = delegate.save(book);
+        Book committed = copy(saved);
+        Database.afterCommit(() -> put(committed));
+        return saved;
+    }
+
+    @Override
+    public Optional<Book> findById(Long id) {
+        if (Database.isInTransaction()) {
+            return delegate.findById(id);
+        }
+        Book cached = byId.get(id);
+        if (cached != null) {
+            return Optional.of(copy(cached));
+        }
+        if (complete) {
+            return Optional.empty();
+        }
+        Optional<Book> loaded = delegate.findById(id);
+        loaded.ifPresent(book -> put(copy(book)));
+        return loaded;
+    }
+
+    @Override
+    public List<Book> findAll() {
+        if (complete && !Database.isInTransaction()) {
+            return byId.values().stream().map(CachingBookRepository::copy).toList();
+        }
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Book> findAvailable() {
+        if (complete && !Database.isInTransaction()) {
+            return byId.values().stream()
+                    .filter(book -> book.getStatus() == BookStatus.AVAILABLE)
+                    .map(CachingBookRepository::copy)
+                    .toList();
+        }
+        return delegate.findAvailable();
+    }
+
+    @Override
+    public void streamAvailable(long afterId, int limit, Consumer<Book> consumer) {
+        if (!complete || Database.isInTransaction()) {
+            delegate.streamAvailable(afterId, limit, consumer);
+            return;
+        }
+        byId.values().stream()
+                .filter(book -> book.getBookID() > afterId && book.getStatus() == BookStatus.AVAILABLE)
+                .sorted(Comparator.comparing(Book::getBookID))
+                .limit(limit)
+                .map(CachingBookRepository::copy)
+                .forEach(consumer);
+    }
+
+    @Override
+    public List<Book> findByTitle(String title) {
+        return delegate.findByTitle(title);
+    }
+
+    @Override
+    public List<Book> findByIsbn(String isbn) {
+        return delegate.findByIsbn(isbn);
+    }
+
+    @Override
+    public Optional<Book> findByBarcode(String barcode) {
+        if (Database.isInTransaction()) {
+            return delegate.findByBarcode(barcode);
+        }
+        Long id = idByBarcode.get(barcode);
+        if (id != null) {
+            return findById(id);
+        }
+        if (complete) {
+            return Optional.empty();
+        }
+        Optional<Book> loaded = delegate.findByBarcode(barcode);
+        loaded.ifPresent(book -> put(copy(book)));
+        return loaded;
+    }
+
+    @Override
+    public Map<String, Book> findByBarcodes(Collection<String> barcodes) {
+        if (Database.isInTransaction()) {
+            return delegate.findByBarcodes(barcodes);
+        }
+        Map<String, Book> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+
+        for (String barcode : barcodes) {
+            Long id = idByBarcode.get(barcode);
+            Book book = id == null ? null : byId.get(id);
+            if (book != null) {
+                found.put(barcode, copy(book));
+            } else {
+                missing.add(barcode);
+            }
+        }
+
+        if (!missing.isEmpty() && !complete) {
+            delegate.findByBarcodes(missing).forEach((barcode, book) -> {
+                put(copy(book));
+                found.put(barcode, book);
+            });
+        }
+        return found;
+    }
+
+    @Override
+    public Map<Long, Book> findByIds(Collection<Long> ids) {
+        if (Database.isInTransaction()) {
+            return delegate.findByIds(ids);
+        }
+        Map<Long, Book> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+
+        for (Long id : ids) {
+            Book book = byId.get(id);
+            if (book != null) {
+                found.put(id, copy(book));
+            } else {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty() && !complete) {
+            delegate.findByIds(missing).forEach((id, book) -> {
+                put(copy(book));
+                found.put(id, book);
+            });
+        }
+        return found;
+    }
+
+    @Override
+    public List<Book> findUpdatedSince(Instant since) {
+        return delegate.findUpdatedSince(since);
+    }
+
+    @Override
+    public List<Long> findDeletedSince(Instant since) {
+        return delegate.findDeletedSince(since);
+    }
+
+    @Override
+    public Boolean update(Book book) {
+        Boolean updated = delegate.update(book);
+        if (updated) {
+            Book committed = copy(book);
+            Database.afterCommit(() -> put(committed));
+        } else {
+            refresh(book.getBookID());
+        }
+        return updated;
+    }
+
+    @Override
+    public Boolean updateStatus(Long id, BookStatus status) {
+        Boolean updated = delegate.updateStatus(id, status);
+        if (updated) {
+            Database.afterCommit(() -> byId.computeIfPresent(id, (key, cached) -> {
+                Book changed = copy(cached);
+                changed.setStatus(status);
+                changed.setVersion(cached.getVersion() + 1);
+                return changed;
+            }));
+        } else {
+            refresh(id);
+        }
+        return updated;
+    }
+
+    @Override
+    public Boolean delete(Long id) {
+        Boolean deleted = delegate.delete(id);
+        Database.afterCommit(() -> evict(id));
+        return deleted;
+    }
+
+    // Read-through loads can race with a commit; the higher row version wins.
+    private void put(Book book) {
+        Long id = book.getBookID();
+        if (id == null) {
+            return;
+        }
+        byId.compute(id, (key, cached) -> {
+            if (cached != null && cached.getVersion() > book.getVersion()) {
+                return cached;
+            }
+            if (cached != null && cached.getBarcode() != null && !cached.getBarcode().equals(book.getBarcode())) {
+                idByBarcode.remove(cached.getBarcode(), id);
+            }
+            if (book.getBarcode() != null) {
+                idByBarcode.put(book.getBarcode(), id);
+            }
+            return book;
+        });
+    }
+
+    // A lost optimistic update means the cached row is stale. Evicting it would make a complete cache
+    // report the book as gone to the caller's re-read, so the current row is loaded instead, once the
+    // caller's transaction has committed.
+    private void refresh(Long id) {
+        Database.afterCommit(() -> {
+            Optional<Book> current = delegate.findById(id);
+            if (current.isPresent()) {
+                put(copy(current.get()));
+            } else {
+                evict(id);
+            }
+        });
+    }
+
+    private void evict(Long id) {
+        Book removed = byId.remove(id);
+        if (removed != null && removed.getBarcode() != null) {
+            idByBarcode.remove(removed.getBarcode(), id);
+        }
+    }
+
+    private static Book copy(Book book) {
+        return new Book(book.getBookID(), book.getTitle(), book.getAuthor(), book.getYear(), book.getPublisher(),
+                book.getIsbn(), book.getBarcode(), book.getStatus(), book.getVersion());
+    }
+}
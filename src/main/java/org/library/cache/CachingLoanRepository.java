@@ -0,0 +1,224 @@
+package org.library.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.model.Loan;
+import org.library.model.LoanStatus;
+import org.library.repository.LoanRepositoryInterface;
+import org.library.util.Database;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// Active loans as committed: changes are applied after their transaction commits, and queries inside a
+// transaction go to the delegate so they see the transaction's own writes and the database's locks.
+@Slf4j
+public class CachingLoanRepository implements LoanRepositoryInterface {
+    private final LoanRepositoryInterface delegate;
+
+    private final Map<Long, Loan> activeById = new ConcurrentHashMap<>();
+    private final Map<Long, Long> activeByBook = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> activeByUser = new ConcurrentHashMap<>();
+
+    private volatile boolean complete;
+
+    public CachingLoanRepository(LoanRepositoryInterface delegate) {
+        this.delegate = delegate;
+    }
+
+    public void preload(Loan loan) {
+        apply(loan);
+    }
+
+    public void forget(Long loanId) {
+        remove(loanId);
+    }
+
+    public void clear() {
+        activeById.clear();
+        activeByBook.clear();
+        activeByUser.clear();
+    }
+
+    public void markComplete() {
+        complete = true;
+        log.info("Active loan cache complete with {} loan(s)", activeById.size());
+    }
+
+    public int activeCount() {
+        return activeById.size();
+    }
+
+    public void apply(Loan loan) {
+        if (loan.getStatus() == LoanStatus.ACTIVE) {
+            activeById.put(loan.getLoanId(), copy(loan));
+            activeByBook.put(loan.getBookId(), loan.getLoanId());
+            activeByUser.computeIfAbsent(loan.getUserId(), id -> ConcurrentHashMap.newKeySet()).add(loan.getLoanId());
+        } else {
+            remove(loan.getLoanId());
+        }
+    }
+
+    @Override
+    public Loan save(Loan loan) {
+        Loan saved = delegate.save(loan);
+        Loan committed = copy(saved);
+        Database.afterCommit(() -> apply(committed));
+        return saved;
+    }
+
+    @Override
+    public Optional<Loan> findById(Long id) {
+        Loan active = Database.isInTransaction() ? null : activeById.get(id);
+        return active != null ? Optional.of(copy(active)) : delegate.findById(id);
+    }
+
+    @Override
+    public List<Loan> findByUserId(Long userId) {
+        return delegate.findByUserId(userId);
+    }
+
+    @Override
+    public List<Loan> findByUserId(Long userId, boolean includeHistory) {
+        return delegate.findByUserId(userId, includeHistory);
+    }
+
+    @Override
+    public List<Loan> findActiveByUserId(Long userId) {
+        if (!cached()) {
+            return delegate.findActiveByUserId(userId);
+        }
+        Set<Long> loanIds = activeByUser.get(userId);
+        if (loanIds == null) {
+            return List.of();
+        }
+        return loanIds.stream().map(activeById::get).filter(Objects::nonNull)
+                .map(CachingLoanRepository::copy).toList();
+    }
+
+    @Override
+    public List<Loan> findByBookId(Long bookId) {
+        return delegate.findByBookId(bookId);
+    }
+
+    @Override
+    public List<Loan> findByBookId(Long bookId, boolean includeHistory) {
+        return delegate.findByBookId(bookId, includeHistory);
+    }
+
+    @Override
+    public List<Loan> findActiveByBookId(Long bookId) {
+        if (!cached()) {
+            return delegate.findActiveByBookId(bookId);
+        }
+        Long loanId = activeByBook.get(bookId);
+        Loan loan = loanId == null ? null : activeById.get(loanId);
+        return loan == null ? List.of() : List.of(copy(loan));
+    }
+
+    @Override
+    public int countActiveByUserId(Long userId) {
+        if (!cached()) {
+            return delegate.countActiveByUserId(userId);
+        }
+        Set<Long> loanIds = activeByUser.get(userId);
+        return loanIds == null ? 0 : loanIds.size();
+    }
+
+    @Override
+    public Boolean markReturned(Long loanId, LocalDate returnDate) {
+        Boolean returned = delegate.markReturned(loanId, returnDate);
+        if (returned) {
+            Database.afterCommit(() -> remove(loanId));
+        }
+        return returned;
+    }
+
+    @Override
+    public Boolean updateStatus(Long loanId, LoanStatus status) {
+        Boolean updated = delegate.updateStatus(loanId, status);
+        if (updated && status != LoanStatus.ACTIVE) {
+            Database.afterCommit(() -> remove(loanId));
+        }
+        return updated;
+    }
+
+    @Override
+    public Optional<Loan> findActiveByUserIdAndBookId(Long userId, Long bookId) {
+        if (!cached()) {
+            return delegate.findActiveByUserIdAndBookId(userId, bookId);
+        }
+        Long loanId = activeByBook.get(bookId);
+        Loan loan = loanId == null ? null : activeById.get(loanId);
+        return loan != null && loan.getUserId().equals(userId) ? Optional.of(copy(loan)) : Optional.empty();
+    }
+
+    @Override
+    public Boolean deleteById(Long id) {
+        Boolean deleted = delegate.deleteById(id);
+        Database.afterCommit(() -> remove(id));
+        return deleted;
+    }
+
+    @Override
+    public List<Loan> findArchivedByUserId(Long userId) {
+        return delegate.findArchivedByUserId(userId);
+    }
+
+    @Override
+    public void saveArchived(Loan loan) {
+        delegate.saveArchived(loan);
+    }
+
+    @Override
+    public int deleteArchivedByUserId(Long userId) {
+        return delegate.deleteArchivedByUserId(userId);
+    }
+
+    @Override
+    public void streamAll(boolean includeHistory, Consumer<Loan> consumer) {
+        delegate.streamAll(includeHistory, consumer);
+    }
+
+    @Override
+    public void streamActive(Consumer<Loan> consumer) {
+        if (cached()) {
+            activeById.values().forEach(loan -> consumer.accept(copy(loan)));
+        } else {
+            delegate.streamActive(consumer);
+        }
+    }
+
+    @Override
+    public List<Loan> findUpdatedSince(Instant since) {
+        return delegate.findUpdatedSince(since);
+    }
+
+    @Override
+    public List<Long> findDeletedSince(Instant since) {
+        return delegate.findDeletedSince(since);
+    }
+
+    private boolean cached() {
+        return complete && !Database.isInTransaction();
+    }
+
+    private void remove(Long loanId) {
+        Loan removed = activeById.remove(loanId);
+        if (removed == null) {
+            return;
+        }
+        activeByBook.remove(removed.getBookId(), loanId);
+        Set<Long> userLoans = activeByUser.get(removed.getUserId());
+        if (userLoans != null) {
+            userLoans.remove(loanId);
+        }
+    }
+
+    private static Loan copy(Loan loan) {
+        return new Loan(loan.getLoanId(), loan.getUserId(), loan.getBookId(), loan.getLoanDate(),
+                loan.getReturnDate(), loan.getDueDate(), loan.getStatus());
+    }
+}
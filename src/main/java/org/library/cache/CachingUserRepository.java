@@ -0,0 +1,198 @@
+package org.library.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.model.User;
+import org.library.repository.UserRepositoryInterface;
+import org.library.util.Database;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// Holds committed rows only: writes reach the cache after their transaction commits, reads inside a
+// transaction go to the delegate, and callers always get copies they are free to modify.
+@Slf4j
+public class CachingUserRepository implements UserRepositoryInterface {
+    private final UserRepositoryInterface delegate;
+    private final Map<Long, User> byId = new ConcurrentHashMap<>();
+    private final Map<String, Long> idByEmail = new ConcurrentHashMap<>();
+
+    private volatile boolean complete;
+
+    public CachingUserRepository(UserRepositoryInterface delegate) {
+        this.delegate = delegate;
+    }
+
+    public void preload(User user) {
+        put(copy(user));
+    }
+
+    public void forget(Long id) {
+        evict(id);
+    }
+
+    public void clear() {
+        byId.clear();
+        idByEmail.clear();
+    }
+
+    public void markComplete() {
+        complete = true;
+        log.info("User cache complete with {} user(s)", byId.size());
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    @Override
+    public User save(User user) {
+        User saved = delegate.save(user);
+        User committed = copy(saved);
+        Database.afterCommit(() -> put(committed));
+        return saved;
+    }
+
+    @Override
+    public Optional<User> saveIfAbsent(User user) {
+        Optional<User> saved = delegate.saveIfAbsent(user);
+        saved.map(CachingUserRepository::copy).ifPresent(committed -> Database.afterCommit(() -> put(committed)));
+        return saved;
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        if (Database.isInTransaction()) {
+            return delegate.findById(id);
+        }
+        User cached = byId.get(id);
+        if (cached != null && cached.getPassword() != null) {
+            return Optional.of(copy(cached));
+        }
+        if (cached == null && complete) {
+            return Optional.empty();
+        }
+        // Users restored from a snapshot have no password hash; the first lookup completes the row.
+        Optional<User> loaded = delegate.findById(id);
+        if (loaded.isPresent()) {
+            put(copy(loaded.get()));
+        } else {
+            evict(id);
+        }
+        return loaded;
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        if (Database.isInTransaction()) {
+            return delegate.findByEmail(email);
+        }
+        Long id = idByEmail.get(email.toLowerCase());
+        if (id != null) {
+            return findById(id);
+        }
+        if (complete) {
+            return Optional.empty();
+        }
+        Optional<User> loaded = delegate.findByEmail(email);
+        loaded.ifPresent(user -> put(copy(user)));
+        return loaded;
+    }
+
+    @Override
+    public List<User> findAll() {
+        if (complete && !Database.isInTransaction()) {
+            return byId.values().stream().map(CachingUserRepository::copy).toList();
+        }
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<User> findUpdatedSince(Instant since) {
+        return delegate.findUpdatedSince(since);
+    }
+
+    @Override
+    public List<Long> findDeletedSince(Instant since) {
+        return delegate.findDeletedSince(since);
+    }
+
+    @Override
+    public void streamAll(Consumer<User> consumer) {
+        if (complete && !Database.isInTransaction()) {
+            byId.values().forEach(user -> consumer.accept(copy(user)));
+        } else {
+            delegate.streamAll(consumer);
+        }
+    }
+
+    @Override
+    public Boolean delete(Long id) {
+        Boolean deleted = delegate.delete(id);
+        Database.afterCommit(() -> evict(id));
+        return deleted;
+    }
+
+    @Override
+    public Boolean update(User user) {
+        Boolean updated = delegate.update(user);
+        if (updated) {
+            User committed = copy(user);
+            Database.afterCommit(() -> put(committed));
+        } else {
+            refresh(user.getUserId());
+        }
+        return updated;
+    }
+
+    // A refreshed row keeps the in-process login state of the user it replaces. Read-through loads
+    // can race with a commit; the higher row version wins.
+    private void put(User user) {
+        Long id = user.getUserId();
+        if (id == null) {
+            return;
+        }
+        byId.compute(id, (key, cached) -> {
+            if (cached != null && cached.getVersion() > user.getVersion()) {
+                return cached;
+            }
+            if (cached != null) {
+                user.setLoggedIn(cached.isLoggedIn());
+                if (!cached.getEmail().equalsIgnoreCase(user.getEmail())) {
+                    idByEmail.remove(cached.getEmail().toLowerCase(), id);
+                }
+            }
+            idByEmail.put(user.getEmail().toLowerCase(), id);
+            return user;
+        });
+    }
+
+    // Reloads a row found stale by a lost optimistic update rather than dropping it from a complete cache.
+    private void refresh(Long id) {
+        Database.afterCommit(() -> {
+            Optional<User> current = delegate.findById(id);
+            if (current.isPresent()) {
+                put(copy(current.get()));
+            } else {
+                evict(id);
+            }
+        });
+    }
+
+    private void evict(Long id) {
+        User removed = byId.remove(id);
+        if (removed != null) {
+            idByEmail.remove(removed.getEmail().toLowerCase(), id);
+        }
+    }
+
+    private static User copy(User user) {
+        User copy = new User(user.getUserId(), user.getFullName(), user.getEmail(), user.getPassword(),
+                user.getVersion());
+        copy.setLoggedIn(user.isLoggedIn());
+        return copy;
+    }
+}
@@ -0,0 +1,329 @@
+package org.library.catalog;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.model.Book;
+import org.library.model.BookStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// Immutable struct-of-arrays copy of the catalog for browsing. Titles, authors and publishers are
+// dictionary encoded; Book objects are only created when a caller reads them and are detached copies.
+@Slf4j
+public final class CompactCatalog {
+    private static final BookStatus[] STATUSES = BookStatus.values();
+    private static final long NO_ISBN = -1L;
+
+    private final long[] bookIds;
+    private final int[] titleIds;
+    private final int[] authorIds;
+    private final int[] publisherIds;
+    private final short[] years;
+    private final byte[] statuses;
+    private final long[] isbns;
+    private final Map<Integer, String> irregularIsbns;
+    private final byte[] barcodeBytes;
+    private final int[] barcodeOffsets;
+    private final BitSet missingBarcodes;
+
+    private final String[] titles;
+    private final String[] authors;
+    private final String[] publishers;
+
+    private final List<Book> view = new BookView();
+
+    private CompactCatalog(Builder builder, int[] order) {
+        int size = order.length;
+        bookIds = new long[size];
+        titleIds = new int[size];
+        authorIds = new int[size];
+        publisherIds = new int[size];
+        years = new short[size];
+        statuses = new byte[size];
+        isbns = new long[size];
+        irregularIsbns = new HashMap<>();
+        barcodeOffsets = new int[size + 1];
+        missingBarcodes = new BitSet(size);
+
+        int barcodeLength = 0;
+        for (int i = 0; i < size; i++) {
+            int from = order[i];
+            bookIds[i] = builder.bookIds[from];
+            titleIds[i] = builder.titleIds[from];
+            authorIds[i] = builder.authorIds[from];
+            publisherIds[i] = builder.publisherIds[from];
+            years[i] = builder.years[from];
+            statuses[i] = builder.statuses[from];
+            isbns[i] = builder.isbns[from];
+            String irregular = builder.irregularIsbns.get(from);
+            if (irregular != null) {
+                irregularIsbns.put(i, irregular);
+            }
+            byte[] barcode = builder.barcodes.get(from);
+            if (barcode == null) {
+                missingBarcodes.set(i);
+            } else {
+                barcodeLength += barcode.length;
+            }
+        }
+
+        barcodeBytes = new byte[barcodeLength];
+        int offset = 0;
+        for (int i = 0; i < size; i++) {
+            barcodeOffsets[i] = offset;
+            byte[] barcode = builder.barcodes.get(order[i]);
+            if (barcode != null) {
+                System.arraycopy(barcode, 0, barcodeBytes, offset, barcode.length);
+                offset += barcode.length;
+            }
+        }
+        barcodeOffsets[size] = offset;
+
+        titles = builder.titles.freeze();
+        authors = builder.authors.freeze();
+        publishers = builder.publishers.freeze();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static CompactCatalog of(Collection<Book> books) {
+        Builder builder = new Builder();
+        books.forEach(builder::add);
+        return builder.build();
+    }
+
+    public int size() {
+        return bookIds.length;
+    }
+
+    public Book get(int index) {
+        return new Book(
+                bookIds[index],
+                titles[titleIds[index]],
+                authors[authorIds[index]],
+                (int) years[index],
+                publishers[publisherIds[index]],
+                isbn(index),
+                barcode(index),
+                STATUSES[statuses[index]]
+        );
+    }
+
+    // Books in ascending id order, materialised one element at a time.
+    public List<Book> books() {
+        return view;
+    }
+
+    public Optional<Book> findById(long bookId) {
+        int index = Arrays.binarySearch(bookIds, bookId);
+        return index >= 0 ? Optional.of(get(index)) : Optional.empty();
+    }
+
+    public List<Book> findByAuthor(String author) {
+        return matching(authorIds, indexOf(authors, author));
+    }
+
+    public List<Book> findByPublisher(String publisher) {
+        return matching(publisherIds, indexOf(publishers, publisher));
+    }
+
+    public List<Book> findAvailable() {
+        byte available = (byte) BookStatus.AVAILABLE.ordinal();
+        List<Book> result = new ArrayList<>();
+        for (int i = 0; i < statuses.length; i++) {
+            if (statuses[i] == available) {
+                result.add(get(i));
+            }
+        }
+        return result;
+    }
+
+    public int distinctTitles() {
+        return titles.length;
+    }
+
+    public int distinctAuthors() {
+        return authors.length;
+    }
+
+    public int distinctPublishers() {
+        return publishers.length;
+    }
+
+    public long memoryFootprint() {
+        int size = size();
+        long bytes = StringDictionary.arrayBytes(size, Long.BYTES) * 2
+                + StringDictionary.arrayBytes(size, Integer.BYTES) * 3
+                + StringDictionary.arrayBytes(size, Short.BYTES)
+                + StringDictionary.arrayBytes(size, Byte.BYTES)
+                + StringDictionary.arrayBytes(barcodeBytes.length, Byte.BYTES)
+                + StringDictionary.arrayBytes(size + 1, Integer.BYTES)
+                + StringDictionary.arrayBytes((size + 63) / 64, Long.BYTES);
+        for (String isbn : irregularIsbns.values()) {
+            // HashMap node, boxed key and the string itself
+            bytes += 32 + 16 + StringDictionary.stringBytes(isbn);
+        }
+        return bytes
+                + StringDictionary.footprint(titles)
+                + StringDictionary.footprint(authors)
+                + StringDictionary.footprint(publishers);
+    }
+
+    public double bytesPerBook() {
+        return size() == 0 ? 0 : (double) memoryFootprint() / size();
+    }
+
+    private List<Book> matching(int[] column, int id) {
+        if (id < 0) {
+            return List.of();
+        }
+        List<Book> result = new ArrayList<>();
+        for (int i = 0; i < column.length; i++) {
+            if (column[i] == id) {
+                result.add(get(i));
+            }
+        }
+        return result;
+    }
+
+    private static int indexOf(String[] dictionary, String value) {
+        for (int i = 0; i < dictionary.length; i++) {
+            if (dictionary[i].equals(value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private String isbn(int index) {
+        long packed = isbns[index];
+        if (packed == NO_ISBN) {
+            return irregularIsbns.get(index);
+        }
+        int length = (int) (packed >>> 56);
+        String digits = Long.toString(packed & 0x00FF_FFFF_FFFF_FFFFL);
+        return "0".repeat(length - digits.length()) + digits;
+    }
+
+    private String barcode(int index) {
+        if (missingBarcodes.get(index)) {
+            return null;
+        }
+        int from = barcodeOffsets[index];
+        return new String(barcodeBytes, from, barcodeOffsets[index + 1] - from, StandardCharsets.UTF_8);
+    }
+
+    private final class BookView extends AbstractList<Book> implements RandomAccess {
+        @Override
+        public Book get(int index) {
+            Objects.checkIndex(index, bookIds.length);
+            return CompactCatalog.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return bookIds.length;
+        }
+    }
+
+    public static final class Builder {
+        private long[] bookIds = new long[1024];
+        private int[] titleIds = new int[1024];
+        private int[] authorIds = new int[1024];
+        private int[] publisherIds = new int[1024];
+        private short[] years = new short[1024];
+        private byte[] statuses = new byte[1024];
+        private long[] isbns = new long[1024];
+        private final Map<Integer, String> irregularIsbns = new HashMap<>();
+        private final List<byte[]> barcodes = new ArrayList<>();
+        private int size;
+
+        private final StringDictionary titles = new StringDictionary();
+        private final StringDictionary authors = new StringDictionary();
+        private final StringDictionary publishers = new StringDictionary();
+
+        private Builder() {
+        }
+
+        public Builder add(Book book) {
+            if (book.getBookID() == null) {
+                throw new IllegalArgumentException("Only saved books can be added to the catalog");
+            }
+            int year = book.getYear();
+            if (year < Short.MIN_VALUE || year > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Publication year out of range: " + year);
+            }
+            if (size == bookIds.length) {
+                grow();
+            }
+
+            bookIds[size] = book.getBookID();
+            titleIds[size] = titles.encode(book.getTitle());
+            authorIds[size] = authors.encode(book.getAuthor());
+            publisherIds[size] = publishers.encode(book.getPublisher());
+            years[size] = (short) year;
+            statuses[size] = (byte) book.getStatus().ordinal();
+            isbns[size] = pack(book.getIsbn());
+            if (isbns[size] == NO_ISBN && book.getIsbn() != null) {
+                irregularIsbns.put(size, book.getIsbn());
+            }
+            barcodes.add(book.getBarcode() == null ? null : book.getBarcode().getBytes(StandardCharsets.UTF_8));
+            size++;
+            return this;
+        }
+
+        public CompactCatalog build() {
+            Integer[] order = new Integer[size];
+            boolean sorted = true;
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+                if (i > 0 && bookIds[i - 1] >= bookIds[i]) {
+                    sorted = false;
+                }
+            }
+            if (!sorted) {
+                Arrays.sort(order, Comparator.comparingLong(i -> bookIds[i]));
+                for (int i = 1; i < size; i++) {
+                    if (bookIds[order[i - 1]] == bookIds[order[i]]) {
+                        throw new IllegalArgumentException("Duplicate book id: " + bookIds[order[i]]);
+                    }
+                }
+            }
+
+            CompactCatalog catalog = new CompactCatalog(this, Arrays.stream(order).mapToInt(Integer::intValue).toArray());
+            log.info("Built compact catalog with {} book(s), {} title(s), {} author(s), {} publisher(s), {} bytes/book",
+                    catalog.size(), catalog.distinctTitles(), catalog.distinctAuthors(),
+                    catalog.distinctPublishers(), String.format("%.1f", catalog.bytesPerBook()));
+            return catalog;
+        }
+
+        private void grow() {
+            int capacity = bookIds.length << 1;
+            bookIds = Arrays.copyOf(bookIds, capacity);
+            titleIds = Arrays.copyOf(titleIds, capacity);
+            authorIds = Arrays.copyOf(authorIds, capacity);
+            publisherIds = Arrays.copyOf(publisherIds, capacity);
+            years = Arrays.copyOf(years, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            isbns = Arrays.copyOf(isbns, capacity);
+        }
+
+        // ISBNs are all digits in practice; keep the length so leading zeros survive.
+        private static long pack(String isbn) {
+            if (isbn == null || isbn.isEmpty() || isbn.length() > 16) {
+                return NO_ISBN;
+            }
+            long digits = 0;
+            for (int i = 0; i < isbn.length(); i++) {
+                char c = isbn.charAt(i);
+                if (c < '0' || c > '9') {
+                    return NO_ISBN;
+                }
+                digits = digits * 10 + (c - '0');
+            }
+            return ((long) isbn.length() << 56) | digits;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.library.catalog;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Assigns each distinct string a dense int id; frozen into a plain array once the catalog is built.
+final class StringDictionary {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    int encode(String value) {
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = values.size();
+            ids.put(value, id);
+            values.add(value);
+        }
+        return id;
+    }
+
+    String[] freeze() {
+        return values.toArray(String[]::new);
+    }
+
+    static long footprint(String[] values) {
+        long bytes = arrayBytes(values.length, 4);
+        for (String value : values) {
+            bytes += stringBytes(value);
+        }
+        return bytes;
+    }
+
+    // Compact strings: 24-byte String header plus a latin-1 byte[] for ASCII content.
+    static long stringBytes(String value) {
+        return value == null ? 0 : 24 + arrayBytes(value.length(), 1);
+    }
+
+    static long arrayBytes(int length, int elementSize) {
+        return align(16 + (long) length * elementSize);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,43 @@
+package org.library.event;
+
+import lombok.Value;
+import org.library.model.Loan;
+import org.library.model.LoanStatus;
+
+import java.time.LocalDate;
+
+@Value
+public class LoanEvent {
+    long sequence;
+    long timestamp;
+    LoanEventType type;
+    long loanId;
+    long userId;
+    long bookId;
+    LocalDate loanDate;
+    LocalDate date;
+    LocalDate dueDate;
+    LoanStatus status;
+
+    public static LoanEvent borrowed(Loan loan) {
+        return new LoanEvent(0, System.currentTimeMillis(), LoanEventType.BORROWED,
+                loan.getLoanId(), loan.getUserId(), loan.getBookId(),
+                loan.getLoanDate(), loan.getLoanDate(), loan.getDueDate(), LoanStatus.ACTIVE);
+    }
+
+    public static LoanEvent returned(Loan loan, LocalDate returnDate) {
+        return new LoanEvent(0, System.currentTimeMillis(), LoanEventType.RETURNED,
+                loan.getLoanId(), loan.getUserId(), loan.getBookId(),
+                loan.getLoanDate(), returnDate, loan.getDueDate(), LoanStatus.RETURNED);
+    }
+
+    public static LoanEvent statusChanged(Loan loan, LoanStatus status) {
+        return new LoanEvent(0, System.currentTimeMillis(), LoanEventType.STATUS_CHANGED,
+                loan.getLoanId(), loan.getUserId(), loan.getBookId(),
+                loan.getLoanDate(), LocalDate.now(), loan.getDueDate(), status);
+    }
+
+    public LoanEvent withSequence(long sequence) {
+        return new LoanEvent(sequence, timestamp, type, loanId, userId, bookId, loanDate, date, dueDate, status);
+    }
+}
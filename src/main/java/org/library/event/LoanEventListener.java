@@ -0,0 +1,5 @@
+package org.library.event;
+
+public interface LoanEventListener {
+    void onLoanEvent(LoanEvent event);
+}
@@ -0,0 +1,7 @@
+package org.library.event;
+
+public enum LoanEventType {
+    BORROWED,
+    RETURNED,
+    STATUS_CHANGED
+}
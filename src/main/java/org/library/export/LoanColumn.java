@@ -0,0 +1,11 @@
+package org.library.export;
+
+public enum LoanColumn {
+    ID,
+    USER_ID,
+    BOOK_ID,
+    LOAN_DATE,
+    DUE_DATE,
+    RETURN_DATE,
+    STATUS
+}
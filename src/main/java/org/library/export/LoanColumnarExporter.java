@@ -0,0 +1,41 @@
+package org.library.export;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.repository.LoanRepository;
+import org.library.repository.LoanRepositoryInterface;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Slf4j
+public class LoanColumnarExporter {
+    private final LoanRepositoryInterface loanRepository;
+
+    public LoanColumnarExporter(LoanRepositoryInterface loanRepository) {
+        this.loanRepository = loanRepository;
+    }
+
+    public long export(Path file, boolean includeHistory) throws IOException {
+        log.info("Exporting loans to {} (history: {})", file, includeHistory);
+        long started = System.nanoTime();
+
+        try (LoanColumnarWriter writer = new LoanColumnarWriter(file)) {
+            loanRepository.streamAll(includeHistory, writer);
+
+            long rows = writer.getRowCount();
+            log.info("Exported {} loan(s) in {} ms", rows, (System.nanoTime() - started) / 1_000_000);
+            return rows;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: LoanColumnarExporter <output-file> [--history]");
+            System.exit(1);
+        }
+
+        boolean includeHistory = args.length > 1 && args[1].equals("--history");
+        long rows = new LoanColumnarExporter(new LoanRepository()).export(Path.of(args[0]), includeHistory);
+        System.out.println("Exported " + rows + " loan(s) to " + args[0]);
+    }
+}
@@ -0,0 +1,15 @@
+package org.library.export;
+
+final class LoanColumnarFormat {
+    static final long MAGIC = 0x4C4F414E434F4C31L; // "LOANCOL1"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = Long.BYTES + Integer.BYTES;
+    static final int TRAILER_SIZE = Long.BYTES + Long.BYTES;
+    static final int CHUNK_HEADER_SIZE = 1 + Integer.BYTES;
+    static final int BLOCK_HEADER_SIZE = Integer.BYTES + 1;
+
+    static final int NO_DATE = Integer.MIN_VALUE;
+
+    private LoanColumnarFormat() {
+    }
+}
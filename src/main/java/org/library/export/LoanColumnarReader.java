@@ -0,0 +1,189 @@
+package org.library.export;
+
+import org.library.model.Loan;
+import org.library.model.LoanStatus;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+import static org.library.export.LoanColumnarFormat.*;
+
+public class LoanColumnarReader implements AutoCloseable {
+    public static final long NULL = Long.MIN_VALUE;
+
+    private final FileChannel channel;
+    private final long rowCount;
+    private final long[] blockOffsets;
+
+    private ByteBuffer chunk = ByteBuffer.allocateDirect(1 << 16);
+    private final ByteBuffer header = ByteBuffer.allocate(Math.max(BLOCK_HEADER_SIZE, TRAILER_SIZE));
+
+    public LoanColumnarReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+
+        ByteBuffer start = read(0, HEADER_SIZE);
+        if (start.getLong() != MAGIC || start.getInt() != VERSION) {
+            throw new IOException("Not a loan column file: " + file);
+        }
+
+        ByteBuffer trailer = read(channel.size() - TRAILER_SIZE, TRAILER_SIZE);
+        long footerOffset = trailer.getLong();
+        if (trailer.getLong() != MAGIC) {
+            throw new IOException("Truncated loan column file: " + file);
+        }
+
+        ByteBuffer footer = read(footerOffset, (int) (channel.size() - TRAILER_SIZE - footerOffset));
+        this.rowCount = footer.getLong();
+        this.blockOffsets = new long[footer.getInt()];
+        for (int i = 0; i < blockOffsets.length; i++) {
+            blockOffsets[i] = footer.getLong();
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public int getBlockCount() {
+        return blockOffsets.length;
+    }
+
+    // Decodes one column only; the other chunks in each block are skipped by length, never read.
+    public void scan(LoanColumn column, LongConsumer consumer) throws IOException {
+        for (long blockOffset : blockOffsets) {
+            int rows = readBlockHeader(blockOffset);
+            ByteBuffer data = readChunk(blockOffset + BLOCK_HEADER_SIZE, column);
+            decode(column, data, rows, consumer);
+        }
+    }
+
+    public void forEach(Consumer<Loan> consumer) throws IOException {
+        LoanColumn[] columns = LoanColumn.values();
+        LoanStatus[] statuses = LoanStatus.values();
+
+        for (long blockOffset : blockOffsets) {
+            int rows = readBlockHeader(blockOffset);
+            long[][] values = new long[columns.length][rows];
+
+            for (LoanColumn column : columns) {
+                ByteBuffer data = readChunk(blockOffset + BLOCK_HEADER_SIZE, column);
+                long[] target = values[column.ordinal()];
+                int[] index = {0};
+                decode(column, data, rows, value -> target[index[0]++] = value);
+            }
+
+            for (int row = 0; row < rows; row++) {
+                long status = values[LoanColumn.STATUS.ordinal()][row];
+                consumer.accept(new Loan(
+                        values[LoanColumn.ID.ordinal()][row],
+                        values[LoanColumn.USER_ID.ordinal()][row],
+                        values[LoanColumn.BOOK_ID.ordinal()][row],
+                        date(values[LoanColumn.LOAN_DATE.ordinal()][row]),
+                        date(values[LoanColumn.RETURN_DATE.ordinal()][row]),
+                        date(values[LoanColumn.DUE_DATE.ordinal()][row]),
+                        status == NULL ? null : statuses[(int) status]
+                ));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void decode(LoanColumn column, ByteBuffer data, int rows, LongConsumer consumer) {
+        switch (column) {
+            case ID -> {
+                long value = 0;
+                for (int i = 0; i < rows; i++) {
+                    value += ColumnBuffer.readZigZag(data);
+                    consumer.accept(value);
+                }
+            }
+            case USER_ID, BOOK_ID -> {
+                for (int i = 0; i < rows; i++) {
+                    consumer.accept(ColumnBuffer.readVarLong(data));
+                }
+            }
+            case LOAN_DATE, DUE_DATE, RETURN_DATE -> {
+                long previous = 0;
+                for (int i = 0; i < rows; i++) {
+                    long encoded = ColumnBuffer.readVarLong(data);
+                    if (encoded == 0) {
+                        consumer.accept(NULL);
+                    } else {
+                        encoded--;
+                        previous += (encoded >>> 1) ^ -(encoded & 1);
+                        consumer.accept(previous);
+                    }
+                }
+            }
+            case STATUS -> {
+                int dictionarySize = data.get();
+                long[] ordinals = new long[dictionarySize];
+                for (int i = 0; i < dictionarySize; i++) {
+                    byte[] name = new byte[data.get()];
+                    data.get(name);
+                    ordinals[i] = name.length == 0
+                            ? NULL
+                            : LoanStatus.valueOf(new String(name, StandardCharsets.US_ASCII)).ordinal();
+                }
+                for (int i = 0; i < rows; i++) {
+                    consumer.accept(ordinals[data.get()]);
+                }
+            }
+        }
+    }
+
+    private int readBlockHeader(long blockOffset) throws IOException {
+        ByteBuffer block = read(blockOffset, BLOCK_HEADER_SIZE);
+        return block.getInt();
+    }
+
+    private ByteBuffer readChunk(long position, LoanColumn column) throws IOException {
+        while (true) {
+            ByteBuffer chunkHeader = read(position, CHUNK_HEADER_SIZE);
+            int columnId = chunkHeader.get();
+            int length = chunkHeader.getInt();
+            position += CHUNK_HEADER_SIZE;
+
+            if (columnId == column.ordinal()) {
+                if (chunk.capacity() < length) {
+                    chunk = ByteBuffer.allocateDirect(Integer.highestOneBit(length) << 1);
+                }
+                chunk.clear().limit(length);
+                readFully(chunk, position);
+                return chunk.flip();
+            }
+            position += length;
+        }
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = length <= header.capacity() ? header.clear().limit(length) : ByteBuffer.allocate(length);
+        readFully(buffer, position);
+        return buffer.flip();
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of loan column file");
+            }
+            position += read;
+        }
+    }
+
+    private static LocalDate date(long epochDay) {
+        return epochDay == NULL ? null : LocalDate.ofEpochDay(epochDay);
+    }
+}
@@ -0,0 +1,217 @@
+package org.library.export;
+
+import org.library.model.Loan;
+import org.library.model.LoanStatus;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import static org.library.export.LoanColumnarFormat.*;
+
+public class LoanColumnarWriter implements Consumer<Loan>, AutoCloseable {
+    public static final int DEFAULT_BLOCK_ROWS = 64 * 1024;
+
+    private static final LoanStatus[] STATUSES = LoanStatus.values();
+
+    private final OutputStream out;
+    private final ByteBuffer scratch = ByteBuffer.allocate(Long.BYTES);
+    private final int blockRows;
+
+    private final long[] ids;
+    private final long[] userIds;
+    private final long[] bookIds;
+    private final int[] loanDates;
+    private final int[] dueDates;
+    private final int[] returnDates;
+    private final byte[] statuses;
+    private int rows;
+
+    private final ColumnBuffer chunk = new ColumnBuffer(1 << 16);
+    private long[] blockOffsets = new long[64];
+    private int blockCount;
+    private long position;
+    private long rowCount;
+
+    public LoanColumnarWriter(Path file) throws IOException {
+        this(file, DEFAULT_BLOCK_ROWS);
+    }
+
+    public LoanColumnarWriter(Path file, int blockRows) throws IOException {
+        this.out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16);
+        this.blockRows = blockRows;
+
+        ids = new long[blockRows];
+        userIds = new long[blockRows];
+        bookIds = new long[blockRows];
+        loanDates = new int[blockRows];
+        dueDates = new int[blockRows];
+        returnDates = new int[blockRows];
+        statuses = new byte[blockRows];
+
+        writeLong(MAGIC);
+        writeInt(VERSION);
+    }
+
+    @Override
+    public void accept(Loan loan) {
+        ids[rows] = loan.getLoanId();
+        userIds[rows] = loan.getUserId();
+        bookIds[rows] = loan.getBookId();
+        loanDates[rows] = epochDay(loan.getLoanDate());
+        dueDates[rows] = epochDay(loan.getDueDate());
+        returnDates[rows] = epochDay(loan.getReturnDate());
+        statuses[rows] = loan.getStatus() == null ? -1 : (byte) loan.getStatus().ordinal();
+
+        if (++rows == blockRows) {
+            flushBlock();
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount + rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushBlock();
+
+        long footerOffset = position;
+        writeLong(rowCount);
+        writeInt(blockCount);
+        for (int i = 0; i < blockCount; i++) {
+            writeLong(blockOffsets[i]);
+        }
+        writeLong(footerOffset);
+        writeLong(MAGIC);
+
+        out.close();
+    }
+
+    private void flushBlock() {
+        if (rows == 0) {
+            return;
+        }
+
+        try {
+            if (blockCount == blockOffsets.length) {
+                blockOffsets = Arrays.copyOf(blockOffsets, blockCount << 1);
+            }
+            blockOffsets[blockCount++] = position;
+
+            writeInt(rows);
+            out.write(LoanColumn.values().length);
+            position++;
+
+            writeDeltaColumn(LoanColumn.ID, ids);
+            writeVarIntColumn(LoanColumn.USER_ID, userIds);
+            writeVarIntColumn(LoanColumn.BOOK_ID, bookIds);
+            writeDateColumn(LoanColumn.LOAN_DATE, loanDates);
+            writeDateColumn(LoanColumn.DUE_DATE, dueDates);
+            writeDateColumn(LoanColumn.RETURN_DATE, returnDates);
+            writeStatusColumn();
+
+            rowCount += rows;
+            rows = 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write loan column block", e);
+        }
+    }
+
+    private void writeDeltaColumn(LoanColumn column, long[] values) throws IOException {
+        chunk.reset();
+        long previous = 0;
+        for (int i = 0; i < rows; i++) {
+            chunk.writeZigZag(values[i] - previous);
+            previous = values[i];
+        }
+        writeChunk(column);
+    }
+
+    private void writeVarIntColumn(LoanColumn column, long[] values) throws IOException {
+        chunk.reset();
+        for (int i = 0; i < rows; i++) {
+            chunk.writeVarLong(values[i]);
+        }
+        writeChunk(column);
+    }
+
+    // 0 marks a missing date; otherwise zig-zag delta from the previous present date, plus one.
+    private void writeDateColumn(LoanColumn column, int[] epochDays) throws IOException {
+        chunk.reset();
+        long previous = 0;
+        for (int i = 0; i < rows; i++) {
+            if (epochDays[i] == NO_DATE) {
+                chunk.writeVarLong(0);
+            } else {
+                long delta = epochDays[i] - previous;
+                chunk.writeVarLong(((delta << 1) ^ (delta >> 63)) + 1);
+                previous = epochDays[i];
+            }
+        }
+        writeChunk(column);
+    }
+
+    private void writeStatusColumn() throws IOException {
+        chunk.reset();
+
+        byte[] codes = new byte[STATUSES.length + 1];
+        Arrays.fill(codes, (byte) -1);
+        byte[] dictionary = new byte[codes.length];
+        int dictionarySize = 0;
+
+        for (int i = 0; i < rows; i++) {
+            int slot = statuses[i] + 1;
+            if (codes[slot] < 0) {
+                codes[slot] = (byte) dictionarySize;
+                dictionary[dictionarySize++] = (byte) slot;
+            }
+        }
+
+        chunk.writeByte(dictionarySize);
+        for (int i = 0; i < dictionarySize; i++) {
+            int slot = dictionary[i];
+            byte[] name = (slot == 0 ? "" : STATUSES[slot - 1].name()).getBytes(StandardCharsets.US_ASCII);
+            chunk.writeByte(name.length);
+            chunk.writeBytes(name);
+        }
+        for (int i = 0; i < rows; i++) {
+            chunk.writeByte(codes[statuses[i] + 1]);
+        }
+        writeChunk(LoanColumn.STATUS);
+    }
+
+    private void writeChunk(LoanColumn column) throws IOException {
+        out.write(column.ordinal());
+        position++;
+        writeInt(chunk.size());
+        out.write(chunk.array(), 0, chunk.size());
+        position += chunk.size();
+    }
+
+    private void writeInt(int value) throws IOException {
+        scratch.clear();
+        scratch.putInt(value);
+        out.write(scratch.array(), 0, Integer.BYTES);
+        position += Integer.BYTES;
+    }
+
+    private void writeLong(long value) throws IOException {
+        scratch.clear();
+        scratch.putLong(value);
+        out.write(scratch.array(), 0, Long.BYTES);
+        position += Long.BYTES;
+    }
+
+    private static int epochDay(LocalDate date) {
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+}
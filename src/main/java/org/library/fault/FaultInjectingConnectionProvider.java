@@ -0,0 +1,197 @@
+package org.library.fault;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.util.ConnectionProvider;
+import org.library.util.DbOperation;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Wraps a real provider and injects delays and failures the way Postgres would surface them:
+// the same SQLStates, thrown from getConnection or from the statement's execute call. Rules are
+// resolved per repository method from the calling stack frame.
+@Slf4j
+public class FaultInjectingConnectionProvider implements ConnectionProvider {
+    public static final String CONNECTION_FAILURE = "08006";
+    public static final String QUERY_CANCELED = "57014";
+    public static final String SERIALIZATION_FAILURE = "40001";
+    public static final String DEADLOCK_DETECTED = "40P01";
+
+    private static final String REPOSITORY_PACKAGE = "org.library.repository.";
+    private static final StackWalker STACK = StackWalker.getInstance();
+
+    private final ConnectionProvider delegate;
+    private volatile FaultProfile profile;
+
+    private final LongAdder connections = new LongAdder();
+    private final LongAdder connectFailures = new LongAdder();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder serializationFailures = new LongAdder();
+    private final LongAdder deadlocks = new LongAdder();
+    private final LongAdder injectedNanos = new LongAdder();
+
+    public FaultInjectingConnectionProvider(ConnectionProvider delegate, FaultProfile profile) {
+        this.delegate = delegate;
+        this.profile = profile;
+    }
+
+    // Profiles can be swapped while running, e.g. between benchmark phases.
+    public void setProfile(FaultProfile profile) {
+        this.profile = profile;
+        log.info("Fault profile switched to {}", profile.getName());
+    }
+
+    public FaultProfile getProfile() {
+        return profile;
+    }
+
+    @Override
+    public Connection getConnection(DbOperation operation) throws SQLException {
+        FaultRule rule = profile.ruleFor(profile.hasMethodRules() ? callingRepositoryMethod() : null);
+        connections.increment();
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        pause(rule.getConnectLatency().sampleNanos(random));
+        if (random.nextDouble() < rule.getConnectFailureRate()) {
+            connectFailures.increment();
+            throw new SQLTransientConnectionException("Injected: connection to server failed", CONNECTION_FAILURE);
+        }
+        return wrap(delegate.getConnection(operation));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    return switch (result) {
+                        case CallableStatement statement -> wrap(statement, CallableStatement.class);
+                        case PreparedStatement statement -> wrap(statement, PreparedStatement.class);
+                        case Statement statement -> wrap(statement, Statement.class);
+                        case null, default -> result;
+                    };
+                });
+    }
+
+    private <S extends Statement> S wrap(S statement, Class<S> type) {
+        return type.cast(Proxy.newProxyInstance(
+                type.getClassLoader(),
+                new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("execute")) {
+                        beforeExecute();
+                    }
+                    return invoke(statement, method, args);
+                }));
+    }
+
+    private void beforeExecute() throws SQLException {
+        FaultRule rule = profile.ruleFor(profile.hasMethodRules() ? callingRepositoryMethod() : null);
+        statements.increment();
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        pause(rule.getStatementLatency().sampleNanos(random));
+
+        double roll = random.nextDouble();
+        if (roll < rule.getStatementTimeoutRate()) {
+            timeouts.increment();
+            pause(rule.getStatementTimeout());
+            throw new SQLTimeoutException("Injected: canceling statement due to statement timeout", QUERY_CANCELED);
+        }
+        roll -= rule.getStatementTimeoutRate();
+        if (roll < rule.getSerializationFailureRate()) {
+            serializationFailures.increment();
+            throw new SQLException("Injected: could not serialize access due to concurrent update",
+                    SERIALIZATION_FAILURE);
+        }
+        roll -= rule.getSerializationFailureRate();
+        if (roll < rule.getDeadlockRate()) {
+            deadlocks.increment();
+            pause(rule.getDeadlockDetection());
+            throw new SQLException("Injected: deadlock detected", DEADLOCK_DETECTED);
+        }
+    }
+
+    private void pause(Duration duration) throws SQLException {
+        pause(duration.toNanos());
+    }
+
+    private void pause(long nanos) throws SQLException {
+        if (nanos <= 0) {
+            return;
+        }
+        injectedNanos.add(nanos);
+        try {
+            Thread.sleep(Duration.ofNanos(nanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted during injected delay", e);
+        }
+    }
+
+    // "LoanRepository.save" for the innermost repository frame on the stack, or null.
+    static String callingRepositoryMethod() {
+        return STACK.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(REPOSITORY_PACKAGE))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(REPOSITORY_PACKAGE.length()) + "." + frame.getMethodName())
+                .orElse(null));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    public long getConnections() {
+        return connections.sum();
+    }
+
+    public long getConnectFailures() {
+        return connectFailures.sum();
+    }
+
+    public long getStatements() {
+        return statements.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public long getSerializationFailures() {
+        return serializationFailures.sum();
+    }
+
+    public long getDeadlocks() {
+        return deadlocks.sum();
+    }
+
+    public Duration getInjectedDelay() {
+        return Duration.ofNanos(injectedNanos.sum());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("profile=%s connections=%d (failed %d) statements=%d timeouts=%d "
+                        + "serialization=%d deadlocks=%d injected delay=%d ms",
+                profile.getName(), getConnections(), getConnectFailures(), getStatements(), getTimeouts(),
+                getSerializationFailures(), getDeadlocks(), getInjectedDelay().toMillis());
+    }
+}
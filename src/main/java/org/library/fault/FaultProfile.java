@@ -0,0 +1,71 @@
+package org.library.fault;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+// A named set of fault rules. Methods are keyed "<RepositoryClass>.<method>", e.g. "LoanRepository.save";
+// calls from anywhere else get the default rule.
+@Getter
+@Builder
+// Lombok's @Singular map builder casts each value to FaultRule, which -Xlint reports as redundant.
+@SuppressWarnings("cast")
+public class FaultProfile {
+    public static final List<String> NAMES = List.of("none", "slow", "flaky", "timeouts", "contention");
+
+    private final String name;
+    @Builder.Default private final FaultRule defaults = FaultRule.NONE;
+    @Singular private final Map<String, FaultRule> methods;
+
+    public FaultRule ruleFor(String method) {
+        return method == null ? defaults : methods.getOrDefault(method, defaults);
+    }
+
+    public boolean hasMethodRules() {
+        return !methods.isEmpty();
+    }
+
+    public static FaultProfile named(String name) {
+        return switch (name) {
+            case "none" -> builder().name(name).build();
+            // Overloaded server: every statement slower, with a long tail.
+            case "slow" -> builder().name(name)
+                    .defaults(FaultRule.builder()
+                            .statementLatency(LatencyDistribution.logNormal(Duration.ofMillis(2), Duration.ofMillis(40)))
+                            .build())
+                    .build();
+            // Unreliable network or exhausted connection slots.
+            case "flaky" -> builder().name(name)
+                    .defaults(FaultRule.builder()
+                            .connectLatency(LatencyDistribution.exponential(Duration.ofMillis(5)))
+                            .connectFailureRate(0.02)
+                            .build())
+                    .build();
+            case "timeouts" -> builder().name(name)
+                    .defaults(FaultRule.builder()
+                            .statementLatency(LatencyDistribution.logNormal(Duration.ofMillis(1), Duration.ofMillis(10)))
+                            .statementTimeoutRate(0.01)
+                            .statementTimeout(Duration.ofMillis(500))
+                            .build())
+                    .build();
+            // Hot rows under SERIALIZABLE: the borrow/return writes conflict, the reads do not.
+            case "contention" -> {
+                FaultRule conflicts = FaultRule.builder()
+                        .serializationFailureRate(0.05)
+                        .deadlockRate(0.005)
+                        .build();
+                yield builder().name(name)
+                        .method("LoanRepository.save", conflicts)
+                        .method("LoanRepository.markReturned", conflicts)
+                        .method("BookRepository.update", conflicts)
+                        .method("BookRepository.updateStatus", conflicts)
+                        .build();
+            }
+            default -> throw new IllegalArgumentException("Unknown fault profile: " + name + " (one of " + NAMES + ")");
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package org.library.fault;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+// Faults applied to one repository method, or to all of them as a profile's default.
+// Rates are probabilities per connection (connect*) or per executed statement (the rest).
+@Getter
+@Builder(toBuilder = true)
+public class FaultRule {
+    public static final FaultRule NONE = FaultRule.builder().build();
+
+    @Builder.Default private final LatencyDistribution connectLatency = LatencyDistribution.NONE;
+    @Builder.Default private final double connectFailureRate = 0;
+
+    @Builder.Default private final LatencyDistribution statementLatency = LatencyDistribution.NONE;
+    // A timed-out statement holds the caller for the whole timeout before failing, as with statement_timeout.
+    @Builder.Default private final double statementTimeoutRate = 0;
+    @Builder.Default private final Duration statementTimeout = Duration.ofSeconds(1);
+
+    @Builder.Default private final double serializationFailureRate = 0;
+    // Postgres only reports a deadlock after deadlock_timeout (1s by default).
+    @Builder.Default private final double deadlockRate = 0;
+    @Builder.Default private final Duration deadlockDetection = Duration.ofSeconds(1);
+}
@@ -0,0 +1,40 @@
+package org.library.fault;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Source of injected delays, in nanoseconds.
+@FunctionalInterface
+public interface LatencyDistribution {
+    LatencyDistribution NONE = random -> 0;
+
+    long sampleNanos(ThreadLocalRandom random);
+
+    static LatencyDistribution fixed(Duration latency) {
+        long nanos = latency.toNanos();
+        return random -> nanos;
+    }
+
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        long from = min.toNanos();
+        long to = max.toNanos();
+        return random -> from == to ? from : random.nextLong(from, to);
+    }
+
+    static LatencyDistribution exponential(Duration mean) {
+        double nanos = mean.toNanos();
+        return random -> (long) (-Math.log(1 - random.nextDouble()) * nanos);
+    }
+
+    // Right-skewed like real query latencies: most calls near the median, a long tail up to the p99.
+    static LatencyDistribution logNormal(Duration median, Duration p99) {
+        double mu = Math.log(median.toNanos());
+        double sigma = Math.log((double) p99.toNanos() / median.toNanos()) / 2.326;
+        return random -> (long) Math.exp(mu + sigma * random.nextGaussian());
+    }
+
+    // With the given probability the delay comes from the spike distribution instead.
+    default LatencyDistribution withSpikes(double probability, LatencyDistribution spike) {
+        return random -> random.nextDouble() < probability ? spike.sampleNanos(random) : sampleNanos(random);
+    }
+}
@@ -0,0 +1,91 @@
+package org.library.filter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.repository.UserRepositoryInterface;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Answers "definitely not registered" for normalized emails without a database round trip.
+// Deleted emails stay in the filter and only cost an extra lookup until the next rebuild.
+@Slf4j
+public class KnownEmails {
+    private final BloomFilter filter;
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder definitelyAbsent = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    private volatile boolean ready;
+
+    public KnownEmails(long expectedUsers, double falsePositiveRate) {
+        this.filter = new BloomFilter(expectedUsers, falsePositiveRate);
+    }
+
+    public static KnownEmails build(UserRepositoryInterface userRepository, long expectedUsers, double falsePositiveRate) {
+        KnownEmails knownEmails = new KnownEmails(expectedUsers, falsePositiveRate);
+        knownEmails.load(userRepository);
+        return knownEmails;
+    }
+
+    // Emails registered while loading are added by the service as well, so nothing is missed.
+    public void load(UserRepositoryInterface userRepository) {
+        long started = System.nanoTime();
+        LongAdder loaded = new LongAdder();
+        userRepository.streamAll(user -> {
+            // Stored emails keep the case they were registered with; lookups use the normalized form.
+            add(user.getEmail().trim().toLowerCase());
+            loaded.increment();
+        });
+        ready = true;
+        log.info("Email filter loaded {} email(s) in {} ms ({} bits, {} hashes)", loaded.sum(),
+                (System.nanoTime() - started) / 1_000_000, filter.getBitCount(), filter.getHashCount());
+    }
+
+    public void add(String normalizedEmail) {
+        filter.put(normalizedEmail);
+    }
+
+    public boolean mightExist(String normalizedEmail) {
+        if (!ready) {
+            return true;
+        }
+        checks.increment();
+        if (filter.mightContain(normalizedEmail)) {
+            return true;
+        }
+        definitelyAbsent.increment();
+        return false;
+    }
+
+    // Called when mightExist() said yes but the database had no such user.
+    public void recordFalsePositive() {
+        if (ready) {
+            falsePositives.increment();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long getChecks() {
+        return checks.sum();
+    }
+
+    public long getDefinitelyAbsent() {
+        return definitelyAbsent.sum();
+    }
+
+    public long getFalsePositives() {
+        return falsePositives.sum();
+    }
+
+    public double observedFalsePositiveRate() {
+        long positives = falsePositives.sum();
+        long negatives = positives + definitelyAbsent.sum();
+        return negatives == 0 ? 0.0 : (double) positives / negatives;
+    }
+
+    public double expectedFalsePositiveRate() {
+        return filter.expectedFalsePositiveRate();
+    }
+}
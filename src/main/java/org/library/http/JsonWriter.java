@@ -0,0 +1,168 @@
+package org.library.http;
+
+import org.library.model.Book;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+// Streaming JSON writer: values go straight to the underlying writer, so arrays of any length
+// are serialised without being collected first. Commas are tracked per nesting level.
+final class JsonWriter {
+    private static final int MAX_DEPTH = 16;
+
+    private final Writer out;
+    private final boolean[] hasValue = new boolean[MAX_DEPTH];
+    private int depth;
+    private boolean afterName;
+
+    JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    JsonWriter beginObject() {
+        return open('{');
+    }
+
+    JsonWriter endObject() {
+        return close('}');
+    }
+
+    JsonWriter beginArray() {
+        return open('[');
+    }
+
+    JsonWriter endArray() {
+        return close(']');
+    }
+
+    JsonWriter name(String name) {
+        separate();
+        writeString(name);
+        write(':');
+        afterName = true;
+        return this;
+    }
+
+    JsonWriter value(String value) {
+        separate();
+        if (value == null) {
+            write("null");
+        } else {
+            writeString(value);
+        }
+        return this;
+    }
+
+    JsonWriter value(long value) {
+        separate();
+        write(Long.toString(value));
+        return this;
+    }
+
+    JsonWriter value(double value) {
+        separate();
+        write(Double.isFinite(value) ? Double.toString(value) : "null");
+        return this;
+    }
+
+    JsonWriter value(boolean value) {
+        separate();
+        write(value ? "true" : "false");
+        return this;
+    }
+
+    JsonWriter nullValue() {
+        separate();
+        write("null");
+        return this;
+    }
+
+    JsonWriter book(Book book) {
+        beginObject();
+        name("id").value(book.getBookID());
+        name("title").value(book.getTitle());
+        name("author").value(book.getAuthor());
+        name("year").value(book.getYear());
+        name("publisher").value(book.getPublisher());
+        name("isbn").value(book.getIsbn());
+        name("barcode").value(book.getBarcode());
+        name("status").value(book.getStatus().name());
+        return endObject();
+    }
+
+    void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private JsonWriter open(char bracket) {
+        separate();
+        write(bracket);
+        hasValue[++depth] = false;
+        return this;
+    }
+
+    private JsonWriter close(char bracket) {
+        depth--;
+        write(bracket);
+        return this;
+    }
+
+    private void separate() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (hasValue[depth]) {
+            write(',');
+        }
+        hasValue[depth] = true;
+    }
+
+    private void writeString(String value) {
+        write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escape = switch (c) {
+                case '"' -> "\\\"";
+                case '\\' -> "\\\\";
+                case '\n' -> "\\n";
+                case '\r' -> "\\r";
+                case '\t' -> "\\t";
+                default -> c < 0x20 ? String.format("\\u%04x", (int) c) : null;
+            };
+            if (escape != null) {
+                write(value, start, i);
+                write(escape);
+                start = i + 1;
+            }
+        }
+        write(value, start, value.length());
+        write('"');
+    }
+
+    private void write(String value, int from, int to) {
+        try {
+            out.write(value, from, to - from);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(String value) {
+        write(value, 0, value.length());
+    }
+
+    private void write(char c) {
+        try {
+            out.write(c);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package org.library.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.library.admission.RejectedException;
+import org.library.model.Book;
+import org.library.model.User;
+import org.library.repository.UserRepositoryInterface;
+import org.library.service.BookService;
+import org.library.service.LoanService;
+import org.library.service.SessionTokens;
+import org.library.service.UserService;
+import org.library.util.Json;
+import org.library.util.LatencyHistogram;
+import org.library.util.Result;
+import org.library.util.ResultCode;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// HTTP/JSON front end over the services. Each exchange runs on its own virtual thread;
+// list responses are written with chunked encoding as rows arrive, never collected first.
+@Slf4j
+public class LibraryHttpServer implements AutoCloseable {
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1_000;
+    public static final Duration DEFAULT_SESSION_IDLE_TIMEOUT = Duration.ofMinutes(30);
+    public static final int DEFAULT_MAX_SESSIONS = 100_000;
+
+    private static final int BACKLOG = 1_024;
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+    private static final int WRITE_BUFFER_CHARS = 8 * 1024;
+    private static final String JSON = "application/json; charset=utf-8";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final UserService userService;
+    private final BookService bookService;
+    private final LoanService loanService;
+    private final UserRepositoryInterface userRepository;
+
+    private final SessionTokens tokens;
+    private final Map<String, LatencyHistogram> latencies = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    public LibraryHttpServer(InetSocketAddress address, UserService userService, BookService bookService,
+                             LoanService loanService, UserRepositoryInterface userRepository) throws IOException {
+        this(address, userService, bookService, loanService, userRepository,
+                DEFAULT_SESSION_IDLE_TIMEOUT, DEFAULT_MAX_SESSIONS);
+    }
+
+    public LibraryHttpServer(InetSocketAddress address, UserService userService, BookService bookService,
+                             LoanService loanService, UserRepositoryInterface userRepository,
+                             Duration sessionIdleTimeout, int maxSessions) throws IOException {
+        this.userService = userService;
+        this.bookService = bookService;
+        this.loanService = loanService;
+        this.userRepository = userRepository;
+        // An expired token ends the login, as an explicit logout would.
+        this.tokens = new SessionTokens(sessionIdleTimeout, maxSessions, userService::endSession);
+
+        server = HttpServer.create(address, BACKLOG);
+        server.setExecutor(executor);
+
+        route("POST", "/api/login", this::login);
+        route("POST", "/api/logout", this::logout);
+        route("POST", "/api/loans", this::borrow);
+        route("POST", "/api/returns", this::giveBack);
+        route("GET", "/api/books/search", this::search);
+        route("GET", "/api/books/available", this::available);
+        route("GET", "/api/metrics", this::metrics);
+    }
+
+    public void start() {
+        server.start();
+        log.info("HTTP API listening on port {}", port());
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public Map<String, LatencyHistogram> getLatencies() {
+        synchronized (latencies) {
+            return new LinkedHashMap<>(latencies);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+        log.info("HTTP API stopped");
+    }
+
+    private void login(HttpExchange exchange) throws IOException {
+        Map<String, String> body = readJson(exchange);
+        String email = required(body, "email");
+        String password = required(body, "password");
+
+        // Logins with the right password carry the user id; an "already logged in" one means the
+        // client lost its token, and the new token replaces the old.
+        Result result = userService.loginUser(email, password);
+        if (!(result.getValue() instanceof Long userId)) {
+            respond(exchange, 401, json -> json.beginObject().name("error").value(result.getMessage()).endObject());
+            return;
+        }
+
+        String token = tokens.issue(userId);
+        if (token == null) {
+            error(exchange, 503, "Too many sessions");
+            return;
+        }
+        respond(exchange, 200, json -> json.beginObject()
+                .name("token").value(token)
+                .name("userId").value(userId)
+                .name("message").value(result.getMessage())
+                .endObject());
+    }
+
+    private void logout(HttpExchange exchange) throws IOException {
+        drain(exchange);
+        String token = token(exchange);
+        Long userId = token == null ? null : tokens.revoke(token);
+        if (userId == null) {
+            unauthorized(exchange);
+            return;
+        }
+
+        Optional<User> user = userRepository.findById(userId);
+        Result result = user.isPresent()
+                ? userService.logoutUser(user.get().getEmail())
+                : Result.of(ResultCode.USER_NOT_FOUND);
+        respond(exchange, result, 200);
+    }
+
+    private void borrow(HttpExchange exchange) throws IOException {
+        Map<String, String> body = readJson(exchange);
+        Long userId = authenticate(exchange);
+        if (userId == null) {
+            unauthorized(exchange);
+            return;
+        }
+        respond(exchange, loanService.borrowBook(userId, Long.parseLong(required(body, "bookId"))), 201);
+    }
+
+    private void giveBack(HttpExchange exchange) throws IOException {
+        Map<String, String> body = readJson(exchange);
+        Long userId = authenticate(exchange);
+        if (userId == null) {
+            unauthorized(exchange);
+            return;
+        }
+        respond(exchange, loanService.returnBook(userId, Long.parseLong(required(body, "bookId"))), 200);
+    }
+
+    private void search(HttpExchange exchange) throws IOException {
+        drain(exchange);
+        String title = required(query(exchange), "title");
+
+        List<Book> books = bookService.searchBookByTitle(title);
+        stream(exchange, json -> {
+            json.beginArray();
+            books.forEach(json::book);
+            json.endArray();
+        });
+    }
+
+    private void available(HttpExchange exchange) throws IOException {
+        drain(exchange);
+        // Anonymous listings are fine; a logged-in patron gets their own borrows reflected.
+        Long userId = authenticate(exchange);
+        Map<String, String> query = query(exchange);
+        long after = Long.parseLong(query.getOrDefault("after", "0"));
+        int limit = Math.clamp(Integer.parseInt(query.getOrDefault("limit", String.valueOf(DEFAULT_PAGE_SIZE))),
+                1, MAX_PAGE_SIZE);
+
+        stream(exchange, json -> {
+            long[] last = {0};
+            int[] count = {0};
+            json.beginObject().name("books").beginArray();
+            bookService.streamAvailableBooks(userId, after, limit, book -> {
+                json.book(book);
+                last[0] = book.getBookID();
+                count[0]++;
+            });
+            json.endArray();
+            // A short page is the last one.
+            json.name("next");
+            if (count[0] == limit) {
+                json.value(last[0]);
+            } else {
+                json.nullValue();
+            }
+            json.endObject();
+        });
+    }
+
+    private void metrics(HttpExchange exchange) throws IOException {
+        drain(exchange);
+        Map<String, LatencyHistogram> snapshot = getLatencies();
+        respond(exchange, 200, json -> {
+            json.beginObject().name("sessions").value(tokens.size()).name("endpoints").beginObject();
+            snapshot.forEach((endpoint, histogram) -> json.name(endpoint).beginObject()
+                    .name("count").value(histogram.count())
+                    .name("meanMicros").value(Math.round(histogram.meanNanos() / 100) / 10.0)
+                    .name("p50Micros").value(histogram.percentileNanos(50) / 1_000)
+                    .name("p99Micros").value(histogram.percentileNanos(99) / 1_000)
+                    .name("p999Micros").value(histogram.percentileNanos(99.9) / 1_000)
+                    .name("maxMicros").value(histogram.maxNanos() / 1_000)
+                    .endObject());
+            json.endObject().endObject();
+        });
+    }
+
+    private void route(String method, String path, Handler handler) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        latencies.put(method + " " + path, histogram);
+
+        server.createContext(path, exchange -> {
+            long began = System.nanoTime();
+            try {
+                if (!exchange.getRequestURI().getPath().equals(path)) {
+                    drain(exchange);
+                    error(exchange, 404, "Not found");
+                } else if (!exchange.getRequestMethod().equals(method)) {
+                    drain(exchange);
+                    exchange.getResponseHeaders().set("Allow", method);
+                    error(exchange, 405, "Method not allowed");
+                } else {
+                    handler.handle(exchange);
+                }
+            } catch (IllegalArgumentException e) {
+                error(exchange, 400, e.getMessage());
+            } catch (RejectedException e) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                error(exchange, 503, e.getMessage());
+            } catch (UncheckedIOException e) {
+                log.debug("Client went away during {} {}", method, path, e);
+            } catch (RuntimeException e) {
+                log.error("Request {} {} failed", method, path, e);
+                error(exchange, 500, "Internal error");
+            } finally {
+                exchange.close();
+                histogram.record(System.nanoTime() - began);
+            }
+        });
+    }
+
+    private Long authenticate(HttpExchange exchange) {
+        String token = token(exchange);
+        return token == null ? null : tokens.resolve(token);
+    }
+
+    private static String token(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) {
+            return null;
+        }
+        return header.substring("Bearer ".length()).trim();
+    }
+
+    private static Map<String, String> readJson(HttpExchange exchange) throws IOException {
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readNBytes(MAX_BODY_BYTES + 1);
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        if (body.length > MAX_BODY_BYTES) {
+            throw new IllegalArgumentException("Request body too large");
+        }
+        return Json.parseObject(new String(body, StandardCharsets.UTF_8));
+    }
+
+    // The connection is only reused once the request body has been read to the end.
+    private static void drain(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> values = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null || raw.isEmpty()) {
+            return values;
+        }
+        for (String pair : raw.split("&")) {
+            int separator = pair.indexOf('=');
+            String name = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            values.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return values;
+    }
+
+    private static String required(Map<String, String> values, String name) {
+        String value = values.get(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing " + name);
+        }
+        return value;
+    }
+
+    private static void unauthorized(HttpExchange exchange) throws IOException {
+        error(exchange, 401, "Missing or unknown session token");
+    }
+
+    private static void respond(HttpExchange exchange, Result result, int successStatus) throws IOException {
+        if (result.getSuccess()) {
+            respond(exchange, successStatus, json -> json.beginObject().name("message").value(result.getMessage()).endObject());
+        } else {
+            error(exchange, 409, result.getMessage());
+        }
+    }
+
+    private static void error(HttpExchange exchange, int status, String message) throws IOException {
+        // Too late to change the status once a streamed body has started.
+        if (exchange.getResponseCode() != -1) {
+            return;
+        }
+        respond(exchange, status, json -> json.beginObject().name("error").value(message).endObject());
+    }
+
+    // Small bodies are buffered so they go out with a Content-Length.
+    private static void respond(HttpExchange exchange, int status, Body body) throws IOException {
+        StringWriter buffer = new StringWriter(256);
+        body.write(new JsonWriter(buffer));
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void stream(HttpExchange exchange, Body body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(200, 0);
+        try (Writer out = new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), WRITE_BUFFER_CHARS)) {
+            JsonWriter json = new JsonWriter(out);
+            body.write(json);
+            json.flush();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Body {
+        void write(JsonWriter json);
+    }
+}
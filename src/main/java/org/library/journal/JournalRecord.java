@@ -0,0 +1,121 @@
+package org.library.journal;
+
+import org.library.event.LoanEvent;
+import org.library.event.LoanEventType;
+import org.library.model.LoanStatus;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.zip.CRC32C;
+
+// Fixed-size records after a one-record header (magic, version) at the start of each segment.
+// Version 1 segments have no header and no loan date field; they are still read, taking the loan
+// date from borrow events' own date and leaving it null on the others.
+final class JournalRecord {
+    static final int SIZE = 64;
+    static final int HEADER_SIZE = SIZE;
+    static final int VERSION = 2;
+
+    private static final int MAGIC = 0x4C4A4E4C; // "LJNL"
+    private static final int LEGACY_VERSION = 1;
+
+    private static final int SEQUENCE = 0;
+    private static final int TIMESTAMP = 8;
+    private static final int LOAN_ID = 16;
+    private static final int USER_ID = 24;
+    private static final int BOOK_ID = 32;
+    private static final int DATE = 40;
+    private static final int DUE_DATE = 44;
+    private static final int TYPE = 48;
+    private static final int STATUS = 49;
+    private static final int LOAN_DATE = 52;
+    private static final int CRC = 60;
+
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final LoanEventType[] TYPES = LoanEventType.values();
+    private static final LoanStatus[] STATUSES = LoanStatus.values();
+
+    private JournalRecord() {
+    }
+
+    static void writeHeader(ByteBuffer buffer) {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+    }
+
+    // Headerless segments predate versioning; their first bytes are a small record sequence or zero.
+    static int version(ByteBuffer buffer) {
+        if (buffer.limit() < 8 || buffer.getInt(0) != MAGIC) {
+            return LEGACY_VERSION;
+        }
+        return buffer.getInt(4);
+    }
+
+    static int firstOffset(int version) {
+        return version == LEGACY_VERSION ? 0 : HEADER_SIZE;
+    }
+
+    static void write(ByteBuffer buffer, int offset, LoanEvent event) {
+        buffer.putLong(offset + SEQUENCE, event.getSequence());
+        buffer.putLong(offset + TIMESTAMP, event.getTimestamp());
+        buffer.putLong(offset + LOAN_ID, event.getLoanId());
+        buffer.putLong(offset + USER_ID, event.getUserId());
+        buffer.putLong(offset + BOOK_ID, event.getBookId());
+        buffer.putInt(offset + DATE, toEpochDay(event.getDate()));
+        buffer.putInt(offset + DUE_DATE, toEpochDay(event.getDueDate()));
+        buffer.put(offset + TYPE, (byte) event.getType().ordinal());
+        buffer.put(offset + STATUS, event.getStatus() == null ? -1 : (byte) event.getStatus().ordinal());
+        buffer.putInt(offset + LOAN_DATE, toEpochDay(event.getLoanDate()));
+        buffer.putInt(offset + CRC, checksum(buffer, offset));
+    }
+
+    static boolean isValid(ByteBuffer buffer, int offset) {
+        if (offset + SIZE > buffer.limit()) {
+            return false;
+        }
+        long sequence = buffer.getLong(offset + SEQUENCE);
+        return sequence > 0 && buffer.getInt(offset + CRC) == checksum(buffer, offset);
+    }
+
+    static long sequence(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset + SEQUENCE);
+    }
+
+    static LoanEvent read(ByteBuffer buffer, int offset, int version) {
+        byte status = buffer.get(offset + STATUS);
+        LoanEventType type = TYPES[buffer.get(offset + TYPE)];
+        LocalDate date = fromEpochDay(buffer.getInt(offset + DATE));
+        LocalDate loanDate;
+        if (version == LEGACY_VERSION) {
+            loanDate = type == LoanEventType.BORROWED ? date : null;
+        } else {
+            loanDate = fromEpochDay(buffer.getInt(offset + LOAN_DATE));
+        }
+        return new LoanEvent(
+                buffer.getLong(offset + SEQUENCE),
+                buffer.getLong(offset + TIMESTAMP),
+                type,
+                buffer.getLong(offset + LOAN_ID),
+                buffer.getLong(offset + USER_ID),
+                buffer.getLong(offset + BOOK_ID),
+                loanDate,
+                date,
+                fromEpochDay(buffer.getInt(offset + DUE_DATE)),
+                status < 0 ? null : STATUSES[status]
+        );
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, CRC));
+        return (int) crc.getValue();
+    }
+
+    private static int toEpochDay(LocalDate date) {
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+
+    private static LocalDate fromEpochDay(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+}
@@ -0,0 +1,281 @@
+package org.library.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.event.LoanEvent;
+import org.library.event.LoanEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+@Slf4j
+public class LoanJournal implements LoanEventListener, AutoCloseable {
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 10;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long flushIntervalMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushRequested = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private final Thread flusher;
+
+    private MappedByteBuffer segment;
+    private int position;
+    private long nextSequence;
+    private long appendedSequence;
+    private long durableSequence;
+    private boolean closed;
+
+    public LoanJournal(Path directory) {
+        this(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_FLUSH_INTERVAL_MILLIS);
+    }
+
+    public LoanJournal(Path directory, int segmentSize, long flushIntervalMillis) {
+        if (segmentSize < JournalRecord.HEADER_SIZE + JournalRecord.SIZE) {
+            throw new IllegalArgumentException("Segment size must hold the header and at least one record");
+        }
+
+        this.directory = directory;
+        this.segmentSize = segmentSize - segmentSize % JournalRecord.SIZE;
+        this.flushIntervalMillis = flushIntervalMillis;
+
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open loan journal in " + directory, e);
+        }
+
+        this.flusher = Thread.ofPlatform()
+                .name("loan-journal-flusher")
+                .daemon(true)
+                .start(this::flushLoop);
+    }
+
+    @Override
+    public void onLoanEvent(LoanEvent event) {
+        append(event);
+    }
+
+    public long append(LoanEvent event) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Loan journal is closed");
+            }
+
+            if (position + JournalRecord.SIZE > segmentSize) {
+                roll();
+            }
+
+            long sequence = nextSequence++;
+            JournalRecord.write(segment, position, event.withSequence(sequence));
+            position += JournalRecord.SIZE;
+            appendedSequence = sequence;
+
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durableSequence < sequence && !closed) {
+                flushRequested.signal();
+                flushed.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void sync() {
+        lock.lock();
+        try {
+            segment.force();
+            durableSequence = appendedSequence;
+            flushed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getAppendedSequence() {
+        lock.lock();
+        try {
+            return appendedSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDurableSequence() {
+        lock.lock();
+        try {
+            return durableSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            segment.force();
+            durableSequence = appendedSequence;
+            closed = true;
+            flushRequested.signalAll();
+            flushed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Loan journal closed at sequence {}", durableSequence);
+    }
+
+    private void flushLoop() {
+        while (true) {
+            MappedByteBuffer target;
+            long targetSequence;
+
+            lock.lock();
+            try {
+                while (!closed && durableSequence == appendedSequence) {
+                    flushRequested.await(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                }
+                if (closed) {
+                    return;
+                }
+                target = segment;
+                targetSequence = appendedSequence;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+
+            // One force covers every record appended since the last flush.
+            target.force();
+
+            lock.lock();
+            try {
+                if (targetSequence > durableSequence) {
+                    durableSequence = targetSequence;
+                }
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void roll() {
+        segment.force();
+        durableSequence = appendedSequence;
+        flushed.signalAll();
+
+        log.info("Rolling loan journal segment at sequence {}", nextSequence);
+        startSegment(map(segmentPath(nextSequence)));
+    }
+
+    private void startSegment(MappedByteBuffer mapped) {
+        JournalRecord.writeHeader(mapped);
+        segment = mapped;
+        position = JournalRecord.HEADER_SIZE;
+    }
+
+    private void recover() throws IOException {
+        List<Path> segments = segments(directory);
+        if (segments.isEmpty()) {
+            nextSequence = 1;
+            startSegment(map(segmentPath(nextSequence)));
+            return;
+        }
+
+        Path last = segments.getLast();
+        nextSequence = baseSequence(last);
+        segment = map(last);
+        int version = JournalRecord.version(segment);
+        if (version > JournalRecord.VERSION) {
+            throw new IOException("Unsupported loan journal version " + version + " in " + last);
+        }
+        position = JournalRecord.firstOffset(version);
+
+        while (position + JournalRecord.SIZE <= segmentSize && JournalRecord.isValid(segment, position)) {
+            nextSequence = JournalRecord.sequence(segment, position) + 1;
+            position += JournalRecord.SIZE;
+        }
+
+        appendedSequence = nextSequence - 1;
+        durableSequence = appendedSequence;
+
+        if (version != JournalRecord.VERSION) {
+            // Never mix layouts in one segment: an empty old segment is rewritten in place,
+            // otherwise new records go to a fresh segment.
+            startSegment(position == 0 ? segment : map(segmentPath(nextSequence)));
+        }
+        log.info("Recovered loan journal at sequence {} ({} segment(s))", appendedSequence, segments.size());
+    }
+
+    private MappedByteBuffer map(Path path) {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map journal segment " + path, e);
+        }
+    }
+
+    private Path segmentPath(long baseSequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, baseSequence, SEGMENT_SUFFIX));
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    static long baseSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,100 @@
+package org.library.journal;
+
+import org.library.event.LoanEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public class LoanJournalReader implements Iterator<LoanEvent> {
+    private final List<Path> segments;
+    private final long fromSequence;
+
+    private int segmentIndex = -1;
+    private MappedByteBuffer segment;
+    private int version;
+    private int position;
+    private LoanEvent next;
+
+    public LoanJournalReader(Path directory) {
+        this(directory, 1);
+    }
+
+    public LoanJournalReader(Path directory, long fromSequence) {
+        try {
+            this.segments = LoanJournal.segments(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list loan journal segments in " + directory, e);
+        }
+        this.fromSequence = fromSequence;
+        skipToSegment();
+        advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public LoanEvent next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        LoanEvent current = next;
+        advance();
+        return current;
+    }
+
+    private void skipToSegment() {
+        // Segment names carry their first sequence, so whole segments before the start point are never mapped.
+        int start = 0;
+        for (int i = 1; i < segments.size(); i++) {
+            if (LoanJournal.baseSequence(segments.get(i)) <= fromSequence) {
+                start = i;
+            }
+        }
+        segmentIndex = start - 1;
+    }
+
+    private void advance() {
+        next = null;
+        while (true) {
+            if (segment != null && JournalRecord.isValid(segment, position)) {
+                LoanEvent event = JournalRecord.read(segment, position, version);
+                position += JournalRecord.SIZE;
+                if (event.getSequence() >= fromSequence) {
+                    next = event;
+                    return;
+                }
+                continue;
+            }
+
+            if (++segmentIndex >= segments.size()) {
+                segment = null;
+                return;
+            }
+            Path path = segments.get(segmentIndex);
+            segment = map(path);
+            version = JournalRecord.version(segment);
+            if (version > JournalRecord.VERSION) {
+                throw new IllegalStateException("Unsupported loan journal version " + version + " in " + path);
+            }
+            position = JournalRecord.firstOffset(version);
+        }
+    }
+
+    private static MappedByteBuffer map(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map journal segment " + path, e);
+        }
+    }
+}
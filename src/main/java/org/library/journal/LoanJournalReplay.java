@@ -0,0 +1,75 @@
+package org.library.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.event.LoanEvent;
+import org.library.model.Loan;
+import org.library.model.LoanStatus;
+
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+@Slf4j
+public class LoanJournalReplay {
+
+    public static Map<Long, Loan> replay(Path directory) {
+        Map<Long, Loan> loans = new HashMap<>();
+        LoanJournalReader reader = new LoanJournalReader(directory);
+
+        long events = 0;
+        while (reader.hasNext()) {
+            apply(loans, reader.next());
+            events++;
+        }
+
+        log.info("Replayed {} loan event(s) into {} loan(s)", events, loans.size());
+        return loans;
+    }
+
+    static void apply(Map<Long, Loan> loans, LoanEvent event) {
+        switch (event.getType()) {
+            case BORROWED -> loans.put(event.getLoanId(), new Loan(
+                    event.getLoanId(),
+                    event.getUserId(),
+                    event.getBookId(),
+                    event.getLoanDate(),
+                    null,
+                    event.getDueDate(),
+                    LoanStatus.ACTIVE
+            ));
+            case RETURNED -> {
+                Loan loan = loans.get(event.getLoanId());
+                if (loan == null) {
+                    log.warn("Return event {} for unknown loan {}", event.getSequence(), event.getLoanId());
+                    return;
+                }
+                loan.markReturned(event.getDate());
+                loan.setStatus(LoanStatus.RETURNED);
+            }
+            case STATUS_CHANGED -> {
+                Loan loan = loans.get(event.getLoanId());
+                if (loan == null) {
+                    log.warn("Status event {} for unknown loan {}", event.getSequence(), event.getLoanId());
+                    return;
+                }
+                loan.setStatus(event.getStatus());
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.err.println("Usage: LoanJournalReplay <journal-directory>");
+            System.exit(1);
+        }
+
+        Map<Long, Loan> loans = replay(Path.of(args[0]));
+
+        Map<LoanStatus, Integer> byStatus = new EnumMap<>(LoanStatus.class);
+        loans.values().forEach(loan -> byStatus.merge(loan.getStatus(), 1, Integer::sum));
+
+        System.out.println("Loans rebuilt: " + loans.size());
+        byStatus.forEach((status, count) -> System.out.println("  " + status + ": " + count));
+    }
+}
@@ -0,0 +1,231 @@
+package org.library.kiosk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.model.Book;
+import org.library.util.Result;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// Thread-safe kiosk client. All callers share one connection: requests are pipelined as they
+// are issued and responses are matched back by request id, in whatever order they arrive.
+@Slf4j
+public class KioskClient implements AutoCloseable {
+    private final SocketChannel channel;
+    private final Thread reader;
+    private final AtomicInteger nextRequestId = new AtomicInteger();
+    private final Map<Integer, Pending> pending = new ConcurrentHashMap<>();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ByteBuffer out = ByteBuffer.allocateDirect(KioskProtocol.MAX_REQUEST_BYTES);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+    private volatile IOException failure;
+
+    public KioskClient(InetSocketAddress address) throws IOException {
+        channel = SocketChannel.open(address);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        reader = Thread.ofVirtual().name("kiosk-client-reader").start(this::readLoop);
+    }
+
+    // Completes with the session token, or empty when the login was refused.
+    public CompletableFuture<Optional<String>> loginAsync(String email, String password) {
+        return send(KioskProtocol.LOGIN, buffer -> {
+            KioskProtocol.putString(buffer, encoder, email);
+            KioskProtocol.putString(buffer, encoder, password);
+        }).thenApply(response -> {
+            response.requireSuccess();
+            return response.status == KioskProtocol.OK ? Optional.of(response.message) : Optional.empty();
+        });
+    }
+
+    public CompletableFuture<Result> borrowAsync(String token, long bookId) {
+        return send(KioskProtocol.BORROW, token, bookId).thenApply(Response::toResult);
+    }
+
+    public CompletableFuture<Result> returnBookAsync(String token, long bookId) {
+        return send(KioskProtocol.RETURN, token, bookId).thenApply(Response::toResult);
+    }
+
+    public CompletableFuture<Optional<Book>> getBookAsync(long bookId) {
+        return getBookAsync(null, bookId);
+    }
+
+    // With a token the lookup reflects the patron's own borrows and returns straight away.
+    public CompletableFuture<Optional<Book>> getBookAsync(String token, long bookId) {
+        return send(KioskProtocol.GET_BOOK, buffer -> {
+            buffer.putLong(bookId);
+            KioskProtocol.putString(buffer, encoder, token);
+        }).thenApply(response -> {
+            if (response.status == KioskProtocol.NOT_FOUND) {
+                return Optional.empty();
+            }
+            response.requireSuccess();
+            return Optional.of(response.book);
+        });
+    }
+
+    public Optional<String> login(String email, String password) {
+        return loginAsync(email, password).join();
+    }
+
+    public Result borrow(String token, long bookId) {
+        return borrowAsync(token, bookId).join();
+    }
+
+    public Result returnBook(String token, long bookId) {
+        return returnBookAsync(token, bookId).join();
+    }
+
+    public Optional<Book> getBook(long bookId) {
+        return getBookAsync(bookId).join();
+    }
+
+    public int inFlight() {
+        return pending.size();
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close kiosk connection", e);
+        }
+        try {
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CompletableFuture<Response> send(byte opcode, String token, long bookId) {
+        return send(opcode, buffer -> {
+            KioskProtocol.putString(buffer, encoder, token);
+            buffer.putLong(bookId);
+        });
+    }
+
+    // The payload is written under the write lock, which also guards the encoder.
+    private CompletableFuture<Response> send(byte opcode, Consumer<ByteBuffer> payload) {
+        int requestId = nextRequestId.incrementAndGet();
+        Pending call = new Pending(opcode);
+        pending.put(requestId, call);
+
+        writeLock.lock();
+        try {
+            if (failure != null) {
+                throw failure;
+            }
+            out.clear();
+            out.putInt(0);
+            out.putInt(requestId);
+            out.put(opcode);
+            payload.accept(out);
+            out.putInt(0, out.position() - KioskProtocol.LENGTH_BYTES);
+            out.flip();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        } catch (IOException e) {
+            pending.remove(requestId);
+            call.future.completeExceptionally(new UncheckedIOException("Failed to send kiosk request", e));
+        } catch (BufferOverflowException | IllegalStateException e) {
+            pending.remove(requestId);
+            call.future.completeExceptionally(new IllegalArgumentException("Kiosk request too large", e));
+        } finally {
+            writeLock.unlock();
+        }
+        return call.future;
+    }
+
+    private void readLoop() {
+        ByteBuffer in = ByteBuffer.allocateDirect(KioskProtocol.MAX_RESPONSE_BYTES * 2);
+        try {
+            while (channel.read(in) >= 0) {
+                in.flip();
+                while (in.remaining() >= KioskProtocol.LENGTH_BYTES) {
+                    int length = in.getInt(in.position());
+                    if (length < KioskProtocol.HEADER_BYTES || length > KioskProtocol.MAX_RESPONSE_BYTES) {
+                        throw new IOException("Bad kiosk response length " + length);
+                    }
+                    if (in.remaining() < KioskProtocol.LENGTH_BYTES + length) {
+                        break;
+                    }
+                    int frameEnd = in.position() + KioskProtocol.LENGTH_BYTES + length;
+                    in.position(in.position() + KioskProtocol.LENGTH_BYTES);
+                    complete(in);
+                    in.position(frameEnd);
+                }
+                in.compact();
+            }
+            failure = new IOException("Kiosk connection closed by server");
+        } catch (IOException e) {
+            failure = e;
+        }
+
+        writeLock.lock();
+        try {
+            if (failure == null) {
+                failure = new IOException("Kiosk connection closed");
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        UncheckedIOException closed = new UncheckedIOException(failure);
+        pending.values().forEach(call -> call.future.completeExceptionally(closed));
+        pending.clear();
+    }
+
+    private void complete(ByteBuffer in) {
+        int requestId = in.getInt();
+        byte status = in.get();
+        Pending call = pending.remove(requestId);
+        if (call == null) {
+            log.warn("Kiosk response for unknown request {}", requestId);
+            return;
+        }
+
+        if (status == KioskProtocol.OK && call.opcode == KioskProtocol.GET_BOOK) {
+            call.future.complete(new Response(status, null, KioskProtocol.getBook(in)));
+        } else {
+            call.future.complete(new Response(status, KioskProtocol.getString(in), null));
+        }
+    }
+
+    private static final class Pending {
+        final byte opcode;
+        final CompletableFuture<Response> future = new CompletableFuture<>();
+
+        Pending(byte opcode) {
+            this.opcode = opcode;
+        }
+    }
+
+    private record Response(byte status, String message, Book book) {
+        Result toResult() {
+            requireSuccess();
+            return status == KioskProtocol.OK ? Result.success(message) : Result.failure(message);
+        }
+
+        void requireSuccess() {
+            if (status == KioskProtocol.BAD_REQUEST || status == KioskProtocol.ERROR) {
+                throw new IllegalStateException("Kiosk request rejected: " + message);
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package org.library.kiosk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.model.Book;
+import org.library.service.LibraryService;
+import org.library.service.LoanService;
+import org.library.service.SessionTokens;
+import org.library.service.UserService;
+import org.library.util.Result;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+
+// One kiosk connection. The reader decodes frames in place from a direct buffer and hands
+// each request to its own virtual thread, so a slow borrow does not hold up lookups behind it.
+// A kiosk serves many patrons over one connection, so each borrow or return names its patron by
+// session token rather than the connection being logged in.
+@Slf4j
+final class KioskConnection implements Runnable {
+    private static final int MAX_IN_FLIGHT = 256;
+
+    private final SocketChannel channel;
+    private final UserService userService;
+    private final LoanService loanService;
+    private final LibraryService libraryService;
+    private final SessionTokens tokens;
+    private final ExecutorService workers;
+
+    private final Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ByteBuffer out = ByteBuffer.allocateDirect(KioskProtocol.MAX_RESPONSE_BYTES);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+
+    KioskConnection(SocketChannel channel, UserService userService, LoanService loanService,
+                    LibraryService libraryService, SessionTokens tokens, ExecutorService workers) {
+        this.channel = channel;
+        this.userService = userService;
+        this.loanService = loanService;
+        this.libraryService = libraryService;
+        this.tokens = tokens;
+        this.workers = workers;
+    }
+
+    @Override
+    public void run() {
+        ByteBuffer in = ByteBuffer.allocateDirect(KioskProtocol.MAX_REQUEST_BYTES * 16);
+        try (channel) {
+            while (channel.read(in) >= 0) {
+                in.flip();
+                while (in.remaining() >= KioskProtocol.LENGTH_BYTES) {
+                    int length = in.getInt(in.position());
+                    if (length < KioskProtocol.HEADER_BYTES || length > KioskProtocol.MAX_REQUEST_BYTES) {
+                        log.warn("Closing kiosk connection {}: bad frame length {}", channel.getRemoteAddress(), length);
+                        return;
+                    }
+                    if (in.remaining() < KioskProtocol.LENGTH_BYTES + length) {
+                        break;
+                    }
+                    int frameEnd = in.position() + KioskProtocol.LENGTH_BYTES + length;
+                    int limit = in.limit();
+                    in.position(in.position() + KioskProtocol.LENGTH_BYTES).limit(frameEnd);
+                    dispatch(in);
+                    in.limit(limit).position(frameEnd);
+                }
+                in.compact();
+            }
+        } catch (IOException e) {
+            log.debug("Kiosk connection closed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Payloads are read up to the frame's end only; a string running past it is a bad request.
+    private void dispatch(ByteBuffer in) throws InterruptedException {
+        int requestId = in.getInt();
+        byte opcode = in.get();
+        Request request;
+        try {
+            request = switch (opcode) {
+                case KioskProtocol.LOGIN -> new Request(requestId, opcode, null,
+                        KioskProtocol.getString(in), KioskProtocol.getString(in), 0);
+                case KioskProtocol.BORROW, KioskProtocol.RETURN -> new Request(requestId, opcode,
+                        KioskProtocol.getString(in), null, null, in.getLong());
+                case KioskProtocol.GET_BOOK -> {
+                    long bookId = in.getLong();
+                    yield new Request(requestId, opcode, KioskProtocol.getString(in), null, null, bookId);
+                }
+                default -> null;
+            };
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            request = null;
+        }
+        if (request == null || in.hasRemaining()
+                || (opcode == KioskProtocol.LOGIN && (request.email() == null || request.password() == null))) {
+            respond(requestId, KioskProtocol.BAD_REQUEST, "Unknown opcode or bad payload: " + opcode);
+            return;
+        }
+
+        Request accepted = request;
+        inFlight.acquire();
+        workers.execute(() -> {
+            try {
+                handle(accepted);
+            } catch (RuntimeException e) {
+                log.error("Kiosk request {} (opcode {}) failed", requestId, opcode, e);
+                respond(requestId, KioskProtocol.ERROR, "Internal error");
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void handle(Request request) {
+        int requestId = request.requestId();
+        switch (request.opcode()) {
+            case KioskProtocol.LOGIN -> login(requestId, request.email(), request.password());
+            case KioskProtocol.BORROW, KioskProtocol.RETURN -> {
+                Long userId = userFor(request.token());
+                if (userId == null) {
+                    respond(requestId, KioskProtocol.UNAUTHORIZED, "Missing or unknown session token");
+                } else if (request.opcode() == KioskProtocol.BORROW) {
+                    respond(requestId, loanService.borrowBook(userId, request.bookId()));
+                } else {
+                    respond(requestId, loanService.returnBook(userId, request.bookId()));
+                }
+            }
+            case KioskProtocol.GET_BOOK ->
+                    respond(requestId, libraryService.getBookById(userFor(request.token()), request.bookId()));
+            default -> throw new IllegalStateException("Unexpected opcode " + request.opcode());
+        }
+    }
+
+    private Long userFor(String token) {
+        return token == null ? null : tokens.resolve(token);
+    }
+
+    // Same rules as the HTTP login: logging in again with the right password replaces the token.
+    private void login(int requestId, String email, String password) {
+        Result result = userService.loginUser(email, password);
+        if (!(result.getValue() instanceof Long userId)) {
+            respond(requestId, result);
+            return;
+        }
+        String token = tokens.issue(userId);
+        if (token == null) {
+            respond(requestId, KioskProtocol.FAILED, "Too many sessions");
+            return;
+        }
+        respond(requestId, KioskProtocol.OK, token);
+    }
+
+    private void respond(int requestId, Result result) {
+        respond(requestId, result.getSuccess() ? KioskProtocol.OK : KioskProtocol.FAILED, result.getMessage());
+    }
+
+    private void respond(int requestId, Optional<Book> book) {
+        writeLock.lock();
+        try {
+            begin(requestId, book.isPresent() ? KioskProtocol.OK : KioskProtocol.NOT_FOUND);
+            if (book.isPresent()) {
+                KioskProtocol.putBook(out, encoder, book.get());
+            } else {
+                KioskProtocol.putString(out, encoder, "Book not found");
+            }
+            send();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void respond(int requestId, byte status, String message) {
+        writeLock.lock();
+        try {
+            begin(requestId, status);
+            KioskProtocol.putString(out, encoder, message);
+            send();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void begin(int requestId, byte status) {
+        out.clear();
+        out.putInt(0);
+        out.putInt(requestId);
+        out.put(status);
+    }
+
+    private void send() {
+        out.putInt(0, out.position() - KioskProtocol.LENGTH_BYTES);
+        out.flip();
+        try {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        } catch (IOException e) {
+            // The reader notices the closed channel and ends the connection.
+            log.debug("Failed to write kiosk response", e);
+        }
+    }
+
+    private record Request(int requestId, byte opcode, String token, String email, String password, long bookId) {
+    }
+}
@@ -0,0 +1,93 @@
+package org.library.kiosk;
+
+import org.library.model.Book;
+import org.library.model.BookStatus;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+// Frame: int length (bytes that follow) | int request id | byte opcode or status | payload.
+// Strings are short-prefixed UTF-8, -1 for null.
+// Requests: LOGIN carries string email, string password and is answered with a session token as
+// the message; BORROW/RETURN carry string token, long bookId; GET_BOOK carries long bookId and
+// an optional token, so a patron sees their own borrows straight away.
+// Responses: a message, or an encoded book for a successful GET_BOOK.
+// Responses may arrive in any order; the request id ties them back to the call.
+public final class KioskProtocol {
+    public static final int LENGTH_BYTES = Integer.BYTES;
+    public static final int HEADER_BYTES = Integer.BYTES + Byte.BYTES;
+    public static final int MAX_REQUEST_BYTES = 1024;
+    public static final int MAX_RESPONSE_BYTES = 64 * 1024;
+
+    public static final byte BORROW = 1;
+    public static final byte RETURN = 2;
+    public static final byte GET_BOOK = 3;
+    public static final byte LOGIN = 4;
+
+    public static final byte OK = 0;
+    public static final byte FAILED = 1;
+    public static final byte NOT_FOUND = 2;
+    public static final byte BAD_REQUEST = 3;
+    public static final byte ERROR = 4;
+    public static final byte UNAUTHORIZED = 5;
+
+    private static final BookStatus[] STATUSES = BookStatus.values();
+    private static final short NULL_STRING = -1;
+
+    private KioskProtocol() {
+    }
+
+    // Encodes straight into the buffer and back-patches the length, so no byte[] is built per string.
+    static void putString(ByteBuffer buffer, CharsetEncoder encoder, String value) {
+        if (value == null) {
+            buffer.putShort(NULL_STRING);
+            return;
+        }
+        int lengthAt = buffer.position();
+        buffer.putShort((short) 0);
+        encoder.reset();
+        CoderResult result = encoder.encode(CharBuffer.wrap(value), buffer, true);
+        if (result.isOverflow()) {
+            throw new IllegalStateException("Response does not fit in " + buffer.capacity() + " bytes");
+        }
+        encoder.flush(buffer);
+        buffer.putShort(lengthAt, (short) (buffer.position() - lengthAt - Short.BYTES));
+    }
+
+    // Throws IndexOutOfBoundsException for a length running past the buffer's limit.
+    static String getString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length == NULL_STRING) {
+            return null;
+        }
+        ByteBuffer slice = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return StandardCharsets.UTF_8.decode(slice).toString();
+    }
+
+    static void putBook(ByteBuffer buffer, CharsetEncoder encoder, Book book) {
+        buffer.putLong(book.getBookID());
+        buffer.putInt(book.getYear());
+        buffer.put((byte) book.getStatus().ordinal());
+        putString(buffer, encoder, book.getTitle());
+        putString(buffer, encoder, book.getAuthor());
+        putString(buffer, encoder, book.getPublisher());
+        putString(buffer, encoder, book.getIsbn());
+        putString(buffer, encoder, book.getBarcode());
+    }
+
+    static Book getBook(ByteBuffer buffer) {
+        long bookId = buffer.getLong();
+        int year = buffer.getInt();
+        BookStatus status = STATUSES[buffer.get()];
+        String title = getString(buffer);
+        String author = getString(buffer);
+        String publisher = getString(buffer);
+        String isbn = getString(buffer);
+        String barcode = getString(buffer);
+        return new Book(bookId, title, author, year, publisher, isbn, barcode, status);
+    }
+}
@@ -0,0 +1,85 @@
+package org.library.kiosk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.service.LibraryService;
+import org.library.service.LoanService;
+import org.library.service.SessionTokens;
+import org.library.service.UserService;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Binary kiosk protocol server (see KioskProtocol); one virtual thread per connection and per request.
+// Session tokens are shared by all connections, so a patron may log in at one kiosk and borrow at another.
+@Slf4j
+public class KioskServer implements AutoCloseable {
+    public static final Duration DEFAULT_SESSION_IDLE_TIMEOUT = Duration.ofMinutes(5);
+    public static final int DEFAULT_MAX_SESSIONS = 100_000;
+
+    private final ServerSocketChannel serverChannel;
+    private final UserService userService;
+    private final LoanService loanService;
+    private final LibraryService libraryService;
+    private final SessionTokens tokens;
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private Thread acceptor;
+
+    public KioskServer(InetSocketAddress address, UserService userService, LoanService loanService,
+                       LibraryService libraryService) throws IOException {
+        this(address, userService, loanService, libraryService, DEFAULT_SESSION_IDLE_TIMEOUT, DEFAULT_MAX_SESSIONS);
+    }
+
+    public KioskServer(InetSocketAddress address, UserService userService, LoanService loanService,
+                       LibraryService libraryService, Duration sessionIdleTimeout, int maxSessions)
+            throws IOException {
+        this.userService = userService;
+        this.loanService = loanService;
+        this.libraryService = libraryService;
+        this.tokens = new SessionTokens(sessionIdleTimeout, maxSessions, userService::endSession);
+        this.serverChannel = ServerSocketChannel.open().bind(address);
+    }
+
+    public void start() {
+        acceptor = Thread.ofVirtual().name("kiosk-acceptor").start(this::accept);
+        log.info("Kiosk protocol listening on port {}", port());
+    }
+
+    public int port() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    @Override
+    public void close() {
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close kiosk server socket", e);
+        }
+        if (acceptor != null) {
+            acceptor.interrupt();
+        }
+        workers.shutdownNow();
+        log.info("Kiosk protocol stopped");
+    }
+
+    private void accept() {
+        while (serverChannel.isOpen()) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                workers.execute(new KioskConnection(channel, userService, loanService, libraryService, tokens, workers));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                log.error("Failed to accept kiosk connection", e);
+            }
+        }
+    }
+}
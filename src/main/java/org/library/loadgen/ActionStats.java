@@ -0,0 +1,67 @@
+package org.library.loadgen;
+
+import org.library.util.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-action outcome counters and latencies. Response time runs from the scheduled arrival,
+// service time from when a worker actually started the request.
+public class ActionStats {
+    private final LatencyHistogram responseTime = new LatencyHistogram();
+    private final LatencyHistogram serviceTime = new LatencyHistogram();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    void record(Outcome outcome, long scheduledNanos, long startedNanos, long finishedNanos) {
+        switch (outcome) {
+            case SUCCEEDED -> succeeded.increment();
+            case FAILED -> failed.increment();
+            case ERROR -> errors.increment();
+            case SKIPPED -> {
+                skipped.increment();
+                return;
+            }
+        }
+        responseTime.record(finishedNanos - scheduledNanos);
+        serviceTime.record(finishedNanos - startedNanos);
+    }
+
+    public LatencyHistogram getResponseTime() {
+        return responseTime;
+    }
+
+    public LatencyHistogram getServiceTime() {
+        return serviceTime;
+    }
+
+    public long getSucceeded() {
+        return succeeded.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    public long getCompleted() {
+        return getSucceeded() + getFailed() + getErrors();
+    }
+
+    enum Outcome {
+        SUCCEEDED,
+        // The service answered with a failure Result, e.g. the book was already lent.
+        FAILED,
+        ERROR,
+        // Nothing to do, e.g. a return for a patron holding no books.
+        SKIPPED
+    }
+}
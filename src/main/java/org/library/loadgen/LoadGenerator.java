@@ -0,0 +1,264 @@
+package org.library.loadgen;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.LibraryBackend;
+import org.library.admission.RejectedException;
+import org.library.loadgen.ActionStats.Outcome;
+import org.library.model.Book;
+import org.library.model.BookStatus;
+import org.library.model.Loan;
+import org.library.model.User;
+import org.library.repository.BookRepositoryInterface;
+import org.library.repository.UserRepositoryInterface;
+import org.library.util.LatencyHistogram;
+import org.library.util.Result;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Open-loop load generator: arrivals are scheduled at the target rate up front and each request's
+// latency is measured from its scheduled arrival, so a stalled service cannot slow the generator
+// down and hide its own queueing delay (coordinated omission).
+@Slf4j
+public class LoadGenerator {
+    static final String PASSWORD = "Load#Test1";
+    static final String BARCODE_PREFIX = "LOADGEN-";
+
+    private final LibraryBackend backend;
+    private final LoadOptions options;
+    private final Map<PatronAction, ActionStats> stats = new EnumMap<>(PatronAction.class);
+    private final AtomicLong maxDispatchLagNanos = new AtomicLong();
+
+    private Patron[] patrons;
+    private long[] bookIds;
+    private String[] bookTitles;
+    private ZipfDistribution popularity;
+    private long issued;
+
+    public LoadGenerator(LibraryBackend backend, LoadOptions options) {
+        this.backend = backend;
+        this.options = options;
+        for (PatronAction action : PatronAction.values()) {
+            stats.put(action, new ActionStats());
+        }
+    }
+
+    // Creates the patrons and tops the catalog up to the requested size; existing rows are reused,
+    // so repeated runs against the same database do not keep growing it.
+    public void seed() {
+        UserRepositoryInterface users = backend.getUserRepository();
+        BookRepositoryInterface books = backend.getBookRepository();
+
+        String hash = backend.getUserService().hashPassword(PASSWORD);
+        patrons = new Patron[options.getUsers()];
+        for (int i = 0; i < patrons.length; i++) {
+            String email = "loadgen-" + (i + 1) + "@example.com";
+            User user = users.saveIfAbsent(new User("Load Patron " + (i + 1), email, hash))
+                    .or(() -> users.findByEmail(email))
+                    .orElseThrow(() -> new IllegalStateException("Failed to seed patron " + email));
+            // Seeded behind the user service's back, so the email filter has to be told.
+            if (backend.getKnownEmails() != null) {
+                backend.getKnownEmails().add(email);
+            }
+
+            Patron patron = new Patron(user.getUserId(), email);
+            for (Loan loan : backend.getLoanService().getActiveLoansForUser(user.getUserId())) {
+                patron.borrowed.add(loan.getBookId());
+            }
+            patrons[i] = patron;
+        }
+
+        List<Book> catalog = new ArrayList<>(books.findAll());
+        for (int i = catalog.size(); i < options.getBooks(); i++) {
+            catalog.add(books.save(new Book(null, "Load Title " + i, "Load Author " + i % 500, 1950 + i % 75,
+                    "Load Press", null, BARCODE_PREFIX + i, BookStatus.AVAILABLE)));
+        }
+
+        // Popularity rank is shuffled so the hottest books are not simply the lowest ids.
+        Collections.shuffle(catalog, new Random(options.getSeed()));
+        int size = Math.min(catalog.size(), options.getBooks());
+        bookIds = new long[size];
+        bookTitles = new String[size];
+        for (int i = 0; i < size; i++) {
+            bookIds[i] = catalog.get(i).getBookID();
+            bookTitles[i] = catalog.get(i).getTitle();
+        }
+        popularity = new ZipfDistribution(size, options.getZipfExponent());
+
+        log.info("Seeded {} patron(s) and {} book(s) on the {} backend", patrons.length, size, options.getBackend());
+    }
+
+    public Map<PatronAction, ActionStats> run() {
+        if (patrons == null) {
+            seed();
+        }
+
+        SplittableRandom random = new SplittableRandom(options.getSeed());
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / options.getRate();
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(options.getWarmupSeconds());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(options.getDurationSeconds());
+
+        ExecutorService workers = options.getThreads() == 0
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(options.getThreads());
+        try (workers) {
+            double offsetNanos = 0;
+            while (true) {
+                long scheduled = start + (long) offsetNanos;
+                if (scheduled - end >= 0) {
+                    break;
+                }
+                for (long wait = scheduled - System.nanoTime(); wait > 0; wait = scheduled - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                PatronAction action = options.getMix().pick(random.nextDouble());
+                Patron patron = patrons[random.nextInt(patrons.length)];
+                int book = popularity.sample(random.nextDouble());
+                boolean measured = scheduled - measureFrom >= 0;
+
+                maxDispatchLagNanos.accumulateAndGet(System.nanoTime() - scheduled, Math::max);
+                workers.execute(() -> perform(action, patron, book, scheduled, measured));
+                issued++;
+
+                offsetNanos += options.isPoissonArrivals()
+                        ? -Math.log(1 - random.nextDouble()) * meanGapNanos
+                        : meanGapNanos;
+            }
+        }
+        return stats;
+    }
+
+    void perform(PatronAction action, Patron patron, int book, long scheduled, boolean measured) {
+        Outcome outcome;
+        patron.lock.lock();
+        long started = System.nanoTime();
+        try {
+            outcome = switch (action) {
+                case LOGIN -> login(patron);
+                case SEARCH -> search(book);
+                case BORROW -> borrow(patron, book);
+                case RETURN -> giveBack(patron);
+            };
+        } catch (RuntimeException e) {
+            log.debug("{} for patron {} failed", action, patron.email, e);
+            outcome = Outcome.ERROR;
+        } finally {
+            patron.lock.unlock();
+        }
+
+        if (measured) {
+            stats.get(action).record(outcome, scheduled, started, System.nanoTime());
+        }
+    }
+
+    // A patron who is already logged in logs out first, so a login always opens a fresh session.
+    private Outcome login(Patron patron) {
+        if (patron.loggedIn) {
+            backend.getUserService().logoutUser(patron.email);
+            patron.loggedIn = false;
+        }
+        return ensureLoggedIn(patron) ? Outcome.SUCCEEDED : Outcome.FAILED;
+    }
+
+    private Outcome search(int book) {
+        try {
+            backend.getBookService().searchBookByTitle(bookTitles[book]);
+            return Outcome.SUCCEEDED;
+        } catch (RejectedException e) {
+            return Outcome.FAILED;
+        }
+    }
+
+    private Outcome borrow(Patron patron, int book) {
+        if (!ensureLoggedIn(patron)) {
+            return Outcome.FAILED;
+        }
+        Result result = backend.getLoanService().borrowBook(patron.userId, bookIds[book]);
+        if (result.getSuccess()) {
+            patron.borrowed.add(bookIds[book]);
+            return Outcome.SUCCEEDED;
+        }
+        return Outcome.FAILED;
+    }
+
+    private Outcome giveBack(Patron patron) {
+        Long bookId = patron.borrowed.peekFirst();
+        if (bookId == null) {
+            return Outcome.SKIPPED;
+        }
+        if (!ensureLoggedIn(patron)) {
+            return Outcome.FAILED;
+        }
+        Result result = backend.getLoanService().returnBook(patron.userId, bookId);
+        patron.borrowed.pollFirst();
+        return result.getSuccess() ? Outcome.SUCCEEDED : Outcome.FAILED;
+    }
+
+    private boolean ensureLoggedIn(Patron patron) {
+        if (!patron.loggedIn) {
+            patron.loggedIn = backend.getUserService().loginUser(patron.email, PASSWORD).getSuccess();
+        }
+        return patron.loggedIn;
+    }
+
+    public void printReport(PrintStream out) {
+        double seconds = options.getDurationSeconds();
+        out.printf("backend=%s rate=%.0f/s duration=%ds warmup=%ds threads=%s zipf=%.2f arrivals=%s mix=%s%n",
+                options.getBackend(), options.getRate(), options.getDurationSeconds(), options.getWarmupSeconds(),
+                options.getThreads() == 0 ? "virtual" : options.getThreads(), options.getZipfExponent(),
+                options.isPoissonArrivals() ? "poisson" : "uniform", options.getMix());
+        out.printf("issued=%d max dispatch lag=%.2f ms%n", issued, maxDispatchLagNanos.get() / 1e6);
+
+        out.println();
+        out.println("Response time (from scheduled arrival), ms");
+        printTable(out, seconds, true);
+        out.println();
+        out.println("Service time (from worker start), ms");
+        printTable(out, seconds, false);
+    }
+
+    private void printTable(PrintStream out, double seconds, boolean response) {
+        out.printf("%-8s %9s %9s %9s %7s %8s %9s %9s %9s %9s %9s %9s %9s%n", "action", "count", "ok", "failed",
+                "errors", "skipped", "ops/s", "mean", "p50", "p90", "p99", "p99.9", "max");
+        stats.forEach((action, actionStats) -> {
+            LatencyHistogram histogram = response ? actionStats.getResponseTime() : actionStats.getServiceTime();
+            out.printf("%-8s %9d %9d %9d %7d %8d %9.1f %9.3f %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+                    action.name().toLowerCase(), actionStats.getCompleted(), actionStats.getSucceeded(),
+                    actionStats.getFailed(), actionStats.getErrors(), actionStats.getSkipped(),
+                    actionStats.getCompleted() / seconds, histogram.meanNanos() / 1e6,
+                    histogram.percentileNanos(50) / 1e6, histogram.percentileNanos(90) / 1e6,
+                    histogram.percentileNanos(99) / 1e6, histogram.percentileNanos(99.9) / 1e6,
+                    histogram.maxNanos() / 1e6);
+        });
+    }
+
+    public static void main(String[] args) {
+        LoadOptions options;
+        try {
+            options = LoadOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadOptions.USAGE);
+            System.exit(1);
+            return;
+        }
+
+        LoadGenerator generator = new LoadGenerator(LibraryBackend.of(options.getBackend()), options);
+        generator.seed();
+        generator.run();
+        generator.printReport(System.out);
+    }
+}
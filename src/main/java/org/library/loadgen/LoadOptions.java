@@ -0,0 +1,79 @@
+package org.library.loadgen;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Builder(toBuilder = true)
+public class LoadOptions {
+    public static final String USAGE = """
+            Usage: LoadGenerator [--option=value ...]
+              --backend=memory|jdbc     repositories to drive (memory)
+              --rate=500                target arrivals per second, independent of response times
+              --duration=30             measured seconds
+              --warmup=5                seconds run before measuring
+              --threads=0               worker threads, 0 for a virtual thread per request
+              --users=1000              simulated patrons
+              --books=10000             catalog size, seeded when the catalog is smaller
+              --zipf=1.0                exponent of book popularity
+              --mix=%s
+              --arrivals=poisson|uniform
+              --seed=42
+            Services log every request; point -Dlogback.configurationFile at a WARN-level
+            configuration or logging will dominate the measured latencies.
+            """.formatted(WorkloadMix.DEFAULT);
+
+    @Builder.Default private final String backend = "memory";
+    @Builder.Default private final double rate = 500;
+    @Builder.Default private final int durationSeconds = 30;
+    @Builder.Default private final int warmupSeconds = 5;
+    @Builder.Default private final int threads = 0;
+    @Builder.Default private final int users = 1_000;
+    @Builder.Default private final int books = 10_000;
+    @Builder.Default private final double zipfExponent = 1.0;
+    @Builder.Default private final WorkloadMix mix = WorkloadMix.parse(WorkloadMix.DEFAULT);
+    @Builder.Default private final boolean poissonArrivals = true;
+    @Builder.Default private final long seed = 42;
+
+    public static LoadOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --option=value but got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        LoadOptionsBuilder builder = builder();
+        values.forEach((key, value) -> {
+            switch (key) {
+                case "backend" -> builder.backend(value);
+                case "rate" -> builder.rate(Double.parseDouble(value));
+                case "duration" -> builder.durationSeconds(Integer.parseInt(value));
+                case "warmup" -> builder.warmupSeconds(Integer.parseInt(value));
+                case "threads" -> builder.threads(Integer.parseInt(value));
+                case "users" -> builder.users(Integer.parseInt(value));
+                case "books" -> builder.books(Integer.parseInt(value));
+                case "zipf" -> builder.zipfExponent(Double.parseDouble(value));
+                case "mix" -> builder.mix(WorkloadMix.parse(value));
+                case "arrivals" -> builder.poissonArrivals(switch (value) {
+                    case "poisson" -> true;
+                    case "uniform" -> false;
+                    default -> throw new IllegalArgumentException("Unknown arrival process: " + value);
+                });
+                case "seed" -> builder.seed(Long.parseLong(value));
+                default -> throw new IllegalArgumentException("Unknown option: --" + key);
+            }
+        });
+
+        LoadOptions options = builder.build();
+        if (options.rate <= 0 || options.durationSeconds <= 0 || options.users <= 0 || options.books <= 0) {
+            throw new IllegalArgumentException("rate, duration, users and books must be positive");
+        }
+        return options;
+    }
+}
@@ -0,0 +1,19 @@
+package org.library.loadgen;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.locks.ReentrantLock;
+
+// One simulated patron. A patron does one thing at a time, so actions for the same patron
+// queue on its lock and that wait is part of the measured response time.
+class Patron {
+    final long userId;
+    final String email;
+    final ReentrantLock lock = new ReentrantLock();
+    final ArrayDeque<Long> borrowed = new ArrayDeque<>();
+    boolean loggedIn;
+
+    Patron(long userId, String email) {
+        this.userId = userId;
+        this.email = email;
+    }
+}
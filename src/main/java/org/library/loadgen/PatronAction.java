@@ -0,0 +1,8 @@
+package org.library.loadgen;
+
+public enum PatronAction {
+    LOGIN,
+    SEARCH,
+    BORROW,
+    RETURN
+}
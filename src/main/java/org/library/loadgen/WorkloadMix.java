@@ -0,0 +1,67 @@
+package org.library.loadgen;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// Relative weights of patron actions, e.g. "login=10,search=50,borrow=20,return=20".
+public class WorkloadMix {
+    public static final String DEFAULT = "login=10,search=50,borrow=20,return=20";
+
+    private final PatronAction[] actions = PatronAction.values();
+    private final double[] cumulative = new double[actions.length];
+    private final Map<PatronAction, Double> weights;
+
+    public WorkloadMix(Map<PatronAction, Double> weights) {
+        double total = 0;
+        for (PatronAction action : actions) {
+            double weight = weights.getOrDefault(action, 0.0);
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight for " + action);
+            }
+            total += weight;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Workload mix has no positive weight");
+        }
+
+        double running = 0;
+        for (int i = 0; i < actions.length; i++) {
+            running += weights.getOrDefault(actions[i], 0.0) / total;
+            cumulative[i] = running;
+        }
+        cumulative[actions.length - 1] = 1.0;
+        this.weights = new EnumMap<>(weights);
+    }
+
+    public static WorkloadMix parse(String spec) {
+        Map<PatronAction, Double> weights = new EnumMap<>(PatronAction.class);
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + part);
+            }
+            weights.put(PatronAction.valueOf(pair[0].trim().toUpperCase()), Double.parseDouble(pair[1].trim()));
+        }
+        return new WorkloadMix(weights);
+    }
+
+    // Maps a uniform value in [0, 1) onto an action.
+    public PatronAction pick(double uniform) {
+        for (int i = 0; i < actions.length; i++) {
+            if (uniform < cumulative[i]) {
+                return actions[i];
+            }
+        }
+        return actions[actions.length - 1];
+    }
+
+    public double share(PatronAction action) {
+        int i = action.ordinal();
+        return cumulative[i] - (i == 0 ? 0 : cumulative[i - 1]);
+    }
+
+    @Override
+    public String toString() {
+        return weights.toString();
+    }
+}
@@ -0,0 +1,50 @@
+package org.library.loadgen;
+
+import java.util.Arrays;
+
+// Zipf over ranks 0..n-1: P(k) is proportional to 1 / (k + 1)^exponent. Sampling is a binary
+// search over the precomputed CDF, so one draw costs O(log n) and no allocation.
+public class ZipfDistribution {
+    private final double[] cdf;
+    private final double exponent;
+
+    public ZipfDistribution(int size, double exponent) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Zipf distribution needs at least one element");
+        }
+        if (exponent < 0) {
+            throw new IllegalArgumentException("Zipf exponent must not be negative");
+        }
+        this.exponent = exponent;
+        this.cdf = new double[size];
+
+        double total = 0;
+        for (int k = 0; k < size; k++) {
+            total += 1.0 / Math.pow(k + 1, exponent);
+            cdf[k] = total;
+        }
+        for (int k = 0; k < size; k++) {
+            cdf[k] /= total;
+        }
+        cdf[size - 1] = 1.0;
+    }
+
+    // Maps a uniform value in [0, 1) onto a rank.
+    public int sample(double uniform) {
+        int index = Arrays.binarySearch(cdf, uniform);
+        int rank = index >= 0 ? index + 1 : -index - 1;
+        return Math.min(rank, cdf.length - 1);
+    }
+
+    public double probability(int rank) {
+        return cdf[rank] - (rank == 0 ? 0 : cdf[rank - 1]);
+    }
+
+    public int size() {
+        return cdf.length;
+    }
+
+    public double exponent() {
+        return exponent;
+    }
+}
@@ -2,19 +2,36 @@ package org.library.model;
 
 import lombok.*;
 import lombok.extern.slf4j.Slf4j;
+import org.library.rowmapper.RowMapped;
 
 @Data
-@EqualsAndHashCode(exclude = {"bookID", "status"})
+@EqualsAndHashCode(exclude = {"bookID", "barcode", "status", "version"})
 @RequiredArgsConstructor
 @AllArgsConstructor
 @Slf4j
+@RowMapped
 public class Book {
     private Long bookID;
     @NonNull private String title;
     @NonNull private String author;
     @NonNull private Integer year;
     @NonNull private String publisher;
+    private String isbn;
+    private String barcode;
     private BookStatus status = BookStatus.AVAILABLE;
+    // Bumped by every update; an update carrying a stale version is rejected.
+    private long version;
+
+    public Book(Long bookID, @NonNull String title, @NonNull String author, @NonNull Integer year,
+                @NonNull String publisher, String isbn, String barcode, BookStatus status) {
+        this(bookID, title, author, year, publisher, isbn, barcode, status, 0);
+    }
+
+    // The constructor from before books carried an isbn and a barcode.
+    public Book(Long bookID, @NonNull String title, @NonNull String author, @NonNull Integer year,
+                @NonNull String publisher, BookStatus status) {
+        this(bookID, title, author, year, publisher, null, null, status);
+    }
 
     public Boolean isAvailable() {
         log.debug("Checking if book '{}' is available", title);
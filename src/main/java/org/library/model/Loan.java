@@ -2,12 +2,16 @@ package org.library.model;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import org.library.rowmapper.Column;
+import org.library.rowmapper.RowMapped;
 
 import java.time.LocalDate;
 
 @Data
 @AllArgsConstructor
+@RowMapped
 public class Loan {
+    @Column("id")
     private Long loanId;
 
     private Long userId;
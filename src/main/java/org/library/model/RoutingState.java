@@ -0,0 +1,17 @@
+package org.library.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+// The shard directory as of one epoch: the ring in force, the ring being resharded to (0 when none)
+// and the users whose shard differs from what the ring says.
+@Data
+@AllArgsConstructor
+public class RoutingState {
+    private long epoch;
+    private int shardCount;
+    private int targetShardCount;
+    private Map<Long, Integer> relocations;
+}
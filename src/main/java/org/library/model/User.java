@@ -1,14 +1,17 @@
 package org.library.model;
 
 import lombok.*;
+import org.library.rowmapper.NotMapped;
+import org.library.rowmapper.RowMapped;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Data
-@EqualsAndHashCode(exclude = {"borrowedBooks", "userId"})
+@EqualsAndHashCode(exclude = {"borrowedBooks", "userId", "version"})
 @ToString(exclude = {"borrowedBooks"})
 @RequiredArgsConstructor
+@RowMapped
 public class User {
     private Long userId;
     @NonNull
@@ -16,7 +19,11 @@ public class User {
     @NonNull
     private String email;
     private String password;
+    // Bumped by every update; an update carrying a stale version is rejected.
+    private long version;
+    @NotMapped
     private List<Book> borrowedBooks = new ArrayList<>();
+    @NotMapped
     private Boolean loggedIn = false;
 
     public User(@NonNull String fullName, @NonNull String email, String password) {
@@ -32,6 +39,10 @@ public class User {
         this.password = password;
     }
 
+    public User(Long userId, @NonNull String fullName, @NonNull String email, String password, long version) {
+        this(userId, fullName, email, password);
+        this.version = version;
+    }
 
     public Boolean isLoggedIn() {
         return loggedIn;
@@ -0,0 +1,51 @@
+package org.library.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.model.OutboxEvent;
+import org.library.util.Json;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+@Slf4j
+public class FileOutboxSink implements OutboxSink {
+    private final FileChannel channel;
+
+    public FileOutboxSink(Path file) throws IOException {
+        this.channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void deliver(List<OutboxEvent> events) throws IOException {
+        StringBuilder lines = new StringBuilder(events.size() * 128);
+        for (OutboxEvent event : events) {
+            lines.append("{\"id\":").append(event.getId())
+                    .append(",\"aggregateType\":").append(Json.quote(event.getAggregateType()))
+                    .append(",\"aggregateId\":").append(event.getAggregateId())
+                    .append(",\"eventType\":").append(Json.quote(event.getEventType()))
+                    .append(",\"createdAt\":").append(Json.quote(String.valueOf(event.getCreatedAt())))
+                    .append(",\"payload\":").append(event.getPayload())
+                    .append("}\n");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        // The relay deletes the batch once this returns, so it has to be on disk first.
+        channel.force(false);
+
+        log.debug("Wrote {} outbox event(s) to file", events.size());
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
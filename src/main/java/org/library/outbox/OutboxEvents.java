@@ -0,0 +1,45 @@
+package org.library.outbox;
+
+import org.library.model.Loan;
+import org.library.model.OutboxEvent;
+import org.library.model.User;
+import org.library.util.Json;
+
+import java.time.LocalDate;
+
+public class OutboxEvents {
+    public static final String LOAN = "LOAN";
+    public static final String USER = "USER";
+
+    public static OutboxEvent loanBorrowed(Loan loan) {
+        return new OutboxEvent(LOAN, loan.getLoanId(), "BORROWED", loanPayload(loan, loan.getLoanDate()));
+    }
+
+    public static OutboxEvent loanReturned(Loan loan, LocalDate returnDate) {
+        return new OutboxEvent(LOAN, loan.getLoanId(), "RETURNED", loanPayload(loan, returnDate));
+    }
+
+    public static OutboxEvent userRegistered(User user) {
+        return new OutboxEvent(USER, user.getUserId(), "REGISTERED", userPayload(user));
+    }
+
+    public static OutboxEvent userDeleted(User user) {
+        return new OutboxEvent(USER, user.getUserId(), "DELETED", userPayload(user));
+    }
+
+    private static String loanPayload(Loan loan, LocalDate date) {
+        return "{\"loanId\":" + loan.getLoanId() +
+                ",\"userId\":" + loan.getUserId() +
+                ",\"bookId\":" + loan.getBookId() +
+                ",\"date\":" + Json.quote(String.valueOf(date)) +
+                ",\"dueDate\":" + Json.quote(String.valueOf(loan.getDueDate())) +
+                "}";
+    }
+
+    private static String userPayload(User user) {
+        return "{\"userId\":" + user.getUserId() +
+                ",\"email\":" + Json.quote(user.getEmail()) +
+                ",\"fullName\":" + Json.quote(user.getFullName()) +
+                "}";
+    }
+}
@@ -0,0 +1,107 @@
+package org.library.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.model.OutboxEvent;
+import org.library.repository.OutboxRepositoryInterface;
+import org.library.util.TransactionRunner;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public class OutboxRelay implements AutoCloseable {
+    private final OutboxRepositoryInterface outboxRepository;
+    private final TransactionRunner transactionRunner;
+    private final int batchSize;
+    private final List<OutboxSink> sinks = new CopyOnWriteArrayList<>();
+
+    private ScheduledExecutorService scheduler;
+
+    public OutboxRelay(OutboxRepositoryInterface outboxRepository, int batchSize) {
+        this(outboxRepository, TransactionRunner.JDBC, batchSize);
+    }
+
+    public OutboxRelay(OutboxRepositoryInterface outboxRepository, TransactionRunner transactionRunner, int batchSize) {
+        this.outboxRepository = outboxRepository;
+        this.transactionRunner = transactionRunner;
+        this.batchSize = batchSize;
+    }
+
+    public void addSink(OutboxSink sink) {
+        sinks.add(sink);
+    }
+
+    public synchronized void start(long pollIntervalMillis) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::drain, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Outbox relay started, polling every {} ms", pollIntervalMillis);
+    }
+
+    public int drain() {
+        int delivered = 0;
+        try {
+            int batch;
+            do {
+                batch = relayBatch();
+                delivered += batch;
+            } while (batch == batchSize);
+        } catch (RuntimeException e) {
+            log.error("Outbox relay failed, batch will be retried", e);
+        }
+        return delivered;
+    }
+
+    // Rows stay locked (and invisible to other relays via SKIP LOCKED) until the
+    // sinks accept them. A sink failure rolls back, so delivery is at-least-once.
+    int relayBatch() {
+        return transactionRunner.inTransaction(() -> {
+            List<OutboxEvent> events = outboxRepository.lockPending(batchSize);
+            if (events.isEmpty()) {
+                return 0;
+            }
+
+            for (OutboxSink sink : sinks) {
+                try {
+                    sink.deliver(events);
+                } catch (Exception e) {
+                    throw new RuntimeException("Outbox sink " + sink.getClass().getSimpleName() + " failed", e);
+                }
+            }
+
+            outboxRepository.deleteByIds(events.stream().map(OutboxEvent::getId).toList());
+            log.debug("Relayed {} outbox event(s)", events.size());
+            return events.size();
+        });
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            scheduler = null;
+        }
+        for (OutboxSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to close outbox sink {}", sink.getClass().getSimpleName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.library.outbox;
+
+import org.library.model.OutboxEvent;
+
+import java.io.IOException;
+import java.util.List;
+
+// Closed by the OutboxRelay it was added to.
+public interface OutboxSink extends AutoCloseable {
+    void deliver(List<OutboxEvent> events) throws Exception;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
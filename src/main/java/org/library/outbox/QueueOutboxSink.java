@@ -0,0 +1,20 @@
+package org.library.outbox;
+
+import org.library.model.OutboxEvent;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+public class QueueOutboxSink implements OutboxSink {
+    private final BlockingQueue<OutboxEvent> queue = new LinkedBlockingQueue<>();
+
+    @Override
+    public void deliver(List<OutboxEvent> events) {
+        queue.addAll(events);
+    }
+
+    public BlockingQueue<OutboxEvent> getQueue() {
+        return queue;
+    }
+}
@@ -0,0 +1,453 @@
+package org.library.recommend;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.event.LoanEvent;
+import org.library.event.LoanEventListener;
+import org.library.event.LoanEventType;
+import org.library.repository.LoanRepositoryInterface;
+import org.library.util.LongIntHashMap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+// "Patrons who borrowed this also borrowed": a sparse item-item co-occurrence matrix. Two books
+// co-occur when one patron borrows both within their last historyLength distinct borrows.
+//
+// Each row keeps at most rowCapacity neighbours, packed as (book id << 24 | count << 12 | error) in
+// one long[]. A full row makes room with Space-Saving: the least counted neighbour is replaced and
+// the newcomer inherits its count + 1 with that count as its error, so any neighbour seen in more
+// than 1/rowCapacity of the row's pairings is kept. Rows are sorted by the guaranteed count
+// (count - error), which keeps a churning tail of one-off pairings below the real neighbours and
+// makes the top-K a prefix. A count reaching 4095 halves the whole row, so old pairings fade.
+// The heap stays bounded at about rowCapacity * 8 + 50 bytes per borrowed book (~180 MB per
+// million books at the default capacity), plus the per-patron histories.
+@Slf4j
+public class CoBorrowIndex implements LoanEventListener {
+    public static final int DEFAULT_ROW_CAPACITY = 16;
+    public static final int DEFAULT_HISTORY_LENGTH = 16;
+
+    private static final int NEIGHBOUR_SHIFT = 24;
+    private static final int COUNT_SHIFT = 12;
+    private static final long FIELD_MASK = (1L << COUNT_SHIFT) - 1;
+    // Book ids get the 40 bits above the count and error.
+    public static final long MAX_BOOK_ID = -1L >>> NEIGHBOUR_SHIFT;
+    private static final int INITIAL_LENGTH = 4;
+
+    // Snapshot: int magic | byte version | int row capacity | int history length | int rows |
+    // rows (long book, byte size, packed entries) | int patrons | patrons (long user, byte size, book ids) |
+    // long CRC32C of everything before it.
+    private static final int MAGIC = 0x4C434252; // "LCBR"
+    private static final byte VERSION = 1;
+
+    private final int rowCapacity;
+    private final int historyLength;
+    private final StampedLock lock = new StampedLock();
+
+    // Values are slot + 1; 0 means no row yet.
+    private final LongIntHashMap rowByBook = new LongIntHashMap();
+    private long[] bookBySlot = new long[16];
+    private long[][] rows = new long[16][];
+    private int[] rowSizes = new int[16];
+    private int rowCount;
+
+    private final LongIntHashMap historyByUser = new LongIntHashMap();
+    private long[] userBySlot = new long[16];
+    // Oldest first.
+    private long[][] histories = new long[16][];
+    private int[] historySizes = new int[16];
+    private int historyCount;
+
+    public CoBorrowIndex() {
+        this(DEFAULT_ROW_CAPACITY, DEFAULT_HISTORY_LENGTH);
+    }
+
+    public CoBorrowIndex(int rowCapacity, int historyLength) {
+        if (rowCapacity < 1 || rowCapacity > Byte.MAX_VALUE
+                || historyLength < 1 || historyLength > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Row capacity and history length must be between 1 and 127");
+        }
+        this.rowCapacity = rowCapacity;
+        this.historyLength = historyLength;
+    }
+
+    @Override
+    public void onLoanEvent(LoanEvent event) {
+        if (event.getType() == LoanEventType.BORROWED) {
+            record(event.getUserId(), event.getBookId());
+        }
+    }
+
+    public void record(long userId, long bookId) {
+        if (!fits(bookId)) {
+            throw new IllegalArgumentException("Book id " + bookId + " is outside 0.." + MAX_BOOK_ID);
+        }
+        long stamp = lock.writeLock();
+        try {
+            insert(userId, bookId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Loan history streams in roughly the order it was written; within a patron's window the order
+    // does not change which pairs are counted.
+    public void rebuild(LoanRepositoryInterface loans) {
+        long stamp = lock.writeLock();
+        try {
+            clear();
+            long[] skipped = {0};
+            loans.streamAll(true, loan -> {
+                if (fits(loan.getBookId())) {
+                    insert(loan.getUserId(), loan.getBookId());
+                } else {
+                    skipped[0]++;
+                }
+            });
+            if (skipped[0] > 0) {
+                log.warn("Co-borrow index skipped {} loan(s) of books with ids above {}", skipped[0], MAX_BOOK_ID);
+            }
+            log.info("Co-borrow index rebuilt with {} row(s) from {} patron(s)", rowCount, historyCount);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Fills ids with the most co-borrowed books, most frequent first, and returns how many it wrote.
+    public int recommend(long bookId, long[] ids) {
+        long stamp = lock.readLock();
+        try {
+            int slot = rowByBook.get(bookId) - 1;
+            if (slot < 0) {
+                return 0;
+            }
+            long[] row = rows[slot];
+            int count = Math.min(rowSizes[slot], ids.length);
+            for (int i = 0; i < count; i++) {
+                ids[i] = row[i] >>> NEIGHBOUR_SHIFT;
+            }
+            return count;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public long[] recommend(long bookId, int limit) {
+        long[] ids = new long[Math.min(limit, rowCapacity)];
+        int count = recommend(bookId, ids);
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+
+    // How often the two books were at least counted together since the row last halved.
+    public int coBorrowCount(long bookId, long otherBookId) {
+        long stamp = lock.readLock();
+        try {
+            int slot = rowByBook.get(bookId) - 1;
+            if (slot < 0) {
+                return 0;
+            }
+            int index = indexOf(rows[slot], rowSizes[slot], otherBookId);
+            return index < 0 ? 0 : (int) guaranteed(rows[slot][index]);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int rows() {
+        long stamp = lock.readLock();
+        try {
+            return rowCount;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Bytes held by rows and histories, counting array headers but not the two id maps.
+    public long estimatedBytes() {
+        long stamp = lock.readLock();
+        try {
+            long bytes = 0;
+            for (int slot = 0; slot < rowCount; slot++) {
+                bytes += 16 + 8L * rows[slot].length;
+            }
+            for (int slot = 0; slot < historyCount; slot++) {
+                bytes += 16 + 8L * histories[slot].length;
+            }
+            return bytes;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void insert(long userId, long bookId) {
+        int slot = historySlot(userId);
+        long[] history = histories[slot];
+        int size = historySizes[slot];
+        for (int i = 0; i < size; i++) {
+            if (history[i] == bookId) {
+                // Borrowing the same book again says nothing new about what it is read with.
+                return;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            increment(bookId, history[i]);
+            increment(history[i], bookId);
+        }
+
+        if (size == historyLength) {
+            System.arraycopy(history, 1, history, 0, size - 1);
+            size--;
+        } else if (size == history.length) {
+            history = Arrays.copyOf(history, Math.min(history.length * 2, historyLength));
+            histories[slot] = history;
+        }
+        history[size] = bookId;
+        historySizes[slot] = size + 1;
+    }
+
+    private void increment(long bookId, long neighbour) {
+        int slot = rowSlot(bookId);
+        long[] row = rows[slot];
+        int size = rowSizes[slot];
+
+        int index = indexOf(row, size, neighbour);
+        if (index < 0 && size < rowCapacity) {
+            if (size == row.length) {
+                row = Arrays.copyOf(row, Math.min(row.length * 2, rowCapacity));
+                rows[slot] = row;
+            }
+            index = size++;
+            row[index] = entry(neighbour, 1, 0);
+            rowSizes[slot] = size;
+        } else {
+            // Either the neighbour's own entry or, in a full row, the least counted one it replaces.
+            if (index < 0) {
+                index = leastCounted(row, size);
+            }
+            if (count(row[index]) == FIELD_MASK) {
+                long target = row[index] >>> NEIGHBOUR_SHIFT;
+                halve(row, size);
+                index = indexOf(row, size, target);
+            }
+            long current = row[index];
+            long error = current >>> NEIGHBOUR_SHIFT == neighbour ? error(current) : count(current);
+            row[index] = entry(neighbour, count(current) + 1, error);
+        }
+        reposition(row, size, index);
+    }
+
+    private static void reposition(long[] row, int size, int index) {
+        long entry = row[index];
+        long guaranteed = guaranteed(entry);
+        while (index > 0 && guaranteed(row[index - 1]) < guaranteed) {
+            row[index] = row[index - 1];
+            index--;
+        }
+        while (index < size - 1 && guaranteed(row[index + 1]) > guaranteed) {
+            row[index] = row[index + 1];
+            index++;
+        }
+        row[index] = entry;
+    }
+
+    private static void halve(long[] row, int size) {
+        for (int i = 0; i < size; i++) {
+            row[i] = entry(row[i] >>> NEIGHBOUR_SHIFT, (count(row[i]) + 1) >>> 1, error(row[i]) >>> 1);
+        }
+        for (int i = 1; i < size; i++) {
+            reposition(row, i + 1, i);
+        }
+    }
+
+    private static int leastCounted(long[] row, int size) {
+        int least = 0;
+        for (int i = 1; i < size; i++) {
+            if (count(row[i]) < count(row[least])) {
+                least = i;
+            }
+        }
+        return least;
+    }
+
+    private static int indexOf(long[] row, int size, long neighbour) {
+        for (int i = 0; i < size; i++) {
+            if (row[i] >>> NEIGHBOUR_SHIFT == neighbour) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean fits(long bookId) {
+        return bookId >= 0 && bookId <= MAX_BOOK_ID;
+    }
+
+    private static long entry(long neighbour, long count, long error) {
+        return neighbour << NEIGHBOUR_SHIFT | count << COUNT_SHIFT | error;
+    }
+
+    private static long count(long entry) {
+        return entry >>> COUNT_SHIFT & FIELD_MASK;
+    }
+
+    private static long error(long entry) {
+        return entry & FIELD_MASK;
+    }
+
+    private static long guaranteed(long entry) {
+        return count(entry) - error(entry);
+    }
+
+    private int rowSlot(long bookId) {
+        int slot = rowByBook.get(bookId) - 1;
+        if (slot >= 0) {
+            return slot;
+        }
+        slot = rowCount++;
+        if (slot == rows.length) {
+            int capacity = rows.length * 2;
+            rows = Arrays.copyOf(rows, capacity);
+            rowSizes = Arrays.copyOf(rowSizes, capacity);
+            bookBySlot = Arrays.copyOf(bookBySlot, capacity);
+        }
+        rows[slot] = new long[Math.min(INITIAL_LENGTH, rowCapacity)];
+        bookBySlot[slot] = bookId;
+        rowByBook.put(bookId, slot + 1);
+        return slot;
+    }
+
+    private int historySlot(long userId) {
+        int slot = historyByUser.get(userId) - 1;
+        if (slot >= 0) {
+            return slot;
+        }
+        slot = historyCount++;
+        if (slot == histories.length) {
+            int capacity = histories.length * 2;
+            histories = Arrays.copyOf(histories, capacity);
+            historySizes = Arrays.copyOf(historySizes, capacity);
+            userBySlot = Arrays.copyOf(userBySlot, capacity);
+        }
+        histories[slot] = new long[Math.min(INITIAL_LENGTH, historyLength)];
+        userBySlot[slot] = userId;
+        historyByUser.put(userId, slot + 1);
+        return slot;
+    }
+
+    private void clear() {
+        rowByBook.clear();
+        historyByUser.clear();
+        Arrays.fill(rows, 0, rowCount, null);
+        Arrays.fill(rowSizes, 0, rowCount, 0);
+        Arrays.fill(histories, 0, historyCount, null);
+        Arrays.fill(historySizes, 0, historyCount, 0);
+        rowCount = 0;
+        historyCount = 0;
+    }
+
+    // Written to a temporary file and moved into place, so a crash never leaves a torn snapshot.
+    public void save(Path file) {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        int written;
+        long stamp = lock.readLock();
+        try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary), 64 * 1024), crc))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(rowCapacity);
+            out.writeInt(historyLength);
+
+            out.writeInt(rowCount);
+            for (int slot = 0; slot < rowCount; slot++) {
+                writeEntries(out, bookBySlot[slot], rows[slot], rowSizes[slot]);
+            }
+            out.writeInt(historyCount);
+            for (int slot = 0; slot < historyCount; slot++) {
+                writeEntries(out, userBySlot[slot], histories[slot], historySizes[slot]);
+            }
+            out.writeLong(crc.getValue());
+            written = rowCount;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write co-borrow snapshot " + temporary, e);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to move co-borrow snapshot to " + file, e);
+        }
+        log.info("Wrote co-borrow snapshot {} with {} row(s)", file, written);
+    }
+
+    public static CoBorrowIndex load(Path file) {
+        CRC32C crc = new CRC32C();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 64 * 1024), crc))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a co-borrow snapshot");
+            }
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported co-borrow snapshot version " + version);
+            }
+            CoBorrowIndex index = new CoBorrowIndex(in.readInt(), in.readInt());
+
+            int rowCount = in.readInt();
+            for (int i = 0; i < rowCount; i++) {
+                int slot = index.rowSlot(in.readLong());
+                int size = in.readUnsignedByte();
+                index.rows[slot] = readEntries(in, size, index.rowCapacity);
+                index.rowSizes[slot] = size;
+            }
+            int historyCount = in.readInt();
+            for (int i = 0; i < historyCount; i++) {
+                int slot = index.historySlot(in.readLong());
+                int size = in.readUnsignedByte();
+                index.histories[slot] = readEntries(in, size, index.historyLength);
+                index.historySizes[slot] = size;
+            }
+
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Checksum mismatch");
+            }
+            log.info("Loaded co-borrow snapshot {} with {} row(s)", file, rowCount);
+            return index;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read co-borrow snapshot " + file, e);
+        }
+    }
+
+    private static void writeEntries(DataOutputStream out, long key, long[] entries, int size) throws IOException {
+        out.writeLong(key);
+        out.writeByte(size);
+        for (int i = 0; i < size; i++) {
+            out.writeLong(entries[i]);
+        }
+    }
+
+    private static long[] readEntries(DataInputStream in, int size, int capacity) throws IOException {
+        if (size > capacity) {
+            throw new IOException("Row of " + size + " entries exceeds capacity " + capacity);
+        }
+        long[] entries = new long[Math.max(size, Math.min(INITIAL_LENGTH, capacity))];
+        for (int i = 0; i < size; i++) {
+            entries[i] = in.readLong();
+        }
+        return entries;
+    }
+}
@@ -2,19 +2,22 @@ package org.library.repository;
 
 import lombok.NonNull;
 import org.library.model.Book;
+import org.library.model.BookRowMapper;
 import org.library.model.BookStatus;
 import org.library.util.Database;
+import org.library.util.DbOperation;
 
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
 
 public class BookRepository implements BookRepositoryInterface {
+    private static final int FETCH_SIZE = 1_000;
 
     @Override
     public Book save(@NonNull Book book) {
-        String query = "INSERT INTO books (title, author, year, publisher, status) VALUES (?, ?, ?, ?, ?)";
+        String query = "INSERT INTO books (title, author, year, publisher, isbn, barcode, status) VALUES (?, ?, ?, ?, ?, ?, ?)";
 
         try (Connection connection = Database.getConnection();
              PreparedStatement statement = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)
@@ -24,7 +27,9 @@ public class BookRepository implements BookRepositoryInterface {
             statement.setString(2, book.getAuthor());
             statement.setInt(3, book.getYear());
             statement.setString(4, book.getPublisher());
-            statement.setString(5, book.getStatus().name());
+            statement.setString(5, book.getIsbn());
+            statement.setString(6, book.getBarcode());
+            statement.setString(7, book.getStatus().name());
 
             int rows = statement.executeUpdate();
             if (rows == 0) throw new RuntimeException("Faild to save book");
@@ -46,14 +51,14 @@ public class BookRepository implements BookRepositoryInterface {
     public Optional<Book> findById(Long id) {
         String query = "SELECT * FROM books WHERE book_id = ?";
 
-        try (Connection connection = Database.getConnection();
+        try (Connection connection = Database.getConnection(DbOperation.READ);
              PreparedStatement statement = connection.prepareStatement(query)) {
 
             statement.setLong(1, id);
 
             try (ResultSet resultSet = statement.executeQuery()) {
                 if (resultSet.next()) {
-                    return Optional.of(mapResultSetToBook(resultSet));
+                    return Optional.of(BookRowMapper.bind(resultSet).map(resultSet));
                 }
                 return Optional.empty();
             }
@@ -68,13 +73,14 @@ public class BookRepository implements BookRepositoryInterface {
         String query = "SELECT * FROM books";
         List<Book> books = new ArrayList<>();
 
-        try (Connection connection = Database.getConnection();
+        try (Connection connection = Database.getConnection(DbOperation.READ);
              PreparedStatement statement = connection.prepareStatement(query);
              ResultSet resultSet = statement.executeQuery()
         ) {
 
+            BookRowMapper mapper = BookRowMapper.bind(resultSet);
             while (resultSet.next()) {
-                books.add(mapResultSetToBook(resultSet));
+                books.add(mapper.map(resultSet));
             }
 
             return books;
@@ -86,16 +92,17 @@ public class BookRepository implements BookRepositoryInterface {
 
     @Override
     public List<Book> findAvailable() {
-        String query = "SELECT * FROM books WHERE status = 'available'";
+        String query = "SELECT * FROM books WHERE status = 'AVAILABLE'";
         List<Book> books = new ArrayList<>();
 
-        try (Connection connection = Database.getConnection();
+        try (Connection connection = Database.getConnection(DbOperation.READ);
              PreparedStatement statement = connection.prepareStatement(query);
              ResultSet resultSet = statement.executeQuery()
         ) {
 
+            BookRowMapper mapper = BookRowMapper.bind(resultSet);
             while (resultSet.next()) {
-                books.add(mapResultSetToBook(resultSet));
+                books.add(mapper.map(resultSet));
             }
 
             return books;
@@ -105,19 +112,54 @@ public class BookRepository implements BookRepositoryInterface {
         }
     }
 
+    // Streams through a server-side cursor, which requires running outside auto-commit.
+    @Override
+    public void streamAvailable(long afterId, int limit, Consumer<Book> consumer) {
+        String query = "SELECT * FROM books WHERE status = 'AVAILABLE' AND book_id > ? ORDER BY book_id LIMIT ?";
+
+        try (Connection connection = Database.getConnection(DbOperation.READ)) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+
+            try (PreparedStatement statement = connection.prepareStatement(
+                    query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+                statement.setFetchSize(Math.min(limit, FETCH_SIZE));
+                statement.setLong(1, afterId);
+                statement.setInt(2, limit);
+
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    BookRowMapper mapper = BookRowMapper.bind(resultSet);
+                    while (resultSet.next()) {
+                        consumer.accept(mapper.map(resultSet));
+                    }
+                }
+            } finally {
+                if (autoCommit) {
+                    connection.commit();
+                    connection.setAutoCommit(true);
+                }
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to stream available books", e);
+        }
+    }
+
     @Override
     public List<Book> findByTitle(String title) {
         String query = "SELECT * FROM books WHERE title = ?";
         List<Book> books = new ArrayList<>();
 
-        try (Connection connection = Database.getConnection();
+        try (Connection connection = Database.getConnection(DbOperation.READ);
              PreparedStatement statement = connection.prepareStatement(query)
         ) {
             statement.setString(1, title);
 
             try (ResultSet resultSet = statement.executeQuery()) {
+                BookRowMapper mapper = BookRowMapper.bind(resultSet);
                 while (resultSet.next()) {
-                    books.add(mapResultSetToBook(resultSet));
+                    books.add(mapper.map(resultSet));
                 }
             }
 
@@ -128,12 +170,149 @@ public class BookRepository implements BookRepositoryInterface {
         }
     }
 
+    @Override
+    public List<Book> findByIsbn(String isbn) {
+        String query = "SELECT * FROM books WHERE isbn = ?";
+        List<Book> books = new ArrayList<>();
+
+        try (Connection connection = Database.getConnection(DbOperation.READ);
+             PreparedStatement statement = connection.prepareStatement(query)
+        ) {
+            statement.setString(1, isbn);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                BookRowMapper mapper = BookRowMapper.bind(resultSet);
+                while (resultSet.next()) {
+                    books.add(mapper.map(resultSet));
+                }
+            }
+
+            return books;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find books by isbn", e);
+        }
+    }
+
+    @Override
+    public Optional<Book> findByBarcode(String barcode) {
+        String query = "SELECT * FROM books WHERE barcode = ?";
+
+        try (Connection connection = Database.getConnection(DbOperation.READ);
+             PreparedStatement statement = connection.prepareStatement(query)
+        ) {
+            statement.setString(1, barcode);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return Optional.of(BookRowMapper.bind(resultSet).map(resultSet));
+                }
+                return Optional.empty();
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find book by barcode", e);
+        }
+    }
+
+    @Override
+    public Map<String, Book> findByBarcodes(Collection<String> barcodes) {
+        String query = "SELECT * FROM books WHERE barcode = ANY (?)";
+        Map<String, Book> books = new HashMap<>();
+
+        if (barcodes.isEmpty()) {
+            return books;
+        }
+
+        try (Connection connection = Database.getConnection(DbOperation.READ);
+             PreparedStatement statement = connection.prepareStatement(query)
+        ) {
+            statement.setArray(1, connection.createArrayOf("varchar", barcodes.toArray()));
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                BookRowMapper mapper = BookRowMapper.bind(resultSet);
+                while (resultSet.next()) {
+                    Book book = mapper.map(resultSet);
+                    books.put(book.getBarcode(), book);
+                }
+            }
+
+            return books;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find books by barcodes", e);
+        }
+    }
+
+    @Override
+    public Map<Long, Book> findByIds(Collection<Long> ids) {
+        String query = "SELECT * FROM books WHERE book_id = ANY (?)";
+        Map<Long, Book> books = new HashMap<>();
+
+        if (ids.isEmpty()) {
+            return books;
+        }
+
+        try (Connection connection = Database.getConnection(DbOperation.READ);
+             PreparedStatement statement = connection.prepareStatement(query)
+        ) {
+            statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                BookRowMapper mapper = BookRowMapper.bind(resultSet);
+                while (resultSet.next()) {
+                    Book book = mapper.map(resultSet);
+                    books.put(book.getBookID(), book);
+                }
+            }
+
+            return books;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find books by ids", e);
+        }
+    }
+
+    @Override
+    public List<Book> findUpdatedSince(Instant since) {
+        String query = "SELECT * FROM books WHERE updated_at > ?";
+        List<Book> books = new ArrayList<>();
+
+        try (Connection connection = Database.getConnection(DbOperation.READ);
+             PreparedStatement statement = connection.prepareStatement(query)
+        ) {
+            statement.setTimestamp(1, Timestamp.from(since));
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                BookRowMapper mapper = BookRowMapper.bind(resultSet);
+                while (resultSet.next()) {
+                    books.add(mapper.map(resultSet));
+                }
+            }
+
+            return books;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find updated books", e);
+        }
+    }
+
+    @Override
+    public List<Long> findDeletedSince(Instant since) {
+        try (Connection connection = Database.getConnection(DbOperation.READ)) {
+            return Tombstones.deletedSince(connection, "books", since);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find deleted books", e);
+        }
+    }
+
     @Override
     public Boolean update(Book book) {
         String query = """
                 UPDATE books
-                SET title = ?, author = ?, year = ?, publisher = ?, status = ?
-                WHERE id = ?
+                SET title = ?, author = ?, year = ?, publisher = ?, isbn = ?, barcode = ?, status = ?,
+                    version = version + 1
+                WHERE book_id = ? AND version = ?
                 """;
         try (Connection connection = Database.getConnection();
              PreparedStatement statement = connection.prepareStatement(query)
@@ -143,10 +322,17 @@ public class BookRepository implements BookRepositoryInterface {
             statement.setString(2, book.getAuthor());
             statement.setInt(3, book.getYear());
             statement.setString(4, book.getPublisher());
-            statement.setString(5, book.getStatus().name());
-            statement.setLong(6, book.getBookID());
-
-            return statement.executeUpdate() == 1;
+            statement.setString(5, book.getIsbn());
+            statement.setString(6, book.getBarcode());
+            statement.setString(7, book.getStatus().name());
+            statement.setLong(8, book.getBookID());
+            statement.setLong(9, book.getVersion());
+
+            if (statement.executeUpdate() != 1) {
+                return false;
+            }
+            book.setVersion(book.getVersion() + 1);
+            return true;
 
         } catch (SQLException e) {
             throw new RuntimeException("Failed to update book", e);
@@ -155,7 +341,7 @@ public class BookRepository implements BookRepositoryInterface {
 
     @Override
     public Boolean updateStatus(Long id, BookStatus status) {
-        String query = "UPDATE books SET status = ? WHERE book_id = ?";
+        String query = "UPDATE books SET status = ?, version = version + 1 WHERE book_id = ?";
 
         try (Connection connection = Database.getConnection();
              PreparedStatement statement = connection.prepareStatement(query)
@@ -185,15 +371,4 @@ public class BookRepository implements BookRepositoryInterface {
             throw new RuntimeException("Failed to delete book", e);
         }
     }
-
-    private Book mapResultSetToBook(ResultSet resultSet) throws SQLException {
-        return new Book(
-                resultSet.getLong("book_id"),
-                resultSet.getString("title"),
-                resultSet.getString("author"),
-                resultSet.getInt("year"),
-                resultSet.getString("publisher"),
-                BookStatus.valueOf(resultSet.getString("status"))
-        );
-    }
 }
\ No newline at end of file
@@ -3,8 +3,12 @@ package org.library.repository;
 import org.library.model.Book;
 import org.library.model.BookStatus;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface BookRepositoryInterface {
     Book save(Book book);
@@ -15,8 +19,26 @@ public interface BookRepositoryInterface {
 
     List<Book> findAvailable();
 
+    // One keyset page of available books in id order, handed to the consumer row by row.
+    void streamAvailable(long afterId, int limit, Consumer<Book> consumer);
+
     List<Book> findByTitle(String title);
 
+    List<Book> findByIsbn(String isbn);
+
+    Optional<Book> findByBarcode(String barcode);
+
+    Map<String, Book> findByBarcodes(Collection<String> barcodes);
+
+    Map<Long, Book> findByIds(Collection<Long> ids);
+
+    List<Book> findUpdatedSince(Instant since);
+
+    // Ids of books deleted since the given time, for reconciling a cache that was filled earlier.
+    List<Long> findDeletedSince(Instant since);
+
+    // Applies only if the row still has the version the object was read with, and bumps it on success.
+    // False means the row changed since it was read, or no longer exists: re-read and reapply.
     Boolean update(Book book);
 
     Boolean updateStatus(Long id, BookStatus status);
@@ -0,0 +1,182 @@
+package org.library.repository;
+
+import org.library.model.Book;
+import org.library.model.BookStatus;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+public class InMemoryBookRepository implements BookRepositoryInterface {
+    // Sorted so keyset pages can start from a book id without scanning the whole catalog.
+    private final NavigableMap<Long, Book> books = new ConcurrentSkipListMap<>();
+    private final Map<String, Long> idByBarcode = new ConcurrentHashMap<>();
+    private final Map<Long, Instant> updatedAt = new ConcurrentHashMap<>();
+    private final Map<Long, Instant> deletedAt = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Override
+    public Book save(Book book) {
+        if (book.getBookID() == null) {
+            book.setBookID(sequence.incrementAndGet());
+        }
+        store(book);
+        return book;
+    }
+
+    @Override
+    public Optional<Book> findById(Long id) {
+        return Optional.ofNullable(books.get(id)).map(InMemoryBookRepository::copy);
+    }
+
+    @Override
+    public List<Book> findAll() {
+        return find(book -> true);
+    }
+
+    @Override
+    public List<Book> findAvailable() {
+        return find(book -> book.getStatus() == BookStatus.AVAILABLE);
+    }
+
+    @Override
+    public void streamAvailable(long afterId, int limit, Consumer<Book> consumer) {
+        int remaining = limit;
+        for (Book book : books.tailMap(afterId, false).values()) {
+            if (remaining == 0) {
+                return;
+            }
+            if (book.getStatus() == BookStatus.AVAILABLE) {
+                consumer.accept(copy(book));
+                remaining--;
+            }
+        }
+    }
+
+    @Override
+    public List<Book> findByTitle(String title) {
+        return find(book -> book.getTitle().equals(title));
+    }
+
+    @Override
+    public List<Book> findByIsbn(String isbn) {
+        return find(book -> isbn.equals(book.getIsbn()));
+    }
+
+    @Override
+    public Optional<Book> findByBarcode(String barcode) {
+        Long id = idByBarcode.get(barcode);
+        return id == null ? Optional.empty() : findById(id);
+    }
+
+    @Override
+    public Map<String, Book> findByBarcodes(Collection<String> barcodes) {
+        Map<String, Book> found = new HashMap<>();
+        for (String barcode : barcodes) {
+            findByBarcode(barcode).ifPresent(book -> found.put(barcode, book));
+        }
+        return found;
+    }
+
+    @Override
+    public Map<Long, Book> findByIds(Collection<Long> ids) {
+        Map<Long, Book> found = new HashMap<>();
+        for (Long id : ids) {
+            findById(id).ifPresent(book -> found.put(id, book));
+        }
+        return found;
+    }
+
+    @Override
+    public List<Book> findUpdatedSince(Instant since) {
+        return find(book -> !updatedAt.getOrDefault(book.getBookID(), Instant.MIN).isBefore(since));
+    }
+
+    @Override
+    public Boolean update(Book book) {
+        Book[] replaced = new Book[1];
+        books.computeIfPresent(book.getBookID(), (id, existing) -> {
+            if (existing.getVersion() != book.getVersion()) {
+                return existing;
+            }
+            replaced[0] = existing;
+            Book updated = copy(book);
+            updated.setVersion(book.getVersion() + 1);
+            return updated;
+        });
+        Book existing = replaced[0];
+        if (existing == null) {
+            return false;
+        }
+        if (existing.getBarcode() != null && !existing.getBarcode().equals(book.getBarcode())) {
+            idByBarcode.remove(existing.getBarcode(), book.getBookID());
+        }
+        if (book.getBarcode() != null) {
+            idByBarcode.put(book.getBarcode(), book.getBookID());
+        }
+        updatedAt.put(book.getBookID(), Instant.now());
+        book.setVersion(book.getVersion() + 1);
+        return true;
+    }
+
+    @Override
+    public Boolean updateStatus(Long id, BookStatus status) {
+        Book updated = books.computeIfPresent(id, (key, existing) -> {
+            Book copy = copy(existing);
+            copy.setStatus(status);
+            copy.setVersion(existing.getVersion() + 1);
+            return copy;
+        });
+        if (updated == null) {
+            return false;
+        }
+        updatedAt.put(id, Instant.now());
+        return true;
+    }
+
+    @Override
+    public Boolean delete(Long id) {
+        Book removed = books.remove(id);
+        if (removed == null) {
+            return false;
+        }
+        if (removed.getBarcode() != null) {
+            idByBarcode.remove(removed.getBarcode(), id);
+        }
+        updatedAt.remove(id);
+        deletedAt.put(id, Instant.now());
+        return true;
+    }
+
+    @Override
+    public List<Long> findDeletedSince(Instant since) {
+        return deletedAt.entrySet().stream()
+                .filter(entry -> !entry.getValue().isBefore(since))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private List<Book> find(Predicate<Book> filter) {
+        return books.values().stream()
+                .filter(filter)
+                .map(InMemoryBookRepository::copy)
+                .toList();
+    }
+
+    private void store(Book book) {
+        books.put(book.getBookID(), copy(book));
+        if (book.getBarcode() != null) {
+            idByBarcode.put(book.getBarcode(), book.getBookID());
+        }
+        updatedAt.put(book.getBookID(), Instant.now());
+    }
+
+    private static Book copy(Book book) {
+        return new Book(book.getBookID(), book.getTitle(), book.getAuthor(), book.getYear(), book.getPublisher(),
+                book.getIsbn(), book.getBarcode(), book.getStatus(), book.getVersion());
+    }
+}
@@ -0,0 +1,184 @@
+package org.library.repository;
+
+import org.library.model.Loan;
+import org.library.model.LoanStatus;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+public class InMemoryLoanRepository implements LoanRepositoryInterface {
+    private final Map<Long, Loan> loans = new ConcurrentHashMap<>();
+    private final Map<Long, Loan> archived = new ConcurrentHashMap<>();
+    private final Map<Long, Instant> updatedAt = new ConcurrentHashMap<>();
+    private final Map<Long, Instant> deletedAt = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Override
+    public Loan save(Loan loan) {
+        if (loan.getLoanId() == null) {
+            loan.setLoanId(sequence.incrementAndGet());
+        }
+        store(loan);
+        return loan;
+    }
+
+    @Override
+    public Optional<Loan> findById(Long id) {
+        return Optional.ofNullable(loans.get(id)).map(InMemoryLoanRepository::copy);
+    }
+
+    @Override
+    public List<Loan> findByUserId(Long userId) {
+        return find(loan -> loan.getUserId().equals(userId));
+    }
+
+    @Override
+    public List<Loan> findByUserId(Long userId, boolean includeHistory) {
+        List<Loan> found = findByUserId(userId);
+        return includeHistory ? withArchived(found, loan -> loan.getUserId().equals(userId)) : found;
+    }
+
+    @Override
+    public List<Loan> findActiveByUserId(Long userId) {
+        return find(loan -> loan.getUserId().equals(userId) && loan.getStatus() == LoanStatus.ACTIVE);
+    }
+
+    @Override
+    public List<Loan> findByBookId(Long bookId) {
+        return find(loan -> loan.getBookId().equals(bookId));
+    }
+
+    @Override
+    public List<Loan> findByBookId(Long bookId, boolean includeHistory) {
+        List<Loan> found = findByBookId(bookId);
+        return includeHistory ? withArchived(found, loan -> loan.getBookId().equals(bookId)) : found;
+    }
+
+    @Override
+    public List<Loan> findActiveByBookId(Long bookId) {
+        return find(loan -> loan.getBookId().equals(bookId) && loan.getStatus() == LoanStatus.ACTIVE);
+    }
+
+    @Override
+    public int countActiveByUserId(Long userId) {
+        return findActiveByUserId(userId).size();
+    }
+
+    @Override
+    public Boolean markReturned(Long loanId, LocalDate returnDate) {
+        Loan loan = loans.get(loanId);
+        if (loan == null || loan.getStatus() != LoanStatus.ACTIVE) {
+            return false;
+        }
+        Loan returned = copy(loan);
+        returned.setReturnDate(returnDate);
+        returned.setStatus(LoanStatus.RETURNED);
+        store(returned);
+        return true;
+    }
+
+    @Override
+    public Boolean updateStatus(Long loanId, LoanStatus status) {
+        Loan loan = loans.get(loanId);
+        if (loan == null) {
+            return false;
+        }
+        Loan updated = copy(loan);
+        updated.setStatus(status);
+        store(updated);
+        return true;
+    }
+
+    @Override
+    public Optional<Loan> findActiveByUserIdAndBookId(Long userId, Long bookId) {
+        return find(loan -> loan.getUserId().equals(userId) && loan.getBookId().equals(bookId)
+                && loan.getStatus() == LoanStatus.ACTIVE).stream().findFirst();
+    }
+
+    @Override
+    public Boolean deleteById(Long id) {
+        updatedAt.remove(id);
+        Loan removed = loans.remove(id);
+        if (removed == null) {
+            return false;
+        }
+        if (removed.getStatus() == LoanStatus.ACTIVE) {
+            deletedAt.put(id, Instant.now());
+        }
+        return true;
+    }
+
+    @Override
+    public List<Long> findDeletedSince(Instant since) {
+        return deletedAt.entrySet().stream()
+                .filter(entry -> !entry.getValue().isBefore(since))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    @Override
+    public List<Loan> findArchivedByUserId(Long userId) {
+        return withArchived(List.of(), loan -> loan.getUserId().equals(userId));
+    }
+
+    @Override
+    public void saveArchived(Loan loan) {
+        archived.putIfAbsent(loan.getLoanId(), copy(loan));
+    }
+
+    @Override
+    public int deleteArchivedByUserId(Long userId) {
+        List<Loan> removed = findArchivedByUserId(userId);
+        removed.forEach(loan -> archived.remove(loan.getLoanId()));
+        return removed.size();
+    }
+
+    @Override
+    public void streamAll(boolean includeHistory, Consumer<Loan> consumer) {
+        List<Loan> all = find(loan -> true);
+        (includeHistory ? withArchived(all, loan -> true) : all).forEach(consumer);
+    }
+
+    @Override
+    public void streamActive(Consumer<Loan> consumer) {
+        find(loan -> loan.getStatus() == LoanStatus.ACTIVE).forEach(consumer);
+    }
+
+    @Override
+    public List<Loan> findUpdatedSince(Instant since) {
+        return find(loan -> !updatedAt.getOrDefault(loan.getLoanId(), Instant.MIN).isBefore(since));
+    }
+
+    private List<Loan> find(Predicate<Loan> filter) {
+        return loans.values().stream()
+                .filter(filter)
+                .sorted(Comparator.comparing(Loan::getLoanId))
+                .map(InMemoryLoanRepository::copy)
+                .toList();
+    }
+
+    private List<Loan> withArchived(List<Loan> hot, Predicate<Loan> filter) {
+        List<Loan> found = new ArrayList<>(hot);
+        archived.values().stream()
+                .filter(filter)
+                .sorted(Comparator.comparing(Loan::getLoanId))
+                .map(InMemoryLoanRepository::copy)
+                .forEach(found::add);
+        return found;
+    }
+
+    private void store(Loan loan) {
+        loans.put(loan.getLoanId(), copy(loan));
+        updatedAt.put(loan.getLoanId(), Instant.now());
+    }
+
+    private static Loan copy(Loan loan) {
+        return new Loan(loan.getLoanId(), loan.getUserId(), loan.getBookId(), loan.getLoanDate(),
+                loan.getReturnDate(), loan.getDueDate(), loan.getStatus());
+    }
+}
@@ -0,0 +1,60 @@
+package org.library.repository;
+
+import org.library.model.RoutingState;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+public class InMemoryShardDirectoryRepository implements ShardDirectoryRepositoryInterface {
+    private final Map<Long, Integer> shardByUser = new HashMap<>();
+    private final Map<Long, Long> epochByUser = new HashMap<>();
+    private long epoch;
+    private int shardCount;
+    private int targetShardCount;
+
+    @Override
+    public synchronized void initialize(int shardCount) {
+        if (epoch == 0) {
+            this.shardCount = shardCount;
+            epoch = 1;
+        }
+    }
+
+    @Override
+    public synchronized RoutingState load(long afterEpoch) {
+        Map<Long, Integer> relocations = new HashMap<>();
+        epochByUser.forEach((userId, written) -> {
+            if (written > afterEpoch) {
+                relocations.put(userId, shardByUser.get(userId));
+            }
+        });
+        return new RoutingState(epoch, shardCount, targetShardCount, relocations);
+    }
+
+    @Override
+    public synchronized void beginResharding(int targetShardCount) {
+        this.targetShardCount = targetShardCount;
+        epoch++;
+    }
+
+    @Override
+    public synchronized void relocate(long userId, int shard) {
+        epoch++;
+        shardByUser.put(userId, shard);
+        epochByUser.put(userId, epoch);
+    }
+
+    @Override
+    public synchronized void finishResharding(Collection<Long> settledUserIds) {
+        if (targetShardCount != 0) {
+            shardCount = targetShardCount;
+            targetShardCount = 0;
+        }
+        settledUserIds.forEach(userId -> {
+            shardByUser.remove(userId);
+            epochByUser.remove(userId);
+        });
+        epoch++;
+    }
+}
@@ -0,0 +1,29 @@
+package org.library.repository;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class InMemoryUserEmailRepository implements UserEmailRepositoryInterface {
+    private final Map<String, Long> userIdByEmail = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean claim(String email, long userId) {
+        return userIdByEmail.computeIfAbsent(key(email), key -> userId) == userId;
+    }
+
+    @Override
+    public Optional<Long> findUserId(String email) {
+        return Optional.ofNullable(userIdByEmail.get(key(email)));
+    }
+
+    @Override
+    public void release(String email, long userId) {
+        userIdByEmail.remove(key(email), userId);
+    }
+
+    private static String key(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
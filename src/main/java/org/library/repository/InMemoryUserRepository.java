@@ -0,0 +1,128 @@
+package org.library.repository;
+
+import org.library.model.User;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+public class InMemoryUserRepository implements UserRepositoryInterface {
+    private final Map<Long, User> users = new ConcurrentHashMap<>();
+    private final Map<String, Long> idByEmail = new ConcurrentHashMap<>();
+    private final Map<Long, Instant> updatedAt = new ConcurrentHashMap<>();
+    private final Map<Long, Instant> deletedAt = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Override
+    public User save(User user) {
+        if (saveIfAbsent(user).isEmpty()) {
+            throw new RuntimeException("Failed to save user, email " + user.getEmail() + " is already registered");
+        }
+        return user;
+    }
+
+    // Mirrors the unique index on lower(email): the email is claimed atomically before the row exists.
+    @Override
+    public Optional<User> saveIfAbsent(User user) {
+        Long userId = user.getUserId() != null ? user.getUserId() : sequence.incrementAndGet();
+        if (idByEmail.putIfAbsent(key(user.getEmail()), userId) != null) {
+            return Optional.empty();
+        }
+        user.setUserId(userId);
+        store(user);
+        return Optional.of(user);
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return Optional.ofNullable(users.get(id)).map(InMemoryUserRepository::copy);
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        Long userId = idByEmail.get(key(email));
+        return userId == null ? Optional.empty() : findById(userId);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return users.values().stream().map(InMemoryUserRepository::copy).toList();
+    }
+
+    @Override
+    public List<User> findUpdatedSince(Instant since) {
+        return users.values().stream()
+                .filter(user -> !updatedAt.getOrDefault(user.getUserId(), Instant.MIN).isBefore(since))
+                .map(InMemoryUserRepository::copy)
+                .toList();
+    }
+
+    @Override
+    public void streamAll(Consumer<User> consumer) {
+        findAll().forEach(consumer);
+    }
+
+    @Override
+    public Boolean delete(Long id) {
+        User removed = users.remove(id);
+        if (removed == null) {
+            return false;
+        }
+        idByEmail.remove(key(removed.getEmail()), id);
+        updatedAt.remove(id);
+        deletedAt.put(id, Instant.now());
+        return true;
+    }
+
+    @Override
+    public List<Long> findDeletedSince(Instant since) {
+        return deletedAt.entrySet().stream()
+                .filter(entry -> !entry.getValue().isBefore(since))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    @Override
+    public Boolean update(User user) {
+        User existing = users.get(user.getUserId());
+        if (existing == null || existing.getVersion() != user.getVersion()) {
+            return false;
+        }
+        boolean emailChanged = !key(existing.getEmail()).equals(key(user.getEmail()));
+        if (emailChanged && idByEmail.putIfAbsent(key(user.getEmail()), user.getUserId()) != null) {
+            throw new RuntimeException("Failed to update user, email " + user.getEmail() + " is already registered");
+        }
+
+        User updated = copy(user);
+        updated.setVersion(user.getVersion() + 1);
+        User stored = users.computeIfPresent(user.getUserId(),
+                (id, current) -> current.getVersion() == user.getVersion() ? updated : current);
+        if (stored != updated) {
+            if (emailChanged) {
+                idByEmail.remove(key(user.getEmail()), user.getUserId());
+            }
+            return false;
+        }
+        if (emailChanged) {
+            idByEmail.remove(key(existing.getEmail()), user.getUserId());
+        }
+        updatedAt.put(user.getUserId(), Instant.now());
+        user.setVersion(updated.getVersion());
+        return true;
+    }
+
+    private void store(User user) {
+        users.put(user.getUserId(), copy(user));
+        updatedAt.put(user.getUserId(), Instant.now());
+    }
+
+    private static String key(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    private static User copy(User user) {
+        return new User(user.getUserId(), user.getFullName(), user.getEmail(), user.getPassword(), user.getVersion());
+    }
+}
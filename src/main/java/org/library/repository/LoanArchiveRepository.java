@@ -0,0 +1,123 @@
+package org.library.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.util.Database;
+import org.library.util.Migrations;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+public class LoanArchiveRepository implements LoanArchiveRepositoryInterface {
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("'loan_'yyyy_MM");
+
+    @Override
+    public int archiveClosedBefore(LocalDate cutoff, int limit) {
+        String query = """
+                WITH moved AS (
+                    DELETE FROM loan
+                    WHERE (id, loan_date) IN (
+                        SELECT id, loan_date FROM loan
+                        WHERE loan_date < ? AND status IN ('RETURNED', 'CANCELLED')
+                        LIMIT ?
+                    )
+                    RETURNING id, user_id, book_id, loan_date, due_date, return_date, status
+                )
+                INSERT INTO loan_archive (id, user_id, book_id, loan_date, due_date, return_date, status)
+                SELECT id, user_id, book_id, loan_date, due_date, return_date, status FROM moved
+                """;
+
+        try (Connection connection = Database.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query)) {
+
+            statement.setObject(1, cutoff);
+            statement.setInt(2, limit);
+            return statement.executeUpdate();
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to archive closed loans", e);
+        }
+    }
+
+    // DETACH ... CONCURRENTLY only holds SHARE UPDATE EXCLUSIVE on loan, so borrows and returns keep
+    // running; it cannot run inside a transaction, so this must be called on an autocommit connection.
+    @Override
+    public int dropEmptyPartitionsBefore(LocalDate cutoff) {
+        String query = """
+                SELECT child.relname, pg_inherits.inhdetachpending
+                FROM pg_inherits
+                JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+                WHERE pg_inherits.inhparent = 'loan'::regclass
+                """;
+
+        try (Connection connection = Database.getConnection()) {
+            List<String> candidates = new ArrayList<>();
+            List<String> pending = new ArrayList<>();
+
+            try (PreparedStatement statement = connection.prepareStatement(query);
+                 ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    String partition = resultSet.getString(1);
+                    YearMonth month = partitionMonth(partition);
+                    if (month != null && !month.plusMonths(1).atDay(1).isAfter(cutoff)) {
+                        (resultSet.getBoolean(2) ? pending : candidates).add(partition);
+                    }
+                }
+            }
+
+            int dropped = 0;
+            try (Statement statement = connection.createStatement()) {
+                // A concurrent detach that was interrupted leaves the partition pending until finalized.
+                for (String partition : pending) {
+                    statement.execute("ALTER TABLE loan DETACH PARTITION " + partition + " FINALIZE");
+                    statement.execute("DROP TABLE " + partition);
+                    log.info("Finalized detach of loan partition {} and dropped it", partition);
+                    dropped++;
+                }
+
+                for (String partition : candidates) {
+                    boolean empty;
+                    try (ResultSet resultSet = statement.executeQuery(
+                            "SELECT NOT EXISTS (SELECT 1 FROM " + partition + ")")) {
+                        resultSet.next();
+                        empty = resultSet.getBoolean(1);
+                    }
+                    if (empty) {
+                        statement.execute("ALTER TABLE loan DETACH PARTITION " + partition + " CONCURRENTLY");
+                        statement.execute("DROP TABLE " + partition);
+                        log.info("Detached and dropped empty loan partition {}", partition);
+                        dropped++;
+                    }
+                }
+            }
+
+            return dropped;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to drop empty loan partitions", e);
+        }
+    }
+
+    @Override
+    public void ensurePartitions(YearMonth from, int monthsAhead) {
+        try (Connection connection = Database.getConnection()) {
+            Migrations.ensureLoanPartitions(connection, from, monthsAhead);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to create loan partitions", e);
+        }
+    }
+
+    // Partition names are generated by create_loan_partition, so anything else is left alone.
+    private static YearMonth partitionMonth(String partition) {
+        try {
+            return YearMonth.parse(partition, PARTITION_MONTH);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
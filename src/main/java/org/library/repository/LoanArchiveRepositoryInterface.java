@@ -0,0 +1,12 @@
+package org.library.repository;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+public interface LoanArchiveRepositoryInterface {
+    int archiveClosedBefore(LocalDate cutoff, int limit);
+
+    int dropEmptyPartitionsBefore(LocalDate cutoff);
+
+    void ensurePartitions(YearMonth from, int monthsAhead);
+}
@@ -1,24 +1,42 @@
 package org.library.repository;
 
 import org.library.model.Loan;
+import org.library.model.LoanRowMapper;
 import org.library.model.LoanStatus;
+import org.library.util.ConnectionProvider;
 import org.library.util.Database;
+import org.library.util.DbOperation;
 
 import java.sql.*;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public class LoanRepository implements LoanRepositoryInterface {
+    private static final int FETCH_SIZE = 10_000;
+
+    private final ConnectionProvider connectionProvider;
+
+    public LoanRepository() {
+        this(Database::getConnection);
+    }
+
+    public LoanRepository(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
+
     @Override
     public Loan save(Loan loan) {
+        // Sharded deployments assign ids up front instead of using the per-node sequence.
         String query = "INSERT INTO loan " +
-                "(user_id, book_id, loan_date, due_date, return_date, status) " +
-                "VALUES (?, ?, ?, ?, ?, ?) " +
+                "(user_id, book_id, loan_date, due_date, return_date, status, id) " +
+                "VALUES (?, ?, ?, ?, ?, ?, COALESCE(?, nextval('loan_id_seq'))) " +
                 "RETURNING id";
 
-        try (Connection connection = Database.getConnection();
+        try (Connection connection = connectionProvider.getConnection(DbOperation.WRITE);
              PreparedStatement statement = connection.prepareStatement(query)) {
 
             statement.setLong(1, loan.getUserId());
@@ -27,6 +45,7 @@ public class LoanRepository implements LoanRepositoryInterface {
             statement.setObject(4, loan.getDueDate());
             statement.setObject(5, loan.getReturnDate());
             statement.setString(6, loan.getStatus().name());
+            statement.setObject(7, loan.getLoanId(), Types.BIGINT);
 
             ResultSet resultSet = statement.executeQuery();
 
@@ -45,14 +64,14 @@ public class LoanRepository implements LoanRepositoryInterface {
     public Optional<Loan> findById(Long id) {
         String query = "SELECT * FROM loan WHERE id = ?";
 
-        try (Connection connection = Database.getConnection();
+        try (Connection connection = connectionProvider.getConnection(DbOperation.READ);
              PreparedStatement statement = connection.prepareStatement(query)) {
 
             statement.setLong(1, id);
 
             try (ResultSet resultSet = statement.executeQuery()) {
                 if (resultSet.next()) {
-                    return Optional.of(mapResultSetToLoan(resultSet));
+                    return Optional.of(LoanRowMapper.bind(resultSet).map(resultSet));
                 }
                 return Optional.empty();
             }
@@ -66,15 +85,16 @@ public class LoanRepository implements LoanRepositoryInterface {
         String query = "SELECT * FROM loan WHERE user_id = ?";
         List<Loan> loans = new ArrayList<>();
 
-        try (Connection connection = Database.getConnection();
+        try (Connection connection = connectionProvider.getConnection(DbOperation.READ);
              PreparedStatement statement = connection.prepareStatement(query)) {
 
             statement.setLong(1, userId);
 
             try (ResultSet resultSet = statement.executeQuery()) {
 
+                LoanRowMapper mapper = LoanRowMapper.bind(resultSet);
                 while (resultSet.next()) {
-                    loans.add(mapResultSetToLoan(resultSet));
+                    loans.add(mapper.map(resultSet));
                 }
 
                 return loans;
@@ -84,20 +104,54 @@ public class LoanRepository implements LoanRepositoryInterface {
         }
     }
 
+    @Override
+    public List<Loan> findByUserId(Long userId, boolean includeHistory) {
+        if (!includeHistory) {
+            return findByUserId(userId);
+        }
+
+        String query = """
+                SELECT id, user_id, book_id, loan_date, due_date, return_date, status FROM loan WHERE user_id = ?
+                UNION ALL
+                SELECT id, user_id, book_id, loan_date, due_date, return_date, status FROM loan_archive WHERE user_id = ?
+                """;
+        List<Loan> loans = new ArrayList<>();
+
+        try (Connection connection = connectionProvider.getConnection(DbOperation.READ);
+             PreparedStatement statement = connection.prepareStatement(query)) {
+
+            statement.setLong(1, userId);
+            statement.setLong(2, userId);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+
+                LoanRowMapper mapper = LoanRowMapper.bind(resultSet);
+                while (resultSet.next()) {
+                    loans.add(mapper.map(resultSet));
+                }
+
+                return loans;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find loan history by user id", e);
+        }
+    }
+
     @Override
     public List<Loan> findActiveByUserId(Long userId) {
         String query = "SELECT * FROM loan WHERE user_id = ? AND status = 'ACTIVE'";
         List<Loan> loans = new ArrayList<>();
 
-        try (Connection connection = Database.getConnection();
+        try (Connection connection = connectionProvider.getConnection(DbOperation.READ);
              PreparedStatement statement = connection.prepareStatement(query)) {
 
             statement.setLong(1, userId);
 
             try (ResultSet resultSet = statement.executeQuery()) {
 
+                LoanRowMapper mapper = LoanRowMapper.bind(resultSet);
                 while (resultSet.next()) {
-                    loans.add(mapResultSetToLoan(resultSet));
+                    loans.add(mapper.map(resultSet));
                 }
 
                 return loans;
@@ -112,15 +166,16 @@ public class LoanRepository implements LoanRepositoryInterface {
         String query = "SELECT * FROM loan WHERE book_id = ?";
         List<Loan> loans = new ArrayList<>();
 
-        try (Connection connection = Database.getConnection();
+        try (Connection connection = connectionProvider.getConnection(DbOperation.READ);
              PreparedStatement statement = connection.prepareStatement(query)) {
 
             statement.setLong(1, bookId);
 
             try (ResultSet resultSet = statement.executeQuery()) {
 
+                LoanRowMapper mapper = LoanRowMapper.bind(resultSet);
                 while (resultSet.next()) {
-                    loans.add(mapResultSetToLoan(resultSet));
+                    loans.add(mapper.map(resultSet));
                 }
 
                 return loans;
@@ -131,20 +186,54 @@ public class LoanRepository implements LoanRepositoryInterface {
 
     }
 
+    @Override
+    public List<Loan> findByBookId(Long bookId, boolean includeHistory) {
+        if (!includeHistory) {
+            return findByBookId(bookId);
+        }
+
+        String query = """
+                SELECT id, user_id, book_id, loan_date, due_date, return_date, status FROM loan WHERE book_id = ?
+                UNION ALL
+                SELECT id, user_id, book_id, loan_date, due_date, return_date, status FROM loan_archive WHERE book_id = ?
+                """;
+        List<Loan> loans = new ArrayList<>();
+
+        try (Connection connection = connectionProvider.getConnection(DbOperation.READ);
+             PreparedStatement statement = connection.prepareStatement(query)) {
+
+            statement.setLong(1, bookId);
+            statement.setLong(2, bookId);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+
+                LoanRowMapper mapper = LoanRowMapper.bind(resultSet);
+                while (resultSet.next()) {
+                    loans.add(mapper.map(resultSet));
+                }
+
+                return loans;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find loan history by book id", e);
+        }
+    }
+
     @Override
     public List<Loan> findActiveByBookId(Long bookId) {
         String query = "SELECT * FROM loan WHERE book_id = ? AND status = 'ACTIVE'";
         List<Loan> loans = new ArrayList<>();
 
-        try (Connection connection = Database.getConnection();
+        try (Connection connection = connectionProvider.getConnection(DbOperation.READ);
              PreparedStatement statement = connection.prepareStatement(query)) {
 
             statement.setLong(1, bookId);
 
             try (ResultSet resultSet = statement.executeQuery()) {
 
+                LoanRowMapper mapper = LoanRowMapper.bind(resultSet);
                 while (resultSet.next()) {
-                    loans.add(mapResultSetToLoan(resultSet));
+                    loans.add(mapper.map(resultSet));
                 }
 
                 return loans;
@@ -158,7 +247,7 @@ public class LoanRepository implements LoanRepositoryInterface {
     public int countActiveByUserId(Long userId) {
         String query = "SELECT COUNT(*) AS total FROM loan WHERE user_id = ? AND status = 'ACTIVE'";
 
-        try (Connection connection = Database.getConnection();
+        try (Connection connection = connectionProvider.getConnection(DbOperation.READ);
              PreparedStatement statement = connection.prepareStatement(query)) {
 
             statement.setLong(1, userId);
@@ -183,7 +272,7 @@ public class LoanRepository implements LoanRepositoryInterface {
                 WHERE id = ? AND status = 'ACTIVE'
                 """;
 
-        try (Connection connection = Database.getConnection();
+        try (Connection connection = connectionProvider.getConnection(DbOperation.WRITE);
              PreparedStatement statement = connection.prepareStatement(query)) {
 
             statement.setObject(1, returnDate);
@@ -195,11 +284,27 @@ public class LoanRepository implements LoanRepositoryInterface {
         }
     }
 
+    @Override
+    public Boolean updateStatus(Long loanId, LoanStatus status) {
+        String query = "UPDATE loan SET status = ? WHERE id = ?";
+
+        try (Connection connection = connectionProvider.getConnection(DbOperation.WRITE);
+             PreparedStatement statement = connection.prepareStatement(query)) {
+
+            statement.setString(1, status.name());
+            statement.setLong(2, loanId);
+
+            return statement.executeUpdate() == 1;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to update loan status", e);
+        }
+    }
+
     @Override
     public Optional<Loan> findActiveByUserIdAndBookId(Long userId, Long bookId) {
         String query = "SELECT * FROM loan WHERE user_id = ? AND book_id = ? AND status = 'ACTIVE' LIMIT 1";
 
-        try (Connection connection = Database.getConnection();
+        try (Connection connection = connectionProvider.getConnection(DbOperation.READ);
              PreparedStatement statement = connection.prepareStatement(query)) {
 
             statement.setLong(1, userId);
@@ -207,7 +312,7 @@ public class LoanRepository implements LoanRepositoryInterface {
 
             ResultSet resultSet = statement.executeQuery();
             if (resultSet.next()) {
-                return Optional.of(mapResultSetToLoan(resultSet));
+                return Optional.of(LoanRowMapper.bind(resultSet).map(resultSet));
             }
             return Optional.empty();
 
@@ -220,7 +325,7 @@ public class LoanRepository implements LoanRepositoryInterface {
     public Boolean deleteById(Long id) {
         String query = "DELETE FROM loan WHERE id = ?";
 
-        try (Connection connection = Database.getConnection();
+        try (Connection connection = connectionProvider.getConnection(DbOperation.WRITE);
              PreparedStatement statement = connection.prepareStatement(query)) {
 
             statement.setLong(1, id);
@@ -231,35 +336,150 @@ public class LoanRepository implements LoanRepositoryInterface {
         }
     }
 
-    private Loan mapResultSetToLoan(ResultSet resultSet) throws SQLException {
-        Loan loan = new Loan();
+    @Override
+    public List<Loan> findArchivedByUserId(Long userId) {
+        String query = """
+                SELECT id, user_id, book_id, loan_date, due_date, return_date, status FROM loan_archive WHERE user_id = ?
+                """;
+        List<Loan> loans = new ArrayList<>();
+
+        try (Connection connection = connectionProvider.getConnection(DbOperation.WRITE);
+             PreparedStatement statement = connection.prepareStatement(query)) {
+
+            statement.setLong(1, userId);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+
+                LoanRowMapper mapper = LoanRowMapper.bind(resultSet);
+                while (resultSet.next()) {
+                    loans.add(mapper.map(resultSet));
+                }
+
+                return loans;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find archived loans by user id", e);
+        }
+    }
+
+    @Override
+    public void saveArchived(Loan loan) {
+        String query = """
+                INSERT INTO loan_archive (id, user_id, book_id, loan_date, due_date, return_date, status)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+                ON CONFLICT (id) DO NOTHING
+                """;
+
+        try (Connection connection = connectionProvider.getConnection(DbOperation.WRITE);
+             PreparedStatement statement = connection.prepareStatement(query)) {
+
+            statement.setLong(1, loan.getLoanId());
+            statement.setLong(2, loan.getUserId());
+            statement.setLong(3, loan.getBookId());
+            statement.setObject(4, loan.getLoanDate());
+            statement.setObject(5, loan.getDueDate());
+            statement.setObject(6, loan.getReturnDate());
+            statement.setString(7, loan.getStatus().name());
+            statement.executeUpdate();
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save archived loan", e);
+        }
+    }
+
+    @Override
+    public int deleteArchivedByUserId(Long userId) {
+        String query = "DELETE FROM loan_archive WHERE user_id = ?";
+
+        try (Connection connection = connectionProvider.getConnection(DbOperation.WRITE);
+             PreparedStatement statement = connection.prepareStatement(query)) {
+
+            statement.setLong(1, userId);
+            return statement.executeUpdate();
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to delete archived loans by user id", e);
+        }
+    }
+
+    @Override
+    public void streamAll(boolean includeHistory, Consumer<Loan> consumer) {
+        String query = includeHistory
+                ? """
+                SELECT id, user_id, book_id, loan_date, due_date, return_date, status FROM loan
+                UNION ALL
+                SELECT id, user_id, book_id, loan_date, due_date, return_date, status FROM loan_archive
+                """
+                : "SELECT id, user_id, book_id, loan_date, due_date, return_date, status FROM loan";
+
+        stream(query, consumer, "Failed to stream loans");
+    }
 
-        loan.setLoanId(resultSet.getLong("id"));
-        loan.setUserId(resultSet.getLong("user_id"));
-        loan.setBookId(resultSet.getLong("book_id"));
+    @Override
+    public void streamActive(Consumer<Loan> consumer) {
+        stream("SELECT * FROM loan WHERE status = 'ACTIVE'", consumer, "Failed to stream active loans");
+    }
 
-        try {
-            LocalDate loanDate = resultSet.getObject("loan_date", LocalDate.class);
-            LocalDate dueDate = resultSet.getObject("due_date", LocalDate.class);
-            LocalDate returnDate = resultSet.getObject("return_date", LocalDate.class);
+    @Override
+    public List<Loan> findUpdatedSince(Instant since) {
+        String query = "SELECT * FROM loan WHERE updated_at > ?";
+        List<Loan> loans = new ArrayList<>();
+
+        try (Connection connection = connectionProvider.getConnection(DbOperation.READ);
+             PreparedStatement statement = connection.prepareStatement(query)) {
+
+            statement.setTimestamp(1, Timestamp.from(since));
 
-            loan.setLoanDate(loanDate);
-            loan.setDueDate(dueDate);
-            loan.setReturnDate(returnDate);
-        } catch (AbstractMethodError | SQLException e) {
-            java.sql.Date loanDate = resultSet.getDate("loan_date");
-            loan.setLoanDate(loanDate == null ? null : loanDate.toLocalDate());
+            try (ResultSet resultSet = statement.executeQuery()) {
 
-            java.sql.Date dueDate = resultSet.getDate("due_date");
-            loan.setDueDate(dueDate == null ? null : dueDate.toLocalDate());
+                LoanRowMapper mapper = LoanRowMapper.bind(resultSet);
+                while (resultSet.next()) {
+                    loans.add(mapper.map(resultSet));
+                }
 
-            java.sql.Date returnDate = resultSet.getDate("return_date");
-            loan.setReturnDate(returnDate == null ? null : returnDate.toLocalDate());
+                return loans;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find updated loans", e);
+        }
+    }
+
+    @Override
+    public List<Long> findDeletedSince(Instant since) {
+        try (Connection connection = connectionProvider.getConnection(DbOperation.READ)) {
+            return Tombstones.deletedSince(connection, "loan", since);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find deleted loans", e);
         }
+    }
 
-        String status = resultSet.getString("status");
-        loan.setStatus(status == null ? null : LoanStatus.valueOf(status));
+    // Streams through a server-side cursor: the driver only fetches FETCH_SIZE rows
+    // at a time, which requires running outside auto-commit.
+    private void stream(String query, Consumer<Loan> consumer, String failureMessage) {
+        try (Connection connection = connectionProvider.getConnection(DbOperation.READ)) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
 
-        return loan;
+            try (PreparedStatement statement = connection.prepareStatement(
+                    query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+                statement.setFetchSize(FETCH_SIZE);
+
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    LoanRowMapper mapper = LoanRowMapper.bind(resultSet);
+                    while (resultSet.next()) {
+                        consumer.accept(mapper.map(resultSet));
+                    }
+                }
+            } finally {
+                if (autoCommit) {
+                    connection.commit();
+                    connection.setAutoCommit(true);
+                }
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException(failureMessage, e);
+        }
     }
 }
\ No newline at end of file
@@ -1,10 +1,13 @@
 package org.library.repository;
 
 import org.library.model.Loan;
+import org.library.model.LoanStatus;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface LoanRepositoryInterface {
     Loan save(Loan loan);
@@ -13,17 +16,40 @@ public interface LoanRepositoryInterface {
 
     List<Loan> findByUserId(Long userId);
 
+    List<Loan> findByUserId(Long userId, boolean includeHistory);
+
     List<Loan> findActiveByUserId(Long userId);
 
     List<Loan> findByBookId(Long bookId);
 
+    List<Loan> findByBookId(Long bookId, boolean includeHistory);
+
     List<Loan> findActiveByBookId(Long bookId);
 
     int countActiveByUserId(Long userId);
 
     Boolean markReturned(Long loanId, LocalDate returnDate);
 
+    Boolean updateStatus(Long loanId, LoanStatus status);
+
     Optional<Loan> findActiveByUserIdAndBookId(Long userId, Long bookId);
 
     Boolean deleteById(Long id);
+
+    // Loans the archiver moved out of the hot table. Resharding carries them along with their user.
+    List<Loan> findArchivedByUserId(Long userId);
+
+    // Does nothing if the archive already holds the loan, so an interrupted move can be rerun.
+    void saveArchived(Loan loan);
+
+    int deleteArchivedByUserId(Long userId);
+
+    void streamAll(boolean includeHistory, Consumer<Loan> consumer);
+
+    void streamActive(Consumer<Loan> consumer);
+
+    List<Loan> findUpdatedSince(Instant since);
+
+    // Ids of active loans deleted since the given time; returned and archived loans are not reported.
+    List<Long> findDeletedSince(Instant since);
 }
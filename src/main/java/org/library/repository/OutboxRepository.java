@@ -0,0 +1,91 @@
+package org.library.repository;
+
+import org.library.model.OutboxEvent;
+import org.library.util.Database;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class OutboxRepository implements OutboxRepositoryInterface {
+
+    @Override
+    public OutboxEvent save(OutboxEvent event) {
+        String query = "INSERT INTO outbox " +
+                "(aggregate_type, aggregate_id, event_type, payload, created_at) " +
+                "VALUES (?, ?, ?, ?, ?) " +
+                "RETURNING id";
+
+        try (Connection connection = Database.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query)) {
+
+            statement.setString(1, event.getAggregateType());
+            statement.setLong(2, event.getAggregateId());
+            statement.setString(3, event.getEventType());
+            statement.setString(4, event.getPayload());
+            statement.setObject(5, event.getCreatedAt());
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    event.setId(resultSet.getLong("id"));
+                }
+            }
+
+            return event;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save outbox event", e);
+        }
+    }
+
+    @Override
+    public List<OutboxEvent> lockPending(int limit) {
+        String query = "SELECT * FROM outbox ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+        List<OutboxEvent> events = new ArrayList<>();
+
+        try (Connection connection = Database.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query)) {
+
+            statement.setInt(1, limit);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    events.add(mapResultSetToOutboxEvent(resultSet));
+                }
+            }
+
+            return events;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to lock pending outbox events", e);
+        }
+    }
+
+    @Override
+    public int deleteByIds(Collection<Long> ids) {
+        String query = "DELETE FROM outbox WHERE id = ANY (?)";
+
+        try (Connection connection = Database.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query)) {
+
+            statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+            return statement.executeUpdate();
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to delete outbox events", e);
+        }
+    }
+
+    private OutboxEvent mapResultSetToOutboxEvent(ResultSet resultSet) throws SQLException {
+        return new OutboxEvent(
+                resultSet.getLong("id"),
+                resultSet.getString("aggregate_type"),
+                resultSet.getLong("aggregate_id"),
+                resultSet.getString("event_type"),
+                resultSet.getString("payload"),
+                resultSet.getObject("created_at", LocalDateTime.class)
+        );
+    }
+}
@@ -0,0 +1,14 @@
+package org.library.repository;
+
+import org.library.model.OutboxEvent;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxRepositoryInterface {
+    OutboxEvent save(OutboxEvent event);
+
+    List<OutboxEvent> lockPending(int limit);
+
+    int deleteByIds(Collection<Long> ids);
+}
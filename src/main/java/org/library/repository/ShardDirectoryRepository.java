@@ -0,0 +1,153 @@
+package org.library.repository;
+
+import org.library.model.RoutingState;
+import org.library.util.ConnectionProvider;
+import org.library.util.Database;
+import org.library.util.DbOperation;
+
+import java.sql.*;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+// Lives on the directory shard (V12). Every change first bumps the single shard_ring row, whose row
+// lock serializes writers, so epochs become visible in the order they were handed out.
+public class ShardDirectoryRepository implements ShardDirectoryRepositoryInterface {
+    private final ConnectionProvider connectionProvider;
+
+    public ShardDirectoryRepository() {
+        this(Database::getConnection);
+    }
+
+    public ShardDirectoryRepository(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
+
+    @Override
+    public void initialize(int shardCount) {
+        String query = "INSERT INTO shard_ring (id, epoch, shard_count) VALUES (1, 1, ?) ON CONFLICT (id) DO NOTHING";
+
+        try (Connection connection = connectionProvider.getConnection(DbOperation.WRITE);
+             PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setInt(1, shardCount);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to initialize shard directory", e);
+        }
+    }
+
+    // Read from the primary in one snapshot, so the ring and the relocations belong to the same epoch.
+    @Override
+    public RoutingState load(long afterEpoch) {
+        try (Connection connection = connectionProvider.getConnection(DbOperation.WRITE)) {
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try {
+                RoutingState state = readRing(connection);
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "SELECT user_id, shard FROM shard_relocation WHERE epoch > ?")) {
+                    statement.setLong(1, afterEpoch);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            state.getRelocations().put(resultSet.getLong(1), resultSet.getInt(2));
+                        }
+                    }
+                }
+                connection.commit();
+                return state;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to load shard directory", e);
+        }
+    }
+
+    @Override
+    public void beginResharding(int targetShardCount) {
+        inTransaction("Failed to begin resharding", connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "UPDATE shard_ring SET target_shard_count = ?, epoch = epoch + 1 WHERE id = 1")) {
+                statement.setInt(1, targetShardCount);
+                statement.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    public void relocate(long userId, int shard) {
+        inTransaction("Failed to relocate user " + userId, connection -> {
+            long epoch = nextEpoch(connection);
+            try (PreparedStatement statement = connection.prepareStatement("""
+                    INSERT INTO shard_relocation (user_id, shard, epoch) VALUES (?, ?, ?)
+                    ON CONFLICT (user_id) DO UPDATE SET shard = EXCLUDED.shard, epoch = EXCLUDED.epoch
+                    """)) {
+                statement.setLong(1, userId);
+                statement.setInt(2, shard);
+                statement.setLong(3, epoch);
+                statement.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    public void finishResharding(Collection<Long> settledUserIds) {
+        inTransaction("Failed to finish resharding", connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("""
+                        UPDATE shard_ring
+                        SET shard_count = COALESCE(target_shard_count, shard_count), target_shard_count = NULL,
+                            epoch = epoch + 1
+                        WHERE id = 1
+                        """);
+            }
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "DELETE FROM shard_relocation WHERE user_id = ANY (?)")) {
+                statement.setArray(1, connection.createArrayOf("bigint", settledUserIds.toArray()));
+                statement.executeUpdate();
+            }
+        });
+    }
+
+    private static RoutingState readRing(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT epoch, shard_count, target_shard_count FROM shard_ring WHERE id = 1")) {
+            if (!resultSet.next()) {
+                throw new IllegalStateException("Shard directory is not initialized");
+            }
+            Map<Long, Integer> relocations = new HashMap<>();
+            return new RoutingState(resultSet.getLong(1), resultSet.getInt(2), resultSet.getInt(3), relocations);
+        }
+    }
+
+    private static long nextEpoch(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "UPDATE shard_ring SET epoch = epoch + 1 WHERE id = 1 RETURNING epoch")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private void inTransaction(String failure, SqlWork work) {
+        try (Connection connection = connectionProvider.getConnection(DbOperation.WRITE)) {
+            connection.setAutoCommit(false);
+            try {
+                work.run(connection);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(failure, e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlWork {
+        void run(Connection connection) throws SQLException;
+    }
+}
@@ -0,0 +1,22 @@
+package org.library.repository;
+
+import org.library.model.RoutingState;
+
+import java.util.Collection;
+
+// Routing shared by every node. Each change bumps the directory epoch, and relocations remember the
+// epoch they were written at, so a node only fetches what changed since its last look.
+public interface ShardDirectoryRepositoryInterface {
+    // Creates the directory with the given ring unless it already exists.
+    void initialize(int shardCount);
+
+    // The ring in force, plus the relocations written after the given epoch.
+    RoutingState load(long afterEpoch);
+
+    void beginResharding(int targetShardCount);
+
+    void relocate(long userId, int shard);
+
+    // Makes the target ring the one in force and drops relocations it now agrees with.
+    void finishResharding(Collection<Long> settledUserIds);
+}
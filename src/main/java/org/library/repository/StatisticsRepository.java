@@ -0,0 +1,184 @@
+package org.library.repository;
+
+import org.library.stats.CirculationAggregates;
+import org.library.util.Database;
+import org.library.util.DbOperation;
+import org.library.util.LongIntHashMap;
+import org.library.util.TransactionRunner;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+public class StatisticsRepository implements StatisticsRepositoryInterface {
+    // Far longer than any batch stays unsaved, so a retried id is always still recorded.
+    private static final int FLUSH_ID_RETENTION_DAYS = 7;
+
+    @Override
+    public void save(UUID flushId, CirculationAggregates delta) {
+        TransactionRunner.JDBC.inTransaction(() -> {
+            if (!claimFlush(flushId)) {
+                return null;
+            }
+            saveBookBorrows(delta);
+            saveDailyCounts(delta);
+            saveDurations(delta);
+            return null;
+        });
+    }
+
+    @Override
+    public CirculationAggregates load(LocalDate since) {
+        CirculationAggregates aggregates = new CirculationAggregates();
+
+        try (Connection connection = Database.getConnection(DbOperation.READ)) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT month, book_id, borrows FROM stats_book_month WHERE month >= ?")) {
+                statement.setObject(1, since.withDayOfMonth(1));
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        aggregates.addBookBorrows(
+                                YearMonth.from(resultSet.getObject(1, LocalDate.class)),
+                                resultSet.getLong(2),
+                                resultSet.getInt(3));
+                    }
+                }
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT day, borrowed, returned FROM stats_daily WHERE day >= ?")) {
+                statement.setObject(1, since);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        aggregates.addDailyCounts(
+                                resultSet.getObject(1, LocalDate.class),
+                                resultSet.getInt(2),
+                                resultSet.getInt(3));
+                    }
+                }
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT bucket, loans, total_days FROM stats_loan_duration");
+                 ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    aggregates.addDuration(resultSet.getInt(1), resultSet.getLong(2), resultSet.getLong(3));
+                }
+            }
+
+            return aggregates;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to load circulation statistics", e);
+        }
+    }
+
+    private boolean claimFlush(UUID flushId) {
+        try (Connection connection = Database.getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "DELETE FROM stats_flush WHERE applied_at < now() - make_interval(days => ?)")) {
+                statement.setInt(1, FLUSH_ID_RETENTION_DAYS);
+                statement.executeUpdate();
+            }
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO stats_flush (flush_id) VALUES (?) ON CONFLICT (flush_id) DO NOTHING")) {
+                statement.setObject(1, flushId);
+                return statement.executeUpdate() == 1;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to record statistics flush " + flushId, e);
+        }
+    }
+
+    private void saveBookBorrows(CirculationAggregates delta) {
+        String query = """
+                INSERT INTO stats_book_month (month, book_id, borrows) VALUES (?, ?, ?)
+                ON CONFLICT (month, book_id) DO UPDATE SET borrows = stats_book_month.borrows + EXCLUDED.borrows
+                """;
+
+        try (Connection connection = Database.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query)) {
+
+            for (Map.Entry<YearMonth, LongIntHashMap> month : delta.getBorrowsByMonth().entrySet()) {
+                LocalDate firstDay = month.getKey().atDay(1);
+                LongIntHashMap borrows = month.getValue();
+                for (long bookId : borrows.keys()) {
+                    statement.setObject(1, firstDay);
+                    statement.setLong(2, bookId);
+                    statement.setInt(3, borrows.get(bookId));
+                    statement.addBatch();
+                }
+            }
+            statement.executeBatch();
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save book borrow statistics", e);
+        }
+    }
+
+    private void saveDailyCounts(CirculationAggregates delta) {
+        String query = """
+                INSERT INTO stats_daily (day, borrowed, returned) VALUES (?, ?, ?)
+                ON CONFLICT (day) DO UPDATE SET borrowed = stats_daily.borrowed + EXCLUDED.borrowed,
+                                                returned = stats_daily.returned + EXCLUDED.returned
+                """;
+
+        try (Connection connection = Database.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query)) {
+
+            LongIntHashMap borrowed = delta.getBorrowsByDay();
+            LongIntHashMap returned = delta.getReturnsByDay();
+
+            Set<Long> days = new HashSet<>();
+            for (long day : borrowed.keys()) {
+                days.add(day);
+            }
+            for (long day : returned.keys()) {
+                days.add(day);
+            }
+
+            for (long day : days) {
+                statement.setObject(1, LocalDate.ofEpochDay(day));
+                statement.setInt(2, borrowed.get(day));
+                statement.setInt(3, returned.get(day));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save daily loan statistics", e);
+        }
+    }
+
+    private void saveDurations(CirculationAggregates delta) {
+        String query = """
+                INSERT INTO stats_loan_duration (bucket, loans, total_days) VALUES (?, ?, ?)
+                ON CONFLICT (bucket) DO UPDATE SET loans = stats_loan_duration.loans + EXCLUDED.loans,
+                                                   total_days = stats_loan_duration.total_days + EXCLUDED.total_days
+                """;
+
+        try (Connection connection = Database.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query)) {
+
+            long[] loans = delta.getDurationLoans();
+            long[] days = delta.getDurationDays();
+            for (int bucket = 0; bucket < loans.length; bucket++) {
+                if (loans[bucket] == 0) {
+                    continue;
+                }
+                statement.setInt(1, bucket);
+                statement.setLong(2, loans[bucket]);
+                statement.setLong(3, days[bucket]);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save loan duration statistics", e);
+        }
+    }
+}
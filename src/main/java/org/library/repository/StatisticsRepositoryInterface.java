@@ -0,0 +1,13 @@
+package org.library.repository;
+
+import org.library.stats.CirculationAggregates;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+public interface StatisticsRepositoryInterface {
+    // Adds the delta once per flush id; saving the same id again is a no-op.
+    void save(UUID flushId, CirculationAggregates delta);
+
+    CirculationAggregates load(LocalDate since);
+}
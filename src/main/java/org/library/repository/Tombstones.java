@@ -0,0 +1,33 @@
+package org.library.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// Reads the deleted_rows tombstones written by the delete triggers of migration V10.
+final class Tombstones {
+    private Tombstones() {
+    }
+
+    static List<Long> deletedSince(Connection connection, String table, Instant since) throws SQLException {
+        String query = "SELECT row_id FROM deleted_rows WHERE table_name = ? AND deleted_at > ?";
+        List<Long> ids = new ArrayList<>();
+
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setString(1, table);
+            statement.setTimestamp(2, Timestamp.from(since));
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    ids.add(resultSet.getLong(1));
+                }
+            }
+        }
+        return ids;
+    }
+}
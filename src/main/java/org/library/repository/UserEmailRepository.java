@@ -0,0 +1,78 @@
+package org.library.repository;
+
+import org.library.util.ConnectionProvider;
+import org.library.util.Database;
+import org.library.util.DbOperation;
+
+import java.sql.*;
+import java.util.Optional;
+
+// Lives on the directory shard next to the shard directory (V13).
+public class UserEmailRepository implements UserEmailRepositoryInterface {
+    private final ConnectionProvider connectionProvider;
+
+    public UserEmailRepository() {
+        this(Database::getConnection);
+    }
+
+    public UserEmailRepository(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
+
+    // The no-op update makes RETURNING report the current owner when the email is already taken.
+    @Override
+    public boolean claim(String email, long userId) {
+        String query = """
+                INSERT INTO user_email (email_key, user_id) VALUES (lower(?), ?)
+                ON CONFLICT (email_key) DO UPDATE SET user_id = user_email.user_id
+                RETURNING user_id
+                """;
+
+        try (Connection connection = connectionProvider.getConnection(DbOperation.WRITE);
+             PreparedStatement statement = connection.prepareStatement(query)) {
+
+            statement.setString(1, email);
+            statement.setLong(2, userId);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getLong(1) == userId;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to claim email " + email, e);
+        }
+    }
+
+    @Override
+    public Optional<Long> findUserId(String email) {
+        String query = "SELECT user_id FROM user_email WHERE email_key = lower(?)";
+
+        try (Connection connection = connectionProvider.getConnection(DbOperation.READ);
+             PreparedStatement statement = connection.prepareStatement(query)) {
+
+            statement.setString(1, email);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? Optional.of(resultSet.getLong(1)) : Optional.empty();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find owner of email " + email, e);
+        }
+    }
+
+    @Override
+    public void release(String email, long userId) {
+        String query = "DELETE FROM user_email WHERE email_key = lower(?) AND user_id = ?";
+
+        try (Connection connection = connectionProvider.getConnection(DbOperation.WRITE);
+             PreparedStatement statement = connection.prepareStatement(query)) {
+
+            statement.setString(1, email);
+            statement.setLong(2, userId);
+            statement.executeUpdate();
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to release email " + email, e);
+        }
+    }
+}
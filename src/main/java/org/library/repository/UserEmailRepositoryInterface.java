@@ -0,0 +1,15 @@
+package org.library.repository;
+
+import java.util.Optional;
+
+// Which user owns an email, kept in one place so that emails are unique across user shards.
+// Emails compare case-insensitively, like the users table's unique index on lower(email).
+public interface UserEmailRepositoryInterface {
+    // True if the email is now, or already was, owned by this user.
+    boolean claim(String email, long userId);
+
+    Optional<Long> findUserId(String email);
+
+    // Only releases the email if this user still owns it.
+    void release(String email, long userId);
+}
@@ -1,25 +1,45 @@
 package org.library.repository;
 
 import org.library.model.User;
+import org.library.model.UserRowMapper;
+import org.library.util.ConnectionProvider;
 import org.library.util.Database;
+import org.library.util.DbOperation;
 
 import java.sql.*;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public class UserRepository implements UserRepositoryInterface {
+    private static final int FETCH_SIZE = 10_000;
+
+    private final ConnectionProvider connectionProvider;
+
+    public UserRepository() {
+        this(Database::getConnection);
+    }
+
+    public UserRepository(ConnectionProvider connectionProvider) {
+        this.connectionProvider = connectionProvider;
+    }
+
     @Override
     public User save(User user) {
-        String sql = "INSERT INTO users (full_Name, email, password) VALUES (?, ?, ?)";
+        // Sharded deployments assign ids up front instead of using the per-node sequence.
+        String sql = "INSERT INTO users (full_Name, email, password, user_id) " +
+                "VALUES (?, ?, ?, COALESCE(?, nextval('users_user_id_seq')))";
 
-        try (Connection connection = Database.getConnection();
+        try (Connection connection = connectionProvider.getConnection(DbOperation.WRITE);
              PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
         ) {
 
             statement.setString(1, user.getFullName());
             statement.setString(2, user.getEmail());
             statement.setString(3, user.getPassword());
+            statement.setObject(4, user.getUserId(), Types.BIGINT);
 
             int rows = statement.executeUpdate();
             if (rows == 0) {
@@ -39,11 +59,40 @@ public class UserRepository implements UserRepositoryInterface {
         }
     }
 
+    @Override
+    public Optional<User> saveIfAbsent(User user) {
+        String sql = "INSERT INTO users (full_Name, email, password, user_id) " +
+                "VALUES (?, ?, ?, COALESCE(?, nextval('users_user_id_seq'))) " +
+                "ON CONFLICT ((lower(email))) DO NOTHING " +
+                "RETURNING user_id";
+
+        try (Connection connection = connectionProvider.getConnection(DbOperation.WRITE);
+             PreparedStatement statement = connection.prepareStatement(sql)
+        ) {
+
+            statement.setString(1, user.getFullName());
+            statement.setString(2, user.getEmail());
+            statement.setString(3, user.getPassword());
+            statement.setObject(4, user.getUserId(), Types.BIGINT);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return Optional.empty();
+                }
+                user.setUserId(resultSet.getLong("user_id"));
+                return Optional.of(user);
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save user", e);
+        }
+    }
+
     @Override
     public Optional<User> findById(Long id) {
         String query = "SELECT * FROM users WHERE user_id = ?";
 
-        try (Connection connection = Database.getConnection();
+        try (Connection connection = connectionProvider.getConnection(DbOperation.READ);
              PreparedStatement statement = connection.prepareStatement(query)
         ) {
 
@@ -51,7 +100,7 @@ public class UserRepository implements UserRepositoryInterface {
             ResultSet resultSet = statement.executeQuery();
 
             if (resultSet.next()) {
-                return Optional.of(mapResultSetToUser(resultSet));
+                return Optional.of(UserRowMapper.bind(resultSet).map(resultSet));
             }
             return Optional.empty();
 
@@ -63,9 +112,9 @@ public class UserRepository implements UserRepositoryInterface {
 
     @Override
     public Optional<User> findByEmail(String email) {
-        String query = "SELECT * FROM users WHERE email = ?";
+        String query = "SELECT * FROM users WHERE lower(email) = lower(?)";
 
-        try (Connection connection = Database.getConnection();
+        try (Connection connection = connectionProvider.getConnection(DbOperation.WRITE);
              PreparedStatement statement = connection.prepareStatement(query)
         ) {
 
@@ -73,7 +122,7 @@ public class UserRepository implements UserRepositoryInterface {
             ResultSet resultSet = statement.executeQuery();
 
             if (resultSet.next()) {
-                return Optional.of(mapResultSetToUser(resultSet));
+                return Optional.of(UserRowMapper.bind(resultSet).map(resultSet));
             } else {
                 return Optional.empty();
             }
@@ -88,13 +137,14 @@ public class UserRepository implements UserRepositoryInterface {
         String query = "SELECT * FROM users";
         List<User> users = new ArrayList<>();
 
-        try (Connection connection = Database.getConnection();
+        try (Connection connection = connectionProvider.getConnection(DbOperation.READ);
              PreparedStatement statement = connection.prepareStatement(query);
              ResultSet resultSet = statement.executeQuery()
         ) {
 
+            UserRowMapper mapper = UserRowMapper.bind(resultSet);
             while (resultSet.next()) {
-                users.add(mapResultSetToUser(resultSet));
+                users.add(mapper.map(resultSet));
             }
 
             return users;
@@ -104,11 +154,74 @@ public class UserRepository implements UserRepositoryInterface {
         }
     }
 
+    // Same server-side cursor approach as LoanRepository.stream.
+    @Override
+    public void streamAll(Consumer<User> consumer) {
+        try (Connection connection = connectionProvider.getConnection(DbOperation.READ)) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT * FROM users", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+                statement.setFetchSize(FETCH_SIZE);
+
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    UserRowMapper mapper = UserRowMapper.bind(resultSet);
+                    while (resultSet.next()) {
+                        consumer.accept(mapper.map(resultSet));
+                    }
+                }
+            } finally {
+                if (autoCommit) {
+                    connection.commit();
+                    connection.setAutoCommit(true);
+                }
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to stream users", e);
+        }
+    }
+
+    @Override
+    public List<User> findUpdatedSince(Instant since) {
+        String query = "SELECT * FROM users WHERE updated_at > ?";
+        List<User> users = new ArrayList<>();
+
+        try (Connection connection = connectionProvider.getConnection(DbOperation.READ);
+             PreparedStatement statement = connection.prepareStatement(query)
+        ) {
+            statement.setTimestamp(1, Timestamp.from(since));
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                UserRowMapper mapper = UserRowMapper.bind(resultSet);
+                while (resultSet.next()) {
+                    users.add(mapper.map(resultSet));
+                }
+            }
+
+            return users;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find updated users", e);
+        }
+    }
+
+    @Override
+    public List<Long> findDeletedSince(Instant since) {
+        try (Connection connection = connectionProvider.getConnection(DbOperation.READ)) {
+            return Tombstones.deletedSince(connection, "users", since);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find deleted users", e);
+        }
+    }
+
     @Override
     public Boolean delete(Long id) {
         String query = "DELETE FROM users WHERE user_id = ?";
 
-        try (Connection connection = Database.getConnection();
+        try (Connection connection = connectionProvider.getConnection(DbOperation.WRITE);
              PreparedStatement statement = connection.prepareStatement(query)
         ) {
             statement.setLong(1, id);
@@ -124,31 +237,27 @@ public class UserRepository implements UserRepositoryInterface {
     public Boolean update(User user) {
         String query = """
                 UPDATE users
-                SET full_name = ?, email = ?, password = ?
-                WHERE users.user_id = ?
+                SET full_name = ?, email = ?, password = ?, version = version + 1
+                WHERE users.user_id = ? AND version = ?
                 """;
 
-        try (Connection connection = Database.getConnection();
+        try (Connection connection = connectionProvider.getConnection(DbOperation.WRITE);
              PreparedStatement statement = connection.prepareStatement(query)
         ) {
             statement.setString(1, user.getFullName());
             statement.setString(2, user.getEmail());
             statement.setString(3, user.getPassword());
             statement.setLong(4, user.getUserId());
+            statement.setLong(5, user.getVersion());
 
-            return statement.executeUpdate() == 1;
+            if (statement.executeUpdate() != 1) {
+                return false;
+            }
+            user.setVersion(user.getVersion() + 1);
+            return true;
 
         } catch (SQLException e) {
             throw new RuntimeException("Failed to update user", e);
         }
     }
-
-    private User mapResultSetToUser(ResultSet resultSet) throws SQLException {
-        return new User(
-                resultSet.getLong("user_id"),
-                resultSet.getString("fullName"),
-                resultSet.getString("email"),
-                resultSet.getString("password")
-        );
-    }
 }
\ No newline at end of file
@@ -2,19 +2,31 @@ package org.library.repository;
 
 import org.library.model.User;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface UserRepositoryInterface {
     User save(User user);
 
+    Optional<User> saveIfAbsent(User user);
+
     Optional<User> findById(Long id);
 
     Optional<User> findByEmail(String email);
 
     List<User> findAll();
 
+    List<User> findUpdatedSince(Instant since);
+
+    List<Long> findDeletedSince(Instant since);
+
+    void streamAll(Consumer<User> consumer);
+
     Boolean delete(Long id);
 
+    // Applies only if the row still has the version the object was read with, and bumps it on success.
+    // False means the row changed since it was read, or no longer exists: re-read and reapply.
     Boolean update(User user);
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package org.library.retry;
+
+import java.sql.SQLException;
+
+// Postgres failure classes that matter for retrying, read from the SQLState of the first SQLException
+// in the cause chain (repositories wrap them, e.g. RuntimeException("Failed to save loan", e)).
+public enum FailureClass {
+    SERIALIZATION,
+    DEADLOCK,
+    CONNECTION,
+    TIMEOUT,
+    OTHER;
+
+    public static FailureClass of(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && sql.getSQLState() != null) {
+                return ofSqlState(sql.getSQLState());
+            }
+        }
+        return OTHER;
+    }
+
+    public static FailureClass ofSqlState(String sqlState) {
+        return switch (sqlState) {
+            case "40001" -> SERIALIZATION;
+            case "40P01" -> DEADLOCK;
+            case "57014" -> TIMEOUT;
+            default -> sqlState.startsWith("08") ? CONNECTION : OTHER;
+        };
+    }
+}
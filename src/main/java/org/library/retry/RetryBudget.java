@@ -0,0 +1,49 @@
+package org.library.retry;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Caps retries at a fraction of first attempts: every call deposits `ratio` of a token, every retry
+// withdraws a whole one. Under a conflict storm the bucket drains and calls fail fast instead of
+// multiplying the load on the database. Tokens are kept in thousandths so one CAS does the update.
+public class RetryBudget {
+    private static final long UNIT = 1_000;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    public RetryBudget(double ratio, int maxTokens) {
+        this.deposit = (long) (ratio * UNIT);
+        this.capacity = maxTokens * UNIT;
+        this.balance = new AtomicLong(capacity);
+    }
+
+    public static RetryBudget unlimited() {
+        return new RetryBudget(0, 0) {
+            @Override
+            public boolean tryWithdraw() {
+                return true;
+            }
+        };
+    }
+
+    public void deposit() {
+        balance.accumulateAndGet(deposit, (current, amount) -> Math.min(capacity, current + amount));
+    }
+
+    public boolean tryWithdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < UNIT) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - UNIT)) {
+                return true;
+            }
+        }
+    }
+
+    public double tokens() {
+        return (double) balance.get() / UNIT;
+    }
+}
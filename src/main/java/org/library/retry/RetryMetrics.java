@@ -0,0 +1,80 @@
+package org.library.retry;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters for one named transaction, e.g. "borrow".
+public class RetryMetrics {
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final LongAdder budgetDenied = new LongAdder();
+    private final Map<FailureClass, LongAdder> failures = new EnumMap<>(FailureClass.class);
+
+    RetryMetrics() {
+        for (FailureClass failure : FailureClass.values()) {
+            failures.put(failure, new LongAdder());
+        }
+    }
+
+    void call() {
+        calls.increment();
+    }
+
+    void failure(FailureClass failure) {
+        failures.get(failure).increment();
+    }
+
+    void retry() {
+        retries.increment();
+    }
+
+    void recovered() {
+        recovered.increment();
+    }
+
+    void exhausted() {
+        exhausted.increment();
+    }
+
+    void budgetDenied() {
+        budgetDenied.increment();
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    // Calls that failed at least once and then committed.
+    public long getRecovered() {
+        return recovered.sum();
+    }
+
+    // Calls that still failed with a retryable error after the last attempt.
+    public long getExhausted() {
+        return exhausted.sum();
+    }
+
+    // Retryable failures that were not retried because the budget was empty.
+    public long getBudgetDenied() {
+        return budgetDenied.sum();
+    }
+
+    public long getFailures(FailureClass failure) {
+        return failures.get(failure).sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("calls=%d retries=%d recovered=%d exhausted=%d budgetDenied=%d "
+                        + "serialization=%d deadlock=%d",
+                getCalls(), getRetries(), getRecovered(), getExhausted(), getBudgetDenied(),
+                getFailures(FailureClass.SERIALIZATION), getFailures(FailureClass.DEADLOCK));
+    }
+}
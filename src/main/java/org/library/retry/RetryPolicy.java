@@ -0,0 +1,41 @@
+package org.library.retry;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Getter
+@Builder(toBuilder = true)
+public class RetryPolicy {
+    public static final RetryPolicy DEFAULT = RetryPolicy.builder()
+            .retryOn(FailureClass.SERIALIZATION)
+            .retryOn(FailureClass.DEADLOCK)
+            .build();
+
+    // Including the first one.
+    @Builder.Default private final int maxAttempts = 5;
+    @Builder.Default private final Duration baseDelay = Duration.ofMillis(5);
+    @Builder.Default private final Duration maxDelay = Duration.ofMillis(200);
+    // Retries allowed per first attempt, and the burst allowance on top of that.
+    @Builder.Default private final double budgetRatio = 0.2;
+    @Builder.Default private final int budgetTokens = 100;
+    @Singular("retryOn") private final Set<FailureClass> retryable;
+
+    public boolean isRetryable(FailureClass failure) {
+        return retryable.contains(failure);
+    }
+
+    // Full jitter: uniform in [0, min(maxDelay, baseDelay * 2^(retry - 1))], so conflicting
+    // transactions that failed together do not come back together.
+    public long backoffNanos(int retry, ThreadLocalRandom random) {
+        long ceiling = baseDelay.toNanos() << Math.min(retry - 1, 30);
+        if (ceiling <= 0 || ceiling > maxDelay.toNanos()) {
+            ceiling = maxDelay.toNanos();
+        }
+        return random.nextLong(ceiling + 1);
+    }
+}
@@ -0,0 +1,104 @@
+package org.library.retry;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.util.Database;
+import org.library.util.TransactionRunner;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+// Re-runs a whole transaction when it fails with a retryable SQLState (by default serialization
+// failures and deadlocks), with jittered exponential backoff, a per-call attempt limit and a shared
+// retry budget. The work must be safe to run again: everything it wrote was rolled back.
+@Slf4j
+public class RetryingTransactionRunner implements TransactionRunner {
+    private static final String UNNAMED = "transaction";
+
+    private final TransactionRunner delegate;
+    private final RetryPolicy policy;
+    private final RetryBudget budget;
+    private final Map<String, RetryMetrics> metrics = new ConcurrentHashMap<>();
+
+    public RetryingTransactionRunner(TransactionRunner delegate, RetryPolicy policy) {
+        this(delegate, policy, new RetryBudget(policy.getBudgetRatio(), policy.getBudgetTokens()));
+    }
+
+    public RetryingTransactionRunner(TransactionRunner delegate, RetryPolicy policy, RetryBudget budget) {
+        this.delegate = delegate;
+        this.policy = policy;
+        this.budget = budget;
+    }
+
+    @Override
+    public <T> T inTransaction(Supplier<T> work) {
+        return inTransaction(UNNAMED, work);
+    }
+
+    @Override
+    public <T> T inTransaction(String operation, Supplier<T> work) {
+        // Only the outermost transaction can be retried; an inner failure aborts the whole thing.
+        if (Database.isInTransaction()) {
+            return delegate.inTransaction(operation, work);
+        }
+
+        RetryMetrics stats = metrics(operation);
+        stats.call();
+        budget.deposit();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = delegate.inTransaction(operation, work);
+                if (attempt > 1) {
+                    stats.recovered();
+                }
+                return result;
+            } catch (RuntimeException e) {
+                FailureClass failure = FailureClass.of(e);
+                stats.failure(failure);
+                if (!policy.isRetryable(failure)) {
+                    throw e;
+                }
+                if (attempt >= policy.getMaxAttempts()) {
+                    stats.exhausted();
+                    log.warn("{} failed with {} after {} attempt(s)", operation, failure, attempt);
+                    throw e;
+                }
+                if (!budget.tryWithdraw()) {
+                    stats.budgetDenied();
+                    log.warn("{} failed with {}, retry budget exhausted", operation, failure);
+                    throw e;
+                }
+
+                stats.retry();
+                long backoff = policy.backoffNanos(attempt, ThreadLocalRandom.current());
+                log.debug("{} failed with {} on attempt {}, retrying in {} us", operation, failure, attempt,
+                        backoff / 1_000);
+                sleep(backoff, e);
+            }
+        }
+    }
+
+    public RetryMetrics metrics(String operation) {
+        return metrics.computeIfAbsent(operation, name -> new RetryMetrics());
+    }
+
+    public Map<String, RetryMetrics> getMetrics() {
+        return Map.copyOf(metrics);
+    }
+
+    public RetryBudget getBudget() {
+        return budget;
+    }
+
+    private static void sleep(long nanos, RuntimeException failure) {
+        try {
+            Thread.sleep(Duration.ofNanos(nanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw failure;
+        }
+    }
+}
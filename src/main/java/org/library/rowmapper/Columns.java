@@ -0,0 +1,89 @@
+package org.library.rowmapper;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Helpers used by generated mappers. An index of 0 means the query did not select the column.
+public final class Columns {
+    private final String[] labels;
+
+    private Columns(ResultSetMetaData metaData) throws SQLException {
+        labels = new String[metaData.getColumnCount()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = metaData.getColumnLabel(i + 1);
+        }
+    }
+
+    public static Columns of(ResultSet resultSet) throws SQLException {
+        return new Columns(resultSet.getMetaData());
+    }
+
+    public int indexOf(String label) {
+        for (int i = 0; i < labels.length; i++) {
+            if (labels[i].equalsIgnoreCase(label)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    public int require(String label) throws SQLException {
+        int index = indexOf(label);
+        if (index == 0) {
+            throw new SQLException("Query did not select required column " + label);
+        }
+        return index;
+    }
+
+    public static Long getLong(ResultSet resultSet, int index) throws SQLException {
+        if (index == 0) {
+            return null;
+        }
+        long value = resultSet.getLong(index);
+        return resultSet.wasNull() ? null : value;
+    }
+
+    public static Integer getInteger(ResultSet resultSet, int index) throws SQLException {
+        if (index == 0) {
+            return null;
+        }
+        int value = resultSet.getInt(index);
+        return resultSet.wasNull() ? null : value;
+    }
+
+    public static Double getDouble(ResultSet resultSet, int index) throws SQLException {
+        if (index == 0) {
+            return null;
+        }
+        double value = resultSet.getDouble(index);
+        return resultSet.wasNull() ? null : value;
+    }
+
+    public static Boolean getBoolean(ResultSet resultSet, int index) throws SQLException {
+        if (index == 0) {
+            return null;
+        }
+        boolean value = resultSet.getBoolean(index);
+        return resultSet.wasNull() ? null : value;
+    }
+
+    public static String getString(ResultSet resultSet, int index) throws SQLException {
+        return index == 0 ? null : resultSet.getString(index);
+    }
+
+    public static LocalDate getLocalDate(ResultSet resultSet, int index) throws SQLException {
+        return index == 0 ? null : resultSet.getObject(index, LocalDate.class);
+    }
+
+    public static LocalDateTime getLocalDateTime(ResultSet resultSet, int index) throws SQLException {
+        return index == 0 ? null : resultSet.getObject(index, LocalDateTime.class);
+    }
+
+    public static <E extends Enum<E>> E getEnum(ResultSet resultSet, int index, EnumLookup<E> lookup)
+            throws SQLException {
+        return index == 0 ? null : lookup.decode(resultSet.getString(index));
+    }
+}
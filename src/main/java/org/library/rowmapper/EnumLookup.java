@@ -0,0 +1,32 @@
+package org.library.rowmapper;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+public final class EnumLookup<E extends Enum<E>> {
+    private final Class<E> type;
+    private final Map<String, E> byName = new HashMap<>();
+
+    private EnumLookup(Class<E> type) {
+        this.type = type;
+        for (E constant : type.getEnumConstants()) {
+            byName.put(constant.name(), constant);
+        }
+    }
+
+    public static <E extends Enum<E>> EnumLookup<E> of(Class<E> type) {
+        return new EnumLookup<>(type);
+    }
+
+    public E decode(String value) throws SQLException {
+        if (value == null) {
+            return null;
+        }
+        E constant = byName.get(value);
+        if (constant == null) {
+            throw new SQLException("Unknown " + type.getSimpleName() + " value: " + value);
+        }
+        return constant;
+    }
+}
@@ -0,0 +1,13 @@
+package org.library.rowmapper;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Generates <Type>RowMapper next to the annotated class. Mapped fields are passed to the
+// constructor whose parameters match them in declaration order.
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface RowMapped {
+}
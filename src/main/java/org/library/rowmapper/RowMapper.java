@@ -0,0 +1,8 @@
+package org.library.rowmapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public interface RowMapper<T> {
+    T map(ResultSet resultSet) throws SQLException;
+}
@@ -0,0 +1,211 @@
+package org.library.rowmapper.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Writes a <Type>RowMapper for every @RowMapped class. The generated mapper resolves
+// column indexes once when bound to a ResultSet and then reads each row by index.
+@SupportedAnnotationTypes("org.library.rowmapper.RowMapped")
+public class RowMapperProcessor extends AbstractProcessor {
+    private static final String COLUMN = "org.library.rowmapper.Column";
+    private static final String NOT_MAPPED = "org.library.rowmapper.NotMapped";
+    private static final String NON_NULL = "lombok.NonNull";
+
+    private static final Map<String, String> READERS = Map.of(
+            "java.lang.Long", "Columns.getLong",
+            "java.lang.Integer", "Columns.getInteger",
+            "java.lang.Double", "Columns.getDouble",
+            "java.lang.Boolean", "Columns.getBoolean",
+            "java.lang.String", "Columns.getString",
+            "java.time.LocalDate", "Columns.getLocalDate",
+            "java.time.LocalDateTime", "Columns.getLocalDateTime"
+    );
+
+    private static final Map<TypeKind, String> PRIMITIVE_READERS = Map.of(
+            TypeKind.LONG, "getLong",
+            TypeKind.INT, "getInt",
+            TypeKind.DOUBLE, "getDouble",
+            TypeKind.BOOLEAN, "getBoolean"
+    );
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(java.util.Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (TypeElement type : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+                List<MappedField> fields = mappedFields(type);
+                if (fields != null) {
+                    write(type, fields);
+                }
+            }
+        }
+        return true;
+    }
+
+    private List<MappedField> mappedFields(TypeElement type) {
+        List<MappedField> fields = new ArrayList<>();
+        boolean valid = true;
+
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.STATIC)
+                    || field.getModifiers().contains(Modifier.TRANSIENT)
+                    || annotation(field, NOT_MAPPED) != null) {
+                continue;
+            }
+
+            String name = field.getSimpleName().toString();
+            AnnotationMirror column = annotation(field, COLUMN);
+            String label = column != null ? annotationValue(column) : snakeCase(name);
+
+            String reader = reader(field.asType());
+            if (reader == null) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Unsupported column type " + field.asType() + " for @RowMapped field " + name, field);
+                valid = false;
+                continue;
+            }
+            // A missing primitive or @NonNull column has no sensible stand-in, so bind() rejects the query.
+            boolean required = field.asType().getKind().isPrimitive() || annotation(field, NON_NULL) != null;
+            fields.add(new MappedField(name, label, field.asType(), reader, required));
+        }
+        return valid ? fields : null;
+    }
+
+    private String reader(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return PRIMITIVE_READERS.containsKey(type.getKind()) ? "primitive" : null;
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        Element element = ((DeclaredType) type).asElement();
+        if (element.getKind() == ElementKind.ENUM) {
+            return "enum";
+        }
+        return READERS.get(((TypeElement) element).getQualifiedName().toString());
+    }
+
+    private void write(TypeElement type, List<MappedField> fields) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String typeName = type.getSimpleName().toString();
+        String mapperName = typeName + "RowMapper";
+
+        try (PrintWriter out = new PrintWriter(processingEnv.getFiler()
+                .createSourceFile(packageName + "." + mapperName, type).openWriter())) {
+
+            out.println("package " + packageName + ";");
+            out.println();
+            out.println("import org.library.rowmapper.Columns;");
+            out.println("import org.library.rowmapper.EnumLookup;");
+            out.println("import org.library.rowmapper.RowMapper;");
+            out.println();
+            out.println("import java.sql.ResultSet;");
+            out.println("import java.sql.SQLException;");
+            out.println();
+            out.println("@javax.annotation.processing.Generated(\"" + getClass().getName() + "\")");
+            out.println("public final class " + mapperName + " implements RowMapper<" + typeName + "> {");
+
+            for (MappedField field : fields) {
+                if (field.reader().equals("enum")) {
+                    out.println("    private static final EnumLookup<" + field.type() + "> " + lookupName(field)
+                            + " = EnumLookup.of(" + field.type() + ".class);");
+                }
+            }
+            out.println();
+
+            for (MappedField field : fields) {
+                out.println("    private final int " + index(field) + ";");
+            }
+            out.println();
+
+            out.println("    private " + mapperName + "(Columns columns) throws SQLException {");
+            for (MappedField field : fields) {
+                out.println("        this." + index(field) + " = columns." + (field.required() ? "require" : "indexOf")
+                        + "(\"" + field.label() + "\");");
+            }
+            out.println("    }");
+            out.println();
+
+            out.println("    public static " + mapperName + " bind(ResultSet resultSet) throws SQLException {");
+            out.println("        return new " + mapperName + "(Columns.of(resultSet));");
+            out.println("    }");
+            out.println();
+
+            out.println("    @Override");
+            out.println("    public " + typeName + " map(ResultSet resultSet) throws SQLException {");
+            out.println("        return new " + typeName + "(");
+            for (int i = 0; i < fields.size(); i++) {
+                out.println("                " + read(fields.get(i)) + (i < fields.size() - 1 ? "," : ""));
+            }
+            out.println("        );");
+            out.println("    }");
+            out.println("}");
+
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write " + mapperName, e);
+        }
+    }
+
+    private static String read(MappedField field) {
+        return switch (field.reader()) {
+            case "primitive" -> "resultSet." + PRIMITIVE_READERS.get(field.type().getKind()) + "(" + index(field) + ")";
+            case "enum" -> "Columns.getEnum(resultSet, " + index(field) + ", " + lookupName(field) + ")";
+            default -> field.reader() + "(resultSet, " + index(field) + ")";
+        };
+    }
+
+    private static String index(MappedField field) {
+        return field.name() + "Index";
+    }
+
+    private static String lookupName(MappedField field) {
+        return snakeCase(field.name()).toUpperCase() + "_VALUES";
+    }
+
+    private static AnnotationMirror annotation(Element element, String annotationType) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationType)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private static String annotationValue(AnnotationMirror mirror) {
+        return mirror.getElementValues().values().iterator().next().getValue().toString();
+    }
+
+    // bookID -> book_id, fullName -> full_name
+    static String snakeCase(String name) {
+        StringBuilder label = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c) && i > 0 && Character.isLowerCase(name.charAt(i - 1))) {
+                label.append('_');
+            }
+            label.append(Character.toLowerCase(c));
+        }
+        return label.toString();
+    }
+
+    private record MappedField(String name, String label, TypeMirror type, String reader, boolean required) {
+    }
+}
@@ -4,25 +4,43 @@ import lombok.Data;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.library.admission.AdmissionController;
+import org.library.admission.Operation;
+import org.library.admission.RejectedException;
 import org.library.model.Book;
 import org.library.model.BookStatus;
-import org.library.repository.BookRepository;
+import org.library.repository.BookRepositoryInterface;
+import org.library.util.ReadYourWrites;
 import org.library.util.Result;
+import org.library.util.ResultCode;
 
 import java.time.LocalDate;
-import java.util.List;
+import java.util.*;
+import java.util.function.Consumer;
 
 @Slf4j
 @Data
 @RequiredArgsConstructor
 public class BookService {
 
-    private final BookRepository bookRepository;
+    private final BookRepositoryInterface bookRepository;
+    private AdmissionController admissionController = AdmissionController.unlimited();
+    // Shared with LoanService so a patron's catalog reads follow their own borrows and returns.
+    private ReadYourWrites readYourWrites = new ReadYourWrites();
 
     public Result addBook(@NonNull String title,
                           @NonNull String author,
                           @NonNull Integer year,
                           @NonNull String publisher) {
+        return addBook(title, author, year, publisher, null, null);
+    }
+
+    public Result addBook(@NonNull String title,
+                          @NonNull String author,
+                          @NonNull Integer year,
+                          @NonNull String publisher,
+                          String isbn,
+                          String barcode) {
 
         log.debug("Attempting to add new book with title: {}, author: {}", title, author);
 
@@ -30,32 +48,42 @@ public class BookService {
         if (title.isBlank() || author.isBlank() || publisher.isBlank()) {
             log.warn("Book validation failed - one or more required fields are empty " +
                     "(title : {}, author : {}, publisher : {})", title, author, publisher);
-            return Result.failure("Book title, author, publisher cannot be empty");
+            return Result.of(ResultCode.BOOK_FIELDS_EMPTY);
         }
 
         int currentYear = LocalDate.now().getYear();
         if (year < 1450 || year > currentYear) {
             log.warn("Year out of bounds: year={}", year);
-            return Result.failure("Year out of bounds");
+            return Result.of(ResultCode.YEAR_OUT_OF_BOUNDS);
         }
 
-        // 2. Checking duplicate in DB
-        boolean duplicatesExists = bookRepository.findByTitle(title)
-                .stream()
-                .anyMatch(book ->
-                        book.getAuthor().equalsIgnoreCase(author)
-                                && book.getPublisher().equalsIgnoreCase(publisher)
-                                && book.getYear().equals(year)
-                );
+        if (isbn != null && !isIsbn13Valid(isbn)) {
+            log.warn("Invalid ISBN-13: {}", isbn);
+            return Result.of(ResultCode.INVALID_ISBN);
+        }
+
+        if (barcode != null) {
+            if (barcode.isBlank()) {
+                log.warn("Book validation failed - barcode is blank");
+                return Result.of(ResultCode.BARCODE_EMPTY);
+            }
+            if (bookRepository.findByBarcode(barcode).isPresent()) {
+                log.warn("Duplicate barcode detected: {}", barcode);
+                return Result.of(ResultCode.BARCODE_TAKEN);
+            }
+        }
 
-        if (duplicatesExists) {
+        // 2. Checking duplicate in DB
+        if (hasDuplicate(title, author, year, publisher)) {
             log.warn("Duplicate book detected: title={}, author={}, year={}, publisher={}",
                     title, author, year, publisher);
-            return Result.failure("Book already exists in the system");
+            return Result.of(ResultCode.BOOK_EXISTS);
         }
 
         // 3. Creating new book
         Book newBook = new Book(title, author, year, publisher);
+        newBook.setIsbn(isbn);
+        newBook.setBarcode(barcode);
         newBook.setStatus(BookStatus.AVAILABLE);
 
         // 4. Save to the DB
@@ -63,7 +91,62 @@ public class BookService {
 
         log.info("Book added successfully: title={}, author={}, year={}, publisher={}",
                 saved.getTitle(), saved.getAuthor(), saved.getYear(), saved.getPublisher());
-        return Result.success("Book added successfully");
+        return Result.of(ResultCode.BOOK_ADDED);
+    }
+
+    private boolean hasDuplicate(String title, String author, Integer year, String publisher) {
+        return bookRepository.findByTitle(title)
+                .stream()
+                .anyMatch(book ->
+                        book.getAuthor().equalsIgnoreCase(author)
+                                && book.getPublisher().equalsIgnoreCase(publisher)
+                                && book.getYear().equals(year)
+                );
+    }
+
+    private boolean isIsbn13Valid(String isbn) {
+        if (isbn.length() != 13) {
+            return false;
+        }
+
+        int sum = 0;
+        for (int i = 0; i < 13; i++) {
+            char c = isbn.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+            sum += (c - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return sum % 10 == 0;
+    }
+
+    public Optional<Book> findByBarcode(@NonNull String barcode) {
+        log.debug("Looking up book by barcode {}", barcode);
+        return bookRepository.findByBarcode(barcode);
+    }
+
+    public List<Book> findByIsbn(@NonNull String isbn) {
+        log.debug("Looking up books by isbn {}", isbn);
+        return bookRepository.findByIsbn(isbn);
+    }
+
+    public Map<String, Book> resolveBarcodes(@NonNull Collection<String> barcodes) {
+        log.debug("Resolving {} scanned barcode(s)", barcodes.size());
+
+        Map<String, Book> found = bookRepository.findByBarcodes(new LinkedHashSet<>(barcodes));
+
+        Map<String, Book> resolved = new LinkedHashMap<>();
+        for (String barcode : barcodes) {
+            Book book = found.get(barcode);
+            if (book == null) {
+                log.warn("Unknown barcode scanned: {}", barcode);
+            } else {
+                resolved.put(barcode, book);
+            }
+        }
+
+        log.info("Resolved {} of {} scanned barcode(s).", resolved.size(), barcodes.size());
+        return resolved;
     }
 
     public List<Book> listAvailableBooks() {
@@ -81,10 +164,31 @@ public class BookService {
         return availableBooks;
     }
 
+    public List<Book> listAvailableBooks(Long userId) {
+        return readYourWrites.read(userId, this::listAvailableBooks);
+    }
+
+    public void streamAvailableBooks(long afterId, int limit, @NonNull Consumer<Book> consumer) {
+        log.debug("Streaming up to {} available book(s) after id {}", limit, afterId);
+        bookRepository.streamAvailable(afterId, limit, consumer);
+    }
+
+    public void streamAvailableBooks(Long userId, long afterId, int limit, @NonNull Consumer<Book> consumer) {
+        readYourWrites.read(userId, () -> {
+            streamAvailableBooks(afterId, limit, consumer);
+            return null;
+        });
+    }
+
     public List<Book> searchBookByTitle(@NonNull String title) {
         log.info("Searching for books with title {}...", title);
 
-        List<Book> foundBooks = bookRepository.findByTitle(title);
+        // Searches carry no user, so only the global limits apply. A rejected search throws instead of
+        // looking like one that found nothing.
+        List<Book> foundBooks = admissionController.call(Operation.SEARCH, null,
+                () -> bookRepository.findByTitle(title), reason -> {
+                    throw new RejectedException(reason);
+                });
 
         if (foundBooks.isEmpty()) {
             log.warn("No books found with the given title {}.", title);
@@ -3,21 +3,29 @@ package org.library.service;
 import lombok.Data;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
+import org.library.cache.ActiveLoanIndex;
 import org.library.model.Book;
 import org.library.model.Loan;
 import org.library.model.User;
-import org.library.repository.BookRepository;
+import org.library.recommend.CoBorrowIndex;
+import org.library.repository.BookRepositoryInterface;
 import org.library.util.Result;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Slf4j
 @Data
 public class LibraryService {
+    public static final int RECOMMENDATIONS = 10;
+
     private final BookService bookService;
     private final LoanService loanService;
-    private final BookRepository bookRepository;
+    private final BookRepositoryInterface bookRepository;
+    // Optional; when set, book pages can show what else their borrowers took out.
+    private CoBorrowIndex coBorrowIndex;
 
     public Result borrowBook(User user, Book book) {
         return loanService.borrowBook(user.getUserId(), book.getBookID());
@@ -30,6 +38,11 @@ public class LibraryService {
     public List<Book> getUserBorrowedBooks(@NonNull Long userId) {
         log.debug("Fetching borrowed books for user {}", userId);
 
+        ActiveLoanIndex index = loanService.getActiveLoanIndex();
+        if (index != null) {
+            return borrowedBooksFromIndex(index, userId);
+        }
+
         List<Loan> activeLoans = loanService.getActiveLoansForUser(userId);
         if (activeLoans.isEmpty()) {
             log.info("No borrowed books for user {}", userId);
@@ -48,10 +61,61 @@ public class LibraryService {
                 .toList();
     }
 
+    private List<Book> borrowedBooksFromIndex(ActiveLoanIndex index, long userId) {
+        long[] bookIds = new long[8];
+        int count;
+        while ((count = index.borrowedBooks(userId, bookIds)) > bookIds.length) {
+            bookIds = new long[count];
+        }
+
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Optional<Book> book = bookRepository.findById(bookIds[i]);
+            if (book.isPresent()) {
+                books.add(book.get());
+            } else {
+                log.warn("Book not found for bookId: {}", bookIds[i]);
+            }
+        }
+        return books;
+    }
+
     public Optional<Book> getBookById(@NonNull Long bookId) {
         return bookRepository.findById(bookId);
     }
 
+    // Reads on the primary for a while after the user's own borrow or return, like their loan lists.
+    public Optional<Book> getBookById(Long userId, @NonNull Long bookId) {
+        return loanService.getReadYourWrites().read(userId, () -> getBookById(bookId));
+    }
+
+    // "Patrons who borrowed this also borrowed", most co-borrowed first.
+    public List<Book> getRecommendedBooks(@NonNull Long bookId) {
+        if (coBorrowIndex == null) {
+            return List.of();
+        }
+        long[] bookIds = new long[RECOMMENDATIONS];
+        int count = coBorrowIndex.recommend(bookId, bookIds);
+        if (count == 0) {
+            return List.of();
+        }
+
+        // One lookup for all of them; the index order is kept and deleted books are skipped.
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(bookIds[i]);
+        }
+        Map<Long, Book> found = bookRepository.findByIds(ids);
+        List<Book> books = new ArrayList<>(found.size());
+        for (Long id : ids) {
+            Book book = found.get(id);
+            if (book != null) {
+                books.add(book);
+            }
+        }
+        return books;
+    }
+
     public List<Book> searchBookByTitle(@NonNull String title) {
         return bookService.searchBookByTitle(title);
     }
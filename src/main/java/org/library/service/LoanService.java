@@ -2,124 +2,345 @@ package org.library.service;
 
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.library.admission.AdmissionController;
+import org.library.admission.Operation;
+import org.library.cache.ActiveLoanIndex;
+import org.library.event.LoanEvent;
+import org.library.event.LoanEventListener;
 import org.library.model.*;
-import org.library.repository.BookRepository;
-import org.library.repository.LoanRepository;
-import org.library.repository.UserRepository;
+import org.library.outbox.OutboxEvents;
+import org.library.repository.BookRepositoryInterface;
+import org.library.repository.LoanRepositoryInterface;
+import org.library.repository.OutboxRepositoryInterface;
+import org.library.repository.UserRepositoryInterface;
+import org.library.util.Database;
+import org.library.util.ReadYourWrites;
 import org.library.util.Result;
+import org.library.util.ResultCode;
+import org.library.util.StripedLocks;
+import org.library.util.TransactionRunner;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 @Slf4j
 @Data
 public class LoanService {
+    public static final int MAX_ACTIVE_LOANS = 5;
+    private static final int MAX_BOOK_UPDATE_ATTEMPTS = 5;
 
-    private UserRepository userRepository;
-    private BookRepository bookRepository;
-    private LoanRepository loanRepository;
+    private UserRepositoryInterface userRepository;
+    private BookRepositoryInterface bookRepository;
+    private LoanRepositoryInterface loanRepository;
+    private OutboxRepositoryInterface outboxRepository;
+    private TransactionRunner transactionRunner = TransactionRunner.JDBC;
+    private ReadYourWrites readYourWrites = new ReadYourWrites();
+    private AdmissionController admissionController = AdmissionController.unlimited();
+    // Optional; when set, lent-out and per-user checks are answered in process.
+    private ActiveLoanIndex activeLoanIndex;
+    private Sessions sessions;
+    // Serializes borrow and return per book and per user within this process.
+    private StripedLocks loanLocks = new StripedLocks();
+    private final List<LoanEventListener> listeners = new CopyOnWriteArrayList<>();
+
+    public void addListener(LoanEventListener listener) {
+        listeners.add(listener);
+    }
 
     public Result borrowBook(Long userId, Long bookId) {
-        log.info("Borrow request");
+        return admissionController.admit(Operation.BORROW, userId, () -> {
+            log.info("Borrow request");
+
+            if (userId == null || bookId == null) {
+                log.error("Borrow failed. User or book id is null");
+                return Result.of(ResultCode.USER_OR_BOOK_ID_NULL);
+            }
+
+            // The book is read on the primary as well; a replica copy may carry an older status and version.
+            return readYourWrites.write(userId, () -> {
+                Optional<Book> book = bookRepository.findById(bookId);
+                if (book.isEmpty()) {
+                    log.error("Borrow failed. Book not found");
+                    return Result.of(ResultCode.BOOK_NOT_FOUND);
+                }
+                return borrow(userId, book.get());
+            });
+        });
+    }
+
+    public Result borrowBookByBarcode(Long userId, String barcode) {
+        return admissionController.admit(Operation.BORROW, userId, () -> {
+            log.info("Borrow by barcode request");
+
+            if (userId == null || barcode == null) {
+                log.error("Borrow failed. User id or barcode is null");
+                return Result.of(ResultCode.USER_OR_BARCODE_NULL);
+            }
+
+            return readYourWrites.write(userId, () -> {
+                Optional<Book> book = bookRepository.findByBarcode(barcode);
+                if (book.isEmpty()) {
+                    log.error("Borrow failed. No book with barcode {}", barcode);
+                    return Result.of(ResultCode.BOOK_NOT_FOUND);
+                }
+                return borrow(userId, book.get());
+            });
+        });
+    }
+
+    // The checks and the writes must not interleave with another borrow or return of the same book,
+    // or with another borrow by the same user. Users take negated keys so that user 7 and book 7
+    // are different keys.
+    private Result borrow(Long userId, Book book) {
+        return loanLocks.withLocks(-userId, book.getBookID(), () -> lend(userId, book));
+    }
+
+    private Result lend(Long userId, Book book) {
+        Long bookId = book.getBookID();
+
+        // The checks run inside the transaction, so a retried attempt re-checks against what the
+        // conflicting transaction committed.
+        Loan[] created = new Loan[1];
+        Result result = transactionRunner.inTransaction("borrow", () -> {
+            created[0] = null;
+            Result rejected = checkBorrow(userId, bookId);
+            if (rejected != null) return rejected;
+
+            Loan loan = new Loan(
+                    userId,
+                    bookId,
+                    LocalDate.now(),
+                    null,
+                    LocalDate.now().plusMonths(1),
+                    LoanStatus.ACTIVE
+            );
+            loanRepository.save(loan);
+
+            changeStatus(book, BookStatus.BORROWED);
+
+            recordOutboxEvent(OutboxEvents.loanBorrowed(loan));
+            created[0] = loan;
+            return Result.of(ResultCode.BOOK_BORROWED, loan.getLoanId());
+        });
 
-        if (userId == null || bookId == null) {
-            log.error("Borrow failed. User or book id is null");
-            return Result.failure("User or book id is null");
+        Loan loan = created[0];
+        if (loan == null) {
+            return result;
         }
 
-        Optional<Book> book = bookRepository.findById(bookId);
-        if (book.isEmpty()) {
-            log.error("Borrow failed. Book not found");
-            return Result.failure("Book not found");
+        if (activeLoanIndex != null) {
+            activeLoanIndex.add(loan);
         }
 
+        publish(LoanEvent.borrowed(loan));
+
+        log.info("Borrow successful. Loan ID: {}", loan.getLoanId());
+        return result;
+    }
+
+    private Result checkBorrow(Long userId, Long bookId) {
         Optional<User> user = userRepository.findById(userId);
         if (user.isEmpty()) {
             log.error("Borrow failed. User not found");
-            return Result.failure("User not found");
+            return Result.of(ResultCode.USER_NOT_FOUND);
         }
 
-        if (!loanRepository.findActiveByBookId(bookId).isEmpty()) {
+        if (isLent(bookId)) {
             log.error("Borrow failed. Book is already borrowed");
-            return Result.failure("Book is already borrowed");
+            return Result.of(ResultCode.BOOK_ALREADY_BORROWED);
         }
 
-        if (!user.get().isLoggedIn()) {
+        boolean loggedIn = sessions != null ? sessions.isLoggedIn(userId) : user.get().isLoggedIn();
+        if (!loggedIn) {
             log.error("Borrow failed. User is not logged in");
-            return Result.failure("User is not logged in");
+            return Result.of(ResultCode.USER_NOT_LOGGED_IN);
         }
 
-        if (canBorrow(userId)) {
+        if (!canBorrow(userId)) {
             log.error("Borrow failed. User has reached the borrowing limit");
-            return Result.failure("User has reached the maximum number of borrowed books: (5)");
+            return Result.of(ResultCode.LOAN_LIMIT_REACHED, MAX_ACTIVE_LOANS);
         }
+        return null;
+    }
 
-        Loan loan = new Loan(
-                userId,
-                bookId,
-                LocalDate.now(),
-                null,
-                LocalDate.now().plusMonths(1),
-                LoanStatus.ACTIVE
-        );
+    public Result returnBook(Long userId, Long bookId) {
+        return admissionController.admit(Operation.RETURN, userId, () -> {
+            log.info("Return request");
 
-        loanRepository.save(loan);
+            if (userId == null || bookId == null) {
+                log.error("Return failed. User or book id is null");
+                return Result.of(ResultCode.USER_OR_BOOK_ID_NULL);
+            }
 
-        book.get().setStatus(BookStatus.BORROWED);
-        bookRepository.update(book.get());
+            return readYourWrites.write(userId, () -> {
+                Optional<Book> book = bookRepository.findById(bookId);
+                if (book.isEmpty()) {
+                    log.error("Return failed. Book not found");
+                    return Result.of(ResultCode.BOOK_NOT_FOUND);
+                }
+                return giveBack(userId, book.get());
+            });
+        });
+    }
 
-        log.info("Borrow successful. Loan ID: {}", loan.getLoanId());
-        return Result.success("Book borrowed successfully. Loan id: " + loan.getLoanId());
+    public Result returnBookByBarcode(Long userId, String barcode) {
+        return admissionController.admit(Operation.RETURN, userId, () -> {
+            log.info("Return by barcode request");
+
+            if (userId == null || barcode == null) {
+                log.error("Return failed. User id or barcode is null");
+                return Result.of(ResultCode.USER_OR_BARCODE_NULL);
+            }
+
+            return readYourWrites.write(userId, () -> {
+                Optional<Book> book = bookRepository.findByBarcode(barcode);
+                if (book.isEmpty()) {
+                    log.error("Return failed. No book with barcode {}", barcode);
+                    return Result.of(ResultCode.BOOK_NOT_FOUND);
+                }
+                return giveBack(userId, book.get());
+            });
+        });
     }
 
-    public Result returnBook(Long userId, Long bookId) {
-        log.info("Return request");
+    private Result giveBack(Long userId, Book book) {
+        return loanLocks.withLocks(-userId, book.getBookID(), () -> takeBack(userId, book));
+    }
+
+    private Result takeBack(Long userId, Book book) {
+        Long bookId = book.getBookID();
+
+        if (userRepository.findById(userId).isEmpty()) {
+            log.error("Return failed. User not found");
+            return Result.of(ResultCode.USER_NOT_FOUND);
+        }
+
+        LocalDate returnDate = LocalDate.now();
+        Loan[] returned = new Loan[1];
+        Result result = transactionRunner.inTransaction("return", () -> {
+            returned[0] = null;
+            Optional<Loan> activeLoan = loanRepository.findActiveByUserIdAndBookId(userId, bookId);
+            if (activeLoan.isEmpty()) {
+                log.error("Return failed. No active loan for this user and book");
+                return Result.of(ResultCode.NO_ACTIVE_LOAN);
+            }
+
+            loanRepository.markReturned(activeLoan.get().getLoanId(), returnDate);
 
-        if (userId == null || bookId == null) {
-            log.error("Return failed. User or book id is null");
-            return Result.failure("User or book id is null");
+            changeStatus(book, BookStatus.AVAILABLE);
+
+            recordOutboxEvent(OutboxEvents.loanReturned(activeLoan.get(), returnDate));
+            returned[0] = activeLoan.get();
+            return Result.of(ResultCode.BOOK_RETURNED);
+        });
+
+        Loan loan = returned[0];
+        if (loan == null) {
+            return result;
         }
 
-        Optional<Book> book = bookRepository.findById(bookId);
-        if (book.isEmpty()) {
-            log.error("Return failed. Book not found");
-            return Result.failure("Book not found");
+        if (activeLoanIndex != null) {
+            activeLoanIndex.remove(userId, bookId);
         }
 
-        if (userRepository.findById(userId).isEmpty()) {
-            log.error("Return failed. User not found");
-            return Result.failure("User not found");
+        publish(LoanEvent.returned(loan, returnDate));
+
+        log.info("Return successful. Loan ID: {}", loan.getLoanId());
+        return result;
+    }
+
+    public Result changeLoanStatus(Long loanId, LoanStatus status) {
+        log.info("Loan status change request");
+
+        if (loanId == null || status == null) {
+            log.error("Status change failed. Loan id or status is null");
+            return Result.of(ResultCode.LOAN_ID_OR_STATUS_NULL);
         }
 
-        Optional<Loan> activeLoan = loanRepository.findActiveByUserIdAndBookId(userId, bookId);
-        if (activeLoan.isEmpty()) {
-            log.error("Return failed. No active loan for this user and book");
-            return Result.failure("No active loan for this user and book");
+        Optional<Loan> loan = loanRepository.findById(loanId);
+        if (loan.isEmpty()) {
+            log.error("Status change failed. Loan not found");
+            return Result.of(ResultCode.LOAN_NOT_FOUND);
         }
 
-        loanRepository.markReturned(activeLoan.get().getLoanId(), LocalDate.now());
+        if (!loanRepository.updateStatus(loanId, status)) {
+            log.error("Status change failed. Loan {} was not updated", loanId);
+            return Result.of(ResultCode.LOAN_STATUS_NOT_CHANGED);
+        }
 
-        book.get().setStatus(BookStatus.AVAILABLE);
-        bookRepository.update(book.get());
+        readYourWrites.recordWrite(loan.get().getUserId());
+        if (activeLoanIndex != null) {
+            if (status == LoanStatus.ACTIVE) {
+                activeLoanIndex.add(loan.get());
+            } else {
+                activeLoanIndex.remove(loan.get().getUserId(), loan.get().getBookId());
+            }
+        }
+        publish(LoanEvent.statusChanged(loan.get(), status));
 
-        log.info("Return successful. Loan ID: {}", activeLoan.get().getLoanId());
-        return Result.success("Book returned successfully.");
+        log.info("Loan {} status changed to {}", loanId, status);
+        return Result.of(ResultCode.LOAN_STATUS_CHANGED, status);
+    }
+
+    // Optimistic write: only when the row changed since it was read is it re-read and the status
+    // reapplied, so a concurrent catalog edit is kept instead of being overwritten.
+    private void changeStatus(Book book, BookStatus status) {
+        Book current = book;
+        for (int attempt = 1; ; attempt++) {
+            current.setStatus(status);
+            if (bookRepository.update(current)) {
+                return;
+            }
+            if (attempt == MAX_BOOK_UPDATE_ATTEMPTS) {
+                throw new RuntimeException("Failed to update book " + book.getBookID()
+                        + ", it kept changing concurrently");
+            }
+            log.warn("Book {} changed concurrently, reapplying status {}", book.getBookID(), status);
+            current = bookRepository.findById(book.getBookID())
+                    .orElseThrow(() -> new RuntimeException("Failed to update book " + book.getBookID()
+                            + ", it no longer exists"));
+        }
+    }
+
+    private void recordOutboxEvent(OutboxEvent event) {
+        if (outboxRepository != null) {
+            outboxRepository.save(event);
+        }
+    }
+
+    private void publish(LoanEvent event) {
+        for (LoanEventListener listener : listeners) {
+            try {
+                listener.onLoanEvent(event);
+            } catch (RuntimeException e) {
+                log.error("Loan event listener {} failed for loan {}", listener, event.getLoanId(), e);
+            }
+        }
     }
 
     public Optional<Loan> getActiveLoanForUserAndBook(Long userId, Long bookId) {
         log.debug("Fetching active loan for user {} and book {}", userId, bookId);
-        return loanRepository.findActiveByUserIdAndBookId(userId, bookId);
+        return readYourWrites.read(userId, () -> loanRepository.findActiveByUserIdAndBookId(userId, bookId));
     }
 
     public List<Loan> getActiveLoansForUser(Long userId) {
         log.debug("Fetching active loan for user {}", userId);
-        return loanRepository.findActiveByUserId(userId);
+        return readYourWrites.read(userId, () -> loanRepository.findActiveByUserId(userId));
+    }
+
+    public List<Loan> getLoanHistoryForUser(Long userId) {
+        log.debug("Fetching loan history for user {}", userId);
+        return readYourWrites.read(userId, () -> loanRepository.findByUserId(userId, true));
     }
 
     public int countActiveLoans(Long userId) {
         log.debug("Fetching count of active loan for user {}", userId);
-        return loanRepository.countActiveByUserId(userId);
+        if (activeLoanIndex != null) {
+            return activeLoanIndex.countActive(userId);
+        }
+        return readYourWrites.read(userId, () -> loanRepository.countActiveByUserId(userId));
     }
 
     public Optional<Loan> findById(Long loanId) {
@@ -128,6 +349,22 @@ public class LoanService {
     }
 
     public Boolean canBorrow(Long userId) {
-        return loanRepository.countActiveByUserId(userId) < 6;
+        int active = indexIsAuthoritative()
+                ? activeLoanIndex.countActive(userId)
+                : loanRepository.countActiveByUserId(userId);
+        return active < MAX_ACTIVE_LOANS;
+    }
+
+    private boolean isLent(Long bookId) {
+        if (indexIsAuthoritative()) {
+            return activeLoanIndex.isLent(bookId);
+        }
+        return !loanRepository.findActiveByBookId(bookId).isEmpty();
+    }
+
+    // The index is updated after commit and only on this node. Inside a database transaction the
+    // checks must read the loan table, or the database could never see the conflicting borrow.
+    private boolean indexIsAuthoritative() {
+        return activeLoanIndex != null && !Database.isInTransaction();
     }
 }
\ No newline at end of file
@@ -0,0 +1,146 @@
+package org.library.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+// Session tokens handed out by a front end (HTTP API, kiosks). A user holds at most one token per
+// front end, so logging in again replaces one the client lost. Tokens idle for longer than the timeout expire; they are swept at
+// most once a minute, by whichever request gets there first.
+@Slf4j
+public class SessionTokens {
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Map<String, Session> byToken = new ConcurrentHashMap<>();
+    private final Map<Long, String> tokenByUser = new ConcurrentHashMap<>();
+    private final ReentrantLock sweepLock = new ReentrantLock();
+    private final SecureRandom random = new SecureRandom();
+    private final long idleTimeoutNanos;
+    private final int maxSessions;
+    private final LongSupplier clock;
+    private final LongConsumer onExpired;
+
+    private volatile long nextSweep;
+
+    public SessionTokens(Duration idleTimeout, int maxSessions, LongConsumer onExpired) {
+        this(idleTimeout, maxSessions, onExpired, System::nanoTime);
+    }
+
+    public SessionTokens(Duration idleTimeout, int maxSessions, LongConsumer onExpired, LongSupplier clock) {
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.maxSessions = maxSessions;
+        this.onExpired = onExpired;
+        this.clock = clock;
+        this.nextSweep = clock.getAsLong() + SWEEP_INTERVAL_NANOS;
+    }
+
+    // Returns null when the limit is reached even after dropping expired tokens.
+    public String issue(long userId) {
+        long now = clock.getAsLong();
+        sweepIfDue(now);
+        if (byToken.size() >= maxSessions && !tokenByUser.containsKey(userId)) {
+            sweep(now);
+            if (byToken.size() >= maxSessions) {
+                log.warn("Refusing a session for user {}: {} session(s) open", userId, byToken.size());
+                return null;
+            }
+        }
+
+        String token = newToken();
+        Session session = new Session(userId, now);
+        tokenByUser.compute(userId, (id, previous) -> {
+            if (previous != null) {
+                byToken.remove(previous);
+            }
+            byToken.put(token, session);
+            return token;
+        });
+        return token;
+    }
+
+    public Long resolve(String token) {
+        long now = clock.getAsLong();
+        sweepIfDue(now);
+        Session session = byToken.get(token);
+        if (session == null) {
+            return null;
+        }
+        if (session.isIdle(now, idleTimeoutNanos)) {
+            expire(token, session);
+            return null;
+        }
+        session.lastSeen = now;
+        return session.userId;
+    }
+
+    public Long revoke(String token) {
+        Session session = byToken.get(token);
+        if (session == null || !tokenByUser.remove(session.userId, token)) {
+            return null;
+        }
+        byToken.remove(token);
+        return session.userId;
+    }
+
+    public int size() {
+        return byToken.size();
+    }
+
+    private void sweepIfDue(long now) {
+        if (now - nextSweep < 0 || !sweepLock.tryLock()) {
+            return;
+        }
+        try {
+            if (now - nextSweep >= 0) {
+                sweep(now);
+            }
+        } finally {
+            sweepLock.unlock();
+        }
+    }
+
+    private void sweep(long now) {
+        nextSweep = now + SWEEP_INTERVAL_NANOS;
+        byToken.forEach((token, session) -> {
+            if (session.isIdle(now, idleTimeoutNanos)) {
+                expire(token, session);
+            }
+        });
+    }
+
+    // Whoever removes the user's entry first owns the expiry, so the callback runs once.
+    private void expire(String token, Session session) {
+        if (tokenByUser.remove(session.userId, token)) {
+            byToken.remove(token);
+            onExpired.accept(session.userId);
+        }
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[18];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static final class Session {
+        private final long userId;
+        private volatile long lastSeen;
+
+        private Session(long userId, long lastSeen) {
+            this.userId = userId;
+            this.lastSeen = lastSeen;
+        }
+
+        private boolean isIdle(long now, long idleTimeoutNanos) {
+            return now - lastSeen > idleTimeoutNanos;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.library.service;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Logged-in users by id. Repositories hand out fresh User copies, so the flag on User
+// does not survive between calls; services share this registry instead when it is set.
+public class Sessions {
+    private final Set<Long> loggedIn = ConcurrentHashMap.newKeySet();
+
+    public boolean logIn(long userId) {
+        return loggedIn.add(userId);
+    }
+
+    public boolean logOut(long userId) {
+        return loggedIn.remove(userId);
+    }
+
+    public boolean isLoggedIn(long userId) {
+        return loggedIn.contains(userId);
+    }
+
+    public int size() {
+        return loggedIn.size();
+    }
+}
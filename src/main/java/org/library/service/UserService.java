@@ -2,10 +2,19 @@ package org.library.service;
 
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.library.admission.AdmissionController;
+import org.library.admission.Operation;
+import org.library.filter.KnownEmails;
+import org.library.model.OutboxEvent;
 import org.library.model.User;
-import org.library.repository.UserRepository;
+import org.library.outbox.OutboxEvents;
+import org.library.repository.OutboxRepositoryInterface;
+import org.library.repository.UserRepositoryInterface;
 import org.library.util.Result;
+import org.library.util.ResultCode;
+import org.library.util.TransactionRunner;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
@@ -15,9 +24,20 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class UserService {
 
-    private final UserRepository userRepository;
+    private final UserRepositoryInterface userRepository;
     private final LoanService loanService;
 
+    @Setter
+    private OutboxRepositoryInterface outboxRepository;
+    @Setter
+    private TransactionRunner transactionRunner = TransactionRunner.JDBC;
+    @Setter
+    private AdmissionController admissionController = AdmissionController.unlimited();
+    @Setter
+    private KnownEmails knownEmails;
+    @Setter
+    private Sessions sessions;
+
     public Result registerUser(@NonNull String email, @NonNull String fullName, @NonNull String password) {
         String normalizedEmail = normalizeEmail(email);
         log.info("Attempting to register user: {} ({})", fullName, normalizedEmail);
@@ -34,108 +54,163 @@ public class UserService {
         Result strongPassword = isPasswordStrongEnough(normalizedEmail, password);
         if (strongPassword != null) return strongPassword;
 
-        if (userRepository.findByEmail(normalizedEmail).isPresent()) {
+        // The unique index on lower(email) decides duplicates in the same statement as the insert.
+        User user = new User(fullName, normalizedEmail, hashPassword(password));
+        Optional<User> registered = transactionRunner.inTransaction(() -> {
+            Optional<User> saved = userRepository.saveIfAbsent(user);
+            saved.ifPresent(created -> recordOutboxEvent(OutboxEvents.userRegistered(created)));
+            return saved;
+        });
+
+        if (registered.isEmpty()) {
             log.warn("User with email {} already exists.", normalizedEmail);
-            return Result.failure("User with email address " + normalizedEmail + " already exists.");
+            return Result.of(ResultCode.EMAIL_TAKEN, normalizedEmail);
+        }
+        if (knownEmails != null) {
+            knownEmails.add(normalizedEmail);
         }
-
-        User user = new User(fullName, normalizedEmail, hashPassword(password));
-        userRepository.save(user);
 
         log.debug("Created new user: fullName={}, email={}", user.getFullName(), normalizedEmail);
 
         log.info("User {} successfully registered.", normalizedEmail);
-        return Result.success("User " + normalizedEmail + " has been successfully registered.");
+        return Result.of(ResultCode.USER_REGISTERED, normalizedEmail);
     }
 
     public Result loginUser(@NonNull String email, @NonNull String password) {
         String normalizedEmail = normalizeEmail(email);
-        log.info("Attempting to login user: {}", normalizedEmail);
+        return admissionController.admit(Operation.LOGIN, normalizedEmail, () -> {
+            log.info("Attempting to login user: {}", normalizedEmail);
 
-        User user = userRepository.findByEmail(normalizedEmail).orElse(null);
-        if (user == null) {
-            log.error("Account with email {} does not exist.", normalizedEmail);
-            return Result.failure("User with email " + normalizedEmail + " does not exist.");
-        }
+            User user = findByEmail(normalizedEmail).orElse(null);
+            if (user == null) {
+                log.error("Account with email {} does not exist.", normalizedEmail);
+                return Result.of(ResultCode.EMAIL_NOT_FOUND, normalizedEmail);
+            }
 
-        if (!user.getPassword().equals(hashPassword(password))) {
-            log.warn("Invalid password for {}.", normalizedEmail);
-            return Result.failure("Invalid password.");
-        }
+            if (!user.getPassword().equals(hashPassword(password))) {
+                log.warn("Invalid password for {}.", normalizedEmail);
+                return Result.of(ResultCode.INVALID_PASSWORD);
+            }
 
-        if (user.isLoggedIn()) {
-            log.warn("User {} is already logged in.", normalizedEmail);
-            return Result.failure(normalizedEmail + " is already logged in.");
-        }
+            if (isLoggedIn(user)) {
+                log.warn("User {} is already logged in.", normalizedEmail);
+                // The password was right, so a front end that lost the session may replace it.
+                return Result.of(ResultCode.ALREADY_LOGGED_IN, normalizedEmail, user.getUserId());
+            }
 
-        user.logIn();
-        log.info("User {} successfully logged in.", normalizedEmail);
-        return Result.success(user.getFullName() + " successfully logged in.");
+            user.logIn();
+            if (sessions != null) {
+                sessions.logIn(user.getUserId());
+            }
+            log.info("User {} successfully logged in.", normalizedEmail);
+            return Result.of(ResultCode.USER_LOGGED_IN, user.getFullName(), user.getUserId());
+        });
     }
 
     public Result logoutUser(@NonNull String email) {
         String normalizedEmail = normalizeEmail(email);
         log.info("Attempting to logout user: {}", normalizedEmail);
 
-        User user = userRepository.findByEmail(normalizedEmail).orElse(null);
+        User user = findByEmail(normalizedEmail).orElse(null);
 
         if (user == null) {
             log.error("Account with email {} does not exist.", normalizedEmail);
-            return Result.failure("User with email " + normalizedEmail + " does not exist.");
+            return Result.of(ResultCode.EMAIL_NOT_FOUND, normalizedEmail);
         }
 
-        if (!user.isLoggedIn()) {
+        if (!isLoggedIn(user)) {
             log.warn("User {} is not logged in.", user.getEmail());
-            return Result.failure("Cannot log out – user is not logged in.");
+            return Result.of(ResultCode.NOT_LOGGED_IN);
         }
 
         user.logOut();
+        if (sessions != null) {
+            sessions.logOut(user.getUserId());
+        }
         log.info("User {} successfully logged out.", user.getEmail());
-        return Result.success("You have been logged out.");
+        return Result.of(ResultCode.USER_LOGGED_OUT);
+    }
+
+    // For front ends whose session token expired; the user may have logged out already.
+    public Result endSession(long userId) {
+        Optional<User> user = userRepository.findById(userId);
+        return user.isPresent() ? logoutUser(user.get().getEmail()) : Result.of(ResultCode.USER_NOT_FOUND);
     }
 
     public Result deleteUser(@NonNull String email) {
         String normalizedEmail = normalizeEmail(email);
         log.info("Attempting to delete user: {}", normalizedEmail);
 
-        User user = userRepository.findByEmail(normalizedEmail).orElse(null);
+        User user = findByEmail(normalizedEmail).orElse(null);
 
         if (user == null) {
             log.error("User with email {} does not exist.", normalizedEmail);
-            return Result.failure("User with email " + normalizedEmail + " does not exist.");
+            return Result.of(ResultCode.EMAIL_NOT_FOUND, normalizedEmail);
         }
 
-        if (!user.isLoggedIn()) {
+        if (!isLoggedIn(user)) {
             log.warn("User {} is not logged in. Cannot delete account.", user.getEmail());
-            return Result.failure(user.getEmail() + " must be logged in to delete the account.");
+            return Result.of(ResultCode.LOGIN_REQUIRED_TO_DELETE, user.getEmail());
         }
 
         int activeLoans = loanService.countActiveLoans(user.getUserId());
         if (activeLoans > 0) {
             log.warn("User {} cannot be deleted: {} books are currently borrowed and must be returned first.",
                     user.getEmail(), activeLoans);
-            return Result.failure(
-                    "Cannot delete account. You still have " + activeLoans + " borrowed books.");
+            return Result.of(ResultCode.HAS_BORROWED_BOOKS, activeLoans);
         }
 
         user.logOut();
-        userRepository.delete(user.getUserId());
+        if (sessions != null) {
+            sessions.logOut(user.getUserId());
+        }
+        transactionRunner.inTransaction(() -> {
+            userRepository.delete(user.getUserId());
+            recordOutboxEvent(OutboxEvents.userDeleted(user));
+            return user;
+        });
 
         log.info("User {}  (ID {}) successfully deleted.", user.getEmail(), user.getUserId());
-        return Result.success("Account for " + user.getFullName() + " has been successfully deleted.");
+        return Result.of(ResultCode.USER_DELETED, user.getFullName());
+    }
+
+    private Optional<User> findByEmail(String normalizedEmail) {
+        if (knownEmails == null) {
+            return userRepository.findByEmail(normalizedEmail);
+        }
+        if (!knownEmails.mightExist(normalizedEmail)) {
+            log.debug("Email {} rejected by the email filter without a lookup.", normalizedEmail);
+            return Optional.empty();
+        }
+
+        Optional<User> user = userRepository.findByEmail(normalizedEmail);
+        if (user.isEmpty()) {
+            knownEmails.recordFalsePositive();
+        }
+        return user;
+    }
+
+    private boolean isLoggedIn(User user) {
+        return sessions != null ? sessions.isLoggedIn(user.getUserId()) : user.isLoggedIn();
+    }
+
+    private void recordOutboxEvent(OutboxEvent event) {
+        if (outboxRepository != null) {
+            outboxRepository.save(event);
+        }
     }
 
     private Optional<User> getLoggedInUser(User user) {
         String normalizedEmail = normalizeEmail(user.getEmail());
         log.info("Attempting to get logged in user: {}", normalizedEmail);
 
-        Optional<User> existingUser = userRepository.findByEmail(normalizedEmail);
+        Optional<User> existingUser = findByEmail(normalizedEmail);
         if (existingUser.isEmpty()) {
             log.error("Account with email {} does not exist.", normalizedEmail);
             return Optional.empty();
         }
 
-        if (!existingUser.get().isLoggedIn()) {
+        if (!isLoggedIn(existingUser.get())) {
             log.warn("User {} is not logged in.", normalizedEmail);
             return Optional.empty();
         }
@@ -172,7 +247,7 @@ public class UserService {
         if (password.length() < 8) {
             log.warn("Registration failed for {}. Password too short ({} characters).",
                     email, password.length());
-            return Result.failure("Invalid password length. Password should be at least 8 characters.");
+            return Result.of(ResultCode.PASSWORD_TOO_SHORT);
         }
         return null;
     }
@@ -180,7 +255,7 @@ public class UserService {
     private Result isFullNameValid(String email, String fullName) {
         if (!fullName.trim().contains(" ")) {
             log.warn("Registration failed for {}. Invalid full name '{}'.", email, fullName);
-            return Result.failure("Invalid full name format. Full name must contain whitespace between name and surname.");
+            return Result.of(ResultCode.INVALID_FULL_NAME);
         }
         return null;
     }
@@ -188,7 +263,7 @@ public class UserService {
     private Result isEmailFormatValid(String email) {
         if (!email.contains("@")) {
             log.warn("Registration failed for {}. Invalid email format.", email);
-            return Result.failure("Invalid email format. Email address must contain @.");
+            return Result.of(ResultCode.INVALID_EMAIL);
         }
         return null;
     }
@@ -197,7 +272,7 @@ public class UserService {
         if (email.isBlank() || fullName.isBlank() || password.isBlank()) {
             log.warn("User validation failed - one or more required fields are empty " +
                     "(email: {}, fullName: {}, password: {}) ", email, fullName, password);
-            return Result.failure("User email, full name, and password cannot be empty");
+            return Result.of(ResultCode.REGISTRATION_FIELDS_EMPTY);
         }
         return null;
     }
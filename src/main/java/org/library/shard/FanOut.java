@@ -0,0 +1,39 @@
+package org.library.shard;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+final class FanOut {
+    private FanOut() {
+    }
+
+    static <S, T> List<T> gather(ExecutorService executor, List<S> shards, Function<S, Collection<T>> query) {
+        List<Future<Collection<T>>> pending = new ArrayList<>(shards.size());
+        for (S shard : shards) {
+            pending.add(executor.submit(() -> query.apply(shard)));
+        }
+
+        List<T> results = new ArrayList<>();
+        for (Future<Collection<T>> future : pending) {
+            try {
+                results.addAll(future.get());
+            } catch (ExecutionException e) {
+                pending.forEach(other -> other.cancel(true));
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new RuntimeException("Failed to query shard", e.getCause());
+            } catch (InterruptedException e) {
+                pending.forEach(other -> other.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while querying shards", e);
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,179 @@
+package org.library.shard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.model.Loan;
+import org.library.model.User;
+import org.library.repository.LoanRepositoryInterface;
+import org.library.repository.UserRepositoryInterface;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// Runs inside the application: moves take the router's per-user lock, so requests on this node for
+// the user being moved wait for the copy instead of hitting a half-moved user. Other nodes learn of
+// a move from the shard directory, so the source rows are only deleted once the settle delay has
+// given every router a chance to refresh; rows a lagging node wrote meanwhile are copied over first.
+@Slf4j
+public class Resharder {
+    private static final int PROGRESS_INTERVAL = 10_000;
+    private static final int BATCH_SIZE = 1_000;
+
+    private final List<UserRepositoryInterface> userShards;
+    private final List<LoanRepositoryInterface> loanShards;
+    private final ShardRouter router;
+    private final Duration settleDelay;
+
+    public Resharder(List<UserRepositoryInterface> userShards, List<LoanRepositoryInterface> loanShards,
+                     ShardRouter router) {
+        this(userShards, loanShards, router, Duration.ZERO);
+    }
+
+    // The settle delay should exceed the routers' refresh interval; zero suits a single node.
+    public Resharder(List<UserRepositoryInterface> userShards, List<LoanRepositoryInterface> loanShards,
+                     ShardRouter router, Duration settleDelay) {
+        this.userShards = List.copyOf(userShards);
+        this.loanShards = List.copyOf(loanShards);
+        this.router = router;
+        this.settleDelay = settleDelay;
+    }
+
+    public CompletableFuture<Integer> start(ShardRing target) {
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        Thread.ofPlatform().name("resharder").daemon(true).start(() -> {
+            try {
+                result.complete(reshard(target));
+            } catch (RuntimeException e) {
+                log.error("Resharding to {} shard(s) failed", target.getShardCount(), e);
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    public int reshard(ShardRing target) {
+        if (target.getShardCount() > userShards.size()) {
+            throw new IllegalArgumentException("Target ring has " + target.getShardCount()
+                    + " shards but only " + userShards.size() + " are configured");
+        }
+
+        log.info("Resharding from {} to {} shard(s)", router.getRing().getShardCount(), target.getShardCount());
+        router.beginResharding(target);
+
+        int moved = 0;
+        List<Move> batch = new ArrayList<>(BATCH_SIZE);
+        for (int shard = 0; shard < userShards.size(); shard++) {
+            for (User user : userShards.get(shard).findAll()) {
+                int destination = target.shardFor(user.getUserId());
+                if (destination == shard) {
+                    continue;
+                }
+                copy(user.getUserId(), destination).ifPresent(batch::add);
+                if (batch.size() == BATCH_SIZE) {
+                    moved += complete(batch, moved);
+                }
+            }
+        }
+        moved += complete(batch, moved);
+
+        router.finishResharding();
+        log.info("Resharding finished: {} user(s) moved", moved);
+        return moved;
+    }
+
+    public boolean moveUser(long userId, int destination) {
+        Optional<Move> move = copy(userId, destination);
+        if (move.isEmpty()) {
+            return false;
+        }
+        settle();
+        router.exclusively(userId, () -> release(move.get()));
+        return true;
+    }
+
+    private int complete(List<Move> batch, int movedBefore) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        settle();
+        for (Move move : batch) {
+            router.exclusively(move.userId(), () -> release(move));
+        }
+        int moved = batch.size();
+        if ((movedBefore + moved) / PROGRESS_INTERVAL > movedBefore / PROGRESS_INTERVAL) {
+            log.info("Resharding progress: {} user(s) moved", movedBefore + moved);
+        }
+        batch.clear();
+        return moved;
+    }
+
+    // Copies the user with their loans and archived loans, then routes them to the destination.
+    private Optional<Move> copy(long userId, int destination) {
+        return router.exclusively(userId, () -> {
+            int source = router.shardFor(userId);
+            if (source == destination) {
+                return Optional.<Move>empty();
+            }
+
+            Optional<User> user = userShards.get(source).findById(userId);
+            if (user.isEmpty()) {
+                return Optional.<Move>empty();
+            }
+
+            // Copy first and skip rows a previous, interrupted run already copied.
+            if (userShards.get(destination).findById(userId).isEmpty()) {
+                userShards.get(destination).save(user.get());
+            }
+            copyLoans(userId, source, destination);
+
+            router.relocate(userId, destination);
+            return Optional.of(new Move(userId, source, destination));
+        });
+    }
+
+    // Runs after the settle delay: picks up what lagging nodes still wrote to the source, then deletes it.
+    private boolean release(Move move) {
+        long userId = move.userId();
+        List<Loan> loans = copyLoans(userId, move.source(), move.destination());
+        for (Loan loan : loans) {
+            loanShards.get(move.source()).deleteById(loan.getLoanId());
+        }
+        int archived = loanShards.get(move.source()).deleteArchivedByUserId(userId);
+        userShards.get(move.source()).delete(userId);
+
+        log.debug("Moved user {} with {} loan(s) and {} archived loan(s) from shard {} to {}",
+                userId, loans.size(), archived, move.source(), move.destination());
+        return true;
+    }
+
+    private List<Loan> copyLoans(long userId, int source, int destination) {
+        LoanRepositoryInterface from = loanShards.get(source);
+        LoanRepositoryInterface to = loanShards.get(destination);
+
+        List<Loan> loans = from.findByUserId(userId);
+        for (Loan loan : loans) {
+            if (to.findById(loan.getLoanId()).isEmpty()) {
+                to.save(loan);
+            }
+        }
+        from.findArchivedByUserId(userId).forEach(to::saveArchived);
+        return loans;
+    }
+
+    private void settle() {
+        if (settleDelay.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(settleDelay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for routers to pick up moves", e);
+        }
+    }
+
+    private record Move(long userId, int source, int destination) {
+    }
+}
@@ -0,0 +1,57 @@
+package org.library.shard;
+
+import java.time.Instant;
+
+// 63-bit ids: milliseconds since EPOCH (40 bits) | shard (10) | worker (5) | sequence (8).
+// Ids sort by creation millisecond, and loan ids tell which shard they were written to.
+public class ShardIdGenerator {
+    public static final int MAX_SHARDS = 1 << 10;
+    public static final int MAX_WORKERS = 1 << 5;
+
+    static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    private static final int SEQUENCE_BITS = 8;
+    private static final int WORKER_BITS = 5;
+    private static final int SHARD_BITS = 10;
+    private static final int WORKER_SHIFT = SEQUENCE_BITS;
+    private static final int SHARD_SHIFT = WORKER_SHIFT + WORKER_BITS;
+    private static final int TIME_SHIFT = SHARD_SHIFT + SHARD_BITS;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final int worker;
+    private long lastMillis = -1;
+    private long sequence;
+
+    public ShardIdGenerator(int worker) {
+        if (worker < 0 || worker >= MAX_WORKERS) {
+            throw new IllegalArgumentException("Worker id must be between 0 and " + (MAX_WORKERS - 1));
+        }
+        this.worker = worker;
+    }
+
+    public synchronized long next(int shard) {
+        if (shard < 0 || shard >= MAX_SHARDS) {
+            throw new IllegalArgumentException("Shard must be between 0 and " + (MAX_SHARDS - 1));
+        }
+
+        long now = Math.max(System.currentTimeMillis() - EPOCH, lastMillis);
+        if (now == lastMillis) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                while (now <= lastMillis) {
+                    Thread.onSpinWait();
+                    now = System.currentTimeMillis() - EPOCH;
+                }
+            }
+        } else {
+            sequence = 0;
+        }
+        lastMillis = now;
+
+        return (now << TIME_SHIFT) | ((long) shard << SHARD_SHIFT) | ((long) worker << WORKER_SHIFT) | sequence;
+    }
+
+    public static int shardOf(long id) {
+        return (int) ((id >>> SHARD_SHIFT) & (MAX_SHARDS - 1));
+    }
+}
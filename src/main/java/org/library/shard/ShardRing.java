@@ -0,0 +1,68 @@
+package org.library.shard;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+public class ShardRing {
+    public static final int DEFAULT_VIRTUAL_NODES = 256;
+
+    private final int shardCount;
+    private final long[] points;
+    private final int[] shards;
+
+    public ShardRing(int shardCount) {
+        this(shardCount, DEFAULT_VIRTUAL_NODES);
+    }
+
+    public ShardRing(int shardCount, int virtualNodes) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shardCount = shardCount;
+
+        // Virtual node positions depend only on (shard, replica), so growing the ring
+        // from N to N + 1 shards only moves the keys the new shard takes over.
+        TreeMap<Long, Integer> ring = new TreeMap<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                ring.putIfAbsent(hash(((long) shard << 32) | node), shard);
+            }
+        }
+
+        points = new long[ring.size()];
+        shards = new int[ring.size()];
+        int i = 0;
+        for (Map.Entry<Long, Integer> entry : ring.entrySet()) {
+            points[i] = entry.getKey();
+            shards[i] = entry.getValue();
+            i++;
+        }
+    }
+
+    public int shardFor(long userId) {
+        long point = hash(userId);
+        int low = 0;
+        int high = points.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (points[mid] < point) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return shards[low == points.length ? 0 : low];
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    // SplitMix64 finalizer: cheap and spreads sequential ids evenly over the ring.
+    static long hash(long value) {
+        long h = value + 0x9E3779B97F4A7C15L;
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
@@ -0,0 +1,188 @@
+package org.library.shard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.model.RoutingState;
+import org.library.repository.InMemoryShardDirectoryRepository;
+import org.library.repository.ShardDirectoryRepositoryInterface;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// Routes users to shards from a local copy of the shard directory. Changes made here are written to
+// the directory first; changes made by other nodes arrive through refresh(), which start() runs on a
+// schedule.
+// Not wired into LibraryBackend: a shard's repositories use their own connections, which would not take
+// part in the services' borrow and return transactions. Until they do, the shard package is a library for
+// tests and the Resharder, not a deployment option.
+@Slf4j
+public class ShardRouter implements AutoCloseable {
+    private static final int LOCK_STRIPES = 256;
+
+    private final ShardDirectoryRepositoryInterface directory;
+    private final ReadWriteLock[] locks = new ReadWriteLock[LOCK_STRIPES];
+
+    private volatile Map<Long, Integer> relocated = new ConcurrentHashMap<>();
+    private volatile ShardRing ring;
+    private volatile ShardRing targetRing;
+    private long epoch;
+    private ScheduledExecutorService scheduler;
+
+    public ShardRouter(ShardRing ring) {
+        this(new InMemoryShardDirectoryRepository(), ring);
+    }
+
+    // The ring only seeds an empty directory; an existing directory decides.
+    public ShardRouter(ShardDirectoryRepositoryInterface directory, ShardRing ring) {
+        this.directory = directory;
+        this.ring = ring;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+        directory.initialize(ring.getShardCount());
+        // Not refresh(): an overridable call would let a subclass see this router half built.
+        applyDirectoryChanges();
+    }
+
+    public int shardFor(long userId) {
+        Integer moved = relocated.get(userId);
+        return moved != null ? moved : ring.shardFor(userId);
+    }
+
+    // While resharding, new users go straight to their final shard.
+    public int place(long userId) {
+        ShardRing target = targetRing;
+        if (target == null) {
+            return ring.shardFor(userId);
+        }
+        int shard = target.shardFor(userId);
+        if (shard != ring.shardFor(userId)) {
+            relocate(userId, shard);
+        }
+        return shard;
+    }
+
+    public ShardRing getRing() {
+        return ring;
+    }
+
+    public synchronized void start(long refreshMillis) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shard-directory");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refreshSafely, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+        log.info("Shard directory refresh started, every {} ms", refreshMillis);
+    }
+
+    // Fetches what changed in the directory since the last look. Relocations are applied
+    // incrementally; a changed ring replaces the whole local copy. Returns whether anything changed.
+    public synchronized boolean refresh() {
+        return applyDirectoryChanges();
+    }
+
+    private boolean applyDirectoryChanges() {
+        RoutingState state = directory.load(epoch);
+        if (state.getEpoch() == epoch) {
+            return false;
+        }
+
+        int targetCount = targetRing != null ? targetRing.getShardCount() : 0;
+        if (state.getShardCount() != ring.getShardCount() || state.getTargetShardCount() != targetCount) {
+            state = directory.load(0);
+            ring = ringFor(state.getShardCount(), ring);
+            targetRing = state.getTargetShardCount() == 0 ? null : ringFor(state.getTargetShardCount(), targetRing);
+            relocated = new ConcurrentHashMap<>(state.getRelocations());
+            log.info("Shard directory epoch {}: {} shard(s), target {}, {} relocated user(s)",
+                    state.getEpoch(), state.getShardCount(), state.getTargetShardCount(), relocated.size());
+        } else {
+            relocated.putAll(state.getRelocations());
+        }
+        epoch = state.getEpoch();
+        return true;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public <T> T withUser(long userId, Supplier<T> work) {
+        ReadWriteLock lock = lockFor(userId);
+        lock.readLock().lock();
+        try {
+            return work.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    <T> T exclusively(long userId, Supplier<T> work) {
+        ReadWriteLock lock = lockFor(userId);
+        lock.writeLock().lock();
+        try {
+            return work.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    synchronized void beginResharding(ShardRing target) {
+        directory.beginResharding(target.getShardCount());
+        targetRing = target;
+    }
+
+    synchronized void relocate(long userId, int shard) {
+        directory.relocate(userId, shard);
+        relocated.put(userId, shard);
+    }
+
+    synchronized void finishResharding() {
+        ShardRing target = targetRing;
+        List<Long> settled = new ArrayList<>();
+        relocated.forEach((userId, shard) -> {
+            if (target.shardFor(userId) == shard) {
+                settled.add(userId);
+            }
+        });
+        directory.finishResharding(settled);
+
+        ring = target;
+        targetRing = null;
+        settled.forEach(relocated::remove);
+    }
+
+    int relocatedCount() {
+        return relocated.size();
+    }
+
+    private void refreshSafely() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.error("Shard directory refresh failed", e);
+        }
+    }
+
+    private static ShardRing ringFor(int shardCount, ShardRing current) {
+        return current != null && current.getShardCount() == shardCount ? current : new ShardRing(shardCount);
+    }
+
+    private ReadWriteLock lockFor(long userId) {
+        return locks[(int) (ShardRing.hash(userId) & (LOCK_STRIPES - 1))];
+    }
+}
@@ -0,0 +1,172 @@
+package org.library.shard;
+
+import org.library.model.Loan;
+import org.library.model.LoanStatus;
+import org.library.repository.LoanRepositoryInterface;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+public class ShardedLoanRepository implements LoanRepositoryInterface {
+    private final List<LoanRepositoryInterface> shards;
+    private final ShardRouter router;
+    private final ShardIdGenerator ids;
+    private final ExecutorService executor;
+
+    public ShardedLoanRepository(List<LoanRepositoryInterface> shards, ShardRouter router,
+                                 ShardIdGenerator ids, ExecutorService executor) {
+        this.shards = List.copyOf(shards);
+        this.router = router;
+        this.ids = ids;
+        this.executor = executor;
+    }
+
+    @Override
+    public Loan save(Loan loan) {
+        long userId = loan.getUserId();
+        return router.withUser(userId, () -> {
+            int shard = router.shardFor(userId);
+            if (loan.getLoanId() == null) {
+                loan.setLoanId(ids.next(shard));
+            }
+            return shards.get(shard).save(loan);
+        });
+    }
+
+    @Override
+    public Optional<Loan> findById(Long id) {
+        int hint = ShardIdGenerator.shardOf(id);
+        if (hint < shards.size()) {
+            Optional<Loan> loan = shards.get(hint).findById(id);
+            if (loan.isPresent()) {
+                return loan;
+            }
+        }
+        // The loan was written by the sequence of a shard node or has moved with its user.
+        return distinct(FanOut.gather(executor, shards, shard -> shard.findById(id).stream().toList()))
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public List<Loan> findByUserId(Long userId) {
+        return router.withUser(userId, () -> shard(userId).findByUserId(userId));
+    }
+
+    @Override
+    public List<Loan> findByUserId(Long userId, boolean includeHistory) {
+        return router.withUser(userId, () -> shard(userId).findByUserId(userId, includeHistory));
+    }
+
+    @Override
+    public List<Loan> findActiveByUserId(Long userId) {
+        return router.withUser(userId, () -> shard(userId).findActiveByUserId(userId));
+    }
+
+    @Override
+    public List<Loan> findByBookId(Long bookId) {
+        return distinct(FanOut.gather(executor, shards, shard -> shard.findByBookId(bookId)));
+    }
+
+    @Override
+    public List<Loan> findByBookId(Long bookId, boolean includeHistory) {
+        return distinct(FanOut.gather(executor, shards, shard -> shard.findByBookId(bookId, includeHistory)));
+    }
+
+    @Override
+    public List<Loan> findActiveByBookId(Long bookId) {
+        return distinct(FanOut.gather(executor, shards, shard -> shard.findActiveByBookId(bookId)));
+    }
+
+    @Override
+    public int countActiveByUserId(Long userId) {
+        return router.withUser(userId, () -> shard(userId).countActiveByUserId(userId));
+    }
+
+    @Override
+    public Boolean markReturned(Long loanId, LocalDate returnDate) {
+        return onOwningShard(loanId, shard -> shard.markReturned(loanId, returnDate));
+    }
+
+    @Override
+    public Boolean updateStatus(Long loanId, LoanStatus status) {
+        return onOwningShard(loanId, shard -> shard.updateStatus(loanId, status));
+    }
+
+    @Override
+    public Optional<Loan> findActiveByUserIdAndBookId(Long userId, Long bookId) {
+        return router.withUser(userId, () -> shard(userId).findActiveByUserIdAndBookId(userId, bookId));
+    }
+
+    @Override
+    public Boolean deleteById(Long id) {
+        return onOwningShard(id, shard -> shard.deleteById(id));
+    }
+
+    @Override
+    public List<Loan> findArchivedByUserId(Long userId) {
+        return router.withUser(userId, () -> shard(userId).findArchivedByUserId(userId));
+    }
+
+    @Override
+    public void saveArchived(Loan loan) {
+        long userId = loan.getUserId();
+        router.withUser(userId, () -> {
+            shard(userId).saveArchived(loan);
+            return null;
+        });
+    }
+
+    @Override
+    public int deleteArchivedByUserId(Long userId) {
+        return router.withUser(userId, () -> shard(userId).deleteArchivedByUserId(userId));
+    }
+
+    @Override
+    public void streamAll(boolean includeHistory, Consumer<Loan> consumer) {
+        shards.forEach(shard -> shard.streamAll(includeHistory, consumer));
+    }
+
+    @Override
+    public void streamActive(Consumer<Loan> consumer) {
+        shards.forEach(shard -> shard.streamActive(consumer));
+    }
+
+    @Override
+    public List<Loan> findUpdatedSince(Instant since) {
+        return distinct(FanOut.gather(executor, shards, shard -> shard.findUpdatedSince(since)));
+    }
+
+    // A moved user's loans show up as deleted on the source shard; the caller drops ids that still exist.
+    @Override
+    public List<Long> findDeletedSince(Instant since) {
+        return FanOut.gather(executor, shards, shard -> shard.findDeletedSince(since));
+    }
+
+    // Mutations by loan id first resolve the owning user so they serialize with a move of that user.
+    private Boolean onOwningShard(Long loanId, Function<LoanRepositoryInterface, Boolean> mutation) {
+        Optional<Loan> loan = findById(loanId);
+        if (loan.isEmpty()) {
+            return false;
+        }
+        long userId = loan.get().getUserId();
+        return router.withUser(userId, () -> mutation.apply(shard(userId)));
+    }
+
+    private LoanRepositoryInterface shard(long userId) {
+        return shards.get(router.shardFor(userId));
+    }
+
+    // A user being moved is briefly present on both shards.
+    private static List<Loan> distinct(List<Loan> loans) {
+        Map<Long, Loan> byId = new LinkedHashMap<>();
+        for (Loan loan : loans) {
+            byId.putIfAbsent(loan.getLoanId(), loan);
+        }
+        return byId.size() == loans.size() ? loans : new ArrayList<>(byId.values());
+    }
+}
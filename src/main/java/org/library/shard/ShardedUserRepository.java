@@ -0,0 +1,165 @@
+package org.library.shard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.model.User;
+import org.library.repository.InMemoryUserEmailRepository;
+import org.library.repository.UserEmailRepositoryInterface;
+import org.library.repository.UserRepositoryInterface;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+// Each shard's unique index only covers its own users, so emails are claimed in a registry shared
+// by all shards before a user row is written.
+@Slf4j
+public class ShardedUserRepository implements UserRepositoryInterface {
+    private final List<UserRepositoryInterface> shards;
+    private final ShardRouter router;
+    private final ShardIdGenerator ids;
+    private final ExecutorService executor;
+    private final UserEmailRepositoryInterface emails;
+
+    // Claims emails in this process only; for a single node and tests.
+    public ShardedUserRepository(List<UserRepositoryInterface> shards, ShardRouter router,
+                                 ShardIdGenerator ids, ExecutorService executor) {
+        this(shards, router, ids, executor, new InMemoryUserEmailRepository());
+    }
+
+    public ShardedUserRepository(List<UserRepositoryInterface> shards, ShardRouter router,
+                                 ShardIdGenerator ids, ExecutorService executor, UserEmailRepositoryInterface emails) {
+        this.shards = List.copyOf(shards);
+        this.router = router;
+        this.ids = ids;
+        this.executor = executor;
+        this.emails = emails;
+    }
+
+    @Override
+    public User save(User user) {
+        if (saveIfAbsent(user).isEmpty()) {
+            throw new RuntimeException("Failed to save user, email " + user.getEmail() + " is already registered");
+        }
+        return user;
+    }
+
+    @Override
+    public Optional<User> saveIfAbsent(User user) {
+        if (user.getUserId() == null) {
+            // Users are placed by hashing their id, so the shard field stays zero.
+            user.setUserId(ids.next(0));
+        }
+        long userId = user.getUserId();
+        if (!emails.claim(user.getEmail(), userId)) {
+            return Optional.empty();
+        }
+
+        Optional<User> saved = Optional.empty();
+        try {
+            saved = router.withUser(userId, () -> shards.get(router.place(userId)).saveIfAbsent(user));
+            return saved;
+        } finally {
+            if (saved.isEmpty()) {
+                emails.release(user.getEmail(), userId);
+            }
+        }
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return router.withUser(id, () -> shard(id).findById(id));
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        Optional<Long> userId = emails.findUserId(email);
+        if (userId.isPresent()) {
+            return findById(userId.get());
+        }
+        // Users written before the registry existed and not yet claimed by claimExistingEmails().
+        return FanOut.gather(executor, shards, shard -> shard.findByEmail(email).stream().toList())
+                .stream()
+                .findFirst();
+    }
+
+    // One-off backfill of the email registry from every shard. Returns the users whose email another
+    // user already owns; they were registered while emails were only unique per shard.
+    public List<User> claimExistingEmails() {
+        List<User> conflicts = new ArrayList<>();
+        streamAll(user -> {
+            if (!emails.claim(user.getEmail(), user.getUserId())) {
+                conflicts.add(user);
+            }
+        });
+        if (!conflicts.isEmpty()) {
+            log.warn("{} user(s) share an email with a user on another shard", conflicts.size());
+        }
+        return conflicts;
+    }
+
+    @Override
+    public List<User> findAll() {
+        return FanOut.gather(executor, shards, UserRepositoryInterface::findAll);
+    }
+
+    @Override
+    public List<User> findUpdatedSince(Instant since) {
+        return FanOut.gather(executor, shards, shard -> shard.findUpdatedSince(since));
+    }
+
+    @Override
+    public List<Long> findDeletedSince(Instant since) {
+        return FanOut.gather(executor, shards, shard -> shard.findDeletedSince(since));
+    }
+
+    @Override
+    public void streamAll(Consumer<User> consumer) {
+        shards.forEach(shard -> shard.streamAll(consumer));
+    }
+
+    @Override
+    public Boolean delete(Long id) {
+        return router.withUser(id, () -> {
+            Optional<User> user = shard(id).findById(id);
+            Boolean deleted = shard(id).delete(id);
+            if (deleted && user.isPresent()) {
+                emails.release(user.get().getEmail(), id);
+            }
+            return deleted;
+        });
+    }
+
+    @Override
+    public Boolean update(User user) {
+        long userId = user.getUserId();
+        return router.withUser(userId, () -> {
+            Optional<User> current = shard(userId).findById(userId);
+            if (current.isEmpty()) {
+                return false;
+            }
+            String previousEmail = current.get().getEmail();
+            boolean emailChanged = !previousEmail.equalsIgnoreCase(user.getEmail());
+            if (emailChanged && !emails.claim(user.getEmail(), userId)) {
+                throw new RuntimeException("Failed to update user, email " + user.getEmail()
+                        + " is already registered");
+            }
+
+            boolean updated = false;
+            try {
+                updated = shard(userId).update(user);
+                return updated;
+            } finally {
+                if (emailChanged) {
+                    emails.release(updated ? previousEmail : user.getEmail(), userId);
+                }
+            }
+        });
+    }
+
+    private UserRepositoryInterface shard(long userId) {
+        return shards.get(router.shardFor(userId));
+    }
+}
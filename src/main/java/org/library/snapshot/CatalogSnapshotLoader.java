@@ -0,0 +1,287 @@
+package org.library.snapshot;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.cache.CachingBookRepository;
+import org.library.cache.CachingLoanRepository;
+import org.library.cache.CachingUserRepository;
+import org.library.model.Book;
+import org.library.model.Loan;
+import org.library.model.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
+
+import static org.library.snapshot.SnapshotFormat.*;
+
+@Slf4j
+public class CatalogSnapshotLoader implements AutoCloseable {
+    // updated_at is stamped when a row changes, not when its transaction commits, so a change committed
+    // after the snapshot can carry an older timestamp; catch-up reaches this far back to cover it.
+    public static final Duration CATCH_UP_MARGIN = Duration.ofMinutes(1);
+    // Delete tombstones are pruned after 30 days (V10); an older snapshot could resurrect deleted rows.
+    public static final Duration MAX_AGE = Duration.ofDays(29);
+
+    private final CachingBookRepository books;
+    private final CachingUserRepository users;
+    private final CachingLoanRepository loans;
+    private final int parallelism;
+
+    // Where the last warm start, cold start or catch-up left off; the next catch-up starts there.
+    private volatile Instant caughtUpTo;
+    private ScheduledExecutorService scheduler;
+
+    public CatalogSnapshotLoader(CachingBookRepository books, CachingUserRepository users, CachingLoanRepository loans) {
+        this(books, users, loans, Runtime.getRuntime().availableProcessors());
+    }
+
+    public CatalogSnapshotLoader(CachingBookRepository books, CachingUserRepository users,
+                                 CachingLoanRepository loans, int parallelism) {
+        this.books = books;
+        this.users = users;
+        this.loans = loans;
+        this.parallelism = parallelism;
+    }
+
+    public static void dump(Path target, CachingBookRepository books, CachingUserRepository users,
+                            CachingLoanRepository loans) {
+        Instant takenAt = Instant.now();
+        try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(target, takenAt)) {
+            books.findAll().forEach(writer::writeBook);
+            users.findAll().forEach(writer::writeUser);
+            loans.streamActive(writer::writeLoan);
+        }
+    }
+
+    public void warmStart(Path snapshot) {
+        long started = System.nanoTime();
+
+        if (Files.exists(snapshot)) {
+            try {
+                Instant takenAt = takenAt(snapshot);
+                if (takenAt.isBefore(Instant.now().minus(MAX_AGE))) {
+                    log.warn("Snapshot {} taken at {} is too old, falling back to cold start", snapshot, takenAt);
+                } else {
+                    load(snapshot);
+                    Instant caughtUp = Instant.now();
+                    catchUp(takenAt.minus(CATCH_UP_MARGIN));
+                    caughtUpTo = caughtUp;
+                    markComplete();
+                    log.info("Warm start from snapshot took {} ms", (System.nanoTime() - started) / 1_000_000);
+                    return;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Snapshot {} unusable, falling back to cold start", snapshot, e);
+                // A half-loaded snapshot may hold rows that were deleted since.
+                clear();
+            }
+        }
+
+        coldStart();
+        log.info("Cold start from database took {} ms", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public void coldStart() {
+        Instant started = Instant.now();
+        books.findAll().forEach(books::preload);
+        users.findAll().forEach(users::preload);
+        loans.streamActive(loans::preload);
+        caughtUpTo = started;
+        markComplete();
+    }
+
+    // A complete cache answers misses without asking the database, so rows written by other nodes only
+    // show up through these periodic catch-ups.
+    public synchronized void start(long catchUpIntervalMillis) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-catch-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::catchUpSinceLastRun, catchUpIntervalMillis, catchUpIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        log.info("Catalog catch-up started, polling every {} ms", catchUpIntervalMillis);
+    }
+
+    public void catchUpSinceLastRun() {
+        Instant since = caughtUpTo;
+        if (since == null) {
+            return;
+        }
+        Instant started = Instant.now();
+        try {
+            catchUp(since.minus(CATCH_UP_MARGIN));
+            caughtUpTo = started;
+        } catch (RuntimeException e) {
+            log.error("Catalog catch-up failed, it will be retried from {}", since, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            scheduler = null;
+        }
+    }
+
+    public static Instant takenAt(Path snapshot) {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            return readHeader(channel, snapshot);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read snapshot " + snapshot, e);
+        }
+    }
+
+    public Instant load(Path snapshot) {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            Instant takenAt = readHeader(channel, snapshot);
+
+            ByteBuffer trailer = readFully(channel, channel.size() - TRAILER_SIZE, TRAILER_SIZE);
+            long footerOffset = trailer.getLong();
+            if (trailer.getLong() != MAGIC) {
+                throw new IllegalStateException("Snapshot is truncated: " + snapshot);
+            }
+
+            ByteBuffer footer = readFully(channel, footerOffset, (int) (channel.size() - TRAILER_SIZE - footerOffset));
+            int chunkCount = footer.getInt();
+
+            List<Future<?>> pending = new ArrayList<>(chunkCount);
+            try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+                for (int i = 0; i < chunkCount; i++) {
+                    byte section = footer.get();
+                    int records = footer.getInt();
+                    long offset = footer.getLong();
+                    int length = footer.getInt();
+                    int checksum = footer.getInt();
+                    pending.add(executor.submit(() -> decode(channel, section, records, offset, length, checksum)));
+                }
+                for (Future<?> future : pending) {
+                    future.get();
+                }
+            }
+
+            log.info("Loaded snapshot {} taken at {} ({} chunk(s))", snapshot, takenAt, chunkCount);
+            return takenAt;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read snapshot " + snapshot, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to decode snapshot " + snapshot, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading snapshot " + snapshot, e);
+        }
+    }
+
+    // Tombstones are read before the updated rows: an id found in both still exists, for instance a user
+    // moved to another shard, and must not be dropped.
+    public void catchUp(Instant since) {
+        List<Long> deletedBooks = books.findDeletedSince(since);
+        reconcile(books.findUpdatedSince(since), Book::getBookID, books::preload, deletedBooks, books::forget);
+
+        List<Long> deletedUsers = users.findDeletedSince(since);
+        reconcile(users.findUpdatedSince(since), User::getUserId, users::preload, deletedUsers, users::forget);
+
+        List<Long> deletedLoans = loans.findDeletedSince(since);
+        reconcile(loans.findUpdatedSince(since), Loan::getLoanId, loans::apply, deletedLoans, loans::forget);
+    }
+
+    private static <T> void reconcile(List<T> updated, Function<T, Long> id, Consumer<T> apply,
+                                      List<Long> deleted, Consumer<Long> forget) {
+        updated.forEach(apply);
+        if (deleted.isEmpty()) {
+            return;
+        }
+        Set<Long> existing = updated.stream().map(id).collect(Collectors.toSet());
+        deleted.stream().filter(deletedId -> !existing.contains(deletedId)).forEach(forget);
+    }
+
+    private void markComplete() {
+        books.markComplete();
+        users.markComplete();
+        loans.markComplete();
+    }
+
+    private void clear() {
+        books.clear();
+        users.clear();
+        loans.clear();
+    }
+
+    private static Instant readHeader(FileChannel channel, Path snapshot) throws IOException {
+        ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+        if (header.getLong() != MAGIC) {
+            throw new IllegalStateException("Not a catalog snapshot: " + snapshot);
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported snapshot version " + version);
+        }
+        return Instant.ofEpochMilli(header.getLong());
+    }
+
+    private Void decode(FileChannel channel, byte section, int records, long offset, int length, int checksum)
+            throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocateDirect(length);
+        while (chunk.hasRemaining()) {
+            if (channel.read(chunk, offset + chunk.position()) < 0) {
+                throw new IOException("Unexpected end of snapshot at offset " + offset);
+            }
+        }
+        chunk.flip();
+
+        CRC32C crc = new CRC32C();
+        crc.update(chunk);
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Checksum mismatch in snapshot chunk at offset " + offset);
+        }
+        chunk.rewind();
+
+        for (int i = 0; i < records; i++) {
+            switch (section) {
+                case BOOKS -> books.preload(readBook(chunk));
+                case USERS -> users.preload(readUser(chunk));
+                case ACTIVE_LOANS -> loans.preload(readLoan(chunk));
+                default -> throw new IOException("Unknown snapshot section " + section);
+            }
+        }
+        return null;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of snapshot at offset " + offset);
+            }
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,162 @@
+package org.library.snapshot;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.model.Book;
+import org.library.model.Loan;
+import org.library.model.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.zip.CRC32C;
+
+import static org.library.snapshot.SnapshotFormat.*;
+
+@Slf4j
+public class CatalogSnapshotWriter implements AutoCloseable {
+    private final Path target;
+    private final Path temporary;
+    private final FileChannel channel;
+    private final ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_BYTES);
+    private final ByteBuffer directory = ByteBuffer.allocate(MAX_CHUNKS * CHUNK_ENTRY_SIZE);
+
+    private long position = HEADER_SIZE;
+    private byte section;
+    private int records;
+    private int chunks;
+    private boolean closed;
+
+    public CatalogSnapshotWriter(Path target, Instant takenAt) {
+        this.target = target;
+        this.temporary = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try {
+            this.channel = FileChannel.open(temporary,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putLong(MAGIC).putInt(VERSION).putLong(takenAt.toEpochMilli()).flip();
+            writeFully(header, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create snapshot " + temporary, e);
+        }
+    }
+
+    public void writeBook(Book book) {
+        byte[] title = utf8(book.getTitle());
+        byte[] author = utf8(book.getAuthor());
+        byte[] publisher = utf8(book.getPublisher());
+        byte[] isbn = utf8(book.getIsbn());
+        byte[] barcode = utf8(book.getBarcode());
+
+        ensure(BOOKS, Long.BYTES + Long.BYTES + Integer.BYTES + 1
+                + size(title) + size(author) + size(publisher) + size(isbn) + size(barcode));
+
+        chunk.putLong(book.getBookID());
+        chunk.putLong(book.getVersion());
+        chunk.putInt(book.getYear());
+        chunk.put((byte) book.getStatus().ordinal());
+        putString(chunk, title);
+        putString(chunk, author);
+        putString(chunk, publisher);
+        putString(chunk, isbn);
+        putString(chunk, barcode);
+        records++;
+    }
+
+    // Password hashes stay in the database; the user cache fetches them on first use.
+    public void writeUser(User user) {
+        byte[] fullName = utf8(user.getFullName());
+        byte[] email = utf8(user.getEmail());
+
+        ensure(USERS, Long.BYTES + Long.BYTES + size(fullName) + size(email));
+
+        chunk.putLong(user.getUserId());
+        chunk.putLong(user.getVersion());
+        putString(chunk, fullName);
+        putString(chunk, email);
+        records++;
+    }
+
+    public void writeLoan(Loan loan) {
+        ensure(ACTIVE_LOANS, LOAN_SIZE);
+        putLoan(chunk, loan);
+        records++;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            flushChunk();
+
+            long footerOffset = position;
+            ByteBuffer footer = ByteBuffer.allocate(Integer.BYTES + directory.position() + TRAILER_SIZE);
+            footer.putInt(chunks);
+            footer.put(directory.flip());
+            footer.putLong(footerOffset).putLong(MAGIC).flip();
+            writeFully(footer, footerOffset);
+
+            channel.force(true);
+            channel.close();
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Wrote snapshot {} ({} chunk(s), {} bytes)", target, chunks, footerOffset + footer.capacity());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write snapshot " + target, e);
+        }
+    }
+
+    private void ensure(byte type, int bytes) {
+        if (bytes > CHUNK_BYTES) {
+            throw new IllegalArgumentException("Snapshot record of " + bytes + " bytes exceeds chunk size");
+        }
+        if (type != section || chunk.remaining() < bytes) {
+            flushChunk();
+            section = type;
+        }
+    }
+
+    private void flushChunk() {
+        if (records == 0) {
+            return;
+        }
+
+        chunk.flip();
+        int length = chunk.remaining();
+        CRC32C crc = new CRC32C();
+        crc.update(chunk);
+        chunk.rewind();
+
+        try {
+            writeFully(chunk, position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write snapshot chunk", e);
+        }
+
+        if (directory.remaining() < CHUNK_ENTRY_SIZE) {
+            throw new IllegalStateException("Snapshot exceeds " + MAX_CHUNKS + " chunks");
+        }
+        directory.put(section).putInt(records).putLong(position).putInt(length).putInt((int) crc.getValue());
+
+        position += length;
+        chunks++;
+        records = 0;
+        chunk.clear();
+    }
+
+    private void writeFully(ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+    }
+}
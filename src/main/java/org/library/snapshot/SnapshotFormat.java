@@ -0,0 +1,108 @@
+package org.library.snapshot;
+
+import org.library.model.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+final class SnapshotFormat {
+    static final long MAGIC = 0x4C4942534E415031L; // "LIBSNAP1"
+    // 2: rows carry their version, users no longer carry a password hash.
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = Long.BYTES + Integer.BYTES + Long.BYTES;
+    static final int TRAILER_SIZE = Long.BYTES + Long.BYTES;
+    static final int CHUNK_ENTRY_SIZE = 1 + Integer.BYTES + Long.BYTES + Integer.BYTES + Integer.BYTES;
+    static final int CHUNK_BYTES = 4 * 1024 * 1024;
+    static final int MAX_CHUNKS = 16 * 1024;
+
+    static final byte BOOKS = 1;
+    static final byte USERS = 2;
+    static final byte ACTIVE_LOANS = 3;
+
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final BookStatus[] BOOK_STATUSES = BookStatus.values();
+    private static final LoanStatus[] LOAN_STATUSES = LoanStatus.values();
+
+    private SnapshotFormat() {
+    }
+
+    static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static int size(byte[] value) {
+        return Integer.BYTES + (value == null ? 0 : value.length);
+    }
+
+    static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(value.length);
+            buffer.put(value);
+        }
+    }
+
+    static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static Book readBook(ByteBuffer buffer) {
+        long id = buffer.getLong();
+        long version = buffer.getLong();
+        int year = buffer.getInt();
+        BookStatus status = BOOK_STATUSES[buffer.get()];
+        String title = getString(buffer);
+        String author = getString(buffer);
+        String publisher = getString(buffer);
+        String isbn = getString(buffer);
+        String barcode = getString(buffer);
+        return new Book(id, title, author, year, publisher, isbn, barcode, status, version);
+    }
+
+    static User readUser(ByteBuffer buffer) {
+        long id = buffer.getLong();
+        long version = buffer.getLong();
+        String fullName = getString(buffer);
+        String email = getString(buffer);
+        return new User(id, fullName, email, null, version);
+    }
+
+    static void putLoan(ByteBuffer buffer, Loan loan) {
+        buffer.putLong(loan.getLoanId());
+        buffer.putLong(loan.getUserId());
+        buffer.putLong(loan.getBookId());
+        buffer.putInt(epochDay(loan.getLoanDate()));
+        buffer.putInt(epochDay(loan.getDueDate()));
+        buffer.putInt(epochDay(loan.getReturnDate()));
+        buffer.put((byte) loan.getStatus().ordinal());
+    }
+
+    static final int LOAN_SIZE = 3 * Long.BYTES + 3 * Integer.BYTES + 1;
+
+    static Loan readLoan(ByteBuffer buffer) {
+        long id = buffer.getLong();
+        long userId = buffer.getLong();
+        long bookId = buffer.getLong();
+        LocalDate loanDate = date(buffer.getInt());
+        LocalDate dueDate = date(buffer.getInt());
+        LocalDate returnDate = date(buffer.getInt());
+        LoanStatus status = LOAN_STATUSES[buffer.get()];
+        return new Loan(id, userId, bookId, loanDate, returnDate, dueDate, status);
+    }
+
+    private static int epochDay(LocalDate date) {
+        return date == null ? NO_DATE : (int) date.toEpochDay();
+    }
+
+    private static LocalDate date(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+}
@@ -0,0 +1,9 @@
+package org.library.stats;
+
+import lombok.Value;
+
+@Value
+public class BookBorrowCount {
+    long bookId;
+    int borrows;
+}
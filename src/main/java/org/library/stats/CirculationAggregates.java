@@ -0,0 +1,101 @@
+package org.library.stats;
+
+import org.library.util.LongIntHashMap;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+
+public class CirculationAggregates {
+    public static final int DURATION_BUCKETS = 92;
+
+    private final Map<YearMonth, LongIntHashMap> borrowsByMonth = new HashMap<>();
+    private final LongIntHashMap borrowsByDay = new LongIntHashMap();
+    private final LongIntHashMap returnsByDay = new LongIntHashMap();
+    private final long[] durationLoans = new long[DURATION_BUCKETS];
+    private final long[] durationDays = new long[DURATION_BUCKETS];
+
+    public void recordBorrow(long bookId, LocalDate date) {
+        borrowsByMonth.computeIfAbsent(YearMonth.from(date), month -> new LongIntHashMap()).addTo(bookId, 1);
+        borrowsByDay.addTo(date.toEpochDay(), 1);
+    }
+
+    public void recordReturn(LocalDate date, long days) {
+        returnsByDay.addTo(date.toEpochDay(), 1);
+        addDuration(bucketOf(days), 1, days);
+    }
+
+    public void addBookBorrows(YearMonth month, long bookId, int count) {
+        borrowsByMonth.computeIfAbsent(month, m -> new LongIntHashMap()).addTo(bookId, count);
+    }
+
+    public void addDailyCounts(LocalDate day, int borrowed, int returned) {
+        if (borrowed != 0) {
+            borrowsByDay.addTo(day.toEpochDay(), borrowed);
+        }
+        if (returned != 0) {
+            returnsByDay.addTo(day.toEpochDay(), returned);
+        }
+    }
+
+    public void addDuration(int bucket, long loans, long days) {
+        durationLoans[bucket] += loans;
+        durationDays[bucket] += days;
+    }
+
+    public void mergeInto(CirculationAggregates target) {
+        borrowsByMonth.forEach((month, counts) ->
+                target.borrowsByMonth.computeIfAbsent(month, m -> new LongIntHashMap()).addAll(counts));
+        target.borrowsByDay.addAll(borrowsByDay);
+        target.returnsByDay.addAll(returnsByDay);
+        for (int i = 0; i < DURATION_BUCKETS; i++) {
+            target.durationLoans[i] += durationLoans[i];
+            target.durationDays[i] += durationDays[i];
+        }
+    }
+
+    public boolean isEmpty() {
+        if (!borrowsByDay.isEmpty() || !returnsByDay.isEmpty()) {
+            return false;
+        }
+        for (long loans : durationLoans) {
+            if (loans != 0) {
+                return false;
+            }
+        }
+        return borrowsByMonth.values().stream().allMatch(LongIntHashMap::isEmpty);
+    }
+
+    public Map<YearMonth, LongIntHashMap> getBorrowsByMonth() {
+        return borrowsByMonth;
+    }
+
+    public LongIntHashMap getBorrowsByMonth(YearMonth month) {
+        return borrowsByMonth.get(month);
+    }
+
+    public LongIntHashMap getBorrowsByDay() {
+        return borrowsByDay;
+    }
+
+    public LongIntHashMap getReturnsByDay() {
+        return returnsByDay;
+    }
+
+    public long[] getDurationLoans() {
+        return durationLoans;
+    }
+
+    public long[] getDurationDays() {
+        return durationDays;
+    }
+
+    // Daily resolution up to 90 days, everything longer lands in the last bucket.
+    public static int bucketOf(long days) {
+        if (days < 0) {
+            return 0;
+        }
+        return (int) Math.min(days, DURATION_BUCKETS - 1);
+    }
+}
@@ -0,0 +1,167 @@
+package org.library.stats;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.event.LoanEvent;
+import org.library.event.LoanEventListener;
+import org.library.repository.StatisticsRepositoryInterface;
+import org.library.util.LongIntHashMap;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public class CirculationStatistics implements LoanEventListener, AutoCloseable {
+    private static final Comparator<BookBorrowCount> BY_BORROWS =
+            Comparator.comparingInt(BookBorrowCount::getBorrows)
+                    .thenComparing(BookBorrowCount::getBookId, Comparator.reverseOrder());
+
+    private final StatisticsRepositoryInterface statisticsRepository;
+
+    private final CirculationAggregates totals = new CirculationAggregates();
+    private CirculationAggregates pending = new CirculationAggregates();
+    // A batch whose save failed. Whether it committed is unknown, so it is retried as is, under the same id.
+    private UnsavedBatch unsaved;
+
+    private ScheduledExecutorService scheduler;
+
+    public CirculationStatistics(StatisticsRepositoryInterface statisticsRepository) {
+        this.statisticsRepository = statisticsRepository;
+    }
+
+    public synchronized void restore(LocalDate since) {
+        CirculationAggregates stored = statisticsRepository.load(since);
+        stored.mergeInto(totals);
+        log.info("Restored circulation statistics since {}", since);
+    }
+
+    @Override
+    public synchronized void onLoanEvent(LoanEvent event) {
+        switch (event.getType()) {
+            case BORROWED -> {
+                totals.recordBorrow(event.getBookId(), event.getDate());
+                pending.recordBorrow(event.getBookId(), event.getDate());
+            }
+            case RETURNED -> {
+                long days = event.getLoanDate() == null
+                        ? 0
+                        : ChronoUnit.DAYS.between(event.getLoanDate(), event.getDate());
+                totals.recordReturn(event.getDate(), days);
+                pending.recordReturn(event.getDate(), days);
+            }
+            case STATUS_CHANGED -> {
+            }
+        }
+    }
+
+    public synchronized List<BookBorrowCount> topBorrowed(YearMonth month, int limit) {
+        LongIntHashMap counts = totals.getBorrowsByMonth(month);
+        if (counts == null || limit <= 0) {
+            return List.of();
+        }
+
+        PriorityQueue<BookBorrowCount> top = new PriorityQueue<>(limit + 1, BY_BORROWS);
+
+        counts.forEach((bookId, borrows) -> {
+            if (top.size() < limit) {
+                top.add(new BookBorrowCount(bookId, borrows));
+            } else if (borrows > top.peek().getBorrows()) {
+                top.poll();
+                top.add(new BookBorrowCount(bookId, borrows));
+            }
+        });
+
+        List<BookBorrowCount> result = new ArrayList<>(top);
+        result.sort(BY_BORROWS.reversed());
+        return result;
+    }
+
+    public synchronized SortedMap<LocalDate, Integer> loansPerDay(LocalDate from, LocalDate to) {
+        SortedMap<LocalDate, Integer> loans = new TreeMap<>();
+        LongIntHashMap borrows = totals.getBorrowsByDay();
+
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            loans.put(day, borrows.get(day.toEpochDay()));
+        }
+        return loans;
+    }
+
+    public synchronized int returnsOn(LocalDate day) {
+        return totals.getReturnsByDay().get(day.toEpochDay());
+    }
+
+    public synchronized double averageLoanDurationDays() {
+        long loans = 0;
+        long days = 0;
+        for (int i = 0; i < CirculationAggregates.DURATION_BUCKETS; i++) {
+            loans += totals.getDurationLoans()[i];
+            days += totals.getDurationDays()[i];
+        }
+        return loans == 0 ? 0.0 : (double) days / loans;
+    }
+
+    public synchronized long[] durationHistogram() {
+        return totals.getDurationLoans().clone();
+    }
+
+    public void flush() {
+        while (true) {
+            UnsavedBatch batch;
+            synchronized (this) {
+                if (unsaved == null) {
+                    if (pending.isEmpty()) {
+                        return;
+                    }
+                    unsaved = new UnsavedBatch(UUID.randomUUID(), pending);
+                    pending = new CirculationAggregates();
+                }
+                batch = unsaved;
+            }
+
+            try {
+                statisticsRepository.save(batch.id(), batch.aggregates());
+                log.debug("Persisted circulation statistics batch {}", batch.id());
+            } catch (RuntimeException e) {
+                log.error("Failed to persist circulation statistics batch {}, retrying it on the next flush",
+                        batch.id(), e);
+                return;
+            }
+
+            synchronized (this) {
+                if (unsaved == batch) {
+                    unsaved = null;
+                }
+            }
+        }
+    }
+
+    public synchronized void startPersistence(long intervalMillis) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "circulation-statistics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (scheduler != null) {
+                scheduler.shutdown();
+                scheduler = null;
+            }
+        }
+        flush();
+    }
+
+    private record UnsavedBatch(UUID id, CirculationAggregates aggregates) {
+    }
+}
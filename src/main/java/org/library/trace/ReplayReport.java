@@ -0,0 +1,85 @@
+package org.library.trace;
+
+import org.library.util.LatencyHistogram;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Replayed latencies per operation next to the latencies seen at capture time. An event diverges
+// when its replayed outcome summary differs from the captured one, e.g. a borrow that succeeded in
+// production but failed on replay because the database started from a different state.
+public class ReplayReport {
+    private final Map<TraceOperation, OperationStats> operations = new EnumMap<>(TraceOperation.class);
+    private long elapsedNanos;
+
+    ReplayReport() {
+        for (TraceOperation operation : TraceOperation.values()) {
+            operations.put(operation, new OperationStats());
+        }
+    }
+
+    void record(TraceEvent event, byte outcome, long scheduledNanos, long startedNanos, long finishedNanos) {
+        OperationStats stats = operations.get(event.getOperation());
+        stats.responseTime.record(finishedNanos - scheduledNanos);
+        stats.serviceTime.record(finishedNanos - startedNanos);
+        stats.captured.record(event.getDurationNanos());
+        if (outcome != event.getOutcome()) {
+            stats.diverged.increment();
+        }
+    }
+
+    void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long count(TraceOperation operation) {
+        return operations.get(operation).serviceTime.count();
+    }
+
+    public long diverged(TraceOperation operation) {
+        return operations.get(operation).diverged.sum();
+    }
+
+    public LatencyHistogram responseTime(TraceOperation operation) {
+        return operations.get(operation).responseTime;
+    }
+
+    public LatencyHistogram serviceTime(TraceOperation operation) {
+        return operations.get(operation).serviceTime;
+    }
+
+    public long total() {
+        return operations.values().stream().mapToLong(stats -> stats.serviceTime.count()).sum();
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public void print(PrintStream out) {
+        double seconds = elapsedNanos / 1e9;
+        out.printf("Replayed %d call(s) in %.2f s (%.1f calls/s)%n", total(), seconds, total() / seconds);
+        out.printf("%-40s %8s %8s %9s %9s %9s %9s %12s %12s%n", "operation (ms)", "count", "diverged",
+                "ops/s", "p50", "p99", "max", "captured p50", "captured p99");
+        operations.forEach((operation, stats) -> {
+            long count = stats.serviceTime.count();
+            if (count == 0) {
+                return;
+            }
+            out.printf("%-40s %8d %8d %9.1f %9.3f %9.3f %9.3f %12.3f %12.3f%n", operation.name().toLowerCase(),
+                    count, stats.diverged.sum(), count / seconds,
+                    stats.responseTime.percentileNanos(50) / 1e6, stats.responseTime.percentileNanos(99) / 1e6,
+                    stats.responseTime.maxNanos() / 1e6,
+                    stats.captured.percentileNanos(50) / 1e6, stats.captured.percentileNanos(99) / 1e6);
+        });
+    }
+
+    private static final class OperationStats {
+        final LatencyHistogram responseTime = new LatencyHistogram();
+        final LatencyHistogram serviceTime = new LatencyHistogram();
+        final LatencyHistogram captured = new LatencyHistogram();
+        final LongAdder diverged = new LongAdder();
+    }
+}
@@ -0,0 +1,24 @@
+package org.library.trace;
+
+import lombok.Value;
+
+// One completed top-level service call. Offsets are relative to the start of the capture; the
+// outcome is a summary of the return value (see TraceFormat), not the value itself.
+@Value
+public class TraceEvent {
+    // Stands in for arguments that must not reach the trace file, such as passwords.
+    public static final Object REDACTED = new Object() {
+        @Override
+        public String toString() {
+            return "<redacted>";
+        }
+    };
+
+    TraceOperation operation;
+    long offsetNanos;
+    long durationNanos;
+    long thread;
+    Object[] arguments;
+    byte outcome;
+    long size;
+}
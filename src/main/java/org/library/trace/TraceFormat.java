@@ -0,0 +1,202 @@
+package org.library.trace;
+
+import org.library.util.Result;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// File: int magic | byte version | long capture start (epoch millis) | events until EOF.
+// Event: byte operation | varlong offset | varlong duration | varlong thread | byte argument count |
+// tagged arguments | byte outcome | varlong size (SIZE outcome only).
+// Varlongs are zigzag LEB128, so most offsets and ids take one to four bytes.
+final class TraceFormat {
+    static final int MAGIC = 0x4C545243; // "LTRC"
+    static final byte VERSION = 1;
+
+    static final byte NULL = 0;
+    static final byte LONG = 1;
+    static final byte INT = 2;
+    static final byte STRING = 3;
+    static final byte STRINGS = 4;
+    static final byte REDACTED = 5;
+
+    static final byte NONE = 0;
+    static final byte SUCCESS = 1;
+    static final byte FAILURE = 2;
+    static final byte SIZE = 3;
+    static final byte TRUE = 4;
+    static final byte FALSE = 5;
+    static final byte EMPTY = 6;
+    static final byte PRESENT = 7;
+    static final byte ERROR = 8;
+
+    private static final TraceOperation[] OPERATIONS = TraceOperation.values();
+
+    private TraceFormat() {
+    }
+
+    static byte outcome(Object result) {
+        return switch (result) {
+            case null -> NONE;
+            case Result r -> r.getSuccess() ? SUCCESS : FAILURE;
+            case Boolean b -> b ? TRUE : FALSE;
+            case Optional<?> o -> o.isPresent() ? PRESENT : EMPTY;
+            case Collection<?> ignored -> SIZE;
+            case Map<?, ?> ignored -> SIZE;
+            case Integer ignored -> SIZE;
+            default -> NONE;
+        };
+    }
+
+    static long size(Object result) {
+        return switch (result) {
+            case Collection<?> c -> c.size();
+            case Map<?, ?> m -> m.size();
+            case Integer i -> i;
+            case null, default -> 0;
+        };
+    }
+
+    static void writeHeader(DataOutput out, long startedAtMillis) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(startedAtMillis);
+    }
+
+    static long readHeader(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a trace file");
+        }
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported trace version " + version);
+        }
+        return in.readLong();
+    }
+
+    static void write(DataOutput out, TraceEvent event) throws IOException {
+        out.writeByte(event.getOperation().ordinal());
+        writeVarLong(out, event.getOffsetNanos());
+        writeVarLong(out, event.getDurationNanos());
+        writeVarLong(out, event.getThread());
+
+        Object[] arguments = event.getArguments();
+        out.writeByte(arguments.length);
+        for (Object argument : arguments) {
+            writeArgument(out, argument);
+        }
+
+        out.writeByte(event.getOutcome());
+        if (event.getOutcome() == SIZE) {
+            writeVarLong(out, event.getSize());
+        }
+    }
+
+    // Returns null at a clean end of file.
+    static TraceEvent read(DataInput in) throws IOException {
+        int code;
+        try {
+            code = in.readUnsignedByte();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (code >= OPERATIONS.length) {
+            throw new IOException("Unknown trace operation " + code);
+        }
+
+        long offset = readVarLong(in);
+        long duration = readVarLong(in);
+        long thread = readVarLong(in);
+
+        Object[] arguments = new Object[in.readUnsignedByte()];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = readArgument(in);
+        }
+
+        byte outcome = in.readByte();
+        long size = outcome == SIZE ? readVarLong(in) : 0;
+        return new TraceEvent(OPERATIONS[code], offset, duration, thread, arguments, outcome, size);
+    }
+
+    private static void writeArgument(DataOutput out, Object argument) throws IOException {
+        if (argument == TraceEvent.REDACTED) {
+            out.writeByte(REDACTED);
+            return;
+        }
+        switch (argument) {
+            case null -> out.writeByte(NULL);
+            case Long value -> {
+                out.writeByte(LONG);
+                writeVarLong(out, value);
+            }
+            case Integer value -> {
+                out.writeByte(INT);
+                writeVarLong(out, value);
+            }
+            case String value -> {
+                out.writeByte(STRING);
+                out.writeUTF(value);
+            }
+            case Enum<?> value -> {
+                out.writeByte(STRING);
+                out.writeUTF(value.name());
+            }
+            case Collection<?> values -> {
+                out.writeByte(STRINGS);
+                writeVarLong(out, values.size());
+                for (Object value : values) {
+                    out.writeUTF(String.valueOf(value));
+                }
+            }
+            default -> throw new IllegalArgumentException("Cannot trace argument of type " + argument.getClass());
+        }
+    }
+
+    private static Object readArgument(DataInput in) throws IOException {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case NULL -> null;
+            case LONG -> readVarLong(in);
+            case INT -> (int) readVarLong(in);
+            case STRING -> in.readUTF();
+            case STRINGS -> {
+                int count = (int) readVarLong(in);
+                List<String> values = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    values.add(in.readUTF());
+                }
+                yield values;
+            }
+            case REDACTED -> TraceEvent.REDACTED;
+            default -> throw new IOException("Unknown argument tag " + tag);
+        };
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            out.writeByte((int) (zigzag & 0x7F) | 0x80);
+            zigzag >>>= 7;
+        }
+        out.writeByte((int) zigzag);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long zigzag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigzag >>> 1) ^ -(zigzag & 1);
+            }
+        }
+        throw new IOException("Malformed varlong");
+    }
+}
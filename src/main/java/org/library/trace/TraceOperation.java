@@ -0,0 +1,40 @@
+package org.library.trace;
+
+// Traced service entry points. The ordinal is the on-disk code, so only append new constants.
+public enum TraceOperation {
+    LIBRARY_BORROW_BOOK,
+    LIBRARY_RETURN_BOOK,
+    LIBRARY_GET_USER_BORROWED_BOOKS,
+    LIBRARY_GET_BOOK_BY_ID,
+    LIBRARY_SEARCH_BOOK_BY_TITLE,
+    LIBRARY_GET_BOOKS,
+
+    LOAN_BORROW_BOOK,
+    LOAN_BORROW_BOOK_BY_BARCODE,
+    LOAN_RETURN_BOOK,
+    LOAN_RETURN_BOOK_BY_BARCODE,
+    LOAN_CHANGE_STATUS,
+    LOAN_GET_ACTIVE_LOAN_FOR_USER_AND_BOOK,
+    LOAN_GET_ACTIVE_LOANS_FOR_USER,
+    LOAN_GET_LOAN_HISTORY_FOR_USER,
+    LOAN_COUNT_ACTIVE_LOANS,
+    LOAN_FIND_BY_ID,
+    LOAN_CAN_BORROW,
+
+    USER_REGISTER,
+    USER_LOGIN,
+    USER_LOGOUT,
+    USER_DELETE,
+
+    BOOK_ADD,
+    BOOK_FIND_BY_BARCODE,
+    BOOK_FIND_BY_ISBN,
+    BOOK_RESOLVE_BARCODES,
+    BOOK_LIST_AVAILABLE,
+    BOOK_STREAM_AVAILABLE,
+    BOOK_SEARCH_BY_TITLE,
+    BOOK_LIST_ALL,
+    BOOK_IS_AVAILABLE,
+
+    LIBRARY_GET_RECOMMENDED_BOOKS
+}
@@ -0,0 +1,75 @@
+package org.library.trace;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public class TraceReader implements Iterator<TraceEvent>, AutoCloseable {
+    private final DataInputStream in;
+    private final long startedAtMillis;
+    private TraceEvent next;
+
+    public TraceReader(Path file) {
+        try {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024));
+            startedAtMillis = TraceFormat.readHeader(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open trace file " + file, e);
+        }
+        advance();
+    }
+
+    // Events in call start order; the file holds them in completion order.
+    public static List<TraceEvent> readAll(Path file) {
+        List<TraceEvent> events = new ArrayList<>();
+        try (TraceReader reader = new TraceReader(file)) {
+            reader.forEachRemaining(events::add);
+        }
+        events.sort(Comparator.comparingLong(TraceEvent::getOffsetNanos));
+        return events;
+    }
+
+    public long getStartedAtMillis() {
+        return startedAtMillis;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public TraceEvent next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        TraceEvent current = next;
+        advance();
+        return current;
+    }
+
+    private void advance() {
+        try {
+            next = TraceFormat.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read trace event", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            in.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close trace file", e);
+        }
+    }
+}
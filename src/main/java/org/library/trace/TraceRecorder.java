@@ -0,0 +1,137 @@
+package org.library.trace;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Captures top-level service calls into a trace file. Callers only enqueue; a single writer thread
+// encodes and writes in batches. When the queue is full the event is dropped and counted rather
+// than stalling the service.
+@Slf4j
+public class TraceRecorder implements AutoCloseable {
+    public static final int DEFAULT_QUEUE_CAPACITY = 64 * 1024;
+
+    private static final int BATCH_SIZE = 1024;
+    private static final long IDLE_FLUSH_MILLIS = 100;
+
+    private final Path file;
+    private final BlockingQueue<TraceEvent> queue;
+    private final DataOutputStream out;
+    private final long startNanos = System.nanoTime();
+    private final LongAdder dropped = new LongAdder();
+    // Calls made from inside a traced call (e.g. LibraryService -> LoanService) are not traced again.
+    private final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+    private final Thread writer;
+
+    private volatile boolean closed;
+    private volatile long written;
+
+    public TraceRecorder(Path file) {
+        this(file, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public TraceRecorder(Path file, int queueCapacity) {
+        this.file = file;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024));
+            TraceFormat.writeHeader(out, System.currentTimeMillis());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open trace file " + file, e);
+        }
+
+        this.writer = Thread.ofPlatform()
+                .name("trace-writer")
+                .daemon(true)
+                .start(this::writeLoop);
+    }
+
+    public <T> T record(TraceOperation operation, Supplier<T> call, Object... arguments) {
+        int[] nesting = depth.get();
+        if (nesting[0] > 0 || closed) {
+            return call.get();
+        }
+
+        nesting[0]++;
+        long started = System.nanoTime();
+        byte outcome = TraceFormat.ERROR;
+        long size = 0;
+        try {
+            T result = call.get();
+            outcome = TraceFormat.outcome(result);
+            size = TraceFormat.size(result);
+            return result;
+        } finally {
+            nesting[0]--;
+            TraceEvent event = new TraceEvent(operation, started - startNanos, System.nanoTime() - started,
+                    Thread.currentThread().threadId(), arguments, outcome, size);
+            if (!queue.offer(event)) {
+                dropped.increment();
+            }
+        }
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    // Writes everything queued so far and closes the file.
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Trace {} closed with {} event(s), {} dropped", file, written, getDropped());
+    }
+
+    private void writeLoop() {
+        List<TraceEvent> batch = new ArrayList<>(BATCH_SIZE);
+        try (out) {
+            while (!closed || !queue.isEmpty()) {
+                TraceEvent first = queue.poll(IDLE_FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    out.flush();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, BATCH_SIZE - 1);
+                for (TraceEvent event : batch) {
+                    TraceFormat.write(out, event);
+                }
+                written += batch.size();
+                batch.clear();
+            }
+        } catch (IOException e) {
+            closed = true;
+            log.error("Failed to write trace {}", file, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.library.trace;
+
+import lombok.extern.slf4j.Slf4j;
+import org.library.LibraryBackend;
+import org.library.model.Book;
+import org.library.model.LoanStatus;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+
+// Re-issues a captured trace against a backend. Each captured thread becomes one replay thread that
+// issues its calls in their original order, so the replay keeps the captured concurrency and
+// interleaving. At speed N the schedule is compressed N times; speed 0 replays as fast as possible.
+// Response time is measured from the scheduled start, service time from the actual one.
+@Slf4j
+public class TraceReplayer {
+    private final LibraryBackend backend;
+    private final String password;
+
+    // Redacted passwords are replaced by the given one, e.g. the shared password of a test dataset.
+    public TraceReplayer(LibraryBackend backend, String password) {
+        this.backend = backend;
+        this.password = password;
+    }
+
+    public ReplayReport replay(List<TraceEvent> events, double speed) {
+        Map<Long, List<TraceEvent>> byThread = new LinkedHashMap<>();
+        for (TraceEvent event : events) {
+            byThread.computeIfAbsent(event.getThread(), thread -> new ArrayList<>()).add(event);
+        }
+        log.info("Replaying {} event(s) on {} thread(s) at speed {}", events.size(), byThread.size(), speed);
+
+        ReplayReport report = new ReplayReport();
+        long start = System.nanoTime();
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (List<TraceEvent> lane : byThread.values()) {
+                threads.execute(() -> replayLane(lane, start, speed, report));
+            }
+        }
+        report.finish(System.nanoTime() - start);
+        return report;
+    }
+
+    private void replayLane(List<TraceEvent> lane, long start, double speed, ReplayReport report) {
+        for (TraceEvent event : lane) {
+            long scheduled = speed > 0 ? start + (long) (event.getOffsetNanos() / speed) : System.nanoTime();
+            for (long wait = scheduled - System.nanoTime(); wait > 0; wait = scheduled - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            long started = System.nanoTime();
+            byte outcome = invoke(event);
+            report.record(event, outcome, scheduled, started, System.nanoTime());
+        }
+    }
+
+    byte invoke(TraceEvent event) {
+        try {
+            Object result = call(event.getOperation(), event.getArguments());
+            return TraceFormat.outcome(result);
+        } catch (RuntimeException e) {
+            log.debug("Replay of {} failed", event.getOperation(), e);
+            return TraceFormat.ERROR;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object call(TraceOperation operation, Object[] args) {
+        return switch (operation) {
+            // LibraryService.borrowBook/returnBook only read the ids of the user and book they are given.
+            case LIBRARY_BORROW_BOOK -> backend.getLoanService().borrowBook((Long) args[0], (Long) args[1]);
+            case LIBRARY_RETURN_BOOK -> backend.getLoanService().returnBook((Long) args[0], (Long) args[1]);
+            case LIBRARY_GET_USER_BORROWED_BOOKS -> backend.getLibraryService().getUserBorrowedBooks((Long) args[0]);
+            case LIBRARY_GET_BOOK_BY_ID -> backend.getLibraryService().getBookById((Long) args[0]);
+            case LIBRARY_SEARCH_BOOK_BY_TITLE -> backend.getLibraryService().searchBookByTitle((String) args[0]);
+            case LIBRARY_GET_BOOKS -> backend.getLibraryService().getBooks();
+            case LIBRARY_GET_RECOMMENDED_BOOKS -> backend.getLibraryService().getRecommendedBooks((Long) args[0]);
+
+            case LOAN_BORROW_BOOK -> backend.getLoanService().borrowBook((Long) args[0], (Long) args[1]);
+            case LOAN_BORROW_BOOK_BY_BARCODE ->
+                    backend.getLoanService().borrowBookByBarcode((Long) args[0], (String) args[1]);
+            case LOAN_RETURN_BOOK -> backend.getLoanService().returnBook((Long) args[0], (Long) args[1]);
+            case LOAN_RETURN_BOOK_BY_BARCODE ->
+                    backend.getLoanService().returnBookByBarcode((Long) args[0], (String) args[1]);
+            case LOAN_CHANGE_STATUS ->
+                    backend.getLoanService().changeLoanStatus((Long) args[0], LoanStatus.valueOf((String) args[1]));
+            case LOAN_GET_ACTIVE_LOAN_FOR_USER_AND_BOOK ->
+                    backend.getLoanService().getActiveLoanForUserAndBook((Long) args[0], (Long) args[1]);
+            case LOAN_GET_ACTIVE_LOANS_FOR_USER -> backend.getLoanService().getActiveLoansForUser((Long) args[0]);
+            case LOAN_GET_LOAN_HISTORY_FOR_USER -> backend.getLoanService().getLoanHistoryForUser((Long) args[0]);
+            case LOAN_COUNT_ACTIVE_LOANS -> backend.getLoanService().countActiveLoans((Long) args[0]);
+            case LOAN_FIND_BY_ID -> backend.getLoanService().findById((Long) args[0]);
+            case LOAN_CAN_BORROW -> backend.getLoanService().canBorrow((Long) args[0]);
+
+            case USER_REGISTER ->
+                    backend.getUserService().registerUser((String) args[0], (String) args[1], password(args[2]));
+            case USER_LOGIN -> backend.getUserService().loginUser((String) args[0], password(args[1]));
+            case USER_LOGOUT -> backend.getUserService().logoutUser((String) args[0]);
+            case USER_DELETE -> backend.getUserService().deleteUser((String) args[0]);
+
+            case BOOK_ADD -> backend.getBookService().addBook((String) args[0], (String) args[1], (Integer) args[2],
+                    (String) args[3], (String) args[4], (String) args[5]);
+            case BOOK_FIND_BY_BARCODE -> backend.getBookService().findByBarcode((String) args[0]);
+            case BOOK_FIND_BY_ISBN -> backend.getBookService().findByIsbn((String) args[0]);
+            case BOOK_RESOLVE_BARCODES -> backend.getBookService().resolveBarcodes((Collection<String>) args[0]);
+            case BOOK_LIST_AVAILABLE -> backend.getBookService().listAvailableBooks();
+            case BOOK_STREAM_AVAILABLE -> {
+                int[] streamed = new int[1];
+                backend.getBookService().streamAvailableBooks((Long) args[0], (Integer) args[1],
+                        book -> streamed[0]++);
+                yield streamed[0];
+            }
+            case BOOK_SEARCH_BY_TITLE -> backend.getBookService().searchBookByTitle((String) args[0]);
+            case BOOK_LIST_ALL -> backend.getBookService().listAllBooks();
+            case BOOK_IS_AVAILABLE -> backend.getBookService().isBookAvailable(
+                    new Book((String) args[0], (String) args[1], (Integer) args[2], (String) args[3]));
+        };
+    }
+
+    private String password(Object argument) {
+        return argument == TraceEvent.REDACTED ? password : (String) argument;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: TraceReplayer <trace-file> [--speed=1] [--backend=jdbc|memory] "
+                    + "[--password=...]");
+            System.exit(1);
+        }
+
+        double speed = 1;
+        String backend = "jdbc";
+        String password = "";
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith("--speed=")) {
+                speed = Double.parseDouble(arg.substring("--speed=".length()));
+            } else if (arg.startsWith("--backend=")) {
+                backend = arg.substring("--backend=".length());
+            } else if (arg.startsWith("--password=")) {
+                password = arg.substring("--password=".length());
+            } else {
+                System.err.println("Unknown option: " + arg);
+                System.exit(1);
+            }
+        }
+
+        List<TraceEvent> events = TraceReader.readAll(Path.of(args[0]));
+        ReplayReport report = new TraceReplayer(LibraryBackend.of(backend), password).replay(events, speed);
+        report.print(System.out);
+    }
+}
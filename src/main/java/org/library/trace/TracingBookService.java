@@ -0,0 +1,85 @@
+package org.library.trace;
+
+import org.library.model.Book;
+import org.library.repository.BookRepositoryInterface;
+import org.library.service.BookService;
+import org.library.util.Result;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public class TracingBookService extends BookService {
+    private final TraceRecorder recorder;
+
+    public TracingBookService(BookRepositoryInterface bookRepository, TraceRecorder recorder) {
+        super(bookRepository);
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Result addBook(String title, String author, Integer year, String publisher) {
+        return recorder.record(TraceOperation.BOOK_ADD, () -> super.addBook(title, author, year, publisher),
+                title, author, year, publisher, null, null);
+    }
+
+    @Override
+    public Result addBook(String title, String author, Integer year, String publisher, String isbn, String barcode) {
+        return recorder.record(TraceOperation.BOOK_ADD,
+                () -> super.addBook(title, author, year, publisher, isbn, barcode),
+                title, author, year, publisher, isbn, barcode);
+    }
+
+    @Override
+    public Optional<Book> findByBarcode(String barcode) {
+        return recorder.record(TraceOperation.BOOK_FIND_BY_BARCODE, () -> super.findByBarcode(barcode), barcode);
+    }
+
+    @Override
+    public List<Book> findByIsbn(String isbn) {
+        return recorder.record(TraceOperation.BOOK_FIND_BY_ISBN, () -> super.findByIsbn(isbn), isbn);
+    }
+
+    @Override
+    public Map<String, Book> resolveBarcodes(Collection<String> barcodes) {
+        return recorder.record(TraceOperation.BOOK_RESOLVE_BARCODES, () -> super.resolveBarcodes(barcodes),
+                barcodes);
+    }
+
+    @Override
+    public List<Book> listAvailableBooks() {
+        return recorder.record(TraceOperation.BOOK_LIST_AVAILABLE, super::listAvailableBooks);
+    }
+
+    // Traced with the number of books handed to the consumer as its size.
+    @Override
+    public void streamAvailableBooks(long afterId, int limit, Consumer<Book> consumer) {
+        recorder.record(TraceOperation.BOOK_STREAM_AVAILABLE, () -> {
+            int[] streamed = new int[1];
+            super.streamAvailableBooks(afterId, limit, book -> {
+                streamed[0]++;
+                consumer.accept(book);
+            });
+            return streamed[0];
+        }, afterId, limit);
+    }
+
+    @Override
+    public List<Book> searchBookByTitle(String title) {
+        return recorder.record(TraceOperation.BOOK_SEARCH_BY_TITLE, () -> super.searchBookByTitle(title), title);
+    }
+
+    @Override
+    public List<Book> listAllBooks() {
+        return recorder.record(TraceOperation.BOOK_LIST_ALL, super::listAllBooks);
+    }
+
+    // Traced by the fields the lookup compares.
+    @Override
+    public Boolean isBookAvailable(Book book) {
+        return recorder.record(TraceOperation.BOOK_IS_AVAILABLE, () -> super.isBookAvailable(book),
+                book.getTitle(), book.getAuthor(), book.getYear(), book.getPublisher());
+    }
+}
@@ -0,0 +1,63 @@
+package org.library.trace;
+
+import org.library.model.Book;
+import org.library.model.User;
+import org.library.repository.BookRepositoryInterface;
+import org.library.service.BookService;
+import org.library.service.LibraryService;
+import org.library.service.LoanService;
+import org.library.util.Result;
+
+import java.util.List;
+import java.util.Optional;
+
+public class TracingLibraryService extends LibraryService {
+    private final TraceRecorder recorder;
+
+    public TracingLibraryService(BookService bookService, LoanService loanService,
+                                 BookRepositoryInterface bookRepository, TraceRecorder recorder) {
+        super(bookService, loanService, bookRepository);
+        this.recorder = recorder;
+    }
+
+    // Users and books are traced by id; that is all these delegates read from them.
+    @Override
+    public Result borrowBook(User user, Book book) {
+        return recorder.record(TraceOperation.LIBRARY_BORROW_BOOK, () -> super.borrowBook(user, book),
+                user.getUserId(), book.getBookID());
+    }
+
+    @Override
+    public Result returnBook(User user, Book book) {
+        return recorder.record(TraceOperation.LIBRARY_RETURN_BOOK, () -> super.returnBook(user, book),
+                user.getUserId(), book.getBookID());
+    }
+
+    @Override
+    public List<Book> getUserBorrowedBooks(Long userId) {
+        return recorder.record(TraceOperation.LIBRARY_GET_USER_BORROWED_BOOKS,
+                () -> super.getUserBorrowedBooks(userId), userId);
+    }
+
+    @Override
+    public Optional<Book> getBookById(Long bookId) {
+        return recorder.record(TraceOperation.LIBRARY_GET_BOOK_BY_ID, () -> super.getBookById(bookId), bookId);
+    }
+
+    @Override
+    public List<Book> getRecommendedBooks(Long bookId) {
+        return recorder.record(TraceOperation.LIBRARY_GET_RECOMMENDED_BOOKS, () -> super.getRecommendedBooks(bookId),
+                bookId);
+    }
+
+    @Override
+    public List<Book> searchBookByTitle(String title) {
+        return recorder.record(TraceOperation.LIBRARY_SEARCH_BOOK_BY_TITLE, () -> super.searchBookByTitle(title),
+                title);
+    }
+
+    @Override
+    public List<Book> getBooks() {
+        return recorder.record(TraceOperation.LIBRARY_GET_BOOKS, super::getBooks);
+    }
+}
@@ -0,0 +1,80 @@
+package org.library.trace;
+
+import org.library.model.Loan;
+import org.library.model.LoanStatus;
+import org.library.service.LoanService;
+import org.library.util.Result;
+
+import java.util.List;
+import java.util.Optional;
+
+public class TracingLoanService extends LoanService {
+    private final TraceRecorder recorder;
+
+    public TracingLoanService(TraceRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Result borrowBook(Long userId, Long bookId) {
+        return recorder.record(TraceOperation.LOAN_BORROW_BOOK, () -> super.borrowBook(userId, bookId),
+                userId, bookId);
+    }
+
+    @Override
+    public Result borrowBookByBarcode(Long userId, String barcode) {
+        return recorder.record(TraceOperation.LOAN_BORROW_BOOK_BY_BARCODE,
+                () -> super.borrowBookByBarcode(userId, barcode), userId, barcode);
+    }
+
+    @Override
+    public Result returnBook(Long userId, Long bookId) {
+        return recorder.record(TraceOperation.LOAN_RETURN_BOOK, () -> super.returnBook(userId, bookId),
+                userId, bookId);
+    }
+
+    @Override
+    public Result returnBookByBarcode(Long userId, String barcode) {
+        return recorder.record(TraceOperation.LOAN_RETURN_BOOK_BY_BARCODE,
+                () -> super.returnBookByBarcode(userId, barcode), userId, barcode);
+    }
+
+    @Override
+    public Result changeLoanStatus(Long loanId, LoanStatus status) {
+        return recorder.record(TraceOperation.LOAN_CHANGE_STATUS, () -> super.changeLoanStatus(loanId, status),
+                loanId, status);
+    }
+
+    @Override
+    public Optional<Loan> getActiveLoanForUserAndBook(Long userId, Long bookId) {
+        return recorder.record(TraceOperation.LOAN_GET_ACTIVE_LOAN_FOR_USER_AND_BOOK,
+                () -> super.getActiveLoanForUserAndBook(userId, bookId), userId, bookId);
+    }
+
+    @Override
+    public List<Loan> getActiveLoansForUser(Long userId) {
+        return recorder.record(TraceOperation.LOAN_GET_ACTIVE_LOANS_FOR_USER,
+                () -> super.getActiveLoansForUser(userId), userId);
+    }
+
+    @Override
+    public List<Loan> getLoanHistoryForUser(Long userId) {
+        return recorder.record(TraceOperation.LOAN_GET_LOAN_HISTORY_FOR_USER,
+                () -> super.getLoanHistoryForUser(userId), userId);
+    }
+
+    @Override
+    public int countActiveLoans(Long userId) {
+        return recorder.record(TraceOperation.LOAN_COUNT_ACTIVE_LOANS, () -> super.countActiveLoans(userId), userId);
+    }
+
+    @Override
+    public Optional<Loan> findById(Long loanId) {
+        return recorder.record(TraceOperation.LOAN_FIND_BY_ID, () -> super.findById(loanId), loanId);
+    }
+
+    @Override
+    public Boolean canBorrow(Long userId) {
+        return recorder.record(TraceOperation.LOAN_CAN_BORROW, () -> super.canBorrow(userId), userId);
+    }
+}
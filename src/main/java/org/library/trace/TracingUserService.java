@@ -0,0 +1,39 @@
+package org.library.trace;
+
+import org.library.repository.UserRepositoryInterface;
+import org.library.service.LoanService;
+import org.library.service.UserService;
+import org.library.util.Result;
+
+// Passwords are never written to the trace; replay substitutes a configured one.
+public class TracingUserService extends UserService {
+    private final TraceRecorder recorder;
+
+    public TracingUserService(UserRepositoryInterface userRepository, LoanService loanService,
+                              TraceRecorder recorder) {
+        super(userRepository, loanService);
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Result registerUser(String email, String fullName, String password) {
+        return recorder.record(TraceOperation.USER_REGISTER, () -> super.registerUser(email, fullName, password),
+                email, fullName, TraceEvent.REDACTED);
+    }
+
+    @Override
+    public Result loginUser(String email, String password) {
+        return recorder.record(TraceOperation.USER_LOGIN, () -> super.loginUser(email, password),
+                email, TraceEvent.REDACTED);
+    }
+
+    @Override
+    public Result logoutUser(String email) {
+        return recorder.record(TraceOperation.USER_LOGOUT, () -> super.logoutUser(email), email);
+    }
+
+    @Override
+    public Result deleteUser(String email) {
+        return recorder.record(TraceOperation.USER_DELETE, () -> super.deleteUser(email), email);
+    }
+}
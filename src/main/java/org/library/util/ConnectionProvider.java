@@ -0,0 +1,14 @@
+package org.library.util;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface ConnectionProvider {
+    Connection getConnection(DbOperation operation) throws SQLException;
+
+    static ConnectionProvider of(String url, String user, String password) {
+        return operation -> DriverManager.getConnection(url, user, password);
+    }
+}
@@ -1,15 +1,179 @@
 package org.library.util;
 
+import lombok.extern.slf4j.Slf4j;
+import org.library.fault.FaultInjectingConnectionProvider;
+import org.library.fault.FaultProfile;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
 
+@Slf4j
 public class Database {
-    private static final String URL = "jdbc:mysql://localhost:5432/library";
-    private static final String USER = "postgres";
-    private static final String PASSWORD = "postgres";
+    private static final String URL = System.getProperty("library.db.url", "jdbc:postgresql://localhost:5432/library");
+    private static final String USER = System.getProperty("library.db.user", "postgres");
+    private static final String PASSWORD = System.getProperty("library.db.password", "postgres");
+    private static final String REPLICAS = System.getProperty("library.db.replicas", "");
+    private static final String FAULTS = System.getProperty("library.db.faults");
+    private static final long MAX_REPLICA_LAG_MILLIS = Long.getLong("library.db.maxReplicaLagMillis", 5_000);
+    private static final long LAG_PROBE_INTERVAL_MILLIS = 1_000;
+
+    private static final ThreadLocal<Connection> TRANSACTION = new ThreadLocal<>();
+    private static final ThreadLocal<List<Runnable>> AFTER_COMMIT = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    private static volatile ConnectionProvider provider = configure();
 
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        return getConnection(DbOperation.WRITE);
+    }
+
+    public static Connection getConnection(DbOperation operation) throws SQLException {
+        Connection transaction = TRANSACTION.get();
+        if (transaction != null) {
+            return nonClosing(transaction);
+        }
+        if (PRIMARY_ONLY.get() != null) {
+            operation = DbOperation.WRITE;
+        }
+        return provider.getConnection(operation);
+    }
+
+    public static void setConnectionProvider(ConnectionProvider connectionProvider) {
+        provider = connectionProvider;
+    }
+
+    public static ConnectionProvider getConnectionProvider() {
+        return provider;
+    }
+
+    public static <T> T onPrimary(Supplier<T> work) {
+        if (PRIMARY_ONLY.get() != null) {
+            return work.get();
+        }
+        PRIMARY_ONLY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            PRIMARY_ONLY.remove();
+        }
+    }
+
+    public static <T> T inTransaction(Supplier<T> work) {
+        return inTransaction(-1, work);
+    }
+
+    // Isolation is one of the Connection.TRANSACTION_* levels, or -1 for the server default.
+    public static <T> T inTransaction(int isolation, Supplier<T> work) {
+        if (TRANSACTION.get() != null) {
+            return work.get();
+        }
+
+        try (Connection connection = provider.getConnection(DbOperation.WRITE)) {
+            connection.setAutoCommit(false);
+            if (isolation != -1) {
+                connection.setTransactionIsolation(isolation);
+            }
+            TRANSACTION.set(connection);
+            List<Runnable> afterCommit = new ArrayList<>();
+            AFTER_COMMIT.set(afterCommit);
+
+            T result;
+            try {
+                result = work.get();
+                connection.commit();
+            } catch (RuntimeException | Error e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                TRANSACTION.remove();
+                AFTER_COMMIT.remove();
+            }
+
+            runAfterCommit(afterCommit);
+            return result;
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Transaction failed", e);
+        }
+    }
+
+    // Runs work once the current transaction has committed, or right away outside a transaction.
+    // Work registered by a transaction that rolls back, including an attempt that is retried, never runs.
+    public static void afterCommit(Runnable work) {
+        List<Runnable> pending = AFTER_COMMIT.get();
+        if (pending == null) {
+            work.run();
+        } else {
+            pending.add(work);
+        }
+    }
+
+    // The transaction is already committed, so a failing hook must not look like a failed transaction.
+    private static void runAfterCommit(List<Runnable> hooks) {
+        for (Runnable hook : hooks) {
+            try {
+                hook.run();
+            } catch (RuntimeException e) {
+                log.error("After-commit hook failed", e);
+            }
+        }
+    }
+
+    public static boolean isInTransaction() {
+        return TRANSACTION.get() != null;
+    }
+
+    private static ConnectionProvider configure() {
+        ConnectionProvider configured = configureServers();
+        if (FAULTS == null) {
+            return configured;
+        }
+        // Resilience testing only: -Dlibrary.db.faults=slow|flaky|timeouts|contention
+        return new FaultInjectingConnectionProvider(configured, FaultProfile.named(FAULTS));
+    }
+
+    private static ConnectionProvider configureServers() {
+        ConnectionProvider primary = ConnectionProvider.of(URL, USER, PASSWORD);
+        List<ConnectionProvider> replicas = Arrays.stream(REPLICAS.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .map(url -> ConnectionProvider.of(url, USER, PASSWORD))
+                .toList();
+        if (replicas.isEmpty()) {
+            return primary;
+        }
+
+        RoutingConnectionProvider routing = new RoutingConnectionProvider(
+                primary, replicas, Duration.ofMillis(MAX_REPLICA_LAG_MILLIS));
+        routing.start(LAG_PROBE_INTERVAL_MILLIS);
+        return routing;
+    }
+
+    // Repositories close whatever getConnection() hands them; inside a transaction
+    // that must not close the shared connection.
+    private static Connection nonClosing(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        return null;
+                    }
+                    if (method.getName().equals("isClosed")) {
+                        return false;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,6 @@
+package org.library.util;
+
+public enum DbOperation {
+    READ,
+    WRITE
+}
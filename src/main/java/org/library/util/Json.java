@@ -0,0 +1,157 @@
+package org.library.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class Json {
+
+    public static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+
+        StringBuilder builder = new StringBuilder(value.length() + 2);
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    // Parses a flat JSON object; nested values are rejected. Numbers, booleans and strings
+    // come back as their text, null as a missing key.
+    public static Map<String, String> parseObject(String json) {
+        Map<String, String> values = new LinkedHashMap<>();
+        Parser parser = new Parser(json);
+        parser.expect('{');
+        if (!parser.consume('}')) {
+            do {
+                String name = parser.string();
+                parser.expect(':');
+                String value = parser.scalar();
+                if (value != null) {
+                    values.put(name, value);
+                }
+            } while (parser.consume(','));
+            parser.expect('}');
+        }
+        parser.end();
+        return values;
+    }
+
+    private static final class Parser {
+        private final String json;
+        private int position;
+
+        private Parser(String json) {
+            this.json = json;
+        }
+
+        void expect(char c) {
+            if (!consume(c)) {
+                throw error("expected '" + c + "'");
+            }
+        }
+
+        boolean consume(char c) {
+            skipWhitespace();
+            if (position < json.length() && json.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        void end() {
+            skipWhitespace();
+            if (position != json.length()) {
+                throw error("trailing content");
+            }
+        }
+
+        String scalar() {
+            skipWhitespace();
+            if (position >= json.length()) {
+                throw error("expected a value");
+            }
+            char c = json.charAt(position);
+            if (c == '"') {
+                return string();
+            }
+            if (c == '{' || c == '[') {
+                throw error("nested values are not supported");
+            }
+            int start = position;
+            while (position < json.length() && ",} \t\r\n".indexOf(json.charAt(position)) < 0) {
+                position++;
+            }
+            String literal = json.substring(start, position);
+            if (literal.equals("null")) {
+                return null;
+            }
+            if (!literal.equals("true") && !literal.equals("false") && !literal.matches("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?")) {
+                throw error("invalid literal " + literal);
+            }
+            return literal;
+        }
+
+        String string() {
+            expect('"');
+            StringBuilder builder = new StringBuilder();
+            while (position < json.length()) {
+                char c = json.charAt(position++);
+                if (c == '"') {
+                    return builder.toString();
+                }
+                if (c != '\\') {
+                    builder.append(c);
+                    continue;
+                }
+                if (position >= json.length()) {
+                    break;
+                }
+                char escaped = json.charAt(position++);
+                switch (escaped) {
+                    case 'n' -> builder.append('\n');
+                    case 'r' -> builder.append('\r');
+                    case 't' -> builder.append('\t');
+                    case 'b' -> builder.append('\b');
+                    case 'f' -> builder.append('\f');
+                    case 'u' -> {
+                        if (position + 4 > json.length()) {
+                            throw error("truncated escape");
+                        }
+                        builder.append((char) Integer.parseInt(json.substring(position, position + 4), 16));
+                        position += 4;
+                    }
+                    default -> builder.append(escaped);
+                }
+            }
+            throw error("unterminated string");
+        }
+
+        private void skipWhitespace() {
+            while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+                position++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Invalid JSON at " + position + ": " + message);
+        }
+    }
+}
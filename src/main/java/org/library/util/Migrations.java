@@ -0,0 +1,115 @@
+package org.library.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.time.YearMonth;
+import java.util.List;
+
+@Slf4j
+public class Migrations {
+    private static final String LOCATION = "/db/migration/";
+    private static final int LOAN_PARTITIONING_VERSION = 5;
+    private static final int LOAN_PARTITIONS_AHEAD = 3;
+
+    private static final List<String> SCRIPTS = List.of(
+            "V1__baseline.sql",
+            "V2__book_isbn_barcode.sql",
+            "V3__outbox.sql",
+            "V4__circulation_statistics.sql",
+            "V5__loan_partitioning.sql",
+            "V6__updated_at.sql",
+            "V7__users_email_unique.sql",
+            "V8__row_versions.sql",
+            "V9__loan_default_partition.sql",
+            "V10__deleted_rows.sql",
+            "V11__updated_at_clock.sql",
+            "V12__shard_directory.sql",
+            "V13__user_email.sql",
+            "V14__stats_flush.sql"
+    );
+
+    public static void migrate() {
+        try (Connection connection = Database.getConnection()) {
+            connection.setAutoCommit(false);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("""
+                        CREATE TABLE IF NOT EXISTS schema_version (
+                            version    INTEGER PRIMARY KEY,
+                            script     VARCHAR(255) NOT NULL,
+                            applied_at TIMESTAMP    NOT NULL DEFAULT now()
+                        )
+                        """);
+            }
+            connection.commit();
+
+            int current = currentVersion(connection);
+            for (int i = current; i < SCRIPTS.size(); i++) {
+                apply(connection, i + 1, SCRIPTS.get(i));
+            }
+
+            if (SCRIPTS.size() >= LOAN_PARTITIONING_VERSION) {
+                ensureLoanPartitions(connection, YearMonth.now(), LOAN_PARTITIONS_AHEAD);
+            }
+
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to migrate database", e);
+        }
+    }
+
+    public static void ensureLoanPartitions(Connection connection, YearMonth from, int monthsAhead) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT create_loan_partition(?)")) {
+            for (int i = 0; i <= monthsAhead; i++) {
+                statement.setObject(1, from.plusMonths(i).atDay(1));
+                statement.execute();
+            }
+        }
+        if (!connection.getAutoCommit()) {
+            connection.commit();
+        }
+        log.debug("Ensured loan partitions from {} for {} month(s) ahead", from, monthsAhead);
+    }
+
+    private static int currentVersion(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    private static void apply(Connection connection, int version, String script) throws SQLException {
+        log.info("Applying migration {} ({})", version, script);
+
+        try (Statement statement = connection.createStatement();
+             PreparedStatement record = connection.prepareStatement(
+                     "INSERT INTO schema_version (version, script) VALUES (?, ?)")) {
+
+            statement.execute(read(script));
+
+            record.setInt(1, version);
+            record.setString(2, script);
+            record.executeUpdate();
+
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        }
+    }
+
+    private static String read(String script) {
+        try (InputStream in = Migrations.class.getResourceAsStream(LOCATION + script)) {
+            if (in == null) {
+                throw new IllegalStateException("Migration script not found: " + script);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read migration " + script, e);
+        }
+    }
+}
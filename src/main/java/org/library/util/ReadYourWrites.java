@@ -0,0 +1,80 @@
+package org.library.util;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+public class ReadYourWrites {
+    public static final Duration DEFAULT_WINDOW = Duration.ofSeconds(5);
+
+    private static final int PRUNE_THRESHOLD = 10_000;
+
+    private final long windowNanos;
+    private final Map<Long, Long> lastWriteNanos = new ConcurrentHashMap<>();
+    private final ReentrantLock pruneLock = new ReentrantLock();
+    private volatile long nextPrune = System.nanoTime();
+
+    public ReadYourWrites() {
+        this(DEFAULT_WINDOW);
+    }
+
+    public ReadYourWrites(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public <T> T write(Long userId, Supplier<T> work) {
+        try {
+            return Database.onPrimary(work);
+        } finally {
+            recordWrite(userId);
+        }
+    }
+
+    public <T> T read(Long userId, Supplier<T> work) {
+        return isSticky(userId) ? Database.onPrimary(work) : work.get();
+    }
+
+    public void recordWrite(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        lastWriteNanos.put(userId, now);
+        if (lastWriteNanos.size() > PRUNE_THRESHOLD) {
+            prune(now);
+        }
+    }
+
+    // Entries only expire once a window has passed, so pruning more often than that finds little. One
+    // writer prunes; everyone else goes on without waiting for it.
+    private void prune(long now) {
+        if (now - nextPrune < 0 || !pruneLock.tryLock()) {
+            return;
+        }
+        try {
+            if (now - nextPrune >= 0) {
+                nextPrune = now + windowNanos;
+                lastWriteNanos.values().removeIf(written -> now - written > windowNanos);
+            }
+        } finally {
+            pruneLock.unlock();
+        }
+    }
+
+    public boolean isSticky(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        Long written = lastWriteNanos.get(userId);
+        if (written == null) {
+            return false;
+        }
+        if (System.nanoTime() - written > windowNanos) {
+            lastWriteNanos.remove(userId, written);
+            return false;
+        }
+        return true;
+    }
+}
@@ -1,24 +1,74 @@
 package org.library.util;
 
-import lombok.Getter;
-import lombok.RequiredArgsConstructor;
-
-@RequiredArgsConstructor
-@Getter
+// Callers branch on the code; the message is only formatted when it is read. Results without an
+// argument are shared instances, so returning them allocates nothing.
 public class Result {
-    private final Boolean success;
-    private final String message;
+    private final ResultCode code;
+    private final Object argument;
+    // Handed to the caller as is, e.g. the id of the user who just logged in.
+    private final Object value;
+    private String message;
+
+    // Kept for callers written before result codes; use success(), failure() or of() instead.
+    @Deprecated
+    public Result(Boolean success, String message) {
+        this(Boolean.TRUE.equals(success) ? ResultCode.SUCCESS : ResultCode.FAILURE, message);
+    }
+
+    Result(ResultCode code, Object argument) {
+        this(code, argument, null);
+    }
+
+    Result(ResultCode code, Object argument, Object value) {
+        this.code = code;
+        this.argument = argument;
+        this.value = value;
+    }
+
+    public static Result of(ResultCode code) {
+        return code.result(null);
+    }
+
+    public static Result of(ResultCode code, Object argument) {
+        return code.result(argument);
+    }
+
+    public static Result of(ResultCode code, Object argument, Object value) {
+        return code.result(argument, value);
+    }
 
     public static Result success(String message) {
-        return new Result(true, message);
+        return of(ResultCode.SUCCESS, message);
     }
 
     public static Result failure(String message) {
-        return new Result(false, message);
+        return of(ResultCode.FAILURE, message);
+    }
+
+    public ResultCode getCode() {
+        return code;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public Boolean getSuccess() {
+        return code.isSuccess();
+    }
+
+    // Formatting twice under a race yields equal strings, so the cache needs no synchronization.
+    public String getMessage() {
+        String formatted = message;
+        if (formatted == null) {
+            formatted = code.format(argument);
+            message = formatted;
+        }
+        return formatted;
     }
 
     @Override
     public String toString() {
-        return (success ? "Success: " : "Failure: ") + message;
+        return (code.isSuccess() ? "Success: " : "Failure: ") + getMessage();
     }
 }
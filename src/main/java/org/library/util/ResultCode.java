@@ -0,0 +1,106 @@
+package org.library.util;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Every outcome a service call can report. "{}" in a template is replaced by the result's argument
+// when the message is first read. Each code counts how often it was returned.
+public enum ResultCode {
+    // Free-form messages, e.g. results decoded from the kiosk protocol or admission rejections.
+    SUCCESS(true, null),
+    FAILURE(false, null),
+
+    BOOK_BORROWED(true, "Book borrowed successfully. Loan id: {}"),
+    BOOK_RETURNED(true, "Book returned successfully."),
+    LOAN_STATUS_CHANGED(true, "Loan status changed to {}"),
+    USER_OR_BOOK_ID_NULL(false, "User or book id is null"),
+    USER_OR_BARCODE_NULL(false, "User id or barcode is null"),
+    LOAN_ID_OR_STATUS_NULL(false, "Loan id or status is null"),
+    BOOK_NOT_FOUND(false, "Book not found"),
+    USER_NOT_FOUND(false, "User not found"),
+    LOAN_NOT_FOUND(false, "Loan not found"),
+    BOOK_ALREADY_BORROWED(false, "Book is already borrowed"),
+    USER_NOT_LOGGED_IN(false, "User is not logged in"),
+    LOAN_LIMIT_REACHED(false, "User has reached the maximum number of borrowed books: ({})"),
+    NO_ACTIVE_LOAN(false, "No active loan for this user and book"),
+    LOAN_STATUS_NOT_CHANGED(false, "Loan status was not changed"),
+
+    BOOK_ADDED(true, "Book added successfully"),
+    BOOK_FIELDS_EMPTY(false, "Book title, author, publisher cannot be empty"),
+    YEAR_OUT_OF_BOUNDS(false, "Year out of bounds"),
+    INVALID_ISBN(false, "Invalid ISBN-13"),
+    BARCODE_EMPTY(false, "Book barcode cannot be empty"),
+    BARCODE_TAKEN(false, "Barcode already assigned to another copy"),
+    BOOK_EXISTS(false, "Book already exists in the system"),
+
+    USER_REGISTERED(true, "User {} has been successfully registered."),
+    USER_LOGGED_IN(true, "{} successfully logged in."),
+    USER_LOGGED_OUT(true, "You have been logged out."),
+    USER_DELETED(true, "Account for {} has been successfully deleted."),
+    EMAIL_TAKEN(false, "User with email address {} already exists."),
+    EMAIL_NOT_FOUND(false, "User with email {} does not exist."),
+    INVALID_PASSWORD(false, "Invalid password."),
+    ALREADY_LOGGED_IN(false, "{} is already logged in."),
+    NOT_LOGGED_IN(false, "Cannot log out – user is not logged in."),
+    LOGIN_REQUIRED_TO_DELETE(false, "{} must be logged in to delete the account."),
+    HAS_BORROWED_BOOKS(false, "Cannot delete account. You still have {} borrowed books."),
+    REGISTRATION_FIELDS_EMPTY(false, "User email, full name, and password cannot be empty"),
+    INVALID_EMAIL(false, "Invalid email format. Email address must contain @."),
+    INVALID_FULL_NAME(false, "Invalid full name format. Full name must contain whitespace between name and surname."),
+    PASSWORD_TOO_SHORT(false, "Invalid password length. Password should be at least 8 characters.");
+
+    private static final String PLACEHOLDER = "{}";
+
+    private final boolean success;
+    private final String template;
+    private final LongAdder returned = new LongAdder();
+    // Shared by every call returning this code, for codes whose message takes no argument.
+    private final Result shared;
+
+    ResultCode(boolean success, String template) {
+        this.success = success;
+        this.template = template;
+        this.shared = template != null && !template.contains(PLACEHOLDER) ? new Result(this, null) : null;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public long count() {
+        return returned.sum();
+    }
+
+    public static Map<ResultCode, Long> counts() {
+        Map<ResultCode, Long> counts = new EnumMap<>(ResultCode.class);
+        for (ResultCode code : values()) {
+            long count = code.count();
+            if (count > 0) {
+                counts.put(code, count);
+            }
+        }
+        return counts;
+    }
+
+    Result result(Object argument) {
+        returned.increment();
+        return shared != null ? shared : new Result(this, argument);
+    }
+
+    Result result(Object argument, Object value) {
+        returned.increment();
+        return new Result(this, argument, value);
+    }
+
+    String format(Object argument) {
+        if (template == null) {
+            return (String) argument;
+        }
+        int at = template.indexOf(PLACEHOLDER);
+        if (at < 0) {
+            return template;
+        }
+        return template.substring(0, at) + argument + template.substring(at + PLACEHOLDER.length());
+    }
+}
@@ -0,0 +1,126 @@
+package org.library.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+@Slf4j
+public class RoutingConnectionProvider implements ConnectionProvider, AutoCloseable {
+    static final long UNAVAILABLE = Long.MAX_VALUE;
+
+    // A server that is not in recovery has been promoted and no longer follows the primary.
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() THEN -1
+                       WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   END
+            """;
+
+    private final ConnectionProvider primary;
+    private final List<ConnectionProvider> replicas;
+    private final AtomicLongArray lagMillis;
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private ScheduledExecutorService scheduler;
+
+    public RoutingConnectionProvider(ConnectionProvider primary, List<ConnectionProvider> replicas, Duration maxLag) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.lagMillis = new AtomicLongArray(replicas.size());
+        this.maxLagMillis = maxLag.toMillis();
+        // Replicas serve nothing until the first lag probe has vouched for them.
+        for (int replica = 0; replica < replicas.size(); replica++) {
+            lagMillis.set(replica, UNAVAILABLE);
+        }
+    }
+
+    @Override
+    public Connection getConnection(DbOperation operation) throws SQLException {
+        if (operation == DbOperation.READ) {
+            int start = Math.floorMod(next.getAndIncrement(), Math.max(1, replicas.size()));
+            for (int i = 0; i < replicas.size(); i++) {
+                int replica = (start + i) % replicas.size();
+                if (!isUsable(replica)) {
+                    continue;
+                }
+                try {
+                    return replicas.get(replica).getConnection(operation);
+                } catch (SQLException e) {
+                    log.warn("Replica {} unreachable, excluding it until the next lag probe", replica, e);
+                    recordLag(replica, UNAVAILABLE);
+                }
+            }
+        }
+        return primary.getConnection(DbOperation.WRITE);
+    }
+
+    public synchronized void start(long probeIntervalMillis) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refreshLag, 0, probeIntervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Routing reads to {} replica(s), max lag {} ms", replicas.size(), maxLagMillis);
+    }
+
+    public void refreshLag() {
+        for (int replica = 0; replica < replicas.size(); replica++) {
+            recordLag(replica, probe(replica));
+        }
+    }
+
+    public boolean isUsable(int replica) {
+        return lag(replica) <= maxLagMillis;
+    }
+
+    public long lag(int replica) {
+        return lagMillis.get(replica);
+    }
+
+    void recordLag(int replica, long lag) {
+        long previous = lagMillis.getAndSet(replica, lag);
+        boolean wasUsable = previous <= maxLagMillis;
+        boolean usable = lag <= maxLagMillis;
+        if (wasUsable != usable) {
+            log.info("Replica {} {} (lag {} ms)", replica, usable ? "back in rotation" : "taken out of rotation",
+                    lag == UNAVAILABLE ? "unknown" : lag);
+        }
+    }
+
+    private long probe(int replica) {
+        try (Connection connection = replicas.get(replica).getConnection(DbOperation.READ);
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+            resultSet.next();
+            long lag = resultSet.getLong(1);
+            return lag < 0 ? UNAVAILABLE : lag;
+        } catch (SQLException e) {
+            log.warn("Failed to probe lag of replica {}", replica, e);
+            return UNAVAILABLE;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.library.util;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// A fixed pool of locks shared by hash of a long key, so locking per book or per user costs no
+// allocation and no map of live keys. Two keys are always taken in stripe order, which makes any
+// two callers of withLocks deadlock-free against each other. Do not nest calls.
+public class StripedLocks {
+    public static final int DEFAULT_STRIPES = 1024;
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    public StripedLocks() {
+        this(DEFAULT_STRIPES);
+    }
+
+    // Rounded up to a power of two; one stripe is a single global lock.
+    public StripedLocks(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Stripes must be positive: " + stripes);
+        }
+        int size = Integer.highestOneBit(stripes);
+        if (size < stripes) {
+            size <<= 1;
+        }
+        locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+    }
+
+    public int stripes() {
+        return locks.length;
+    }
+
+    public int stripe(long key) {
+        // Murmur3 finalizer, so sequential ids spread over all stripes.
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key & mask;
+    }
+
+    public <T> T withLock(long key, Supplier<T> work) {
+        ReentrantLock lock = locks[stripe(key)];
+        lock.lock();
+        try {
+            return work.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public <T> T withLocks(long first, long second, Supplier<T> work) {
+        int a = stripe(first);
+        int b = stripe(second);
+        if (a == b) {
+            return withLock(first, work);
+        }
+        ReentrantLock lower = locks[Math.min(a, b)];
+        ReentrantLock upper = locks[Math.max(a, b)];
+        lower.lock();
+        try {
+            upper.lock();
+            try {
+                return work.get();
+            } finally {
+                upper.unlock();
+            }
+        } finally {
+            lower.unlock();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.library.util;
+
+import java.sql.Connection;
+import java.util.function.Supplier;
+
+@FunctionalInterface
+public interface TransactionRunner {
+    TransactionRunner JDBC = Database::inTransaction;
+    TransactionRunner JDBC_SERIALIZABLE = new TransactionRunner() {
+        @Override
+        public <T> T inTransaction(Supplier<T> work) {
+            return Database.inTransaction(Connection.TRANSACTION_SERIALIZABLE, work);
+        }
+    };
+    TransactionRunner NONE = Supplier::get;
+
+    <T> T inTransaction(Supplier<T> work);
+
+    // The name identifies the transaction for runners that keep per-operation metrics.
+    default <T> T inTransaction(String operation, Supplier<T> work) {
+        return inTransaction(work);
+    }
+}
@@ -0,0 +1,29 @@
+-- Tombstones for hard deletes, so a node catching up from a snapshot can drop rows that no longer exist.
+-- Only active loans are recorded: closed loans are never cached and the archiver deletes them in bulk.
+CREATE TABLE IF NOT EXISTS deleted_rows
+(
+    table_name VARCHAR(32) NOT NULL,
+    row_id     BIGINT      NOT NULL,
+    deleted_at TIMESTAMP   NOT NULL DEFAULT clock_timestamp()
+);
+
+CREATE INDEX IF NOT EXISTS deleted_rows_deleted_at_idx ON deleted_rows (deleted_at);
+
+-- Arguments: the logical table name and its id column. Tombstones older than 30 days are pruned on the
+-- way; snapshots older than that are not used for a warm start.
+CREATE OR REPLACE FUNCTION record_deleted_row() RETURNS TRIGGER AS
+$$
+BEGIN
+    INSERT INTO deleted_rows (table_name, row_id)
+    VALUES (TG_ARGV[0], (to_jsonb(OLD) ->> TG_ARGV[1])::BIGINT);
+    DELETE FROM deleted_rows WHERE deleted_at < clock_timestamp() - INTERVAL '30 days';
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER books_record_deleted AFTER DELETE ON books
+    FOR EACH ROW EXECUTE FUNCTION record_deleted_row('books', 'book_id');
+CREATE TRIGGER users_record_deleted AFTER DELETE ON users
+    FOR EACH ROW EXECUTE FUNCTION record_deleted_row('users', 'user_id');
+CREATE TRIGGER loan_record_deleted AFTER DELETE ON loan
+    FOR EACH ROW WHEN (OLD.status = 'ACTIVE') EXECUTE FUNCTION record_deleted_row('loan', 'id');
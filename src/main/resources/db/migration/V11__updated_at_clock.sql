@@ -0,0 +1,14 @@
+-- now() is the transaction start, so a long transaction could stamp rows earlier than a snapshot taken
+-- before it committed. clock_timestamp() is the time of the change itself; the loader's catch-up margin
+-- then only has to cover the gap between a change and its commit.
+CREATE OR REPLACE FUNCTION touch_updated_at() RETURNS TRIGGER AS
+$$
+BEGIN
+    NEW.updated_at := clock_timestamp();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+ALTER TABLE books ALTER COLUMN updated_at SET DEFAULT clock_timestamp();
+ALTER TABLE users ALTER COLUMN updated_at SET DEFAULT clock_timestamp();
+ALTER TABLE loan ALTER COLUMN updated_at SET DEFAULT clock_timestamp();
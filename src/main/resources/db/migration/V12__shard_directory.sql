@@ -0,0 +1,17 @@
+-- Shard routing shared by every node; only the directory shard's copy is used.
+CREATE TABLE IF NOT EXISTS shard_ring
+(
+    id                 INTEGER PRIMARY KEY CHECK (id = 1),
+    epoch              BIGINT  NOT NULL,
+    shard_count        INTEGER NOT NULL,
+    target_shard_count INTEGER
+);
+
+CREATE TABLE IF NOT EXISTS shard_relocation
+(
+    user_id BIGINT PRIMARY KEY,
+    shard   INTEGER NOT NULL,
+    epoch   BIGINT  NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS shard_relocation_epoch_idx ON shard_relocation (epoch);
@@ -0,0 +1,10 @@
+-- Global email ownership for sharded user tables; only the directory shard's copy is used.
+CREATE TABLE IF NOT EXISTS user_email
+(
+    email_key VARCHAR(255) PRIMARY KEY,
+    user_id   BIGINT       NOT NULL
+);
+
+INSERT INTO user_email (email_key, user_id)
+SELECT lower(email), user_id FROM users
+ON CONFLICT (email_key) DO NOTHING;
@@ -0,0 +1,9 @@
+-- Ids of the statistics batches already added to the stats_* tables. A flush whose commit outcome was
+-- unknown is retried under the same id and skipped if it did land.
+CREATE TABLE IF NOT EXISTS stats_flush
+(
+    flush_id   UUID PRIMARY KEY,
+    applied_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS stats_flush_applied_at_idx ON stats_flush (applied_at);
@@ -0,0 +1,28 @@
+CREATE TABLE IF NOT EXISTS books
+(
+    book_id   BIGSERIAL PRIMARY KEY,
+    title     VARCHAR(255) NOT NULL,
+    author    VARCHAR(255) NOT NULL,
+    year      INTEGER      NOT NULL,
+    publisher VARCHAR(255) NOT NULL,
+    status    VARCHAR(16)  NOT NULL DEFAULT 'AVAILABLE'
+);
+
+CREATE TABLE IF NOT EXISTS users
+(
+    user_id   BIGSERIAL PRIMARY KEY,
+    full_name VARCHAR(255) NOT NULL,
+    email     VARCHAR(255) NOT NULL,
+    password  VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS loan
+(
+    id          BIGSERIAL PRIMARY KEY,
+    user_id     BIGINT      NOT NULL REFERENCES users (user_id),
+    book_id     BIGINT      NOT NULL REFERENCES books (book_id),
+    loan_date   DATE        NOT NULL,
+    due_date    DATE        NOT NULL,
+    return_date DATE,
+    status      VARCHAR(16) NOT NULL
+);
@@ -0,0 +1,9 @@
+ALTER TABLE books ADD COLUMN IF NOT EXISTS isbn VARCHAR(13);
+ALTER TABLE books ADD COLUMN IF NOT EXISTS barcode VARCHAR(32);
+
+-- One physical copy per barcode; scanners resolve a copy with a single index probe.
+CREATE UNIQUE INDEX IF NOT EXISTS books_barcode_key ON books (barcode);
+
+-- Copies of the same edition share an ISBN, so it cannot be unique. Lookups are
+-- always equality, which a hash index serves with one bucket probe.
+CREATE INDEX IF NOT EXISTS books_isbn_idx ON books USING hash (isbn);
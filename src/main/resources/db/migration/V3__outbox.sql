@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS outbox
+(
+    id             BIGSERIAL PRIMARY KEY,
+    aggregate_type VARCHAR(32) NOT NULL,
+    aggregate_id   BIGINT      NOT NULL,
+    event_type     VARCHAR(32) NOT NULL,
+    payload        TEXT        NOT NULL,
+    created_at     TIMESTAMP   NOT NULL DEFAULT now()
+);
@@ -0,0 +1,21 @@
+CREATE TABLE IF NOT EXISTS stats_book_month
+(
+    month   DATE    NOT NULL,
+    book_id BIGINT  NOT NULL,
+    borrows INTEGER NOT NULL,
+    PRIMARY KEY (month, book_id)
+);
+
+CREATE TABLE IF NOT EXISTS stats_daily
+(
+    day      DATE PRIMARY KEY,
+    borrowed INTEGER NOT NULL DEFAULT 0,
+    returned INTEGER NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS stats_loan_duration
+(
+    bucket     INTEGER PRIMARY KEY,
+    loans      BIGINT NOT NULL DEFAULT 0,
+    total_days BIGINT NOT NULL DEFAULT 0
+);
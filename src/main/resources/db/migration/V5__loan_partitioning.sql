@@ -0,0 +1,62 @@
+-- Re-create loan as a table range-partitioned by month of loan_date.
+ALTER TABLE loan RENAME TO loan_legacy;
+ALTER SEQUENCE loan_id_seq OWNED BY NONE;
+
+CREATE TABLE loan
+(
+    id          BIGINT      NOT NULL DEFAULT nextval('loan_id_seq'),
+    user_id     BIGINT      NOT NULL REFERENCES users (user_id),
+    book_id     BIGINT      NOT NULL REFERENCES books (book_id),
+    loan_date   DATE        NOT NULL,
+    due_date    DATE        NOT NULL,
+    return_date DATE,
+    status      VARCHAR(16) NOT NULL,
+    PRIMARY KEY (id, loan_date)
+) PARTITION BY RANGE (loan_date);
+
+CREATE TABLE loan_default PARTITION OF loan DEFAULT;
+
+CREATE OR REPLACE FUNCTION create_loan_partition(month DATE) RETURNS VOID AS
+$$
+DECLARE
+    first_day DATE := date_trunc('month', month)::DATE;
+    partition_name TEXT := 'loan_' || to_char(first_day, 'YYYY_MM');
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF loan FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, first_day, (first_day + INTERVAL '1 month')::DATE);
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT create_loan_partition(month::DATE)
+FROM generate_series(
+             date_trunc('month', LEAST((SELECT MIN(loan_date) FROM loan_legacy), CURRENT_DATE)),
+             date_trunc('month', CURRENT_DATE + INTERVAL '3 months'),
+             INTERVAL '1 month') AS month;
+
+INSERT INTO loan (id, user_id, book_id, loan_date, due_date, return_date, status)
+SELECT id, user_id, book_id, loan_date, due_date, return_date, status
+FROM loan_legacy;
+
+DROP TABLE loan_legacy;
+ALTER SEQUENCE loan_id_seq OWNED BY loan.id;
+
+CREATE INDEX IF NOT EXISTS loan_user_id_idx ON loan (user_id);
+CREATE INDEX IF NOT EXISTS loan_book_id_idx ON loan (book_id);
+CREATE INDEX IF NOT EXISTS loan_active_user_idx ON loan (user_id) WHERE status = 'ACTIVE';
+CREATE INDEX IF NOT EXISTS loan_active_book_idx ON loan (book_id) WHERE status = 'ACTIVE';
+
+-- Closed loans past the archival cutoff are moved here, out of every hot query path.
+CREATE TABLE IF NOT EXISTS loan_archive
+(
+    id          BIGINT      NOT NULL PRIMARY KEY,
+    user_id     BIGINT      NOT NULL,
+    book_id     BIGINT      NOT NULL,
+    loan_date   DATE        NOT NULL,
+    due_date    DATE        NOT NULL,
+    return_date DATE,
+    status      VARCHAR(16) NOT NULL,
+    archived_at TIMESTAMP   NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS loan_archive_user_id_idx ON loan_archive (user_id);
+CREATE INDEX IF NOT EXISTS loan_archive_book_id_idx ON loan_archive (book_id);
@@ -0,0 +1,23 @@
+-- Lets a node warm-started from a snapshot fetch only the rows changed since it was taken.
+CREATE OR REPLACE FUNCTION touch_updated_at() RETURNS TRIGGER AS
+$$
+BEGIN
+    NEW.updated_at := now();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+ALTER TABLE books ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP NOT NULL DEFAULT now();
+ALTER TABLE users ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP NOT NULL DEFAULT now();
+ALTER TABLE loan ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP NOT NULL DEFAULT now();
+
+CREATE TRIGGER books_touch_updated_at BEFORE UPDATE ON books
+    FOR EACH ROW EXECUTE FUNCTION touch_updated_at();
+CREATE TRIGGER users_touch_updated_at BEFORE UPDATE ON users
+    FOR EACH ROW EXECUTE FUNCTION touch_updated_at();
+CREATE TRIGGER loan_touch_updated_at BEFORE UPDATE ON loan
+    FOR EACH ROW EXECUTE FUNCTION touch_updated_at();
+
+CREATE INDEX IF NOT EXISTS books_updated_at_idx ON books (updated_at);
+CREATE INDEX IF NOT EXISTS users_updated_at_idx ON users (updated_at);
+CREATE INDEX IF NOT EXISTS loan_updated_at_idx ON loan (updated_at);
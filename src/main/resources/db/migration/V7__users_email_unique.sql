@@ -0,0 +1,3 @@
+-- Emails are compared case-insensitively; the index also serves findByEmail.
+-- Fails if existing rows already collide, which has to be resolved by hand.
+CREATE UNIQUE INDEX IF NOT EXISTS users_email_lower_key ON users (lower(email));
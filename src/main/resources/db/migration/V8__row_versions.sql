@@ -0,0 +1,3 @@
+-- Optimistic concurrency: updates carry the version they read and only apply if it is unchanged.
+ALTER TABLE books ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
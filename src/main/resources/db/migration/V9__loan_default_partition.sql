@@ -0,0 +1,13 @@
+-- Monthly partitions are always created ahead, so the default partition is dropped. With it gone,
+-- emptied partitions can be detached CONCURRENTLY, and create_loan_partition can no longer fail on
+-- default rows that fall into the new month.
+ALTER TABLE loan DETACH PARTITION loan_default;
+
+SELECT create_loan_partition(month)
+FROM (SELECT DISTINCT date_trunc('month', loan_date)::DATE AS month FROM loan_default) AS months;
+
+INSERT INTO loan (id, user_id, book_id, loan_date, due_date, return_date, status, updated_at)
+SELECT id, user_id, book_id, loan_date, due_date, return_date, status, updated_at
+FROM loan_default;
+
+DROP TABLE loan_default;
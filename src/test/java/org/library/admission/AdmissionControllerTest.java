@@ -0,0 +1,165 @@
+package org.library.admission;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.library.model.Book;
+import org.library.repository.InMemoryBookRepository;
+import org.library.service.BookService;
+import org.library.service.LoanService;
+import org.library.util.Result;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class AdmissionControllerTest {
+
+    @Test
+    void tokenBucket_shouldAllowBurstThenRefillAtRate() {
+        // given
+        TokenBucket bucket = new TokenBucket(RateLimit.of(10, 3));
+        long now = System.nanoTime();
+
+        // when / then
+        Assertions.assertTrue(bucket.tryAcquire(now));
+        Assertions.assertTrue(bucket.tryAcquire(now));
+        Assertions.assertTrue(bucket.tryAcquire(now));
+        Assertions.assertFalse(bucket.tryAcquire(now));
+        Assertions.assertTrue(bucket.tryAcquire(now + TimeUnit.MILLISECONDS.toNanos(100)));
+        Assertions.assertFalse(bucket.tryAcquire(now + TimeUnit.MILLISECONDS.toNanos(100)));
+        Assertions.assertTrue(bucket.isFull(now + TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    @Test
+    void admit_shouldLimitEachUserSeparately() {
+        // given
+        AdmissionController controller = AdmissionController.unlimited()
+                .limitPerUser(Operation.LOGIN, RateLimit.of(0.1, 2));
+
+        // when
+        Result first = controller.admit(Operation.LOGIN, "ann@example.com", () -> Result.success("ok"));
+        Result second = controller.admit(Operation.LOGIN, "ann@example.com", () -> Result.success("ok"));
+        Result third = controller.admit(Operation.LOGIN, "ann@example.com", () -> Result.success("ok"));
+        Result other = controller.admit(Operation.LOGIN, "bob@example.com", () -> Result.success("ok"));
+
+        // then
+        Assertions.assertTrue(first.getSuccess());
+        Assertions.assertTrue(second.getSuccess());
+        Assertions.assertFalse(third.getSuccess());
+        Assertions.assertEquals("Too many login requests, please retry shortly", third.getMessage());
+        Assertions.assertTrue(other.getSuccess());
+        Assertions.assertEquals(1, controller.getRejections(Operation.LOGIN));
+    }
+
+    @Test
+    void admit_shouldShedLoadBeyondConcurrencyLimit() throws InterruptedException {
+        // given
+        AdmissionController controller = new AdmissionController(new AdaptiveConcurrencyLimiter(1, 1, 10));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = Thread.ofVirtual().start(() -> controller.admit(Operation.BORROW, 1L, () -> {
+            started.countDown();
+            awaitQuietly(release);
+            return Result.success("borrowed");
+        }));
+        started.await();
+
+        // when
+        Result rejected = controller.admit(Operation.BORROW, 2L, () -> Result.success("borrowed"));
+        release.countDown();
+        holder.join();
+
+        // then
+        Assertions.assertFalse(rejected.getSuccess());
+        Assertions.assertEquals("Service is overloaded, please retry shortly", rejected.getMessage());
+        Assertions.assertTrue(controller.admit(Operation.BORROW, 2L, () -> Result.success("borrowed")).getSuccess());
+    }
+
+    @Test
+    void concurrencyLimiter_shouldBackOffOnSlowResponsesAndGrowOnHealthyOnes() throws InterruptedException {
+        // given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 2, 100);
+        long healthy = TimeUnit.MILLISECONDS.toNanos(1);
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.release(healthy);
+        }
+        Thread.sleep(5);
+        limiter.tryAcquire();
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(3));
+        int afterSlow = limiter.getLimit();
+
+        for (int round = 0; round < 10; round++) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limiter.release(healthy);
+            }
+        }
+
+        // then
+        Assertions.assertEquals(18, afterSlow);
+        Assertions.assertTrue(limiter.getLimit() > afterSlow);
+        Assertions.assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void loanService_shouldRejectBeforeTouchingRepositories() {
+        // given
+        LoanService loanService = new LoanService();
+        loanService.setAdmissionController(AdmissionController.unlimited()
+                .limitGlobally(Operation.BORROW, RateLimit.of(0.1, 1)));
+        loanService.getAdmissionController().admit(Operation.BORROW, 1L, () -> Result.success("warm"));
+
+        // when
+        Result result = loanService.borrowBook(1L, 1L);
+
+        // then
+        Assertions.assertFalse(result.getSuccess());
+        Assertions.assertEquals("Too many borrow requests, please retry shortly", result.getMessage());
+    }
+
+    @Test
+    void bookService_shouldTellARejectedSearchFromAMiss() {
+        // given
+        BookService bookService = new BookService(new InMemoryBookRepository());
+        bookService.setAdmissionController(AdmissionController.unlimited()
+                .limitGlobally(Operation.SEARCH, RateLimit.of(0.1, 1)));
+
+        // when
+        List<Book> miss = bookService.searchBookByTitle("Dune");
+
+        // then
+        Assertions.assertTrue(miss.isEmpty());
+        RejectedException rejected = Assertions.assertThrows(RejectedException.class,
+                () -> bookService.searchBookByTitle("Dune"));
+        Assertions.assertEquals("Too many search requests, please retry shortly", rejected.getMessage());
+    }
+
+    @Test
+    void parse_shouldReadLimitsPerOperation() {
+        // when
+        Map<Operation, RateLimit> limits = RateLimit.parse("login=1/5, SEARCH = 200.5/400");
+
+        // then
+        Assertions.assertEquals(Map.of(Operation.LOGIN, RateLimit.of(1, 5), Operation.SEARCH, RateLimit.of(200.5, 400)),
+                limits);
+        Assertions.assertTrue(RateLimit.parse(null).isEmpty());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> RateLimit.parse("login=5"));
+        Assertions.assertEquals(64, AdaptiveConcurrencyLimiter.parse("64/8/512").getLimit());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> AdaptiveConcurrencyLimiter.parse("64/8"));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
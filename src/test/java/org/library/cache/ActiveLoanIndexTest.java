@@ -0,0 +1,107 @@
+package org.library.cache;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.library.model.Loan;
+import org.library.model.LoanStatus;
+import org.library.repository.InMemoryLoanRepository;
+import org.library.util.LongLongHashMap;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class ActiveLoanIndexTest {
+
+    @Test
+    void longLongHashMap_shouldMatchHashMapUnderRandomPutsAndRemoves() {
+        // given
+        LongLongHashMap map = new LongLongHashMap(4);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // when
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                Assertions.assertEquals(expected.getOrDefault(key, 0L), map.remove(key));
+                expected.remove(key);
+            } else {
+                map.put(key, i);
+                expected.put(key, (long) i);
+            }
+        }
+
+        // then
+        Assertions.assertEquals(expected.size(), map.size());
+        for (long key = 0; key < 5_000; key++) {
+            Assertions.assertEquals(expected.containsKey(key), map.containsKey(key));
+            Assertions.assertEquals(expected.getOrDefault(key, 0L), map.get(key));
+        }
+    }
+
+    @Test
+    void index_shouldTrackBorrowAndReturnAndRebuildFromRepository() {
+        // given
+        InMemoryLoanRepository repository = new InMemoryLoanRepository();
+        LocalDate today = LocalDate.now();
+        for (long bookId = 1; bookId <= 6; bookId++) {
+            repository.save(new Loan(bookId % 2 + 1, bookId, today, null, today.plusMonths(1), LoanStatus.ACTIVE));
+        }
+        repository.save(new Loan(1L, 7L, today, today, today.plusMonths(1), LoanStatus.RETURNED));
+
+        // when
+        ActiveLoanIndex index = new ActiveLoanIndex();
+        index.rebuild(repository);
+        index.remove(2L, 3L);
+        index.add(3L, 7L, 100L);
+
+        // then
+        long[] books = new long[2];
+        Assertions.assertEquals(6, index.size());
+        Assertions.assertEquals(3, index.countActive(1L));
+        Assertions.assertEquals(2, index.countActive(2L));
+        Assertions.assertEquals(0, index.countActive(99L));
+        Assertions.assertFalse(index.isLent(3L));
+        Assertions.assertTrue(index.isLent(7L));
+        Assertions.assertEquals(100L, index.activeLoanId(7L));
+        Assertions.assertEquals(3, index.borrowedBooks(1L, books));
+        Assertions.assertEquals(1, index.borrowedBooks(3L, books));
+        Assertions.assertEquals(7L, books[0]);
+    }
+
+    @Test
+    void lookups_shouldNotAllocate() {
+        // given
+        ActiveLoanIndex index = new ActiveLoanIndex();
+        for (long id = 1; id <= 10_000; id++) {
+            index.add(id % 1_000 + 1, id, id);
+        }
+        long[] books = new long[16];
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long checksum = 0;
+        for (int i = 0; i < 200_000; i++) {
+            checksum += lookup(index, i, books);
+        }
+
+        // when
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 200_000; i++) {
+            checksum += lookup(index, i, books);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        // then
+        Assertions.assertTrue(checksum > 0);
+        Assertions.assertTrue(allocated < 1_024, "allocated " + allocated + " bytes");
+    }
+
+    private static long lookup(ActiveLoanIndex index, int i, long[] books) {
+        long bookId = i % 12_000 + 1;
+        long userId = i % 1_100 + 1;
+        return (index.isLent(bookId) ? 1 : 0) + index.countActive(userId) + index.borrowedBooks(userId, books);
+    }
+}
@@ -0,0 +1,134 @@
+package org.library.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.library.model.*;
+import org.library.repository.InMemoryBookRepository;
+import org.library.repository.InMemoryLoanRepository;
+import org.library.util.ConnectionProvider;
+import org.library.util.Database;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.time.LocalDate;
+
+public class CachingRepositoryTest {
+
+    private ConnectionProvider previous;
+    private InMemoryBookRepository bookStore;
+    private CachingBookRepository books;
+    private CachingLoanRepository loans;
+    private Long bookId;
+
+    @BeforeEach
+    void setup() {
+        // Transactions only need a connection to commit or roll back; the rows live in memory.
+        previous = Database.getConnectionProvider();
+        Database.setConnectionProvider(operation -> connection());
+
+        bookStore = new InMemoryBookRepository();
+        books = new CachingBookRepository(bookStore);
+        loans = new CachingLoanRepository(new InMemoryLoanRepository());
+        bookId = bookStore.save(new Book(null, "Dune", "Frank Herbert", 1965, "Chilton", null, "DUNE-1",
+                BookStatus.AVAILABLE)).getBookID();
+        books.preload(bookStore.findById(bookId).orElseThrow());
+        books.markComplete();
+        loans.markComplete();
+    }
+
+    @AfterEach
+    void restore() {
+        Database.setConnectionProvider(previous);
+    }
+
+    @Test
+    void rolledBackBorrow_shouldLeaveNoTraceInTheCaches() {
+        // when
+        Assertions.assertThrows(IllegalStateException.class, () -> Database.inTransaction(() -> {
+            loans.save(loan());
+            Book book = books.findById(bookId).orElseThrow();
+            book.setStatus(BookStatus.BORROWED);
+            books.update(book);
+            throw new IllegalStateException("rolled back");
+        }));
+
+        // then
+        Assertions.assertTrue(loans.findActiveByBookId(bookId).isEmpty());
+        Assertions.assertEquals(0, loans.countActiveByUserId(1L));
+        Assertions.assertEquals(BookStatus.AVAILABLE, books.findById(bookId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void committedBorrow_shouldReachTheCachesAfterCommit() {
+        // when
+        Database.inTransaction(() -> {
+            loans.save(loan());
+            Book book = books.findById(bookId).orElseThrow();
+            book.setStatus(BookStatus.BORROWED);
+            books.update(book);
+
+            // Not visible outside the transaction until it commits.
+            Assertions.assertEquals(BookStatus.BORROWED, books.findById(bookId).orElseThrow().getStatus());
+            return null;
+        });
+
+        // then
+        Assertions.assertEquals(1, loans.findActiveByBookId(bookId).size());
+        Book cached = books.findById(bookId).orElseThrow();
+        Assertions.assertEquals(BookStatus.BORROWED, cached.getStatus());
+        Assertions.assertEquals(1, cached.getVersion());
+    }
+
+    @Test
+    void lostUpdate_shouldReloadTheBookInsteadOfDroppingIt() {
+        // given
+        Book stale = books.findById(bookId).orElseThrow();
+        Book changed = bookStore.findById(bookId).orElseThrow();
+        changed.setTitle("Dune Messiah");
+        bookStore.update(changed);
+
+        // when
+        stale.setStatus(BookStatus.BORROWED);
+        Boolean updated = books.update(stale);
+
+        // then
+        Assertions.assertFalse(updated);
+        Book current = books.findById(bookId).orElseThrow();
+        Assertions.assertEquals("Dune Messiah", current.getTitle());
+        Assertions.assertEquals(1, current.getVersion());
+
+        current.setStatus(BookStatus.BORROWED);
+        Assertions.assertTrue(books.update(current));
+    }
+
+    @Test
+    void findById_shouldHandOutCopies() {
+        // given
+        Book book = books.findById(bookId).orElseThrow();
+
+        // when
+        book.setStatus(BookStatus.BORROWED);
+
+        // then
+        Assertions.assertEquals(BookStatus.AVAILABLE, books.findById(bookId).orElseThrow().getStatus());
+        Assertions.assertEquals(1, books.findAvailable().size());
+    }
+
+    private Loan loan() {
+        return new Loan(1L, bookId, LocalDate.now(), null, LocalDate.now().plusMonths(1), LoanStatus.ACTIVE);
+    }
+
+    private static Connection connection() {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "setAutoCommit", "commit", "rollback", "close" -> null;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,66 @@
+package org.library.catalog;
+
+import org.library.model.Book;
+import org.library.model.BookStatus;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+
+// Usage: CompactCatalogBenchmark [books] [authors] [publishers]
+// Run with -XX:+UseParallelGC; G1 region accounting makes used-heap deltas unreliable.
+// Measures retained heap of a List<Book> against the compact catalog built from the same rows.
+public class CompactCatalogBenchmark {
+
+    public static void main(String[] args) {
+        int books = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int authors = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int publishers = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+        long baseline = usedHeap();
+        List<Book> list = new ArrayList<>(books);
+        for (long id = 1; id <= books; id++) {
+            list.add(book(id, authors, publishers));
+        }
+        long listBytes = usedHeap() - baseline;
+        Reference.reachabilityFence(list);
+
+        list = null;
+        baseline = usedHeap();
+        CompactCatalog.Builder builder = CompactCatalog.builder();
+        for (long id = 1; id <= books; id++) {
+            builder.add(book(id, authors, publishers));
+        }
+        CompactCatalog catalog = builder.build();
+        builder = null;
+        long catalogBytes = usedHeap() - baseline;
+
+        long began = System.nanoTime();
+        long checksum = 0;
+        for (Book book : catalog.books()) {
+            checksum += book.getYear();
+        }
+        long scanned = System.nanoTime() - began;
+
+        System.out.printf("books=%d List<Book>=%.1f bytes/book compact=%.1f bytes/book (estimate %.1f) "
+                        + "full scan=%.0f ms checksum=%d%n",
+                catalog.size(), (double) listBytes / books, (double) catalogBytes / books,
+                catalog.bytesPerBook(), scanned / 1e6, checksum);
+    }
+
+    // Copies share titles per edition and repeat author/publisher strings, as rows read from JDBC do.
+    private static Book book(long id, int authors, int publishers) {
+        long edition = id / 3;
+        return new Book(id, new String("Title " + edition), new String("Author " + edition % authors),
+                1950 + (int) (edition % 70), new String("Publisher " + edition % publishers),
+                String.valueOf(9780000000000L + edition), "BC" + id, BookStatus.AVAILABLE);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
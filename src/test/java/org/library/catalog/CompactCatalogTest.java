@@ -0,0 +1,71 @@
+package org.library.catalog;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.library.model.Book;
+import org.library.model.BookStatus;
+
+import java.util.List;
+
+public class CompactCatalogTest {
+
+    @Test
+    void catalog_shouldRoundTripBooksInIdOrder() {
+        // given
+        List<Book> books = List.of(
+                new Book(30L, "Emma", "Jane Austen", 1815, "John Murray", "0141439580", "BC-30", BookStatus.BORROWED),
+                new Book(10L, "Persuasion", "Jane Austen", 1817, "John Murray", "9780141439687", "BC-10", BookStatus.AVAILABLE),
+                new Book(20L, "Emma", "Jane Austen", 1815, "John Murray", "ISBN-X", null, BookStatus.AVAILABLE),
+                new Book(40L, "Dune", "Frank Herbert", -44, "Chilton", null, "BÇ-40", BookStatus.BORROWED));
+
+        // when
+        CompactCatalog catalog = CompactCatalog.of(books);
+
+        // then
+        Assertions.assertEquals(4, catalog.size());
+        Assertions.assertEquals(List.of(10L, 20L, 30L, 40L), catalog.books().stream().map(Book::getBookID).toList());
+        for (Book book : books) {
+            Book view = catalog.findById(book.getBookID()).orElseThrow();
+            Assertions.assertEquals(book, view);
+            Assertions.assertEquals(book.getBookID(), view.getBookID());
+            Assertions.assertEquals(book.getBarcode(), view.getBarcode());
+            Assertions.assertEquals(book.getStatus(), view.getStatus());
+        }
+        Assertions.assertTrue(catalog.findById(25L).isEmpty());
+        Assertions.assertEquals(3, catalog.distinctTitles());
+        Assertions.assertEquals(2, catalog.distinctAuthors());
+    }
+
+    @Test
+    void catalog_shouldQueryByDictionaryColumns() {
+        // given
+        CompactCatalog.Builder builder = CompactCatalog.builder();
+        for (long id = 1; id <= 5_000; id++) {
+            builder.add(new Book(id, "Title " + id % 100, "Author " + id % 50, 2000, "Publisher " + id % 7,
+                    "9780306406157", "BC" + id, id % 2 == 0 ? BookStatus.AVAILABLE : BookStatus.BORROWED));
+        }
+
+        // when
+        CompactCatalog catalog = builder.build();
+
+        // then
+        Assertions.assertEquals(100, catalog.findByAuthor("Author 7").size());
+        Assertions.assertTrue(catalog.findByAuthor("Nobody").isEmpty());
+        Assertions.assertEquals(2_500, catalog.findAvailable().size());
+        Assertions.assertTrue(catalog.findByPublisher("Publisher 3").stream()
+                .allMatch(book -> book.getPublisher().equals("Publisher 3")));
+        Assertions.assertTrue(catalog.bytesPerBook() < 80, "bytes/book: " + catalog.bytesPerBook());
+    }
+
+    @Test
+    void builder_shouldRejectDuplicateIds() {
+        // given
+        CompactCatalog.Builder builder = CompactCatalog.builder()
+                .add(new Book(2L, "A", "B", 2000, "C", null, null, BookStatus.AVAILABLE))
+                .add(new Book(1L, "A", "B", 2000, "C", null, null, BookStatus.AVAILABLE))
+                .add(new Book(2L, "A", "B", 2000, "C", null, null, BookStatus.AVAILABLE));
+
+        // when / then
+        Assertions.assertThrows(IllegalArgumentException.class, builder::build);
+    }
+}
@@ -0,0 +1,103 @@
+package org.library.export;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.library.model.Loan;
+import org.library.model.LoanStatus;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LoanColumnarFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void forEach_shouldRoundTripLoansAcrossBlocks() throws IOException {
+        // given
+        List<Loan> loans = loans(1_000);
+        Path file = write(loans, 128);
+
+        // when
+        List<Loan> read = new ArrayList<>();
+        try (LoanColumnarReader reader = new LoanColumnarReader(file)) {
+            reader.forEach(read::add);
+
+            // then
+            Assertions.assertEquals(1_000, reader.getRowCount());
+            Assertions.assertEquals(8, reader.getBlockCount());
+        }
+        Assertions.assertEquals(loans, read);
+    }
+
+    @Test
+    void scan_shouldDecodeSingleColumn() throws IOException {
+        // given
+        List<Loan> loans = loans(300);
+        Path file = write(loans, 100);
+
+        // when
+        List<Long> bookIds = new ArrayList<>();
+        List<Long> returnDays = new ArrayList<>();
+        try (LoanColumnarReader reader = new LoanColumnarReader(file)) {
+            reader.scan(LoanColumn.BOOK_ID, bookIds::add);
+            reader.scan(LoanColumn.RETURN_DATE, returnDays::add);
+        }
+
+        // then
+        Assertions.assertEquals(loans.stream().map(Loan::getBookId).toList(), bookIds);
+        Assertions.assertEquals(
+                loans.stream().map(loan -> loan.getReturnDate() == null
+                        ? LoanColumnarReader.NULL
+                        : loan.getReturnDate().toEpochDay()).toList(),
+                returnDays);
+    }
+
+    @Test
+    void scan_shouldDecodeDictionaryEncodedStatus() throws IOException {
+        // given
+        List<Loan> loans = loans(50);
+        Path file = write(loans, 16);
+
+        // when
+        List<LoanStatus> statuses = new ArrayList<>();
+        try (LoanColumnarReader reader = new LoanColumnarReader(file)) {
+            reader.scan(LoanColumn.STATUS, ordinal -> statuses.add(LoanStatus.values()[(int) ordinal]));
+        }
+
+        // then
+        Assertions.assertEquals(loans.stream().map(Loan::getStatus).toList(), statuses);
+    }
+
+    private Path write(List<Loan> loans, int blockRows) throws IOException {
+        Path file = directory.resolve("loans.col");
+        try (LoanColumnarWriter writer = new LoanColumnarWriter(file, blockRows)) {
+            loans.forEach(writer);
+        }
+        return file;
+    }
+
+    private static List<Loan> loans(int count) {
+        List<Loan> loans = new ArrayList<>();
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        for (int i = 0; i < count; i++) {
+            LocalDate loanDate = start.plusDays(i / 3);
+            boolean returned = i % 4 != 0;
+            loans.add(new Loan(
+                    1_000L + i * 7L,
+                    (long) (i % 97),
+                    (long) (i * 31 % 1_000),
+                    loanDate,
+                    returned ? loanDate.plusDays(i % 20) : null,
+                    loanDate.plusMonths(1),
+                    returned ? LoanStatus.RETURNED : (i % 8 == 0 ? LoanStatus.OVERDUE : LoanStatus.ACTIVE)
+            ));
+        }
+        return loans;
+    }
+}
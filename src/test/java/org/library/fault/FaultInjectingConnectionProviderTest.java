@@ -0,0 +1,123 @@
+package org.library.fault;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.library.model.Loan;
+import org.library.model.LoanStatus;
+import org.library.repository.LoanRepository;
+import org.library.util.ConnectionProvider;
+import org.library.util.DbOperation;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+public class FaultInjectingConnectionProviderTest {
+
+    @Test
+    void repositoryMethodRule_shouldFailOnlyThatMethodWithPostgresSqlState() {
+        // given
+        FaultProfile profile = FaultProfile.builder()
+                .name("test")
+                .method("LoanRepository.save", FaultRule.builder().serializationFailureRate(1).build())
+                .build();
+        FaultInjectingConnectionProvider faults = new FaultInjectingConnectionProvider(stubDatabase(), profile);
+        LoanRepository loans = new LoanRepository(faults);
+
+        // when
+        RuntimeException failure = Assertions.assertThrows(RuntimeException.class, () -> loans.save(
+                new Loan(1L, 2L, LocalDate.now(), null, LocalDate.now().plusDays(30), LoanStatus.ACTIVE)));
+
+        // then
+        Assertions.assertEquals("Failed to save loan", failure.getMessage());
+        Assertions.assertEquals(FaultInjectingConnectionProvider.SERIALIZATION_FAILURE,
+                ((SQLException) failure.getCause()).getSQLState());
+        Assertions.assertTrue(loans.findById(7L).isEmpty());
+        Assertions.assertEquals(1, faults.getSerializationFailures());
+        Assertions.assertEquals(2, faults.getStatements());
+    }
+
+    @Test
+    void defaults_shouldInjectConnectionFailuresTimeoutsAndLatency() throws SQLException {
+        // given
+        FaultInjectingConnectionProvider failing = new FaultInjectingConnectionProvider(stubDatabase(),
+                FaultProfile.builder().name("down").defaults(FaultRule.builder().connectFailureRate(1).build()).build());
+        FaultInjectingConnectionProvider timingOut = new FaultInjectingConnectionProvider(stubDatabase(),
+                FaultProfile.builder().name("timeouts").defaults(FaultRule.builder()
+                        .statementTimeoutRate(1)
+                        .statementTimeout(Duration.ofMillis(50))
+                        .build()).build());
+        FaultInjectingConnectionProvider slow = new FaultInjectingConnectionProvider(stubDatabase(),
+                FaultProfile.builder().name("slow").defaults(FaultRule.builder()
+                        .statementLatency(LatencyDistribution.fixed(Duration.ofMillis(20)))
+                        .build()).build());
+
+        // when
+        SQLException refused = Assertions.assertThrows(SQLException.class,
+                () -> failing.getConnection(DbOperation.READ));
+        long started = System.nanoTime();
+        SQLException canceled = Assertions.assertThrows(SQLException.class,
+                () -> timingOut.getConnection(DbOperation.READ).prepareStatement("SELECT 1").executeQuery());
+        long timeoutNanos = System.nanoTime() - started;
+        started = System.nanoTime();
+        slow.getConnection(DbOperation.READ).prepareStatement("SELECT 1").executeQuery();
+        long slowNanos = System.nanoTime() - started;
+
+        // then
+        Assertions.assertEquals(FaultInjectingConnectionProvider.CONNECTION_FAILURE, refused.getSQLState());
+        Assertions.assertEquals(FaultInjectingConnectionProvider.QUERY_CANCELED, canceled.getSQLState());
+        Assertions.assertTrue(timeoutNanos >= 50_000_000L, "timeout after " + timeoutNanos);
+        Assertions.assertTrue(slowNanos >= 20_000_000L, "slow statement took " + slowNanos);
+        Assertions.assertEquals(Duration.ofMillis(20), slow.getInjectedDelay());
+    }
+
+    @Test
+    void logNormal_shouldMatchRequestedMedianAndTail() {
+        // given
+        LatencyDistribution distribution = LatencyDistribution.logNormal(Duration.ofMillis(2), Duration.ofMillis(40));
+        long[] samples = new long[100_000];
+
+        // when
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = distribution.sampleNanos(ThreadLocalRandom.current());
+        }
+        Arrays.sort(samples);
+
+        // then
+        Assertions.assertEquals(2_000_000, samples[samples.length / 2], 100_000);
+        Assertions.assertEquals(40_000_000, samples[samples.length * 99 / 100], 4_000_000);
+        for (String name : FaultProfile.NAMES) {
+            Assertions.assertEquals(name, FaultProfile.named(name).getName());
+        }
+    }
+
+    // Connections whose queries succeed and return a single id column.
+    private static ConnectionProvider stubDatabase() {
+        return operation -> stub(Connection.class, method -> switch (method) {
+            case "prepareStatement" -> stub(PreparedStatement.class, statementMethod -> switch (statementMethod) {
+                case "executeQuery" -> stub(ResultSet.class, resultMethod -> switch (resultMethod) {
+                    case "getLong" -> 7L;
+                    default -> false;
+                });
+                default -> null;
+            });
+            default -> null;
+        });
+    }
+
+    private static <T> T stub(Class<T> type, Function<String, Object> answers) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    Object answer = answers.apply(method.getName());
+                    return answer == null && method.getReturnType() == boolean.class ? false
+                            : answer == null && method.getReturnType() == int.class ? 0 : answer;
+                }));
+    }
+}
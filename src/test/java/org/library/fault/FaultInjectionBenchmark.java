@@ -0,0 +1,51 @@
+package org.library.fault;
+
+import org.library.LibraryBackend;
+import org.library.loadgen.LoadGenerator;
+import org.library.loadgen.LoadOptions;
+import org.library.loadgen.WorkloadMix;
+import org.library.util.ConnectionProvider;
+import org.library.util.Database;
+
+// Runs the same seeded open-loop borrow/return workload once per fault profile and prints the
+// load generator report plus the injected fault counts. Needs Postgres (library.db.* properties)
+// and a WARN-level logback configuration:
+//   java -Dlogback.configurationFile=warn.xml ... org.library.fault.FaultInjectionBenchmark [rate] [seconds]
+public class FaultInjectionBenchmark {
+
+    public static void main(String[] args) {
+        double rate = args.length > 0 ? Double.parseDouble(args[0]) : 200;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        LoadOptions options = LoadOptions.builder()
+                .backend("jdbc")
+                .rate(rate)
+                .durationSeconds(seconds)
+                .warmupSeconds(5)
+                .users(200)
+                .books(2_000)
+                .mix(WorkloadMix.parse("login=5,search=35,borrow=30,return=30"))
+                .build();
+
+        ConnectionProvider database = Database.getConnectionProvider();
+        LibraryBackend backend = LibraryBackend.jdbc();
+
+        for (String name : FaultProfile.NAMES) {
+            // Seeding runs without faults; only the measured workload sees them.
+            Database.setConnectionProvider(database);
+            LoadGenerator generator = new LoadGenerator(backend, options);
+            generator.seed();
+
+            FaultInjectingConnectionProvider faults =
+                    new FaultInjectingConnectionProvider(database, FaultProfile.named(name));
+            Database.setConnectionProvider(faults);
+            generator.run();
+
+            System.out.println("=== " + name + " ===");
+            generator.printReport(System.out);
+            System.out.println(faults);
+            System.out.println();
+        }
+        Database.setConnectionProvider(database);
+    }
+}
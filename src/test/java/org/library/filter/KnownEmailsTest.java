@@ -0,0 +1,86 @@
+package org.library.filter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.library.model.User;
+import org.library.repository.InMemoryUserRepository;
+import org.library.service.UserService;
+import org.library.util.Result;
+import org.library.util.TransactionRunner;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class KnownEmailsTest {
+
+    @Test
+    void bloomFilter_shouldHaveNoFalseNegativesAndStayNearTargetRate() {
+        // given
+        BloomFilter filter = new BloomFilter(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filter.put("user" + i + "@example.com");
+        }
+
+        // when
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            Assertions.assertTrue(filter.mightContain("user" + i + "@example.com"));
+            if (filter.mightContain("absent" + i + "@example.com")) {
+                falsePositives++;
+            }
+        }
+
+        // then
+        Assertions.assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+        Assertions.assertEquals(0.01, filter.expectedFalsePositiveRate(), 0.005);
+    }
+
+    @Test
+    void userService_shouldSkipLookupForUnknownEmails() {
+        // given
+        CountingUserRepository repository = new CountingUserRepository();
+        repository.save(new User("Ann Smith", "ann@example.com", "hash"));
+
+        KnownEmails knownEmails = KnownEmails.build(repository, 1_000, 0.01);
+        UserService userService = new UserService(repository, null);
+        userService.setTransactionRunner(TransactionRunner.NONE);
+        userService.setKnownEmails(knownEmails);
+
+        // when
+        Result login = userService.loginUser("bot@example.com", "Password1");
+        Result registered = userService.registerUser("Bob@Example.com", "Bob Jones", "Password1");
+        Result loginAfterRegistration = userService.loginUser("bob@example.com", "Password1");
+
+        // then
+        Assertions.assertFalse(login.getSuccess());
+        Assertions.assertEquals("User with email bot@example.com does not exist.", login.getMessage());
+        Assertions.assertTrue(registered.getSuccess());
+        Assertions.assertTrue(loginAfterRegistration.getSuccess());
+        Assertions.assertEquals(1, repository.emailLookups.get());
+        Assertions.assertEquals(1, knownEmails.getDefinitelyAbsent());
+        Assertions.assertEquals(0.0, knownEmails.observedFalsePositiveRate());
+    }
+
+    @Test
+    void load_shouldNormalizeStoredEmails() {
+        // given
+        InMemoryUserRepository repository = new InMemoryUserRepository();
+        repository.save(new User("Ann Smith", " Ann@Example.com", "hash"));
+
+        // when
+        KnownEmails knownEmails = KnownEmails.build(repository, 1_000, 0.01);
+
+        // then
+        Assertions.assertTrue(knownEmails.mightExist("ann@example.com"));
+    }
+
+    private static class CountingUserRepository extends InMemoryUserRepository {
+        private final AtomicInteger emailLookups = new AtomicInteger();
+
+        @Override
+        public Optional<User> findByEmail(String email) {
+            emailLookups.incrementAndGet();
+            return super.findByEmail(email);
+        }
+    }
+}
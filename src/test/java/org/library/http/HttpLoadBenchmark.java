@@ -0,0 +1,129 @@
+package org.library.http;
+
+import org.library.util.Json;
+import org.library.util.LatencyHistogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Usage: HttpLoadBenchmark [clients] [seconds] [books]
+// Each client is a virtual thread with its own session looping over a read-heavy mix
+// (available pages, title search, borrow, return) against the in-memory backend.
+public class HttpLoadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int books = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+
+        Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+        for (String operation : new String[]{"available", "search", "borrow", "return"}) {
+            latencies.put(operation, new LatencyHistogram());
+        }
+        AtomicLong failures = new AtomicLong();
+
+        try (InMemoryLibrary library = new InMemoryLibrary(clients, books)) {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+            String base = library.baseUrl();
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+            long began = System.nanoTime();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int c = 1; c <= clients; c++) {
+                    int user = c;
+                    executor.submit(() -> {
+                        try {
+                            runClient(client, base, user, books, deadline, latencies, failures);
+                        } catch (Exception e) {
+                            failures.incrementAndGet();
+                        }
+                    });
+                }
+            }
+            double elapsed = (System.nanoTime() - began) / 1e9;
+
+            long total = latencies.values().stream().mapToLong(LatencyHistogram::count).sum();
+            System.out.printf("clients=%d books=%d requests=%d failures=%d throughput=%.0f req/s%n",
+                    clients, books, total, failures.get(), total / elapsed);
+            latencies.forEach((operation, histogram) -> System.out.printf(
+                    "  %-9s count=%-8d p50=%6.2f ms p99=%7.2f ms p99.9=%7.2f ms max=%7.2f ms%n",
+                    operation, histogram.count(), histogram.percentileNanos(50) / 1e6,
+                    histogram.percentileNanos(99) / 1e6, histogram.percentileNanos(99.9) / 1e6,
+                    histogram.maxNanos() / 1e6));
+            System.out.println("server: " + client.send(HttpRequest.newBuilder(URI.create(base + "/api/metrics")).build(),
+                    HttpResponse.BodyHandlers.ofString()).body());
+        }
+    }
+
+    private static void runClient(HttpClient client, String base, int user, int books, long deadline,
+                                  Map<String, LatencyHistogram> latencies, AtomicLong failures) throws Exception {
+        HttpResponse<String> login = client.send(post(base + "/api/login", null,
+                "{\"email\":\"" + InMemoryLibrary.email(user) + "\",\"password\":\"" + InMemoryLibrary.PASSWORD + "\"}"),
+                HttpResponse.BodyHandlers.ofString());
+        if (login.statusCode() != 200) {
+            failures.incrementAndGet();
+            return;
+        }
+        String token = Json.parseObject(login.body()).get("token");
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long borrowed = 0;
+
+        while (System.nanoTime() < deadline) {
+            int roll = random.nextInt(100);
+            String operation;
+            HttpRequest request;
+            if (roll < 60) {
+                operation = "available";
+                request = get(base + "/api/books/available?limit=50&after=" + random.nextInt(books));
+            } else if (roll < 80) {
+                operation = "search";
+                request = get(base + "/api/books/search?title=Title%20" + random.nextInt(100));
+            } else if (borrowed == 0) {
+                operation = "borrow";
+                borrowed = 1 + random.nextInt(books);
+                request = post(base + "/api/loans", token, "{\"bookId\":" + borrowed + "}");
+            } else {
+                operation = "return";
+                request = post(base + "/api/returns", token, "{\"bookId\":" + borrowed + "}");
+                borrowed = 0;
+            }
+
+            long start = System.nanoTime();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            latencies.get(operation).record(System.nanoTime() - start);
+
+            if (operation.equals("borrow") && response.statusCode() != 201) {
+                // Someone else holds the book; nothing to return.
+                borrowed = 0;
+            } else if (response.statusCode() >= 400 && response.statusCode() != 409) {
+                failures.incrementAndGet();
+            }
+        }
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).build();
+    }
+
+    private static HttpRequest post(String url, String token, String body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return request.build();
+    }
+}
@@ -0,0 +1,76 @@
+package org.library.http;
+
+import org.library.cache.ActiveLoanIndex;
+import org.library.model.Book;
+import org.library.model.BookStatus;
+import org.library.model.User;
+import org.library.repository.InMemoryBookRepository;
+import org.library.repository.InMemoryLoanRepository;
+import org.library.repository.InMemoryUserRepository;
+import org.library.service.BookService;
+import org.library.service.LibraryService;
+import org.library.service.LoanService;
+import org.library.service.Sessions;
+import org.library.service.UserService;
+import org.library.util.TransactionRunner;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+// Services and an HTTP server over in-memory repositories, seeded with numbered users and books.
+public final class InMemoryLibrary implements AutoCloseable {
+    public static final String PASSWORD = "Secret#123";
+
+    public final InMemoryUserRepository users = new InMemoryUserRepository();
+    public final InMemoryBookRepository books = new InMemoryBookRepository();
+    public final InMemoryLoanRepository loans = new InMemoryLoanRepository();
+    public final LoanService loanService = new LoanService();
+    public final UserService userService = new UserService(users, loanService);
+    public final BookService bookService = new BookService(books);
+    public final LibraryService libraryService = new LibraryService(bookService, loanService, books);
+    public final LibraryHttpServer server;
+
+    public InMemoryLibrary(int userCount, int bookCount) throws IOException {
+        Sessions sessions = new Sessions();
+        loanService.setUserRepository(users);
+        loanService.setBookRepository(books);
+        loanService.setLoanRepository(loans);
+        loanService.setTransactionRunner(TransactionRunner.NONE);
+        loanService.setActiveLoanIndex(new ActiveLoanIndex());
+        loanService.setSessions(sessions);
+        userService.setTransactionRunner(TransactionRunner.NONE);
+        userService.setSessions(sessions);
+
+        String hash = userService.hashPassword(PASSWORD);
+        for (int i = 1; i <= userCount; i++) {
+            users.save(new User("User " + i, email(i), hash));
+        }
+        for (int i = 1; i <= bookCount; i++) {
+            books.save(new Book(null, "Title " + i % 100, "Author " + i % 37, 2000 + i % 20, "Publisher",
+                    null, "BC" + i, BookStatus.AVAILABLE));
+        }
+
+        server = new LibraryHttpServer(new InetSocketAddress("127.0.0.1", 0),
+                userService, bookService, loanService, users);
+        server.start();
+    }
+
+    public void logInAll(int userCount) {
+        for (int i = 1; i <= userCount; i++) {
+            userService.loginUser(email(i), PASSWORD);
+        }
+    }
+
+    public static String email(int user) {
+        return "user" + user + "@example.com";
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.port();
+    }
+
+    @Override
+    public void close() {
+        server.close();
+    }
+}
@@ -0,0 +1,125 @@
+package org.library.http;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.library.model.BookStatus;
+import org.library.util.Json;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class LibraryHttpServerTest {
+    private static final Pattern BOOK_ID = Pattern.compile("\\{\"id\":(\\d+)");
+    private static final Pattern NEXT = Pattern.compile("\"next\":(\\d+|null)");
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void api_shouldLoginBorrowReturnAndEnforceSessions() throws Exception {
+        try (InMemoryLibrary library = new InMemoryLibrary(2, 10)) {
+            // given
+            HttpResponse<String> login = post(library, "/api/login", null,
+                    "{\"email\":\"" + InMemoryLibrary.email(1) + "\",\"password\":\"" + InMemoryLibrary.PASSWORD + "\"}");
+            String token = Json.parseObject(login.body()).get("token");
+
+            // when
+            HttpResponse<String> anonymous = post(library, "/api/loans", null, "{\"bookId\":1}");
+            HttpResponse<String> borrowed = post(library, "/api/loans", token, "{\"bookId\":1}");
+            HttpResponse<String> again = post(library, "/api/loans", token, "{\"bookId\":1}");
+            HttpResponse<String> malformed = post(library, "/api/loans", token, "{\"bookId\":");
+            HttpResponse<String> returned = post(library, "/api/returns", token, "{\"bookId\":1}");
+            HttpResponse<String> wrongPassword = post(library, "/api/login", null,
+                    "{\"email\":\"" + InMemoryLibrary.email(2) + "\",\"password\":\"nope\"}");
+            HttpResponse<String> unknownPath = get(library, "/api/loans/1");
+
+            // then
+            Assertions.assertEquals(200, login.statusCode(), login.body());
+            Assertions.assertEquals(401, anonymous.statusCode());
+            Assertions.assertEquals(201, borrowed.statusCode(), borrowed.body());
+            Assertions.assertEquals(409, again.statusCode());
+            Assertions.assertEquals(400, malformed.statusCode());
+            Assertions.assertEquals(200, returned.statusCode(), returned.body());
+            Assertions.assertEquals(401, wrongPassword.statusCode());
+            Assertions.assertEquals(404, unknownPath.statusCode());
+            Assertions.assertEquals(0, library.loanService.countActiveLoans(1L));
+        }
+    }
+
+    @Test
+    void login_shouldReplaceASessionTheClientLost() throws Exception {
+        try (InMemoryLibrary library = new InMemoryLibrary(1, 1)) {
+            // given
+            String credentials = "{\"email\":\" " + InMemoryLibrary.email(1).toUpperCase()
+                    + "\",\"password\":\"" + InMemoryLibrary.PASSWORD + "\"}";
+            String lost = Json.parseObject(post(library, "/api/login", null, credentials).body()).get("token");
+
+            // when
+            HttpResponse<String> again = post(library, "/api/login", null, credentials);
+            String token = Json.parseObject(again.body()).get("token");
+            HttpResponse<String> withLost = post(library, "/api/loans", lost, "{\"bookId\":1}");
+            HttpResponse<String> borrowed = post(library, "/api/loans", token, "{\"bookId\":1}");
+
+            // then
+            Assertions.assertEquals(200, again.statusCode(), again.body());
+            Assertions.assertEquals("1", Json.parseObject(again.body()).get("userId"));
+            Assertions.assertEquals(401, withLost.statusCode());
+            Assertions.assertEquals(201, borrowed.statusCode(), borrowed.body());
+        }
+    }
+
+    @Test
+    void availableBooks_shouldPageThroughTheWholeCatalog() throws Exception {
+        try (InMemoryLibrary library = new InMemoryLibrary(1, 2_345)) {
+            // given
+            library.books.updateStatus(7L, BookStatus.BORROWED);
+            List<Long> seen = new ArrayList<>();
+            String after = "0";
+
+            // when
+            while (true) {
+                HttpResponse<String> page = get(library, "/api/books/available?limit=500&after=" + after);
+                Assertions.assertEquals(200, page.statusCode());
+                Matcher ids = BOOK_ID.matcher(page.body());
+                while (ids.find()) {
+                    seen.add(Long.parseLong(ids.group(1)));
+                }
+                Matcher next = NEXT.matcher(page.body());
+                Assertions.assertTrue(next.find(), page.body());
+                if (next.group(1).equals("null")) {
+                    break;
+                }
+                after = next.group(1);
+            }
+            HttpResponse<String> search = get(library, "/api/books/search?title=Title%2042");
+            HttpResponse<String> metrics = get(library, "/api/metrics");
+
+            // then
+            Assertions.assertEquals(2_344, seen.size());
+            Assertions.assertFalse(seen.contains(7L));
+            Assertions.assertEquals(seen.stream().sorted().toList(), seen);
+            Assertions.assertEquals(24, BOOK_ID.matcher(search.body()).results().count());
+            Assertions.assertTrue(metrics.body().contains("\"GET /api/books/available\":{\"count\":5"), metrics.body());
+        }
+    }
+
+    private HttpResponse<String> post(InMemoryLibrary library, String path, String token, String body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(library.baseUrl() + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(InMemoryLibrary library, String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(library.baseUrl() + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
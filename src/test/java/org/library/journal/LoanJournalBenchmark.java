@@ -0,0 +1,57 @@
+package org.library.journal;
+
+import org.library.event.LoanEvent;
+import org.library.model.Loan;
+import org.library.model.LoanStatus;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+
+public class LoanJournalBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int appendsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        Path directory = Files.createTempDirectory("loan-journal-bench");
+        Loan loan = new Loan(1L, 1L, 1L, LocalDate.now(), null, LocalDate.now().plusMonths(1), LoanStatus.ACTIVE);
+        LoanEvent event = LoanEvent.borrowed(loan);
+
+        try (LoanJournal journal = new LoanJournal(directory)) {
+            // warm-up
+            for (int i = 0; i < 100_000; i++) {
+                journal.append(event);
+            }
+
+            CountDownLatch start = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(threads);
+            for (int t = 0; t < threads; t++) {
+                Thread.ofPlatform().start(() -> {
+                    try {
+                        start.await();
+                        for (int i = 0; i < appendsPerThread; i++) {
+                            journal.append(event);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+
+            long began = System.nanoTime();
+            start.countDown();
+            done.await();
+            long appended = journal.getAppendedSequence();
+            journal.awaitDurable(appended);
+            long elapsed = System.nanoTime() - began;
+
+            long total = (long) threads * appendsPerThread;
+            System.out.printf("threads=%d appends=%d elapsed=%.1f ms throughput=%.0f appends/s (durable)%n",
+                    threads, total, elapsed / 1e6, total / (elapsed / 1e9));
+        }
+    }
+}
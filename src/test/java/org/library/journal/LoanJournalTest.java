@@ -0,0 +1,147 @@
+package org.library.journal;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.library.event.LoanEvent;
+import org.library.event.LoanEventType;
+import org.library.model.Loan;
+import org.library.model.LoanStatus;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+public class LoanJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void append_shouldBeReadBackInOrder() {
+        // given
+        try (LoanJournal journal = new LoanJournal(directory)) {
+            journal.append(LoanEvent.borrowed(loan(1L, 10L, 100L)));
+            journal.append(LoanEvent.returned(loan(1L, 10L, 100L), LocalDate.of(2025, 2, 1)));
+        }
+
+        // when
+        List<LoanEvent> events = readAll(new LoanJournalReader(directory));
+
+        // then
+        Assertions.assertEquals(2, events.size());
+        Assertions.assertEquals(1L, events.get(0).getSequence());
+        Assertions.assertEquals(LoanEventType.BORROWED, events.get(0).getType());
+        Assertions.assertEquals(LoanEventType.RETURNED, events.get(1).getType());
+        Assertions.assertEquals(LocalDate.of(2025, 2, 1), events.get(1).getDate());
+    }
+
+    @Test
+    void append_shouldRollSegmentsAndContinueAfterReopen() {
+        // given
+        int segmentSize = JournalRecord.SIZE * 4;
+        try (LoanJournal journal = new LoanJournal(directory, segmentSize, 1)) {
+            for (long i = 1; i <= 10; i++) {
+                journal.append(LoanEvent.borrowed(loan(i, i, i)));
+            }
+        }
+
+        // when
+        try (LoanJournal journal = new LoanJournal(directory, segmentSize, 1)) {
+            long sequence = journal.append(LoanEvent.borrowed(loan(11L, 11L, 11L)));
+            journal.awaitDurable(sequence);
+
+            // then
+            Assertions.assertEquals(11L, sequence);
+            Assertions.assertTrue(journal.getDurableSequence() >= sequence);
+        }
+
+        List<LoanEvent> events = readAll(new LoanJournalReader(directory));
+        Assertions.assertEquals(11, events.size());
+        Assertions.assertEquals(11L, events.getLast().getLoanId());
+    }
+
+    @Test
+    void reader_shouldStartFromRequestedSequence() {
+        // given
+        try (LoanJournal journal = new LoanJournal(directory, JournalRecord.SIZE * 3, 1)) {
+            for (long i = 1; i <= 7; i++) {
+                journal.append(LoanEvent.borrowed(loan(i, i, i)));
+            }
+        }
+
+        // when
+        List<LoanEvent> events = readAll(new LoanJournalReader(directory, 5));
+
+        // then
+        Assertions.assertEquals(List.of(5L, 6L, 7L), events.stream().map(LoanEvent::getSequence).toList());
+    }
+
+    @Test
+    void replay_shouldRebuildLoanState() {
+        // given
+        try (LoanJournal journal = new LoanJournal(directory)) {
+            journal.append(LoanEvent.borrowed(loan(1L, 10L, 100L)));
+            journal.append(LoanEvent.borrowed(loan(2L, 10L, 101L)));
+            journal.append(LoanEvent.returned(loan(1L, 10L, 100L), LocalDate.of(2025, 2, 1)));
+            journal.append(LoanEvent.statusChanged(loan(2L, 10L, 101L), LoanStatus.LOST));
+        }
+
+        // when
+        Map<Long, Loan> loans = LoanJournalReplay.replay(directory);
+
+        // then
+        Assertions.assertEquals(2, loans.size());
+        Assertions.assertEquals(LoanStatus.RETURNED, loans.get(1L).getStatus());
+        Assertions.assertEquals(LocalDate.of(2025, 2, 1), loans.get(1L).getReturnDate());
+        Assertions.assertEquals(LoanStatus.LOST, loans.get(2L).getStatus());
+    }
+
+    @Test
+    void legacySegment_shouldReadWithoutLoanDateAndContinueInANewSegment() throws Exception {
+        // given
+        // A version 1 segment: no header, and the loan date bytes were unused padding.
+        ByteBuffer legacy = ByteBuffer.allocate(JournalRecord.SIZE * 4);
+        List<LoanEvent> written = List.of(LoanEvent.borrowed(loan(1L, 10L, 100L)),
+                LoanEvent.returned(loan(1L, 10L, 100L), LocalDate.of(2025, 1, 20)));
+        for (int i = 0; i < written.size(); i++) {
+            int offset = i * JournalRecord.SIZE;
+            JournalRecord.write(legacy, offset, written.get(i).withSequence(i + 1));
+            legacy.putLong(offset + 52, 0);
+            CRC32C crc = new CRC32C();
+            crc.update(legacy.slice(offset, 60));
+            legacy.putInt(offset + 60, (int) crc.getValue());
+        }
+        Files.write(directory.resolve(String.format("segment-%020d.journal", 1)), legacy.array());
+
+        // when
+        try (LoanJournal journal = new LoanJournal(directory, JournalRecord.SIZE * 4, 1)) {
+            journal.append(LoanEvent.borrowed(loan(3L, 10L, 102L)));
+        }
+        List<LoanEvent> events = readAll(new LoanJournalReader(directory));
+
+        // then
+        Assertions.assertEquals(List.of(1L, 2L, 3L), events.stream().map(LoanEvent::getSequence).toList());
+        Assertions.assertEquals(LocalDate.of(2025, 1, 1), events.get(0).getLoanDate());
+        Assertions.assertNull(events.get(1).getLoanDate());
+        Assertions.assertEquals(LocalDate.of(2025, 1, 20), events.get(1).getDate());
+        Assertions.assertEquals(LocalDate.of(2025, 1, 1), events.get(2).getLoanDate());
+        Assertions.assertEquals(2, LoanJournal.segments(directory).size());
+    }
+
+    private static Loan loan(Long loanId, Long userId, Long bookId) {
+        return new Loan(loanId, userId, bookId, LocalDate.of(2025, 1, 1), null,
+                LocalDate.of(2025, 2, 1), LoanStatus.ACTIVE);
+    }
+
+    private static List<LoanEvent> readAll(LoanJournalReader reader) {
+        List<LoanEvent> events = new ArrayList<>();
+        reader.forEachRemaining(events::add);
+        return events;
+    }
+}
@@ -0,0 +1,128 @@
+package org.library.kiosk;
+
+import org.library.http.InMemoryLibrary;
+import org.library.model.Book;
+import org.library.util.Json;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Usage: KioskBenchmark [workers] [seconds] [pipelineDepth]
+// Each worker owns one user and one book and loops borrow + return, first over HTTP/JSON and then
+// over the kiosk protocol (one shared connection). A last phase pipelines book lookups.
+public class KioskBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int workers = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+
+        try (InMemoryLibrary library = new InMemoryLibrary(workers, workers);
+             KioskServer kiosk = new KioskServer(new InetSocketAddress("127.0.0.1", 0),
+                     library.userService, library.loanService, library.libraryService)) {
+            kiosk.start();
+
+            HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            List<String> tokens = new ArrayList<>();
+            for (int user = 1; user <= workers; user++) {
+                HttpResponse<String> login = http.send(post(library.baseUrl() + "/api/login", null,
+                                "{\"email\":\"" + InMemoryLibrary.email(user) + "\",\"password\":\"" + InMemoryLibrary.PASSWORD + "\"}"),
+                        HttpResponse.BodyHandlers.ofString());
+                tokens.add(Json.parseObject(login.body()).get("token"));
+            }
+
+            double httpRate = run("http  borrow+return", workers, seconds, worker -> {
+                String token = tokens.get(worker - 1);
+                String body = "{\"bookId\":" + worker + "}";
+                check(http.send(post(library.baseUrl() + "/api/loans", token, body), HttpResponse.BodyHandlers.ofString()).statusCode() == 201);
+                check(http.send(post(library.baseUrl() + "/api/returns", token, body), HttpResponse.BodyHandlers.ofString()).statusCode() == 200);
+                return 2;
+            });
+
+            try (KioskClient client = new KioskClient(new InetSocketAddress("127.0.0.1", kiosk.port()))) {
+                List<String> kioskTokens = new ArrayList<>();
+                for (int user = 1; user <= workers; user++) {
+                    kioskTokens.add(client.login(InMemoryLibrary.email(user), InMemoryLibrary.PASSWORD).orElseThrow());
+                }
+
+                double kioskRate = run("kiosk borrow+return", workers, seconds, worker -> {
+                    String token = kioskTokens.get(worker - 1);
+                    check(client.borrow(token, worker).getSuccess());
+                    check(client.returnBook(token, worker).getSuccess());
+                    return 2;
+                });
+
+                run("kiosk lookups x" + depth, workers, seconds, worker -> {
+                    List<CompletableFuture<Optional<Book>>> batch = new ArrayList<>(depth);
+                    for (int i = 0; i < depth; i++) {
+                        batch.add(client.getBookAsync(1 + (worker + i) % workers));
+                    }
+                    for (CompletableFuture<Optional<Book>> lookup : batch) {
+                        check(lookup.join().isPresent());
+                    }
+                    return depth;
+                });
+
+                System.out.printf("kiosk/http borrow+return speed-up: %.1fx%n", kioskRate / httpRate);
+            }
+        }
+    }
+
+    private static double run(String name, int workers, int seconds, Operation operation) throws InterruptedException {
+        AtomicLong requests = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long began = System.nanoTime();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 1; w <= workers; w++) {
+                int worker = w;
+                executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        try {
+                            requests.addAndGet(operation.run(worker));
+                        } catch (Exception e) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+
+        double rate = requests.get() / ((System.nanoTime() - began) / 1e9);
+        System.out.printf("%-22s workers=%d requests=%d failures=%d throughput=%.0f req/s%n",
+                name, workers, requests.get(), failures.get(), rate);
+        return rate;
+    }
+
+    private static void check(boolean condition) {
+        if (!condition) {
+            throw new IllegalStateException("Unexpected response");
+        }
+    }
+
+    private static HttpRequest post(String url, String token, String body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return request.build();
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        int run(int worker) throws Exception;
+    }
+}
@@ -0,0 +1,120 @@
+package org.library.kiosk;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.library.http.InMemoryLibrary;
+import org.library.model.Book;
+import org.library.model.BookStatus;
+import org.library.util.Result;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public class KioskServerTest {
+
+    @Test
+    void client_shouldPipelineRequestsAndMatchResponsesById() throws Exception {
+        try (InMemoryLibrary library = new InMemoryLibrary(10, 100);
+             KioskServer server = new KioskServer(new InetSocketAddress("127.0.0.1", 0),
+                     library.userService, library.loanService, library.libraryService)) {
+            server.start();
+
+            try (KioskClient client = new KioskClient(new InetSocketAddress("127.0.0.1", server.port()))) {
+                // given
+                List<String> tokens = new ArrayList<>();
+                for (int user = 1; user <= 10; user++) {
+                    tokens.add(client.login(InMemoryLibrary.email(user), InMemoryLibrary.PASSWORD).orElseThrow());
+                }
+                List<CompletableFuture<Optional<Book>>> lookups = new ArrayList<>();
+                List<CompletableFuture<Result>> borrows = new ArrayList<>();
+
+                // when
+                for (long bookId = 1; bookId <= 100; bookId++) {
+                    lookups.add(client.getBookAsync(bookId));
+                    borrows.add(client.borrowAsync(tokens.get((int) (bookId % 10)), bookId));
+                }
+                Optional<Book> missing = client.getBook(1_000);
+
+                // then
+                for (int i = 0; i < 100; i++) {
+                    Book book = lookups.get(i).join().orElseThrow();
+                    Assertions.assertEquals(i + 1L, book.getBookID());
+                    Assertions.assertEquals("BC" + (i + 1), book.getBarcode());
+                    Assertions.assertNull(book.getIsbn());
+                }
+                long borrowed = borrows.stream().map(CompletableFuture::join).filter(Result::getSuccess).count();
+                Assertions.assertEquals(50, borrowed);
+                Assertions.assertTrue(missing.isEmpty());
+                long held = library.loanService.getActiveLoansForUser(1L).getFirst().getBookId();
+                Assertions.assertFalse(client.borrow(tokens.get(1), held).getSuccess());
+                Assertions.assertTrue(client.returnBook(tokens.get(0), held).getSuccess());
+                Assertions.assertEquals(0, client.inFlight());
+            }
+        }
+    }
+
+    @Test
+    void borrow_shouldRequireASessionToken() throws Exception {
+        try (InMemoryLibrary library = new InMemoryLibrary(1, 2);
+             KioskServer server = new KioskServer(new InetSocketAddress("127.0.0.1", 0),
+                     library.userService, library.loanService, library.libraryService);
+             KioskClient client = new KioskClient(new InetSocketAddress("127.0.0.1", server.port()))) {
+            server.start();
+
+            // given
+            Optional<String> wrongPassword = client.login(InMemoryLibrary.email(1), "nope");
+            String lost = client.login(InMemoryLibrary.email(1), InMemoryLibrary.PASSWORD).orElseThrow();
+            String token = client.login(InMemoryLibrary.email(1), InMemoryLibrary.PASSWORD).orElseThrow();
+
+            // when
+            Result anonymous = client.borrow(null, 1);
+            Result forged = client.borrow("not-a-token", 1);
+            Result withLost = client.borrow(lost, 1);
+            Result borrowed = client.borrow(token, 2);
+
+            // then
+            Assertions.assertTrue(wrongPassword.isEmpty());
+            Assertions.assertFalse(anonymous.getSuccess());
+            Assertions.assertFalse(forged.getSuccess());
+            Assertions.assertFalse(withLost.getSuccess());
+            Assertions.assertTrue(borrowed.getSuccess(), borrowed.getMessage());
+            Assertions.assertEquals(1, library.loanService.countActiveLoans(1L));
+            Assertions.assertEquals(BookStatus.BORROWED, client.getBookAsync(token, 2).join().orElseThrow().getStatus());
+        }
+    }
+
+    @Test
+    void server_shouldRejectUnknownOpcodesAndCloseOnBadFrames() throws Exception {
+        try (InMemoryLibrary library = new InMemoryLibrary(1, 1);
+             KioskServer server = new KioskServer(new InetSocketAddress("127.0.0.1", 0),
+                     library.userService, library.loanService, library.libraryService);
+             SocketChannel channel = SocketChannel.open()) {
+            server.start();
+            channel.connect(new InetSocketAddress("127.0.0.1", server.port()));
+
+            // given
+            ByteBuffer request = ByteBuffer.allocate(64);
+            request.putInt(KioskProtocol.HEADER_BYTES).putInt(7).put((byte) 42);
+            request.putInt(Integer.MAX_VALUE);
+
+            // when
+            channel.write(request.flip());
+            ByteBuffer response = ByteBuffer.allocate(256);
+            while (channel.read(response) >= 0) {
+                // read until the server closes the connection
+            }
+            response.flip();
+
+            // then
+            Assertions.assertEquals(7, response.getInt(4));
+            Assertions.assertEquals(KioskProtocol.BAD_REQUEST, response.get(8));
+            response.position(9);
+            Assertions.assertTrue(KioskProtocol.getString(response).contains("42"));
+        }
+    }
+}
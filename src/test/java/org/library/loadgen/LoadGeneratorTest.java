@@ -0,0 +1,72 @@
+package org.library.loadgen;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.library.LibraryBackend;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+
+public class LoadGeneratorTest {
+
+    @Test
+    void zipfDistribution_shouldSampleRanksInProportionToTheirProbability() {
+        // given
+        ZipfDistribution zipf = new ZipfDistribution(1_000, 1.0);
+        SplittableRandom random = new SplittableRandom(7);
+        int[] hits = new int[zipf.size()];
+
+        // when
+        int draws = 500_000;
+        for (int i = 0; i < draws; i++) {
+            hits[zipf.sample(random.nextDouble())]++;
+        }
+
+        // then
+        for (int rank : new int[]{0, 1, 9, 99}) {
+            double expected = zipf.probability(rank) * draws;
+            Assertions.assertEquals(expected, hits[rank], expected * 0.05, "rank " + rank);
+        }
+        Assertions.assertEquals(2.0, zipf.probability(0) / zipf.probability(1), 1e-9);
+        Assertions.assertEquals(999, zipf.sample(0.999_999_999));
+    }
+
+    @Test
+    void workloadMix_shouldParseWeightsIntoShares() {
+        // given
+        WorkloadMix mix = WorkloadMix.parse("login=1, search=2,borrow=1");
+
+        // when / then
+        Assertions.assertEquals(0.25, mix.share(PatronAction.LOGIN), 1e-9);
+        Assertions.assertEquals(0.5, mix.share(PatronAction.SEARCH), 1e-9);
+        Assertions.assertEquals(0.0, mix.share(PatronAction.RETURN), 1e-9);
+        Assertions.assertEquals(PatronAction.LOGIN, mix.pick(0.1));
+        Assertions.assertEquals(PatronAction.SEARCH, mix.pick(0.5));
+        Assertions.assertEquals(PatronAction.BORROW, mix.pick(0.99));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> WorkloadMix.parse("borrow"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> LoadOptions.parse(new String[]{"--speed=1"}));
+    }
+
+    @Test
+    void run_shouldDriveEveryActionAgainstTheInMemoryBackend() {
+        // given
+        LoadOptions options = LoadOptions.parse(new String[]{
+                "--rate=400", "--duration=1", "--warmup=0", "--users=20", "--books=50", "--zipf=1.2",
+                "--mix=login=1,search=1,borrow=2,return=2"});
+        LoadGenerator generator = new LoadGenerator(LibraryBackend.inMemory(), options);
+
+        // when
+        generator.seed();
+        Map<PatronAction, ActionStats> stats = generator.run();
+
+        // then
+        long completed = stats.values().stream().mapToLong(s -> s.getCompleted() + s.getSkipped()).sum();
+        Assertions.assertTrue(completed > 200, "completed " + completed);
+        for (PatronAction action : PatronAction.values()) {
+            ActionStats actionStats = stats.get(action);
+            Assertions.assertEquals(0, actionStats.getErrors(), action.name());
+            Assertions.assertTrue(actionStats.getSucceeded() > 0, action.name());
+            Assertions.assertEquals(actionStats.getCompleted(), actionStats.getResponseTime().count());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.library.outbox;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.library.model.OutboxEvent;
+import org.library.model.User;
+import org.library.repository.OutboxRepositoryInterface;
+import org.library.util.TransactionRunner;
+
+import java.util.*;
+
+public class OutboxRelayTest {
+
+    private InMemoryOutbox outbox;
+    private OutboxRelay relay;
+    private QueueOutboxSink queueSink;
+
+    @BeforeEach
+    void setup() {
+        outbox = new InMemoryOutbox();
+        relay = new OutboxRelay(outbox, TransactionRunner.NONE, 2);
+        queueSink = new QueueOutboxSink();
+        relay.addSink(queueSink);
+    }
+
+    @Test
+    void drain_shouldDeliverAllPendingEventsInBatches() {
+        // given
+        for (long i = 1; i <= 5; i++) {
+            outbox.save(OutboxEvents.userRegistered(new User(i, "Anna Kowalska", "anna" + i + "@example.com", "x")));
+        }
+
+        // when
+        int delivered = relay.drain();
+
+        // then
+        Assertions.assertEquals(5, delivered);
+        Assertions.assertEquals(5, queueSink.getQueue().size());
+        Assertions.assertTrue(outbox.events.isEmpty());
+    }
+
+    @Test
+    void drain_shouldKeepEventsWhenSinkFails() {
+        // given
+        outbox.save(OutboxEvents.userRegistered(new User(1L, "Anna Kowalska", "anna@example.com", "x")));
+        relay.addSink(events -> {
+            throw new IllegalStateException("sink unavailable");
+        });
+
+        // when
+        int delivered = relay.drain();
+
+        // then
+        Assertions.assertEquals(0, delivered);
+        Assertions.assertEquals(1, outbox.events.size());
+        Assertions.assertEquals(1, queueSink.getQueue().size());
+    }
+
+    @Test
+    void close_shouldCloseItsSinks() {
+        // given
+        List<String> closed = new ArrayList<>();
+        relay.addSink(new OutboxSink() {
+            @Override
+            public void deliver(List<OutboxEvent> events) {
+            }
+
+            @Override
+            public void close() {
+                closed.add("file");
+            }
+        });
+        relay.start(60_000);
+
+        // when
+        relay.close();
+
+        // then
+        Assertions.assertEquals(List.of("file"), closed);
+    }
+
+    private static class InMemoryOutbox implements OutboxRepositoryInterface {
+        private final SortedMap<Long, OutboxEvent> events = new TreeMap<>();
+        private long nextId = 1;
+
+        @Override
+        public OutboxEvent save(OutboxEvent event) {
+            event.setId(nextId++);
+            events.put(event.getId(), event);
+            return event;
+        }
+
+        @Override
+        public List<OutboxEvent> lockPending(int limit) {
+            return events.values().stream().limit(limit).toList();
+        }
+
+        @Override
+        public int deleteByIds(Collection<Long> ids) {
+            int deleted = 0;
+            for (Long id : ids) {
+                if (events.remove(id) != null) {
+                    deleted++;
+                }
+            }
+            return deleted;
+        }
+    }
+}
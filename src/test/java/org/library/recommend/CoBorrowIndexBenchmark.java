@@ -0,0 +1,55 @@
+package org.library.recommend;
+
+import org.library.loadgen.ZipfDistribution;
+import org.library.util.LatencyHistogram;
+
+import java.util.SplittableRandom;
+
+// Builds the co-borrow index from a synthetic loan history with Zipf-popular books, then times top-10
+// lookups. The full catalogue needs a few GB of heap (-Xmx4g); run with a WARN-level logback config:
+//   CoBorrowIndexBenchmark [books] [patrons] [borrows] [exponent]
+public class CoBorrowIndexBenchmark {
+    private static final int LOOKUPS = 2_000_000;
+
+    public static void main(String[] args) {
+        int books = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int patrons = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        long borrows = args.length > 2 ? Long.parseLong(args[2]) : 30_000_000L;
+        double exponent = args.length > 3 ? Double.parseDouble(args[3]) : 0.9;
+
+        ZipfDistribution popularity = new ZipfDistribution(books, exponent);
+        SplittableRandom random = new SplittableRandom(42);
+        CoBorrowIndex index = new CoBorrowIndex();
+
+        long started = System.nanoTime();
+        for (long i = 0; i < borrows; i++) {
+            index.record(1 + random.nextInt(patrons), 1 + popularity.sample(random.nextDouble()));
+        }
+        double buildSeconds = (System.nanoTime() - started) / 1e9;
+
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        long heap = runtime.totalMemory() - runtime.freeMemory();
+        System.out.printf("books=%d patrons=%d borrows=%d build=%.1fs (%.0f borrows/s) rows=%d%n",
+                books, patrons, borrows, buildSeconds, borrows / buildSeconds, index.rows());
+        System.out.printf("index=%.1f MB heap used=%.1f MB%n", index.estimatedBytes() / 1e6, heap / 1e6);
+
+        // Lookups follow the same popularity as borrows, the way book pages are viewed.
+        LatencyHistogram latency = new LatencyHistogram();
+        long[] ids = new long[10];
+        long found = 0;
+        for (int round = 0; round < 2; round++) {
+            latency.reset();
+            found = 0;
+            for (int i = 0; i < LOOKUPS; i++) {
+                long bookId = 1 + popularity.sample(random.nextDouble());
+                long start = System.nanoTime();
+                found += index.recommend(bookId, ids);
+                latency.record(System.nanoTime() - start);
+            }
+        }
+        System.out.printf("top-10 lookups=%d mean=%.2fus p50=%.2fus p99=%.2fus max=%.2fus results/lookup=%.1f%n",
+                LOOKUPS, latency.meanNanos() / 1e3, latency.percentileNanos(50) / 1e3,
+                latency.percentileNanos(99) / 1e3, latency.maxNanos() / 1e3, (double) found / LOOKUPS);
+    }
+}
@@ -0,0 +1,132 @@
+package org.library.recommend;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.library.LibraryBackend;
+import org.library.model.Book;
+import org.library.model.BookStatus;
+import org.library.model.User;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CoBorrowIndexTest {
+
+    @Test
+    void recommend_shouldRankBooksByHowOftenTheyWereBorrowedTogether() {
+        // given
+        CoBorrowIndex index = new CoBorrowIndex();
+        for (long user = 1; user <= 3; user++) {
+            index.record(user, 100);
+            index.record(user, 200);
+        }
+        index.record(4, 100);
+        index.record(4, 300);
+        index.record(4, 100);
+
+        // when
+        long[] recommended = index.recommend(100, 10);
+
+        // then
+        Assertions.assertArrayEquals(new long[]{200, 300}, recommended);
+        Assertions.assertEquals(3, index.coBorrowCount(100, 200));
+        Assertions.assertEquals(3, index.coBorrowCount(200, 100));
+        Assertions.assertEquals(1, index.coBorrowCount(100, 300));
+        Assertions.assertArrayEquals(new long[]{100}, index.recommend(200, 10));
+    }
+
+    @Test
+    void fullRows_shouldKeepFrequentNeighboursAndStayWithinCapacity() {
+        // given
+        CoBorrowIndex index = new CoBorrowIndex(4, 2);
+        for (long user = 1; user <= 50; user++) {
+            index.record(user, 1);
+            index.record(user, 2);
+        }
+
+        // when
+        // A long tail of one-off pairings churns the rest of book 1's row; book 2 holds a third of its 150 pairings.
+        for (long user = 100; user < 200; user++) {
+            index.record(user, 1);
+            index.record(user, user);
+        }
+
+        // then
+        long[] recommended = index.recommend(1, 10);
+        Assertions.assertEquals(4, recommended.length);
+        Assertions.assertEquals(2, recommended[0]);
+        Assertions.assertEquals(50, index.coBorrowCount(1, 2));
+    }
+
+    @Test
+    void snapshot_shouldRestoreRowsAndPatronHistories(@TempDir Path directory) {
+        // given
+        CoBorrowIndex index = new CoBorrowIndex();
+        index.record(1, 10);
+        index.record(1, 20);
+        index.record(2, 10);
+        index.record(2, 30);
+        index.record(3, 10);
+        index.record(3, 30);
+        Path file = directory.resolve("co-borrow.snapshot");
+
+        // when
+        index.save(file);
+        CoBorrowIndex loaded = CoBorrowIndex.load(file);
+        // Patron 1's history survives, so a borrow after the restart still pairs with book 20.
+        loaded.record(1, 40);
+
+        // then
+        Assertions.assertEquals(4, loaded.rows());
+        Assertions.assertArrayEquals(new long[]{30, 20, 40}, loaded.recommend(10, 10));
+        Assertions.assertEquals(2, loaded.coBorrowCount(10, 30));
+        Assertions.assertEquals(1, loaded.coBorrowCount(40, 20));
+        Assertions.assertEquals(1, loaded.coBorrowCount(40, 10));
+    }
+
+    @Test
+    void record_shouldRejectBookIdsThatDoNotFitAnEntry() {
+        // given
+        CoBorrowIndex index = new CoBorrowIndex();
+        index.record(1, CoBorrowIndex.MAX_BOOK_ID);
+
+        // when / then
+        Assertions.assertThrows(IllegalArgumentException.class, () -> index.record(1, CoBorrowIndex.MAX_BOOK_ID + 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> index.record(1, -1));
+        index.record(1, 7);
+        Assertions.assertArrayEquals(new long[]{CoBorrowIndex.MAX_BOOK_ID}, index.recommend(7, 10));
+    }
+
+    @Test
+    void getRecommendedBooks_shouldFollowBorrowsMadeThroughTheLoanService() {
+        // given
+        LibraryBackend library = LibraryBackend.inMemory();
+        List<Long> books = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            books.add(library.getBookRepository().save(new Book(null, "Title " + i, "Author", 2000, "Press",
+                    null, "BC-" + i, BookStatus.AVAILABLE)).getBookID());
+        }
+        for (int i = 0; i < 2; i++) {
+            User user = library.getUserRepository().save(new User("User " + i, "user" + i + "@example.com", "h"));
+            library.getSessions().logIn(user.getUserId());
+            for (Long bookId : books.subList(0, 2 + i)) {
+                library.getLoanService().borrowBook(user.getUserId(), bookId);
+                library.getLoanService().returnBook(user.getUserId(), bookId);
+            }
+        }
+
+        // when
+        List<Book> recommended = library.getLibraryService().getRecommendedBooks(books.get(0));
+
+        // then
+        Assertions.assertEquals(List.of(books.get(1), books.get(2)),
+                recommended.stream().map(Book::getBookID).toList());
+        Assertions.assertTrue(library.getLibraryService().getRecommendedBooks(999L).isEmpty());
+
+        library.getBookRepository().delete(books.get(1));
+        Assertions.assertEquals(List.of(books.get(2)),
+                library.getLibraryService().getRecommendedBooks(books.get(0)).stream().map(Book::getBookID).toList());
+    }
+}
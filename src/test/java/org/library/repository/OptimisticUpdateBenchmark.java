@@ -0,0 +1,138 @@
+package org.library.repository;
+
+import org.library.model.Book;
+import org.library.model.BookRowMapper;
+import org.library.model.BookStatus;
+import org.library.util.Database;
+import org.library.util.LatencyHistogram;
+import org.library.util.Migrations;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Read-modify-write of book statuses from many threads, once with versioned updates that re-read on
+// conflict and once with SELECT ... FOR UPDATE inside a transaction. Needs Postgres (library.db.*):
+//   OptimisticUpdateBenchmark [threads] [hotBooks] [seconds] [thinkMicros]
+// Fewer hot books means more contention; think time is spent between the read and the write.
+public class OptimisticUpdateBenchmark {
+    private static final int MAX_ATTEMPTS = 50;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int hotBooks = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        long thinkMicros = args.length > 3 ? Long.parseLong(args[3]) : 100;
+
+        Migrations.migrate();
+        BookRepository books = new BookRepository();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < hotBooks; i++) {
+            ids.add(books.save(new Book(null, "Contended " + i, "Bench Author", 2000, "Bench",
+                    null, null, BookStatus.AVAILABLE)).getBookID());
+        }
+
+        for (String mode : List.of("optimistic", "for-update", "optimistic", "for-update")) {
+            run(mode, books, ids, threads, seconds, thinkMicros);
+        }
+        ids.forEach(books::delete);
+    }
+
+    private static void run(String mode, BookRepository books, List<Long> ids, int threads, int seconds,
+                            long thinkMicros) throws InterruptedException {
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder conflicts = new LongAdder();
+        LongAdder failed = new LongAdder();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(Thread.ofPlatform().start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    Long id = ids.get(random.nextInt(ids.size()));
+                    long started = System.nanoTime();
+                    try {
+                        if (mode.equals("optimistic")) {
+                            optimistic(books, id, thinkMicros, conflicts);
+                        } else {
+                            forUpdate(books, id, thinkMicros);
+                        }
+                        latency.record(System.nanoTime() - started);
+                    } catch (RuntimeException e) {
+                        failed.increment();
+                    }
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        long count = latency.count();
+        System.out.printf("%-10s threads=%d books=%d ops/s=%.0f conflicts=%d (%.1f%%) failed=%d "
+                        + "p50=%.3f ms p99=%.3f ms max=%.3f ms%n",
+                mode, threads, ids.size(), count / (double) seconds, conflicts.sum(),
+                100.0 * conflicts.sum() / Math.max(1, count), failed.sum(),
+                latency.percentileNanos(50) / 1e6, latency.percentileNanos(99) / 1e6, latency.maxNanos() / 1e6);
+    }
+
+    // The LoanService pattern: plain read, versioned write, re-read only when the write loses.
+    private static void optimistic(BookRepository books, Long id, long thinkMicros, LongAdder conflicts) {
+        Book book = books.findById(id).orElseThrow();
+        think(thinkMicros);
+        for (int attempt = 1; ; attempt++) {
+            book.setStatus(flip(book.getStatus()));
+            if (books.update(book)) {
+                return;
+            }
+            conflicts.increment();
+            if (attempt == MAX_ATTEMPTS) {
+                throw new RuntimeException("Failed to update book " + id + " after " + attempt + " attempts");
+            }
+            book = books.findById(id).orElseThrow();
+        }
+    }
+
+    // The pessimistic alternative: the row lock is held from the read until commit.
+    private static void forUpdate(BookRepository books, Long id, long thinkMicros) {
+        Database.inTransaction(() -> {
+            Book book = lock(id);
+            think(thinkMicros);
+            book.setStatus(flip(book.getStatus()));
+            return books.update(book);
+        });
+    }
+
+    private static Book lock(Long id) {
+        try (Connection connection = Database.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT * FROM books WHERE book_id = ? FOR UPDATE")
+        ) {
+            statement.setLong(1, id);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return BookRowMapper.bind(resultSet).map(resultSet);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to lock book", e);
+        }
+    }
+
+    private static BookStatus flip(BookStatus status) {
+        return status == BookStatus.AVAILABLE ? BookStatus.BORROWED : BookStatus.AVAILABLE;
+    }
+
+    private static void think(long micros) {
+        if (micros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+    }
+}
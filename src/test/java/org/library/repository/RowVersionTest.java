@@ -0,0 +1,94 @@
+package org.library.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.library.LibraryBackend;
+import org.library.model.Book;
+import org.library.model.BookStatus;
+import org.library.model.User;
+import org.library.util.Result;
+
+public class RowVersionTest {
+
+    @Test
+    void update_withStaleVersion_shouldBeRejected() {
+        // given
+        InMemoryBookRepository books = new InMemoryBookRepository();
+        Long id = books.save(new Book(null, "Title", "Author", 2000, "Press", null, "BC-1", BookStatus.AVAILABLE))
+                .getBookID();
+        Book first = books.findById(id).orElseThrow();
+        Book second = books.findById(id).orElseThrow();
+
+        // when
+        first.setPublisher("New Press");
+        boolean firstUpdated = books.update(first);
+        second.setStatus(BookStatus.BORROWED);
+        boolean secondUpdated = books.update(second);
+
+        // then
+        Assertions.assertTrue(firstUpdated);
+        Assertions.assertFalse(secondUpdated);
+        Book stored = books.findById(id).orElseThrow();
+        Assertions.assertEquals(1, stored.getVersion());
+        Assertions.assertEquals(1, first.getVersion());
+        Assertions.assertEquals("New Press", stored.getPublisher());
+        Assertions.assertEquals(BookStatus.AVAILABLE, stored.getStatus());
+    }
+
+    @Test
+    void userUpdate_withStaleVersion_shouldNotClaimTheNewEmail() {
+        // given
+        InMemoryUserRepository users = new InMemoryUserRepository();
+        Long id = users.save(new User("Jane Doe", "jane@example.com", "hash")).getUserId();
+        User first = users.findById(id).orElseThrow();
+        User second = users.findById(id).orElseThrow();
+
+        // when
+        first.setFullName("Jane Smith");
+        boolean firstUpdated = users.update(first);
+        second.setEmail("jane.doe@example.com");
+        boolean secondUpdated = users.update(second);
+
+        // then
+        Assertions.assertTrue(firstUpdated);
+        Assertions.assertFalse(secondUpdated);
+        Assertions.assertTrue(users.findByEmail("jane.doe@example.com").isEmpty());
+        Assertions.assertEquals("Jane Smith", users.findByEmail("jane@example.com").orElseThrow().getFullName());
+    }
+
+    @Test
+    void borrow_whenBookChangesConcurrently_shouldReapplyStatusOnTopOfTheEdit() {
+        // given
+        InMemoryBookRepository books = new InMemoryBookRepository() {
+            private boolean edited;
+
+            @Override
+            public Boolean update(Book book) {
+                if (!edited) {
+                    // A catalog edit commits between the borrow's read and its write.
+                    edited = true;
+                    Book edit = findById(book.getBookID()).orElseThrow();
+                    edit.setPublisher("Corrected Press");
+                    super.update(edit);
+                }
+                return super.update(book);
+            }
+        };
+        LibraryBackend library = LibraryBackend.inMemory();
+        library.getLoanService().setBookRepository(books);
+        User user = library.getUserRepository().save(new User("Jane Doe", "jane@example.com", "hash"));
+        library.getSessions().logIn(user.getUserId());
+        Long bookId = books.save(new Book(null, "Title", "Author", 2000, "Press", null, "BC-1",
+                BookStatus.AVAILABLE)).getBookID();
+
+        // when
+        Result result = library.getLoanService().borrowBook(user.getUserId(), bookId);
+
+        // then
+        Assertions.assertTrue(result.getSuccess());
+        Book stored = books.findById(bookId).orElseThrow();
+        Assertions.assertEquals(BookStatus.BORROWED, stored.getStatus());
+        Assertions.assertEquals("Corrected Press", stored.getPublisher());
+        Assertions.assertEquals(2, stored.getVersion());
+    }
+}
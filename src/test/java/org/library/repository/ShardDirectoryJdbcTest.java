@@ -0,0 +1,61 @@
+package org.library.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.library.model.RoutingState;
+import org.library.util.Migrations;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Runs the V12 directory statements against a real database: -Dlibrary.db.url=jdbc:postgresql://...
+@EnabledIfSystemProperty(named = "library.db.url", matches = ".+")
+public class ShardDirectoryJdbcTest {
+
+    @BeforeAll
+    static void migrate() {
+        Migrations.migrate();
+    }
+
+    @Test
+    void load_shouldReturnOnlyRelocationsWrittenAfterTheEpoch() {
+        // given
+        ShardDirectoryRepository directory = new ShardDirectoryRepository();
+        directory.initialize(4);
+        RoutingState before = directory.load(0);
+        long userId = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+
+        // when
+        directory.relocate(userId, 1);
+
+        // then
+        RoutingState after = directory.load(before.getEpoch());
+        Assertions.assertTrue(after.getEpoch() > before.getEpoch());
+        Assertions.assertEquals(1, after.getRelocations().get(userId));
+        Assertions.assertFalse(directory.load(after.getEpoch()).getRelocations().containsKey(userId));
+    }
+
+    @Test
+    void finishResharding_shouldDropSettledRelocations() {
+        // given
+        ShardDirectoryRepository directory = new ShardDirectoryRepository();
+        directory.initialize(4);
+        RoutingState before = directory.load(0);
+        // Finishing would also switch a resharding someone else started.
+        Assumptions.assumeTrue(before.getTargetShardCount() == 0);
+        long userId = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+        directory.relocate(userId, 2);
+
+        // when
+        directory.finishResharding(List.of(userId));
+
+        // then
+        RoutingState finished = directory.load(0);
+        Assertions.assertFalse(finished.getRelocations().containsKey(userId));
+        Assertions.assertEquals(before.getShardCount(), finished.getShardCount());
+        Assertions.assertEquals(0, finished.getTargetShardCount());
+    }
+}
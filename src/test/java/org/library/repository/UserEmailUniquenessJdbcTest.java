@@ -0,0 +1,80 @@
+package org.library.repository;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.library.model.User;
+import org.library.util.Migrations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.function.IntFunction;
+
+// Runs the ON CONFLICT statements against a real database: -Dlibrary.db.url=jdbc:postgresql://...
+@EnabledIfSystemProperty(named = "library.db.url", matches = ".+")
+public class UserEmailUniquenessJdbcTest {
+    private static final int ATTEMPTS = 16;
+
+    @BeforeAll
+    static void migrate() {
+        Migrations.migrate();
+    }
+
+    @Test
+    void saveIfAbsent_shouldInsertOneOfConcurrentRowsForSameEmail() throws Exception {
+        // given
+        UserRepository repository = new UserRepository();
+        String email = "race-" + UUID.randomUUID() + "@example.com";
+
+        // when
+        List<Optional<User>> results = race(i -> repository.saveIfAbsent(
+                new User("Racer " + i, i % 2 == 0 ? email : email.toUpperCase(), "hash")));
+
+        // then
+        List<User> saved = results.stream().flatMap(Optional::stream).toList();
+        Assertions.assertEquals(1, saved.size());
+        Assertions.assertEquals(saved.getFirst().getUserId(), repository.findByEmail(email).orElseThrow().getUserId());
+        repository.delete(saved.getFirst().getUserId());
+    }
+
+    @Test
+    void claim_shouldGiveAnEmailToOneUserOnly() throws Exception {
+        // given
+        UserEmailRepository emails = new UserEmailRepository();
+        String email = "claim-" + UUID.randomUUID() + "@example.com";
+
+        // when
+        List<Boolean> claimed = race(i -> emails.claim(i % 2 == 0 ? email : email.toUpperCase(), 1_000L + i));
+
+        // then
+        Assertions.assertEquals(1, claimed.stream().filter(Boolean::booleanValue).count());
+        long owner = emails.findUserId(email).orElseThrow();
+        Assertions.assertTrue(emails.claim(email.toUpperCase(), owner));
+        emails.release(email, owner);
+        Assertions.assertTrue(emails.findUserId(email).isEmpty());
+    }
+
+    private static <T> List<T> race(IntFunction<T> attempt) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < ATTEMPTS; i++) {
+                int attemptNumber = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return attempt.apply(attemptNumber);
+                }));
+            }
+            start.countDown();
+        }
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+}
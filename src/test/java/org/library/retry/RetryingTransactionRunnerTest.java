@@ -0,0 +1,195 @@
+package org.library.retry;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.library.LibraryBackend;
+import org.library.model.Book;
+import org.library.model.BookStatus;
+import org.library.model.Loan;
+import org.library.model.LoanStatus;
+import org.library.model.User;
+import org.library.service.LoanService;
+import org.library.util.TransactionRunner;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+public class RetryingTransactionRunnerTest {
+
+    @Test
+    void contendedBorrows_shouldRetrySerializationFailuresWithoutDoubleLending() throws InterruptedException {
+        // given
+        LibraryBackend library = LibraryBackend.inMemory();
+        String hash = library.getUserService().hashPassword("Secret#123");
+        List<Long> users = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            User user = library.getUserRepository().save(new User("User " + i, "user" + i + "@example.com", hash));
+            library.getSessions().logIn(user.getUserId());
+            users.add(user.getUserId());
+        }
+        List<Long> books = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            books.add(library.getBookRepository().save(new Book(null, "Hot " + i, "Author", 2000, "Press",
+                    null, "HOT-" + i, BookStatus.AVAILABLE)).getBookID());
+        }
+
+        RetryPolicy policy = RetryPolicy.DEFAULT.toBuilder()
+                .maxAttempts(10)
+                .baseDelay(Duration.ofNanos(1_000))
+                .maxDelay(Duration.ofMillis(1))
+                .budgetRatio(1)
+                .build();
+        RetryingTransactionRunner runner = new RetryingTransactionRunner(new ConflictingRunner(0.3), policy);
+        LoanService loans = library.getLoanService();
+        loans.setTransactionRunner(runner);
+
+        // when
+        LongAdder borrowed = new LongAdder();
+        LongAdder surfaced = new LongAdder();
+        try (ExecutorService threads = Executors.newFixedThreadPool(16)) {
+            for (Long user : users) {
+                threads.execute(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        Long book = books.get(ThreadLocalRandom.current().nextInt(books.size()));
+                        try {
+                            if (loans.borrowBook(user, book).getSuccess()) {
+                                borrowed.increment();
+                                loans.returnBook(user, book);
+                            }
+                        } catch (RuntimeException e) {
+                            surfaced.increment();
+                        }
+                    }
+                });
+            }
+        }
+
+        // then
+        RetryMetrics borrowMetrics = runner.metrics("borrow");
+        Assertions.assertEquals(0, surfaced.sum());
+        Assertions.assertTrue(borrowed.sum() > 0);
+        Assertions.assertTrue(borrowMetrics.getRetries() > 0);
+        Assertions.assertTrue(borrowMetrics.getRecovered() > 0);
+        Assertions.assertEquals(borrowMetrics.getRetries() + runner.metrics("return").getRetries(),
+                borrowMetrics.getFailures(FailureClass.SERIALIZATION)
+                        + runner.metrics("return").getFailures(FailureClass.SERIALIZATION));
+
+        Map<Long, Integer> activePerBook = new HashMap<>();
+        library.getLoanRepository().streamAll(true, loan -> {
+            if (loan.getStatus() == LoanStatus.ACTIVE) {
+                activePerBook.merge(loan.getBookId(), 1, Integer::sum);
+            }
+        });
+        activePerBook.values().forEach(active -> Assertions.assertTrue(active <= 1));
+        long lent = library.getLoanRepository().findByUserId(users.getFirst(), true).stream()
+                .map(Loan::getStatus).filter(status -> status == LoanStatus.ACTIVE).count();
+        Assertions.assertEquals(0, lent);
+    }
+
+    @Test
+    void retryBudget_shouldStopRetriesOnceDrained() {
+        // given
+        AtomicInteger attempts = new AtomicInteger();
+        TransactionRunner alwaysConflicting = new TransactionRunner() {
+            @Override
+            public <T> T inTransaction(Supplier<T> work) {
+                attempts.incrementAndGet();
+                throw conflict("40001");
+            }
+        };
+        RetryPolicy policy = RetryPolicy.DEFAULT.toBuilder().baseDelay(Duration.ZERO).budgetRatio(0).build();
+        RetryingTransactionRunner runner =
+                new RetryingTransactionRunner(alwaysConflicting, policy, new RetryBudget(0, 3));
+
+        // when
+        Assertions.assertThrows(RuntimeException.class, () -> runner.inTransaction("borrow", () -> 1));
+        int firstCall = attempts.getAndSet(0);
+        Assertions.assertThrows(RuntimeException.class, () -> runner.inTransaction("borrow", () -> 1));
+        int secondCall = attempts.get();
+
+        // then
+        Assertions.assertEquals(4, firstCall);
+        Assertions.assertEquals(1, secondCall);
+        Assertions.assertEquals(3, runner.metrics("borrow").getRetries());
+        Assertions.assertEquals(2, runner.metrics("borrow").getBudgetDenied());
+    }
+
+    @Test
+    void nonRetryableFailures_shouldPropagateImmediately() {
+        // given
+        AtomicInteger attempts = new AtomicInteger();
+        TransactionRunner duplicateKey = new TransactionRunner() {
+            @Override
+            public <T> T inTransaction(Supplier<T> work) {
+                attempts.incrementAndGet();
+                throw conflict("23505");
+            }
+        };
+        RetryingTransactionRunner runner = new RetryingTransactionRunner(duplicateKey, RetryPolicy.DEFAULT);
+
+        // when
+        RuntimeException failure = Assertions.assertThrows(RuntimeException.class,
+                () -> runner.inTransaction("register", () -> 1));
+
+        // then
+        Assertions.assertEquals("Failed to save loan", failure.getMessage());
+        Assertions.assertEquals(1, attempts.get());
+        Assertions.assertEquals(1, runner.metrics("register").getFailures(FailureClass.OTHER));
+        Assertions.assertEquals(FailureClass.DEADLOCK, FailureClass.of(conflict("40P01")));
+        Assertions.assertEquals(FailureClass.CONNECTION, FailureClass.ofSqlState("08006"));
+    }
+
+    @Test
+    void backoff_shouldStayWithinTheExponentialCeiling() {
+        // given
+        RetryPolicy policy = RetryPolicy.DEFAULT;
+
+        // when / then
+        for (int retry = 1; retry <= 10; retry++) {
+            long ceiling = Math.min(policy.getMaxDelay().toNanos(), policy.getBaseDelay().toNanos() << (retry - 1));
+            for (int i = 0; i < 1_000; i++) {
+                long backoff = policy.backoffNanos(retry, ThreadLocalRandom.current());
+                Assertions.assertTrue(backoff >= 0 && backoff <= ceiling, "retry " + retry + ": " + backoff);
+            }
+        }
+    }
+
+    private static RuntimeException conflict(String sqlState) {
+        return new RuntimeException("Failed to save loan", new SQLException("conflict", sqlState));
+    }
+
+    // Stands in for SERIALIZABLE isolation over the in-memory repositories: transactions run one at a
+    // time and a share of them abort with 40001 before doing any work, as a rolled-back attempt would.
+    private static final class ConflictingRunner implements TransactionRunner {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final double conflictRate;
+
+        ConflictingRunner(double conflictRate) {
+            this.conflictRate = conflictRate;
+        }
+
+        @Override
+        public <T> T inTransaction(Supplier<T> work) {
+            lock.lock();
+            try {
+                if (ThreadLocalRandom.current().nextDouble() < conflictRate) {
+                    throw conflict("40001");
+                }
+                return work.get();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
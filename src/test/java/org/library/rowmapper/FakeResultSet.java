@@ -0,0 +1,84 @@
+package org.library.rowmapper;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+// Minimal in-memory ResultSet covering the getters used by the mappers.
+final class FakeResultSet {
+    private final String[] labels;
+    private final List<Object[]> rows;
+    private int row = -1;
+    private boolean wasNull;
+
+    private FakeResultSet(String[] labels, List<Object[]> rows) {
+        this.labels = labels;
+        this.rows = rows;
+    }
+
+    static ResultSet of(String[] labels, List<Object[]> rows) {
+        FakeResultSet state = new FakeResultSet(labels, rows);
+        ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(
+                FakeResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSetMetaData.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getColumnCount" -> labels.length;
+                    case "getColumnLabel", "getColumnName" -> labels[(int) args[0] - 1];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        return (ResultSet) Proxy.newProxyInstance(
+                FakeResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> state.invoke(method.getName(), args, metaData));
+    }
+
+    private Object invoke(String name, Object[] args, ResultSetMetaData metaData) throws SQLException {
+        return switch (name) {
+            case "next" -> ++row < rows.size();
+            case "beforeFirst" -> {
+                row = -1;
+                yield null;
+            }
+            case "getMetaData" -> metaData;
+            case "wasNull" -> wasNull;
+            case "close" -> null;
+            case "getLong" -> {
+                Object value = value(args[0]);
+                yield value == null ? 0L : ((Number) value).longValue();
+            }
+            case "getInt" -> {
+                Object value = value(args[0]);
+                yield value == null ? 0 : ((Number) value).intValue();
+            }
+            case "getString" -> {
+                Object value = value(args[0]);
+                yield value == null ? null : value.toString();
+            }
+            case "getDate" -> {
+                Object value = value(args[0]);
+                yield value == null ? null : java.sql.Date.valueOf((LocalDate) value);
+            }
+            case "getObject" -> value(args[0]);
+            default -> throw new UnsupportedOperationException(name);
+        };
+    }
+
+    private Object value(Object column) throws SQLException {
+        int index = column instanceof Integer i ? i : indexOf((String) column);
+        Object value = rows.get(row)[index - 1];
+        wasNull = value == null;
+        return value;
+    }
+
+    private int indexOf(String label) throws SQLException {
+        for (int i = 0; i < labels.length; i++) {
+            if (labels[i].equalsIgnoreCase(label)) {
+                return i + 1;
+            }
+        }
+        throw new SQLException("Column not found: " + label);
+    }
+}
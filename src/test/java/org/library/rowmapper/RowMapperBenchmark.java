@@ -0,0 +1,78 @@
+package org.library.rowmapper;
+
+import org.library.model.Loan;
+import org.library.model.LoanRowMapper;
+import org.library.model.LoanStatus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMapperBenchmark {
+    private static final String[] LABELS =
+            {"id", "user_id", "book_id", "loan_date", "return_date", "due_date", "status"};
+
+    @Param({"1000"})
+    private int rows;
+
+    private ResultSet resultSet;
+
+    @Setup
+    public void setUp() {
+        LocalDate today = LocalDate.now();
+        LoanStatus[] statuses = LoanStatus.values();
+        List<Object[]> data = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            data.add(new Object[]{(long) i, (long) i % 97, (long) i, today, null, today.plusDays(14),
+                    statuses[i % statuses.length].name()});
+        }
+        resultSet = FakeResultSet.of(LABELS, data);
+    }
+
+    @Benchmark
+    public void byLabel(Blackhole blackhole) throws SQLException {
+        resultSet.beforeFirst();
+        while (resultSet.next()) {
+            Date returnDate = resultSet.getDate("return_date");
+            blackhole.consume(new Loan(
+                    resultSet.getLong("id"),
+                    resultSet.getLong("user_id"),
+                    resultSet.getLong("book_id"),
+                    resultSet.getDate("loan_date").toLocalDate(),
+                    returnDate == null ? null : returnDate.toLocalDate(),
+                    resultSet.getDate("due_date").toLocalDate(),
+                    LoanStatus.valueOf(resultSet.getString("status"))));
+        }
+    }
+
+    @Benchmark
+    public void generated(Blackhole blackhole) throws SQLException {
+        resultSet.beforeFirst();
+        LoanRowMapper mapper = LoanRowMapper.bind(resultSet);
+        while (resultSet.next()) {
+            blackhole.consume(mapper.map(resultSet));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(RowMapperBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,97 @@
+package org.library.rowmapper;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.library.model.Book;
+import org.library.model.BookRowMapper;
+import org.library.model.BookStatus;
+import org.library.model.Loan;
+import org.library.model.LoanRowMapper;
+import org.library.model.LoanStatus;
+import org.library.model.User;
+import org.library.model.UserRowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+public class RowMapperTest {
+
+    @Test
+    void loanRowMapper_shouldResolveSnakeCaseAndRenamedColumns() throws SQLException {
+        // given
+        LocalDate loanDate = LocalDate.of(2026, 1, 10);
+        ResultSet resultSet = FakeResultSet.of(
+                new String[]{"id", "user_id", "book_id", "loan_date", "return_date", "due_date", "status"},
+                List.<Object[]>of(
+                        new Object[]{7L, 3L, 11L, loanDate, null, loanDate.plusDays(14), "ACTIVE"},
+                        new Object[]{8L, 4L, 12L, loanDate, loanDate.plusDays(2), loanDate.plusDays(14), "RETURNED"}));
+
+        // when
+        LoanRowMapper mapper = LoanRowMapper.bind(resultSet);
+        resultSet.next();
+        Loan active = mapper.map(resultSet);
+        resultSet.next();
+        Loan returned = mapper.map(resultSet);
+
+        // then
+        Assertions.assertEquals(new Loan(7L, 3L, 11L, loanDate, null, loanDate.plusDays(14), LoanStatus.ACTIVE), active);
+        Assertions.assertEquals(LoanStatus.RETURNED, returned.getStatus());
+        Assertions.assertEquals(loanDate.plusDays(2), returned.getReturnDate());
+    }
+
+    @Test
+    void userRowMapper_shouldLeaveUnselectedColumnsNull() throws SQLException {
+        // given
+        ResultSet resultSet = FakeResultSet.of(
+                new String[]{"user_id", "full_name", "email", "version"},
+                List.<Object[]>of(new Object[]{1L, "Ada Lovelace", "ada@example.com", 3L}));
+
+        // when
+        resultSet.next();
+        User user = UserRowMapper.bind(resultSet).map(resultSet);
+
+        // then
+        Assertions.assertEquals(1L, user.getUserId());
+        Assertions.assertEquals("Ada Lovelace", user.getFullName());
+        Assertions.assertEquals("ada@example.com", user.getEmail());
+        Assertions.assertNull(user.getPassword());
+        Assertions.assertEquals(3L, user.getVersion());
+    }
+
+    @Test
+    void bind_shouldRejectQueryWithoutRequiredColumn() {
+        // given
+        ResultSet resultSet = FakeResultSet.of(
+                new String[]{"user_id", "full_name", "email"},
+                List.<Object[]>of(new Object[]{1L, "Ada Lovelace", "ada@example.com"}));
+
+        // when
+        SQLException error = Assertions.assertThrows(SQLException.class, () -> UserRowMapper.bind(resultSet));
+
+        // then
+        Assertions.assertTrue(error.getMessage().contains("version"));
+    }
+
+    @Test
+    void bookRowMapper_shouldRejectUnknownStatus() throws SQLException {
+        // given
+        String[] labels = {"book_id", "title", "author", "year", "publisher", "isbn", "barcode", "status", "version"};
+        ResultSet resultSet = FakeResultSet.of(labels, List.<Object[]>of(
+                new Object[]{1L, "Dune", "Herbert", 1965, "Chilton", "9780441013593", "B-1", "AVAILABLE", 0L},
+                new Object[]{2L, "Emma", "Austen", 1815, "Murray", "9780141439587", "B-2", "SHELVED", 0L}));
+        BookRowMapper mapper = BookRowMapper.bind(resultSet);
+
+        // when
+        resultSet.next();
+        Book book = mapper.map(resultSet);
+        resultSet.next();
+
+        // then
+        Assertions.assertEquals(BookStatus.AVAILABLE, book.getStatus());
+        Assertions.assertEquals(1965, book.getYear());
+        SQLException error = Assertions.assertThrows(SQLException.class, () -> mapper.map(resultSet));
+        Assertions.assertTrue(error.getMessage().contains("SHELVED"));
+    }
+}
@@ -0,0 +1,113 @@
+package org.library.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.library.model.Book;
+import org.library.model.BookStatus;
+import org.library.repository.InMemoryBookRepository;
+import org.library.util.Result;
+import org.library.util.ResultCode;
+
+import java.util.List;
+import java.util.Map;
+
+public class BookIdentifierTest {
+    private static final String ISBN = "9780132350884";
+
+    private InMemoryBookRepository bookRepository;
+    private BookService bookService;
+
+    @BeforeEach
+    void setup() {
+        bookRepository = new InMemoryBookRepository();
+        bookService = new BookService(bookRepository);
+    }
+
+    @Test
+    void addBook_withValidIsbnAndBarcode_shouldBeFoundByBoth() {
+        // given, when
+        Result added = bookService.addBook("Clean Code", "Robert C. Martin", 2008, "Prentice Hall",
+                ISBN, "BC-0001");
+
+        // then
+        Assertions.assertTrue(added.getSuccess());
+        Book byBarcode = bookService.findByBarcode("BC-0001").orElseThrow();
+        Assertions.assertEquals("Clean Code", byBarcode.getTitle());
+        Assertions.assertEquals(ISBN, byBarcode.getIsbn());
+        Assertions.assertEquals(List.of(byBarcode), bookService.findByIsbn(ISBN));
+        Assertions.assertTrue(bookService.findByBarcode("BC-0002").isEmpty());
+    }
+
+    @Test
+    void addBook_shouldRejectInvalidIsbns() {
+        // given, when
+        Result badChecksum = bookService.addBook("Clean Code", "Robert C. Martin", 2008, "Prentice Hall",
+                "9780132350885", null);
+        Result tooShort = bookService.addBook("Clean Code", "Robert C. Martin", 2008, "Prentice Hall",
+                "978013235088", null);
+        Result notDigits = bookService.addBook("Clean Code", "Robert C. Martin", 2008, "Prentice Hall",
+                "978013235088X", null);
+
+        // then
+        Assertions.assertEquals(ResultCode.INVALID_ISBN, badChecksum.getCode());
+        Assertions.assertEquals(ResultCode.INVALID_ISBN, tooShort.getCode());
+        Assertions.assertEquals(ResultCode.INVALID_ISBN, notDigits.getCode());
+        Assertions.assertTrue(bookRepository.findAll().isEmpty());
+    }
+
+    @Test
+    void addBook_shouldRejectBlankAndTakenBarcodes() {
+        // given
+        bookService.addBook("Clean Code", "Robert C. Martin", 2008, "Prentice Hall", ISBN, "BC-0001");
+
+        // when
+        Result blank = bookService.addBook("Refactoring", "Martin Fowler", 1999, "Addison-Wesley", null, " ");
+        Result taken = bookService.addBook("Refactoring", "Martin Fowler", 1999, "Addison-Wesley", null, "BC-0001");
+
+        // then
+        Assertions.assertEquals(ResultCode.BARCODE_EMPTY, blank.getCode());
+        Assertions.assertEquals(ResultCode.BARCODE_TAKEN, taken.getCode());
+        Assertions.assertEquals(1, bookRepository.findAll().size());
+    }
+
+    @Test
+    void addBook_withBarcode_shouldStillRejectDuplicateBooks() {
+        // given
+        bookService.addBook("Clean Code", "Robert C. Martin", 2008, "Prentice Hall", ISBN, "BC-0001");
+
+        // when
+        Result duplicate = bookService.addBook("Clean Code", "Robert C. Martin", 2008, "prentice hall",
+                ISBN, "BC-0002");
+
+        // then
+        Assertions.assertEquals(ResultCode.BOOK_EXISTS, duplicate.getCode());
+        Assertions.assertTrue(bookService.findByBarcode("BC-0002").isEmpty());
+    }
+
+    @Test
+    void resolveBarcodes_shouldKeepScanOrderAndSkipUnknownBarcodes() {
+        // given
+        bookService.addBook("Clean Code", "Robert C. Martin", 2008, "Prentice Hall", ISBN, "BC-0001");
+        bookService.addBook("Refactoring", "Martin Fowler", 1999, "Addison-Wesley", null, "BC-0002");
+
+        // when
+        Map<String, Book> resolved = bookService.resolveBarcodes(List.of("BC-0002", "BC-9999", "BC-0001"));
+
+        // then
+        Assertions.assertEquals(List.of("BC-0002", "BC-0001"), List.copyOf(resolved.keySet()));
+        Assertions.assertEquals("Refactoring", resolved.get("BC-0002").getTitle());
+    }
+
+    @Test
+    void legacyConstructor_shouldLeaveIsbnAndBarcodeEmpty() {
+        // when
+        Book book = new Book(7L, "Clean Code", "Robert C. Martin", 2008, "Prentice Hall", BookStatus.BORROWED);
+
+        // then
+        Assertions.assertNull(book.getIsbn());
+        Assertions.assertNull(book.getBarcode());
+        Assertions.assertEquals(BookStatus.BORROWED, book.getStatus());
+        Assertions.assertEquals(0, book.getVersion());
+    }
+}
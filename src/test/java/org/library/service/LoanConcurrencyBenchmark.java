@@ -0,0 +1,72 @@
+package org.library.service;
+
+import org.library.LibraryBackend;
+import org.library.model.Book;
+import org.library.model.BookStatus;
+import org.library.model.User;
+import org.library.util.StripedLocks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Borrow/return throughput over the in-memory backend from 1 to 64 threads, with one global lock
+// against the default striped locks. Run with a WARN-level logback configuration:
+//   LoanConcurrencyBenchmark [books] [seconds per run]
+public class LoanConcurrencyBenchmark {
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+
+    public static void main(String[] args) throws InterruptedException {
+        int books = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        System.out.printf("%-8s %8s %12s %10s%n", "locks", "threads", "ops/s", "failed");
+        for (int stripes : new int[]{1, StripedLocks.DEFAULT_STRIPES}) {
+            for (int threads : THREADS) {
+                run(stripes, threads, books, seconds);
+            }
+        }
+    }
+
+    private static void run(int stripes, int threads, int bookCount, int seconds) throws InterruptedException {
+        LibraryBackend library = LibraryBackend.inMemory();
+        LoanService loans = library.getLoanService();
+        loans.setLoanLocks(new StripedLocks(stripes));
+
+        List<Long> books = new ArrayList<>(bookCount);
+        for (int i = 0; i < bookCount; i++) {
+            books.add(library.getBookRepository().save(new Book(null, "Title " + i, "Author", 2000, "Press",
+                    null, "BC-" + i, BookStatus.AVAILABLE)).getBookID());
+        }
+
+        LongAdder completed = new LongAdder();
+        LongAdder failed = new LongAdder();
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        long deadline = warmupEnd + TimeUnit.SECONDS.toNanos(seconds);
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            User user = library.getUserRepository().save(new User("User " + t, "user" + t + "@example.com", "hash"));
+            library.getSessions().logIn(user.getUserId());
+            workers.add(Thread.ofPlatform().start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (long now = System.nanoTime(); now < deadline; now = System.nanoTime()) {
+                    Long bookId = books.get(random.nextInt(books.size()));
+                    boolean ok = loans.borrowBook(user.getUserId(), bookId).getSuccess()
+                            && loans.returnBook(user.getUserId(), bookId).getSuccess();
+                    if (now >= warmupEnd) {
+                        (ok ? completed : failed).increment();
+                    }
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        System.out.printf("%-8s %8d %12.0f %10d%n", stripes == 1 ? "global" : stripes + "", threads,
+                2.0 * completed.sum() / seconds, failed.sum());
+    }
+}
@@ -0,0 +1,189 @@
+package org.library.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.library.LibraryBackend;
+import org.library.event.LoanEventType;
+import org.library.model.Book;
+import org.library.model.BookStatus;
+import org.library.model.User;
+import org.library.util.Result;
+import org.library.util.StripedLocks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+public class LoanConcurrencyTest {
+
+    @Test
+    void racingBorrowsOfOneBook_shouldLendItExactlyOncePerRound() throws Exception {
+        // given
+        LibraryBackend library = LibraryBackend.inMemory();
+        List<Long> users = users(library, 4);
+        Long bookId = books(library, 1).getFirst();
+        LoanService loans = library.getLoanService();
+        int rounds = 500;
+        int[] winners = new int[rounds];
+
+        // when
+        // Each round releases every patron at once against the same available book, then returns it.
+        try (ExecutorService executor = Executors.newFixedThreadPool(users.size())) {
+            for (int round = 0; round < rounds; round++) {
+                CyclicBarrier start = new CyclicBarrier(users.size());
+                List<Future<Result>> results = new ArrayList<>();
+                for (Long userId : users) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        return loans.borrowBook(userId, bookId);
+                    }));
+                }
+                List<Long> borrowers = new ArrayList<>();
+                for (int i = 0; i < results.size(); i++) {
+                    if (results.get(i).get().getSuccess()) {
+                        borrowers.add(users.get(i));
+                    }
+                }
+                winners[round] = borrowers.size();
+                for (Long userId : borrowers) {
+                    loans.returnBook(userId, bookId);
+                }
+            }
+        }
+
+        // then
+        for (int round = 0; round < rounds; round++) {
+            Assertions.assertEquals(1, winners[round], "round " + round);
+        }
+        Assertions.assertTrue(loans.getLoanRepository().findActiveByBookId(bookId).isEmpty());
+    }
+
+    @Test
+    void borrowAndReturnStorm_shouldNeverHaveTwoHoldersOfABook() throws Exception {
+        // given
+        LibraryBackend library = LibraryBackend.inMemory();
+        List<Long> users = users(library, 64);
+        List<Long> books = books(library, 8);
+        LoanService loans = library.getLoanService();
+
+        // Holders per book as seen by the events, which are published while the book's lock is held.
+        AtomicIntegerArray holders = new AtomicIntegerArray(books.size() + 1);
+        AtomicInteger overlaps = new AtomicInteger();
+        loans.addListener(event -> {
+            int book = (int) event.getBookId();
+            if (event.getType() == LoanEventType.BORROWED && holders.incrementAndGet(book) > 1) {
+                overlaps.incrementAndGet();
+            } else if (event.getType() == LoanEventType.RETURNED) {
+                holders.decrementAndGet(book);
+            }
+        });
+
+        // when
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            for (Long userId : users) {
+                executor.execute(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < 300; i++) {
+                        Long bookId = books.get(random.nextInt(books.size()));
+                        if (random.nextBoolean()) {
+                            loans.borrowBook(userId, bookId);
+                        } else {
+                            loans.returnBook(userId, bookId);
+                        }
+                    }
+                });
+            }
+            start.countDown();
+        }
+
+        // then
+        Assertions.assertEquals(0, overlaps.get());
+        for (Long bookId : books) {
+            int active = loans.getLoanRepository().findActiveByBookId(bookId).size();
+            Assertions.assertTrue(active <= 1, "book " + bookId + " has " + active + " active loans");
+            Assertions.assertEquals(active, holders.get(bookId.intValue()));
+        }
+    }
+
+    @Test
+    void racingBorrowsByOneUser_shouldStopAtTheLoanLimit() throws Exception {
+        // given
+        LibraryBackend library = LibraryBackend.inMemory();
+        Long userId = users(library, 1).getFirst();
+        List<Long> books = books(library, 32);
+        LoanService loans = library.getLoanService();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Result>> results = new ArrayList<>();
+
+        // when
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            for (Long bookId : books) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return loans.borrowBook(userId, bookId);
+                }));
+            }
+            start.countDown();
+        }
+
+        // then
+        int succeeded = 0;
+        for (Future<Result> result : results) {
+            succeeded += result.get().getSuccess() ? 1 : 0;
+        }
+        Assertions.assertEquals(LoanService.MAX_ACTIVE_LOANS, succeeded);
+        Assertions.assertEquals(LoanService.MAX_ACTIVE_LOANS, loans.countActiveLoans(userId));
+    }
+
+    @Test
+    void withLocks_inOppositeOrders_shouldNotDeadlock() {
+        // given
+        StripedLocks locks = new StripedLocks(8);
+        AtomicInteger completed = new AtomicInteger();
+
+        // when / then
+        Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+                for (int t = 0; t < 8; t++) {
+                    boolean reversed = t % 2 == 1;
+                    executor.execute(() -> {
+                        for (int i = 0; i < 20_000; i++) {
+                            long a = i % 16;
+                            long b = (i * 7 + 3) % 16;
+                            locks.withLocks(reversed ? b : a, reversed ? a : b, completed::incrementAndGet);
+                        }
+                    });
+                }
+            }
+        });
+        Assertions.assertEquals(8 * 20_000, completed.get());
+    }
+
+    private static List<Long> users(LibraryBackend library, int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = library.getUserRepository().save(new User("User " + i, "user" + i + "@example.com", "hash"));
+            library.getSessions().logIn(user.getUserId());
+            ids.add(user.getUserId());
+        }
+        return ids;
+    }
+
+    private static List<Long> books(LibraryBackend library, int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(library.getBookRepository().save(new Book(null, "Title " + i, "Author", 2000, "Press",
+                    null, "BC-" + i, BookStatus.AVAILABLE)).getBookID());
+        }
+        return ids;
+    }
+}
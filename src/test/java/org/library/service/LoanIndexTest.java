@@ -0,0 +1,86 @@
+package org.library.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.library.cache.ActiveLoanIndex;
+import org.library.model.*;
+import org.library.repository.InMemoryBookRepository;
+import org.library.repository.InMemoryLoanRepository;
+import org.library.repository.InMemoryUserRepository;
+import org.library.util.ConnectionProvider;
+import org.library.util.Database;
+import org.library.util.Result;
+import org.library.util.ResultCode;
+import org.library.util.TransactionRunner;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.time.LocalDate;
+
+public class LoanIndexTest {
+
+    private ConnectionProvider previous;
+    private InMemoryLoanRepository loans;
+    private LoanService loanService;
+    private Long userId;
+    private Long bookId;
+
+    @BeforeEach
+    void setup() {
+        // Transactions only need a connection to commit or roll back; the rows live in memory.
+        previous = Database.getConnectionProvider();
+        Database.setConnectionProvider(operation -> connection());
+
+        InMemoryUserRepository users = new InMemoryUserRepository();
+        InMemoryBookRepository books = new InMemoryBookRepository();
+        loans = new InMemoryLoanRepository();
+        Sessions sessions = new Sessions();
+
+        loanService = new LoanService();
+        loanService.setUserRepository(users);
+        loanService.setBookRepository(books);
+        loanService.setLoanRepository(loans);
+        loanService.setTransactionRunner(TransactionRunner.JDBC);
+        loanService.setActiveLoanIndex(new ActiveLoanIndex());
+        loanService.setSessions(sessions);
+
+        userId = users.save(new User("Ann", "ann@example.com", "hash")).getUserId();
+        bookId = books.save(new Book(null, "Dune", "Frank Herbert", 1965, "Chilton", null, null,
+                BookStatus.AVAILABLE)).getBookID();
+        sessions.logIn(userId);
+    }
+
+    @AfterEach
+    void restore() {
+        Database.setConnectionProvider(previous);
+    }
+
+    @Test
+    void borrowInTransaction_shouldSeeLoansTheIndexMissed() {
+        // given
+        // Lent by another node: the row exists, this node's index never heard of it.
+        loans.save(new Loan(99L, bookId, LocalDate.now(), null, LocalDate.now().plusMonths(1), LoanStatus.ACTIVE));
+
+        // when
+        Result result = loanService.borrowBook(userId, bookId);
+
+        // then
+        Assertions.assertEquals(ResultCode.BOOK_ALREADY_BORROWED, result.getCode());
+        Assertions.assertEquals(1, loans.findActiveByBookId(bookId).size());
+    }
+
+    private static Connection connection() {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "setAutoCommit", "commit", "rollback", "close", "setTransactionIsolation" -> null;
+                    case "getTransactionIsolation" -> Connection.TRANSACTION_READ_COMMITTED;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
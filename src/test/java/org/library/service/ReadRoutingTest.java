@@ -0,0 +1,136 @@
+package org.library.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.library.model.Book;
+import org.library.model.BookStatus;
+import org.library.model.User;
+import org.library.repository.InMemoryBookRepository;
+import org.library.repository.InMemoryLoanRepository;
+import org.library.repository.InMemoryUserRepository;
+import org.library.util.ConnectionProvider;
+import org.library.util.Database;
+import org.library.util.DbOperation;
+import org.library.util.TransactionRunner;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class ReadRoutingTest {
+
+    private final List<DbOperation> bookReads = new CopyOnWriteArrayList<>();
+    private ConnectionProvider previous;
+    private LoanService loanService;
+    private BookService bookService;
+    private LibraryService libraryService;
+    private Long userId;
+    private Long bookId;
+
+    @BeforeEach
+    void setup() {
+        // Book lookups ask the database for a read connection, so the provider sees where they are routed.
+        previous = Database.getConnectionProvider();
+        Database.setConnectionProvider(operation -> {
+            bookReads.add(operation);
+            return connection();
+        });
+
+        InMemoryUserRepository users = new InMemoryUserRepository();
+        InMemoryBookRepository books = new RoutedBookRepository();
+        Sessions sessions = new Sessions();
+
+        loanService = new LoanService();
+        loanService.setUserRepository(users);
+        loanService.setBookRepository(books);
+        loanService.setLoanRepository(new InMemoryLoanRepository());
+        loanService.setTransactionRunner(TransactionRunner.NONE);
+        loanService.setSessions(sessions);
+        bookService = new BookService(books);
+        bookService.setReadYourWrites(loanService.getReadYourWrites());
+        libraryService = new LibraryService(bookService, loanService, books);
+
+        userId = users.save(new User("Ann", "ann@example.com", "hash")).getUserId();
+        bookId = books.save(new Book(null, "Dune", "Frank Herbert", 1965, "Chilton", null, "DUNE-1",
+                BookStatus.AVAILABLE)).getBookID();
+        sessions.logIn(userId);
+        bookReads.clear();
+    }
+
+    @AfterEach
+    void restore() {
+        Database.setConnectionProvider(previous);
+    }
+
+    @Test
+    void borrow_shouldLookUpTheBookOnThePrimary() {
+        // when
+        Assertions.assertTrue(loanService.borrowBook(userId, bookId).getSuccess());
+        loanService.returnBookByBarcode(userId, "DUNE-1");
+
+        // then
+        Assertions.assertFalse(bookReads.isEmpty());
+        Assertions.assertTrue(bookReads.stream().allMatch(operation -> operation == DbOperation.WRITE));
+    }
+
+    @Test
+    void catalogReads_shouldFollowTheUsersOwnBorrow() {
+        // given
+        loanService.borrowBook(userId, bookId);
+        bookReads.clear();
+
+        // when
+        Book seen = libraryService.getBookById(userId, bookId).orElseThrow();
+        bookService.listAvailableBooks(userId);
+        libraryService.getBookById(userId + 1, bookId);
+
+        // then
+        Assertions.assertEquals(BookStatus.BORROWED, seen.getStatus());
+        Assertions.assertEquals(List.of(DbOperation.WRITE, DbOperation.WRITE, DbOperation.READ), bookReads);
+    }
+
+    private static class RoutedBookRepository extends InMemoryBookRepository {
+        @Override
+        public Optional<Book> findById(Long id) {
+            touch();
+            return super.findById(id);
+        }
+
+        @Override
+        public Optional<Book> findByBarcode(String barcode) {
+            touch();
+            return super.findByBarcode(barcode);
+        }
+
+        @Override
+        public List<Book> findAvailable() {
+            touch();
+            return super.findAvailable();
+        }
+
+        private static void touch() {
+            try (Connection ignored = Database.getConnection(DbOperation.READ)) {
+                // Only the routing decision matters.
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private static Connection connection() {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> null;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,72 @@
+package org.library.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SessionTokensTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final List<Long> expired = new ArrayList<>();
+
+    @Test
+    void issue_shouldReplaceTheUsersPreviousToken() {
+        // given
+        SessionTokens tokens = new SessionTokens(Duration.ofMinutes(30), 10, expired::add, now::get);
+        String lost = tokens.issue(1L);
+
+        // when
+        String replacement = tokens.issue(1L);
+
+        // then
+        Assertions.assertNull(tokens.resolve(lost));
+        Assertions.assertEquals(1L, tokens.resolve(replacement));
+        Assertions.assertEquals(1, tokens.size());
+        Assertions.assertTrue(expired.isEmpty());
+    }
+
+    @Test
+    void resolve_shouldExpireIdleTokensButKeepActiveOnesAlive() {
+        // given
+        SessionTokens tokens = new SessionTokens(Duration.ofMinutes(30), 10, expired::add, now::get);
+        String idle = tokens.issue(1L);
+        String active = tokens.issue(2L);
+
+        // when
+        now.addAndGet(TimeUnit.MINUTES.toNanos(20));
+        Long stillActive = tokens.resolve(active);
+        now.addAndGet(TimeUnit.MINUTES.toNanos(20));
+
+        // then
+        Assertions.assertEquals(2L, stillActive);
+        Assertions.assertNull(tokens.resolve(idle));
+        Assertions.assertEquals(2L, tokens.resolve(active));
+        Assertions.assertEquals(List.of(1L), expired);
+    }
+
+    @Test
+    void issue_shouldSweepExpiredTokensAndRefuseBeyondTheLimit() {
+        // given
+        SessionTokens tokens = new SessionTokens(Duration.ofMinutes(30), 2, expired::add, now::get);
+        tokens.issue(1L);
+        tokens.issue(2L);
+
+        // when
+        String refused = tokens.issue(3L);
+        String relogin = tokens.issue(2L);
+        now.addAndGet(TimeUnit.MINUTES.toNanos(31));
+        String afterExpiry = tokens.issue(3L);
+
+        // then
+        Assertions.assertNull(refused);
+        Assertions.assertNotNull(relogin);
+        Assertions.assertNotNull(afterExpiry);
+        Assertions.assertEquals(1, tokens.size());
+        Assertions.assertEquals(2, expired.size());
+    }
+}
@@ -0,0 +1,52 @@
+package org.library.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.library.repository.InMemoryUserRepository;
+import org.library.util.Result;
+import org.library.util.TransactionRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+public class UserRegistrationConcurrencyTest {
+
+    @Test
+    void registerUser_shouldAcceptExactlyOneOfConcurrentRegistrationsForSameEmail() throws Exception {
+        // given
+        InMemoryUserRepository repository = new InMemoryUserRepository();
+        UserService userService = new UserService(repository, null);
+        userService.setTransactionRunner(TransactionRunner.NONE);
+
+        int attempts = 32;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Result>> results = new ArrayList<>();
+
+        // when
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < attempts; i++) {
+                String email = i % 2 == 0 ? "Anna.Nowak@Example.com" : " anna.nowak@example.com";
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return userService.registerUser(email, "Anna Nowak", "Password1");
+                }));
+            }
+            start.countDown();
+        }
+
+        // then
+        int succeeded = 0;
+        for (Future<Result> result : results) {
+            if (result.get().getSuccess()) {
+                succeeded++;
+            } else {
+                Assertions.assertEquals("User with email address anna.nowak@example.com already exists.",
+                        result.get().getMessage());
+            }
+        }
+        Assertions.assertEquals(1, succeeded);
+        Assertions.assertEquals(1, repository.findAll().size());
+        Assertions.assertTrue(repository.findByEmail("ANNA.NOWAK@example.com").isPresent());
+    }
+}
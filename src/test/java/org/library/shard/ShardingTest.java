@@ -0,0 +1,228 @@
+package org.library.shard;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.library.model.Loan;
+import org.library.model.LoanStatus;
+import org.library.model.User;
+import org.library.repository.InMemoryLoanRepository;
+import org.library.repository.InMemoryShardDirectoryRepository;
+import org.library.repository.InMemoryUserRepository;
+import org.library.repository.LoanRepositoryInterface;
+import org.library.repository.UserRepositoryInterface;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+public class ShardingTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final List<UserRepositoryInterface> userShards = IntStream.range(0, 3)
+            .<UserRepositoryInterface>mapToObj(i -> new InMemoryUserRepository()).toList();
+    private final List<LoanRepositoryInterface> loanShards = IntStream.range(0, 3)
+            .<LoanRepositoryInterface>mapToObj(i -> new InMemoryLoanRepository()).toList();
+
+    private final ShardRouter router = new ShardRouter(new ShardRing(2));
+    private final ShardIdGenerator ids = new ShardIdGenerator(1);
+    private final ShardedUserRepository users = new ShardedUserRepository(userShards, router, ids, executor);
+    private final ShardedLoanRepository loans = new ShardedLoanRepository(loanShards, router, ids, executor);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void shardRing_shouldOnlyMoveKeysToTheAddedShard() {
+        // given
+        ShardRing four = new ShardRing(4);
+        ShardRing five = new ShardRing(5);
+        int[] perShard = new int[4];
+        int moved = 0;
+
+        // when
+        for (long userId = 1; userId <= 100_000; userId++) {
+            int before = four.shardFor(userId);
+            int after = five.shardFor(userId);
+            perShard[before]++;
+            if (before != after) {
+                moved++;
+                Assertions.assertEquals(4, after);
+            }
+        }
+
+        // then
+        for (int count : perShard) {
+            Assertions.assertTrue(count > 20_000 && count < 30_000, "uneven shard: " + count);
+        }
+        Assertions.assertTrue(moved > 15_000 && moved < 25_000, "moved " + moved);
+    }
+
+    @Test
+    void idGenerator_shouldProduceUniqueIdsCarryingTheShard() {
+        // given
+        Set<Long> seen = new HashSet<>();
+        long[] previous = new long[7];
+
+        // when / then
+        for (int i = 0; i < 10_000; i++) {
+            int shard = i % 7;
+            long id = ids.next(shard);
+            Assertions.assertTrue(seen.add(id));
+            Assertions.assertTrue(id > previous[shard]);
+            Assertions.assertEquals(shard, ShardIdGenerator.shardOf(id));
+            previous[shard] = id;
+        }
+    }
+
+    @Test
+    void shardedRepositories_shouldRouteByUserAndGatherByBook() {
+        // given
+        List<User> saved = IntStream.range(0, 50)
+                .mapToObj(i -> users.save(new User("User " + i, "user" + i + "@example.com", null)))
+                .toList();
+        for (User user : saved) {
+            loans.save(loan(user.getUserId(), 42L));
+        }
+
+        // when
+        User user = saved.get(7);
+        int shard = router.shardFor(user.getUserId());
+
+        // then
+        Assertions.assertEquals(1, loanShards.get(shard).countActiveByUserId(user.getUserId()));
+        Assertions.assertEquals(1, loans.countActiveByUserId(user.getUserId()));
+        Assertions.assertEquals(50, loans.findActiveByBookId(42L).size());
+        Assertions.assertEquals(user, users.findByEmail("user7@example.com").orElseThrow());
+
+        Loan loan = loans.findActiveByUserId(user.getUserId()).getFirst();
+        Assertions.assertEquals(shard, ShardIdGenerator.shardOf(loan.getLoanId()));
+        Assertions.assertTrue(loans.markReturned(loan.getLoanId(), LocalDate.now()));
+        Assertions.assertEquals(0, loans.countActiveByUserId(user.getUserId()));
+    }
+
+    @Test
+    void resharder_shouldMoveUsersWithTheirLoansToTheNewShard() {
+        // given
+        List<User> saved = IntStream.range(0, 300)
+                .mapToObj(i -> users.save(new User("User " + i, "user" + i + "@example.com", null)))
+                .toList();
+        for (User user : saved) {
+            loans.save(loan(user.getUserId(), user.getUserId() % 10));
+        }
+        ShardRing target = new ShardRing(3);
+
+        // when
+        int moved = new Resharder(userShards, loanShards, router).reshard(target);
+
+        // then
+        Assertions.assertTrue(moved > 50 && moved < 150, "moved " + moved);
+        Assertions.assertEquals(moved, userShards.get(2).findAll().size());
+        Assertions.assertEquals(0, router.relocatedCount());
+        for (User user : saved) {
+            int shard = target.shardFor(user.getUserId());
+            Assertions.assertTrue(userShards.get(shard).findById(user.getUserId()).isPresent());
+            Assertions.assertEquals(1, loanShards.get(shard).countActiveByUserId(user.getUserId()));
+            Assertions.assertEquals(1, loans.countActiveByUserId(user.getUserId()));
+        }
+        Assertions.assertEquals(300, users.findAll().size());
+    }
+
+    @Test
+    void shardDirectory_shouldCarryMovesToEveryRouter() {
+        // given
+        InMemoryShardDirectoryRepository directory = new InMemoryShardDirectoryRepository();
+        ShardRouter mover = new ShardRouter(directory, new ShardRing(2));
+        ShardRouter other = new ShardRouter(directory, new ShardRing(2));
+        ShardedUserRepository moverUsers = new ShardedUserRepository(userShards, mover, ids, executor);
+        ShardedUserRepository otherUsers = new ShardedUserRepository(userShards, other, ids, executor);
+        List<User> saved = IntStream.range(0, 100)
+                .mapToObj(i -> moverUsers.save(new User("User " + i, "user" + i + "@example.com", null)))
+                .toList();
+        Resharder resharder = new Resharder(userShards, loanShards, mover);
+        User user = saved.getFirst();
+
+        // when
+        Assertions.assertTrue(resharder.moveUser(user.getUserId(), 2));
+
+        // then
+        Assertions.assertTrue(otherUsers.findById(user.getUserId()).isEmpty());
+        Assertions.assertTrue(other.refresh());
+        Assertions.assertEquals(2, other.shardFor(user.getUserId()));
+        Assertions.assertEquals(user.getEmail(), otherUsers.findById(user.getUserId()).orElseThrow().getEmail());
+
+        // when
+        resharder.reshard(new ShardRing(3));
+        other.refresh();
+
+        // then
+        ShardRouter late = new ShardRouter(directory, new ShardRing(2));
+        Assertions.assertEquals(3, other.getRing().getShardCount());
+        Assertions.assertEquals(3, late.getRing().getShardCount());
+        for (User each : saved) {
+            Assertions.assertTrue(otherUsers.findById(each.getUserId()).isPresent());
+            Assertions.assertEquals(mover.shardFor(each.getUserId()), late.shardFor(each.getUserId()));
+        }
+    }
+
+    @Test
+    void moveUser_shouldTakeArchivedLoansAlong() {
+        // given
+        User user = users.save(new User("Ann", "ann@example.com", null));
+        int source = router.shardFor(user.getUserId());
+        int destination = source == 0 ? 1 : 0;
+        Loan returned = loan(user.getUserId(), 3L);
+        returned.setLoanId(ids.next(source));
+        returned.setStatus(LoanStatus.RETURNED);
+        returned.setReturnDate(LocalDate.now());
+        loanShards.get(source).saveArchived(returned);
+        loans.save(loan(user.getUserId(), 4L));
+
+        // when
+        boolean moved = new Resharder(userShards, loanShards, router).moveUser(user.getUserId(), destination);
+
+        // then
+        Assertions.assertTrue(moved);
+        Assertions.assertTrue(loanShards.get(source).findArchivedByUserId(user.getUserId()).isEmpty());
+        Assertions.assertEquals(List.of(returned.getLoanId()), loanShards.get(destination)
+                .findArchivedByUserId(user.getUserId()).stream().map(Loan::getLoanId).toList());
+        Assertions.assertEquals(2, loans.findByUserId(user.getUserId(), true).size());
+    }
+
+    @Test
+    void shardedUsers_shouldKeepEmailsUniqueAcrossShards() {
+        // given
+        User first = users.save(new User("Ann", "ann@example.com", null));
+        int firstShard = router.shardFor(first.getUserId());
+        long otherShardId = ids.next(0);
+        while (router.shardFor(otherShardId) == firstShard) {
+            otherShardId = ids.next(0);
+        }
+
+        // when
+        Optional<User> duplicate = users.saveIfAbsent(new User(otherShardId, "Ann", "ANN@example.com", null));
+
+        // then
+        Assertions.assertTrue(duplicate.isEmpty());
+        Assertions.assertEquals(1, users.findAll().size());
+        Assertions.assertEquals(first.getUserId(), users.findByEmail("Ann@Example.com").orElseThrow().getUserId());
+
+        // when
+        Assertions.assertTrue(users.delete(first.getUserId()));
+
+        // then
+        Assertions.assertTrue(users.saveIfAbsent(new User(otherShardId, "Ann", "ANN@example.com", null)).isPresent());
+    }
+
+    private static Loan loan(Long userId, Long bookId) {
+        return new Loan(userId, bookId, LocalDate.now(), null, LocalDate.now().plusMonths(1), LoanStatus.ACTIVE);
+    }
+}
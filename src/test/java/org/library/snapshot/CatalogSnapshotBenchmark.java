@@ -0,0 +1,72 @@
+package org.library.snapshot;
+
+import org.library.cache.CachingBookRepository;
+import org.library.cache.CachingLoanRepository;
+import org.library.cache.CachingUserRepository;
+import org.library.model.*;
+import org.library.repository.BookRepository;
+import org.library.repository.LoanRepository;
+import org.library.repository.UserRepository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+
+// Usage: CatalogSnapshotBenchmark [books] [users] [activeLoans] | --cold
+// --cold times a full load through JDBC and needs a reachable database.
+public class CatalogSnapshotBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--cold")) {
+            cold();
+            return;
+        }
+
+        int books = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int users = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        int activeLoans = args.length > 2 ? Integer.parseInt(args[2]) : 500_000;
+
+        Path file = Files.createTempDirectory("catalog-snapshot-bench").resolve("catalog.snapshot");
+        LocalDate today = LocalDate.now();
+
+        long began = System.nanoTime();
+        try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(file, Instant.now())) {
+            for (long id = 1; id <= books; id++) {
+                writer.writeBook(new Book(id, "Title " + id, "Author " + id % 10_000, 1950 + (int) (id % 70),
+                        "Publisher " + id % 500, "9780306406157", "BC" + id, BookStatus.AVAILABLE));
+            }
+            for (long id = 1; id <= users; id++) {
+                writer.writeUser(new User(id, "User " + id, "user" + id + "@example.com", "hash" + id));
+            }
+            for (long id = 1; id <= activeLoans; id++) {
+                writer.writeLoan(new Loan(id, id % users + 1, id, today, null, today.plusMonths(1), LoanStatus.ACTIVE));
+            }
+        }
+        long written = System.nanoTime() - began;
+
+        CachingBookRepository bookCache = new CachingBookRepository(null);
+        CachingUserRepository userCache = new CachingUserRepository(null);
+        CachingLoanRepository loanCache = new CachingLoanRepository(null);
+
+        began = System.nanoTime();
+        new CatalogSnapshotLoader(bookCache, userCache, loanCache).load(file);
+        long loaded = System.nanoTime() - began;
+
+        System.out.printf("books=%d users=%d loans=%d size=%.1f MB write=%.0f ms time-to-ready=%.0f ms%n",
+                bookCache.size(), userCache.size(), loanCache.activeCount(), Files.size(file) / 1e6,
+                written / 1e6, loaded / 1e6);
+        Files.delete(file);
+    }
+
+    private static void cold() {
+        CachingBookRepository bookCache = new CachingBookRepository(new BookRepository());
+        CachingUserRepository userCache = new CachingUserRepository(new UserRepository());
+        CachingLoanRepository loanCache = new CachingLoanRepository(new LoanRepository());
+
+        long began = System.nanoTime();
+        new CatalogSnapshotLoader(bookCache, userCache, loanCache).coldStart();
+        System.out.printf("books=%d users=%d loans=%d time-to-ready=%.0f ms (cold, JDBC)%n",
+                bookCache.size(), userCache.size(), loanCache.activeCount(), (System.nanoTime() - began) / 1e6);
+    }
+}
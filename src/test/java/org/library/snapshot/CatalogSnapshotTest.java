@@ -0,0 +1,176 @@
+package org.library.snapshot;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.library.cache.CachingBookRepository;
+import org.library.cache.CachingLoanRepository;
+import org.library.cache.CachingUserRepository;
+import org.library.model.*;
+import org.library.repository.InMemoryBookRepository;
+import org.library.repository.InMemoryLoanRepository;
+import org.library.repository.InMemoryUserRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+
+public class CatalogSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void load_shouldRestoreBooksUsersAndActiveLoans() {
+        // given
+        Path file = directory.resolve("catalog.snapshot");
+        Instant takenAt = Instant.parse("2026-01-15T10:00:00Z");
+        Loan loan = new Loan(7L, 2L, 1L, LocalDate.of(2026, 1, 2), null, LocalDate.of(2026, 2, 2), LoanStatus.ACTIVE);
+
+        try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(file, takenAt)) {
+            for (long id = 1; id <= 50_000; id++) {
+                writer.writeBook(new Book(id, "Title " + id, "Author", 1990, "Publisher",
+                        "9780306406157", "BC" + id, BookStatus.AVAILABLE, id % 3));
+            }
+            writer.writeUser(new User(2L, "Zoë Łukasz", "zoe@example.com", null));
+            writer.writeLoan(loan);
+        }
+
+        CachingBookRepository books = new CachingBookRepository(null);
+        CachingUserRepository users = new CachingUserRepository(null);
+        CachingLoanRepository loans = new CachingLoanRepository(null);
+
+        // when
+        Instant loaded = new CatalogSnapshotLoader(books, users, loans, 4).load(file);
+
+        // then
+        Assertions.assertEquals(takenAt, loaded);
+        Assertions.assertEquals(50_000, books.size());
+        Book book = books.findById(42L).orElseThrow();
+        Assertions.assertEquals("Title 42", book.getTitle());
+        Assertions.assertEquals("BC42", book.getBarcode());
+        Assertions.assertEquals(0, book.getVersion());
+        Assertions.assertEquals(2, books.findById(41L).orElseThrow().getVersion());
+        // Restored users lack the password hash, so single lookups read through; listings do not.
+        users.markComplete();
+        User user = users.findAll().get(0);
+        Assertions.assertEquals(2L, user.getUserId());
+        Assertions.assertEquals("Zoë Łukasz", user.getFullName());
+        Assertions.assertNull(user.getPassword());
+        Assertions.assertEquals(loan, loans.findById(7L).orElseThrow());
+    }
+
+    @Test
+    void snapshot_shouldLeavePasswordHashesOut() throws IOException {
+        // given
+        String hash = "5e884898da28047151d0e56f8dc6292773603d0d6aabbdd62a11ef721d1542d8";
+        InMemoryUserRepository userStore = new InMemoryUserRepository();
+        User user = userStore.save(new User(null, "Ann", "ann@example.com", hash));
+
+        Path file = directory.resolve("catalog.snapshot");
+        try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(file, Instant.now())) {
+            writer.writeUser(user);
+        }
+        CachingUserRepository users = new CachingUserRepository(userStore);
+
+        // when
+        new CatalogSnapshotLoader(new CachingBookRepository(null), users, new CachingLoanRepository(null), 1)
+                .load(file);
+
+        // then
+        Assertions.assertFalse(new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1).contains(hash));
+        Assertions.assertEquals(1, users.size());
+        Assertions.assertEquals(hash, users.findByEmail("ann@example.com").orElseThrow().getPassword());
+    }
+
+    @Test
+    void catchUp_shouldDropRowsDeletedAfterTheSnapshot() {
+        // given
+        InMemoryBookRepository bookStore = new InMemoryBookRepository();
+        InMemoryUserRepository userStore = new InMemoryUserRepository();
+        InMemoryLoanRepository loanStore = new InMemoryLoanRepository();
+        Book kept = bookStore.save(new Book(null, "Dune", "Frank Herbert", 1965, "Chilton", null, null,
+                BookStatus.BORROWED));
+        Book removed = bookStore.save(new Book(null, "Emma", "Jane Austen", 1815, "Murray", null, null,
+                BookStatus.BORROWED));
+        User moved = userStore.save(new User(null, "Ann", "ann@example.com", "secret"));
+        Loan loan = loanStore.save(new Loan(moved.getUserId(), removed.getBookID(), LocalDate.now(), null,
+                LocalDate.now().plusMonths(1), LoanStatus.ACTIVE));
+
+        Path file = directory.resolve("catalog.snapshot");
+        Instant takenAt = Instant.now();
+        try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(file, takenAt)) {
+            bookStore.findAll().forEach(writer::writeBook);
+            userStore.findAll().forEach(writer::writeUser);
+            loanStore.streamActive(writer::writeLoan);
+        }
+
+        loanStore.deleteById(loan.getLoanId());
+        bookStore.delete(removed.getBookID());
+        // Deleted on one shard and written again on another, as a user move does.
+        userStore.delete(moved.getUserId());
+        userStore.save(moved);
+
+        CachingBookRepository books = new CachingBookRepository(bookStore);
+        CachingUserRepository users = new CachingUserRepository(userStore);
+        CachingLoanRepository loans = new CachingLoanRepository(loanStore);
+
+        // when
+        new CatalogSnapshotLoader(books, users, loans, 1).warmStart(file);
+
+        // then
+        Assertions.assertTrue(books.findById(kept.getBookID()).isPresent());
+        Assertions.assertTrue(books.findById(removed.getBookID()).isEmpty());
+        Assertions.assertTrue(users.findById(moved.getUserId()).isPresent());
+        Assertions.assertTrue(loans.findActiveByBookId(removed.getBookID()).isEmpty());
+        Assertions.assertEquals(0, loans.activeCount());
+    }
+
+    @Test
+    void catchUpSinceLastRun_shouldPickUpRowsWrittenBehindTheCache() {
+        // given
+        InMemoryBookRepository bookStore = new InMemoryBookRepository();
+        CachingBookRepository books = new CachingBookRepository(bookStore);
+        CatalogSnapshotLoader loader = new CatalogSnapshotLoader(books,
+                new CachingUserRepository(new InMemoryUserRepository()),
+                new CachingLoanRepository(new InMemoryLoanRepository()), 1);
+        loader.coldStart();
+
+        // Written by another node, straight to the database.
+        Book added = bookStore.save(new Book(null, "Dune", "Frank Herbert", 1965, "Chilton", null, null,
+                BookStatus.AVAILABLE));
+        Assertions.assertTrue(books.findById(added.getBookID()).isEmpty());
+
+        // when
+        loader.catchUpSinceLastRun();
+
+        // then
+        Assertions.assertEquals("Dune", books.findById(added.getBookID()).orElseThrow().getTitle());
+    }
+
+    @Test
+    void load_shouldRejectCorruptedChunk() throws IOException {
+        // given
+        Path file = directory.resolve("catalog.snapshot");
+        try (CatalogSnapshotWriter writer = new CatalogSnapshotWriter(file, Instant.now())) {
+            writer.writeUser(new User(1L, "Ann", "ann@example.com", null));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), SnapshotFormat.HEADER_SIZE + Long.BYTES + Integer.BYTES);
+        }
+
+        CatalogSnapshotLoader loader = new CatalogSnapshotLoader(
+                new CachingBookRepository(null), new CachingUserRepository(null), new CachingLoanRepository(null), 1);
+
+        // when / then
+        IllegalStateException error = Assertions.assertThrows(IllegalStateException.class, () -> loader.load(file));
+        Assertions.assertTrue(error.getCause().getMessage().contains("Checksum mismatch"));
+    }
+}
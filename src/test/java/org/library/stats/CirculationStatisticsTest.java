@@ -0,0 +1,143 @@
+package org.library.stats;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.library.event.LoanEvent;
+import org.library.model.Loan;
+import org.library.model.LoanStatus;
+import org.library.repository.StatisticsRepositoryInterface;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.UUID;
+
+public class CirculationStatisticsTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 10);
+
+    private RecordingRepository repository;
+    private CirculationStatistics statistics;
+
+    @BeforeEach
+    void setup() {
+        repository = new RecordingRepository();
+        statistics = new CirculationStatistics(repository);
+    }
+
+    @Test
+    void topBorrowed_shouldRankBooksByBorrowsInMonth() {
+        // given
+        borrow(1L, 100L, DAY);
+        borrow(2L, 100L, DAY);
+        borrow(3L, 100L, DAY.plusDays(1));
+        borrow(4L, 200L, DAY);
+        borrow(5L, 300L, DAY);
+        borrow(6L, 300L, DAY);
+        borrow(7L, 400L, DAY.plusMonths(1));
+
+        // when
+        List<BookBorrowCount> top = statistics.topBorrowed(YearMonth.from(DAY), 2);
+
+        // then
+        Assertions.assertEquals(List.of(new BookBorrowCount(100L, 3), new BookBorrowCount(300L, 2)), top);
+    }
+
+    @Test
+    void loansPerDay_shouldCountBorrowsPerDay() {
+        // given
+        borrow(1L, 100L, DAY);
+        borrow(2L, 101L, DAY);
+        borrow(3L, 102L, DAY.plusDays(2));
+
+        // when
+        SortedMap<LocalDate, Integer> perDay = statistics.loansPerDay(DAY, DAY.plusDays(2));
+
+        // then
+        Assertions.assertEquals(List.of(2, 0, 1), new ArrayList<>(perDay.values()));
+    }
+
+    @Test
+    void averageLoanDuration_shouldUseReturnedLoans() {
+        // given
+        statistics.onLoanEvent(LoanEvent.returned(loan(1L, 100L, DAY), DAY.plusDays(4)));
+        statistics.onLoanEvent(LoanEvent.returned(loan(2L, 101L, DAY), DAY.plusDays(10)));
+
+        // when
+        double average = statistics.averageLoanDurationDays();
+
+        // then
+        Assertions.assertEquals(7.0, average, 0.0001);
+        Assertions.assertEquals(1, statistics.durationHistogram()[4]);
+        Assertions.assertEquals(1, statistics.durationHistogram()[10]);
+    }
+
+    @Test
+    void flush_shouldPersistOnlyChangesSinceLastFlush() {
+        // given
+        borrow(1L, 100L, DAY);
+        statistics.flush();
+        borrow(2L, 100L, DAY);
+
+        // when
+        statistics.flush();
+
+        // then
+        Assertions.assertEquals(2, repository.saved.size());
+        Assertions.assertEquals(1, repository.saved.get(1).getBorrowsByMonth(YearMonth.from(DAY)).get(100L));
+        Assertions.assertEquals(2, statistics.topBorrowed(YearMonth.from(DAY), 1).getFirst().getBorrows());
+    }
+
+    @Test
+    void flush_shouldNotCountABatchTwiceWhenItsCommitOutcomeWasUnknown() {
+        // given
+        borrow(1L, 100L, DAY);
+        repository.failAfterApplying = true;
+        statistics.flush();
+        repository.failAfterApplying = false;
+        borrow(2L, 100L, DAY);
+
+        // when
+        statistics.flush();
+
+        // then
+        Assertions.assertEquals(2, repository.saved.size());
+        Assertions.assertEquals(1, repository.saved.get(0).getBorrowsByMonth(YearMonth.from(DAY)).get(100L));
+        Assertions.assertEquals(1, repository.saved.get(1).getBorrowsByMonth(YearMonth.from(DAY)).get(100L));
+    }
+
+    private void borrow(Long loanId, Long bookId, LocalDate date) {
+        statistics.onLoanEvent(LoanEvent.borrowed(loan(loanId, bookId, date)));
+    }
+
+    private static Loan loan(Long loanId, Long bookId, LocalDate date) {
+        return new Loan(loanId, 1L, bookId, date, null, date.plusMonths(1), LoanStatus.ACTIVE);
+    }
+
+    private static class RecordingRepository implements StatisticsRepositoryInterface {
+        private final List<CirculationAggregates> saved = new ArrayList<>();
+        private final Set<UUID> flushIds = new HashSet<>();
+        // Applies the batch and then fails, as a lost connection during commit would.
+        private boolean failAfterApplying;
+
+        @Override
+        public void save(UUID flushId, CirculationAggregates delta) {
+            if (flushIds.add(flushId)) {
+                saved.add(delta);
+            }
+            if (failAfterApplying) {
+                throw new RuntimeException("Connection lost during commit");
+            }
+        }
+
+        @Override
+        public CirculationAggregates load(LocalDate since) {
+            return new CirculationAggregates();
+        }
+    }
+}
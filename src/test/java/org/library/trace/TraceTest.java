@@ -0,0 +1,115 @@
+package org.library.trace;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.library.LibraryBackend;
+import org.library.model.Book;
+import org.library.model.User;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TraceTest {
+    private static final String PASSWORD = "Trace#Secret9";
+
+    @Test
+    void recorder_shouldCaptureTopLevelCallsWithPasswordsRedacted(@TempDir Path dir) throws IOException {
+        // given
+        Path file = dir.resolve("calls.trace");
+        TraceRecorder recorder = new TraceRecorder(file);
+        LibraryBackend backend = LibraryBackend.of("memory", recorder);
+
+        // when
+        runWorkload(backend);
+        recorder.close();
+        List<TraceEvent> events = TraceReader.readAll(file);
+
+        // then
+        Assertions.assertEquals(0, recorder.getDropped());
+        Assertions.assertEquals(recorder.getWritten(), events.size());
+        Assertions.assertEquals(List.of(
+                TraceOperation.BOOK_ADD, TraceOperation.BOOK_ADD,
+                TraceOperation.USER_REGISTER, TraceOperation.USER_LOGIN,
+                TraceOperation.LIBRARY_BORROW_BOOK, TraceOperation.LOAN_BORROW_BOOK,
+                TraceOperation.BOOK_SEARCH_BY_TITLE, TraceOperation.BOOK_STREAM_AVAILABLE,
+                TraceOperation.LOAN_RETURN_BOOK, TraceOperation.LOAN_COUNT_ACTIVE_LOANS
+        ), events.stream().map(TraceEvent::getOperation).toList());
+
+        TraceEvent login = events.get(3);
+        Assertions.assertArrayEquals(new Object[]{"trace@example.com", TraceEvent.REDACTED}, login.getArguments());
+        Assertions.assertEquals(TraceFormat.SUCCESS, login.getOutcome());
+        Assertions.assertEquals(TraceFormat.FAILURE, events.get(5).getOutcome());
+        Assertions.assertEquals(1, events.get(7).getSize());
+        Assertions.assertTrue(events.get(4).getDurationNanos() > 0);
+
+        String raw = new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1);
+        Assertions.assertFalse(raw.contains(PASSWORD));
+    }
+
+    @Test
+    void replayer_shouldReissueTraceWithMatchingOutcomes(@TempDir Path dir) {
+        // given
+        Path file = dir.resolve("calls.trace");
+        try (TraceRecorder recorder = new TraceRecorder(file)) {
+            runWorkload(LibraryBackend.of("memory", recorder));
+        }
+        List<TraceEvent> events = TraceReader.readAll(file);
+
+        // when
+        ReplayReport report = new TraceReplayer(LibraryBackend.inMemory(), PASSWORD).replay(events, 0);
+        LibraryBackend differentState = LibraryBackend.inMemory();
+        differentState.getUserService().registerUser("trace@example.com", "Trace User", "Other#Pass1");
+        ReplayReport diverging = new TraceReplayer(differentState, PASSWORD).replay(events, 0);
+
+        // then
+        Assertions.assertEquals(events.size(), report.total());
+        for (TraceOperation operation : TraceOperation.values()) {
+            Assertions.assertEquals(0, report.diverged(operation), operation.name());
+        }
+        Assertions.assertEquals(1, diverging.diverged(TraceOperation.USER_REGISTER));
+        Assertions.assertEquals(1, diverging.diverged(TraceOperation.USER_LOGIN));
+        Assertions.assertEquals(1, diverging.diverged(TraceOperation.LIBRARY_BORROW_BOOK));
+        Assertions.assertEquals(0, diverging.diverged(TraceOperation.BOOK_SEARCH_BY_TITLE));
+    }
+
+    @Test
+    void replayer_shouldKeepCapturedThreadsAndSpacing() {
+        // given
+        List<TraceEvent> events = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            events.add(new TraceEvent(TraceOperation.LOAN_COUNT_ACTIVE_LOANS, i * 20_000_000L, 1_000, i % 2,
+                    new Object[]{1L}, TraceFormat.SIZE, 0));
+        }
+
+        // when
+        ReplayReport realTime = new TraceReplayer(LibraryBackend.inMemory(), PASSWORD).replay(events, 1);
+        ReplayReport doubled = new TraceReplayer(LibraryBackend.inMemory(), PASSWORD).replay(events, 2);
+
+        // then
+        Assertions.assertEquals(10, realTime.count(TraceOperation.LOAN_COUNT_ACTIVE_LOANS));
+        Assertions.assertTrue(realTime.getElapsedNanos() >= 180_000_000L, "elapsed " + realTime.getElapsedNanos());
+        Assertions.assertTrue(doubled.getElapsedNanos() >= 90_000_000L);
+        Assertions.assertTrue(doubled.getElapsedNanos() < realTime.getElapsedNanos());
+    }
+
+    private static void runWorkload(LibraryBackend backend) {
+        backend.getBookService().addBook("Dune", "Frank Herbert", 1965, "Chilton", null, "DUNE-1");
+        backend.getBookService().addBook("Emma", "Jane Austen", 1815, "Murray");
+        backend.getUserService().registerUser("trace@example.com", "Trace User", PASSWORD);
+        backend.getUserService().loginUser("trace@example.com", PASSWORD);
+
+        User user = backend.getUserRepository().findByEmail("trace@example.com").orElseThrow();
+        Book dune = backend.getBookRepository().findByBarcode("DUNE-1").orElseThrow();
+        backend.getLibraryService().borrowBook(user, dune);
+        backend.getLoanService().borrowBook(user.getUserId(), dune.getBookID());
+        backend.getBookService().searchBookByTitle("Emma");
+        backend.getBookService().streamAvailableBooks(0, 10, book -> { });
+        backend.getLoanService().returnBook(user.getUserId(), dune.getBookID());
+        backend.getLoanService().countActiveLoans(user.getUserId());
+    }
+}
@@ -0,0 +1,60 @@
+package org.library.util;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+// Allocation per result when the caller only checks getSuccess(), as the load generator and the
+// kiosk fast path do. Read gc.alloc.rate.norm (bytes/op) from the GC profiler output.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultBenchmark {
+    private String email = "anna.nowak@example.com";
+    private Long loanId = 123_456L;
+
+    @Benchmark
+    public boolean concatenatedFailure() {
+        return Result.failure("User with email " + email + " does not exist.").getSuccess();
+    }
+
+    @Benchmark
+    public boolean codedFailure() {
+        return Result.of(ResultCode.EMAIL_NOT_FOUND, email).getSuccess();
+    }
+
+    @Benchmark
+    public boolean concatenatedSuccess() {
+        return Result.success("Book borrowed successfully. Loan id: " + loanId).getSuccess();
+    }
+
+    @Benchmark
+    public boolean codedSuccess() {
+        return Result.of(ResultCode.BOOK_BORROWED, loanId).getSuccess();
+    }
+
+    @Benchmark
+    public boolean constantFailure() {
+        return Result.failure("Book is already borrowed").getSuccess();
+    }
+
+    @Benchmark
+    public boolean sharedFailure() {
+        return Result.of(ResultCode.BOOK_ALREADY_BORROWED).getSuccess();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(ResultBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,82 @@
+package org.library.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.library.LibraryBackend;
+import org.library.model.Book;
+import org.library.model.BookStatus;
+import org.library.model.LoanStatus;
+import org.library.model.User;
+
+public class ResultTest {
+
+    @Test
+    void messages_shouldMatchThePreviousFreeFormText() {
+        // when / then
+        Assertions.assertEquals("Book borrowed successfully. Loan id: 42",
+                Result.of(ResultCode.BOOK_BORROWED, 42L).getMessage());
+        Assertions.assertEquals("User has reached the maximum number of borrowed books: (5)",
+                Result.of(ResultCode.LOAN_LIMIT_REACHED, 5).getMessage());
+        Assertions.assertEquals("Loan status changed to OVERDUE",
+                Result.of(ResultCode.LOAN_STATUS_CHANGED, LoanStatus.OVERDUE).getMessage());
+        Assertions.assertEquals("User with email anna@example.com does not exist.",
+                Result.of(ResultCode.EMAIL_NOT_FOUND, "anna@example.com").getMessage());
+        Assertions.assertEquals("Book not found", Result.of(ResultCode.BOOK_NOT_FOUND).getMessage());
+        Assertions.assertEquals("Failure: Too many login requests", Result.failure("Too many login requests").toString());
+    }
+
+    @Test
+    void codesWithoutArgument_shouldReturnSharedInstancesAndCountEachCall() {
+        // given
+        long before = ResultCode.NO_ACTIVE_LOAN.count();
+
+        // when
+        Result first = Result.of(ResultCode.NO_ACTIVE_LOAN);
+        Result second = Result.of(ResultCode.NO_ACTIVE_LOAN);
+
+        // then
+        Assertions.assertSame(first, second);
+        Assertions.assertFalse(first.getSuccess());
+        Assertions.assertEquals(before + 2, ResultCode.NO_ACTIVE_LOAN.count());
+        Assertions.assertTrue(ResultCode.counts().get(ResultCode.NO_ACTIVE_LOAN) >= 2);
+    }
+
+    @Test
+    void services_shouldReportCodesAlongsideTheirMessages() {
+        // given
+        LibraryBackend library = LibraryBackend.inMemory();
+        User user = library.getUserRepository().save(new User("Anna Nowak", "anna@example.com", "hash"));
+        library.getSessions().logIn(user.getUserId());
+        Long bookId = library.getBookRepository().save(new Book(null, "Title", "Author", 2000, "Press",
+                null, "BC-1", BookStatus.AVAILABLE)).getBookID();
+
+        // when
+        Result borrowed = library.getLoanService().borrowBook(user.getUserId(), bookId);
+        Result again = library.getLoanService().borrowBook(user.getUserId(), bookId);
+        Result login = library.getUserService().loginUser("nobody@example.com", "Password1");
+
+        // then
+        Assertions.assertEquals(ResultCode.BOOK_BORROWED, borrowed.getCode());
+        Assertions.assertTrue(borrowed.getMessage().startsWith("Book borrowed successfully. Loan id: "));
+        Assertions.assertEquals(ResultCode.BOOK_ALREADY_BORROWED, again.getCode());
+        Assertions.assertEquals("Book is already borrowed", again.getMessage());
+        Assertions.assertEquals(ResultCode.EMAIL_NOT_FOUND, login.getCode());
+        Assertions.assertEquals("User with email nobody@example.com does not exist.", login.getMessage());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void legacyConstructor_shouldMapOntoTheFreeFormCodes() {
+        // when
+        Result success = new Result(true, "done");
+        Result failure = new Result(false, "nope");
+
+        // then
+        Assertions.assertEquals(ResultCode.SUCCESS, success.getCode());
+        Assertions.assertTrue(success.getSuccess());
+        Assertions.assertEquals("done", success.getMessage());
+        Assertions.assertEquals(ResultCode.FAILURE, failure.getCode());
+        Assertions.assertFalse(failure.getSuccess());
+        Assertions.assertEquals("nope", failure.getMessage());
+    }
+}
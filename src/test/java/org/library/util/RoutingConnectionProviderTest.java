@@ -0,0 +1,103 @@
+package org.library.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+public class RoutingConnectionProviderTest {
+
+    private final Connection primary = connection("primary");
+    private final Connection replicaA = connection("replica-a");
+    private final Connection replicaB = connection("replica-b");
+
+    private final RoutingConnectionProvider routing = new RoutingConnectionProvider(
+            operation -> primary,
+            List.of(operation -> replicaA, operation -> replicaB),
+            Duration.ofSeconds(2));
+
+    @Test
+    void getConnection_shouldRouteReadsToPrimaryUntilReplicasAreProbed() throws SQLException {
+        // when / then
+        Assertions.assertSame(primary, routing.getConnection(DbOperation.READ));
+        Assertions.assertSame(primary, routing.getConnection(DbOperation.WRITE));
+    }
+
+    @Test
+    void getConnection_shouldBalanceReadsAcrossHealthyReplicas() throws SQLException {
+        // given
+        routing.recordLag(0, 0);
+        routing.recordLag(1, 500);
+
+        // when
+        Connection first = routing.getConnection(DbOperation.READ);
+        Connection second = routing.getConnection(DbOperation.READ);
+
+        // then
+        Assertions.assertNotSame(first, second);
+        Assertions.assertTrue(List.of(replicaA, replicaB).containsAll(List.of(first, second)));
+        Assertions.assertSame(primary, routing.getConnection(DbOperation.WRITE));
+    }
+
+    @Test
+    void getConnection_shouldSkipReplicasBeyondLagBound() throws SQLException {
+        // given
+        routing.recordLag(0, 0);
+        routing.recordLag(1, 10_000);
+
+        // when / then
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertSame(replicaA, routing.getConnection(DbOperation.READ));
+        }
+
+        routing.recordLag(0, 3_000);
+        Assertions.assertSame(primary, routing.getConnection(DbOperation.READ));
+    }
+
+    @Test
+    void getConnection_shouldExcludeUnreachableReplica() throws SQLException {
+        // given
+        RoutingConnectionProvider routing = new RoutingConnectionProvider(
+                operation -> primary,
+                List.of(operation -> {
+                    throw new SQLException("connection refused");
+                }),
+                Duration.ofSeconds(2));
+        routing.recordLag(0, 0);
+
+        // when / then
+        Assertions.assertSame(primary, routing.getConnection(DbOperation.READ));
+        Assertions.assertFalse(routing.isUsable(0));
+    }
+
+    @Test
+    void readYourWrites_shouldStickToPrimaryWithinWindow() throws InterruptedException {
+        // given
+        ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofMillis(50));
+
+        // when
+        readYourWrites.recordWrite(1L);
+
+        // then
+        Assertions.assertTrue(readYourWrites.isSticky(1L));
+        Assertions.assertFalse(readYourWrites.isSticky(2L));
+        Thread.sleep(60);
+        Assertions.assertFalse(readYourWrites.isSticky(1L));
+    }
+
+    private static Connection connection(String name) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "toString" -> name;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}